@@ -0,0 +1,90 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.link.AdaptiveChain;
+import com.helluys.patterns.chain.link.ChainBuilder;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * Compares a compiled chain of mutually exclusive links to an
+ * {@link AdaptiveChain} of the same links, when 90% of the traffic is consumed
+ * by the last registered link.
+ *
+ * @author Helluys
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdaptiveChainBenchmark {
+
+	private static final int COMMANDS = 1024;
+
+	@State(Scope.Benchmark)
+	public static class Chain {
+		@Param({ "16", "64" })
+		int links;
+
+		@Param({ "false", "true" })
+		boolean adaptive;
+
+		Link<Integer> chain;
+		Integer[] commands;
+
+		@Setup
+		public void setup(final Blackhole blackhole) {
+			final List<Link<Integer>> exclusive = new ArrayList<>();
+			final ChainBuilder<Integer> builder = new ChainBuilder<>();
+			for (int i = 0; i < links; i++) {
+				final int key = i;
+				final Predicate<Integer> predicate = v -> v == key;
+				exclusive.add(Link.of(predicate, blackhole::consume));
+				builder.add(exclusive.get(i));
+			}
+			chain = adaptive ? new AdaptiveChain<>(exclusive) : builder.build();
+
+			final Random random = new Random(42L);
+			commands = new Integer[COMMANDS];
+			for (int i = 0; i < commands.length; i++) {
+				commands[i] = random.nextInt(10) == 0 ? random.nextInt(links) : links - 1;
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int index;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean process(final Chain chain, final Cursor cursor) {
+		return chain.chain.process(chain.commands[cursor.index++ & (COMMANDS - 1)]);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean processThreaded(final Chain chain, final Cursor cursor) {
+		return chain.chain.process(chain.commands[cursor.index++ & (COMMANDS - 1)]);
+	}
+}
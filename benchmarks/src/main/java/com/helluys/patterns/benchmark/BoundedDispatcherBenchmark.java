@@ -0,0 +1,70 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.dispatch.BoundedDispatcher;
+import com.helluys.patterns.chain.dispatch.OverloadPolicy;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.command.ErroneousCommand;
+
+/**
+ * Time to dispatch a command to a {@link BoundedDispatcher} whose single
+ * worker burns more CPU per command than the producer spends dispatching it,
+ * so that the queue stays full, for each {@link OverloadPolicy}. The sampled
+ * percentiles show the producer blocked or slowed down by the
+ * {@link OverloadPolicy#BLOCK} and {@link OverloadPolicy#CALLER_RUNS}
+ * policies, while the other policies shed the excess load.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundedDispatcherBenchmark {
+
+	@Param({ "BLOCK", "CALLER_RUNS", "DROP_NEWEST", "DROP_OLDEST", "DIVERT" })
+	private OverloadPolicy policy;
+
+	@Param({ "2000" })
+	private long tokens;
+
+	private final Command command = Command.of("source", "[A]payload");
+	private BoundedDispatcher<Command> dispatcher;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		final BoundedDispatcher.Builder<Command> builder = BoundedDispatcher.<Command> builder().threads(1)
+				.queueCapacity(256);
+		final EndLink<ErroneousCommand> rejections = blackhole::consume;
+		dispatcher = (policy == OverloadPolicy.DIVERT ? builder.divert(ErroneousCommand::new, rejections)
+				: builder.overload(policy)).build(EndLink.of(c -> Blackhole.consumeCPU(tokens)));
+	}
+
+	@TearDown
+	public void tearDown() {
+		dispatcher.close();
+	}
+
+	@Benchmark
+	public void dispatch() {
+		dispatcher.accept(command);
+	}
+}
@@ -0,0 +1,100 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.KeyPredicate;
+
+/**
+ * Cost of routing {@code source:payload} commands through a graph of eight key
+ * conditions on the source, each branch normalizing the payload with three
+ * mappers, as written and once optimized into a keyed node of fused mappers.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainGraphBenchmark {
+
+	private static final int SOURCES = 8;
+	private static final Function<String, String> SOURCE = command -> command.substring(0, command.indexOf(':'));
+
+	private String[] commands;
+	private Handler<String> handler;
+	private Handler<String> optimizedHandler;
+	private EndLink<String> endLink;
+	private EndLink<String> optimizedEndLink;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		commands = new String[SOURCES + 1];
+		for (int i = 0; i <= SOURCES; i++) {
+			commands[i] = "source" + i + ":  Some Command Payload  ";
+		}
+
+		GraphNode<String> graph = GraphNode.terminal(blackhole::consume);
+		for (int i = SOURCES - 1; i >= 0; i--) {
+			final String source = "source" + i;
+			final GraphNode<String> normalize = GraphNode.map(String::trim,
+					GraphNode.map((final String payload) -> payload.toLowerCase(),
+							GraphNode.map((final String payload) -> source + ":" + payload,
+									GraphNode.<String>terminal(blackhole::consume))));
+			graph = GraphNode.condition(KeyPredicate.in(SOURCE, Set.of(source)),
+					GraphNode.map(command -> command.substring(source.length() + 1), normalize), graph);
+		}
+
+		final GraphNode<String> optimized = graph.optimize().after();
+		handler = graph.toHandler();
+		optimizedHandler = optimized.toHandler();
+		endLink = graph.toEndLink();
+		optimizedEndLink = optimized.toEndLink();
+	}
+
+	/**
+	 * @return a command of any source, or of none of the routed sources
+	 */
+	private String command() {
+		return commands[ThreadLocalRandom.current().nextInt(commands.length)];
+	}
+
+	@Benchmark
+	public void handler() {
+		handler.handle(command());
+	}
+
+	@Benchmark
+	public void optimizedHandler() {
+		optimizedHandler.handle(command());
+	}
+
+	@Benchmark
+	public void endLink() {
+		endLink.accept(command());
+	}
+
+	@Benchmark
+	public void optimizedEndLink() {
+		optimizedEndLink.accept(command());
+	}
+}
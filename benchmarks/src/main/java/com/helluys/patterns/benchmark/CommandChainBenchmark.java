@@ -0,0 +1,117 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.handlers.CommandHandler;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+/**
+ * End-to-end throughput of the example {@link CommandChain} and
+ * {@link CommandHandler} on mixed text and JSON {@link Traffic}, on a single
+ * thread, with pooled command carriers, on several threads sharing the same
+ * chain, and for whole batches.
+ *
+ * @author Helluys
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandChainBenchmark {
+
+	private static final int BATCH = 1024;
+
+	@State(Scope.Benchmark)
+	public static class Chains {
+		Traffic traffic;
+		List<Command> batch;
+		CommandChain commandChain;
+		CommandChain pooledChain;
+		CommandHandler commandHandler;
+
+		private SilentOutput silentOutput;
+
+		@Setup
+		public void setup() {
+			silentOutput = SilentOutput.install();
+			traffic = new Traffic(BATCH, 42L);
+			batch = new ArrayList<>(BATCH);
+			for (int i = 0; i < BATCH; i++) {
+				batch.add(Command.of(traffic.source(i), traffic.payload(i)));
+			}
+			commandChain = new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES);
+			pooledChain = CommandChain.pooled(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES);
+			commandHandler = new CommandHandler();
+		}
+
+		@TearDown
+		public void tearDown() {
+			silentOutput.restore();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int index;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void commandChain(final Chains chains, final Cursor cursor) {
+		final int i = cursor.index++;
+		chains.commandChain.process(chains.traffic.source(i), chains.traffic.payload(i));
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void commandChainPooled(final Chains chains, final Cursor cursor) {
+		final int i = cursor.index++;
+		chains.pooledChain.process(chains.traffic.source(i), chains.traffic.payload(i));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void commandChainThreaded(final Chains chains, final Cursor cursor) {
+		final int i = cursor.index++;
+		chains.commandChain.process(chains.traffic.source(i), chains.traffic.payload(i));
+	}
+
+	@Benchmark
+	@Threads(1)
+	@OperationsPerInvocation(BATCH)
+	public void commandChainBatch(final Chains chains) {
+		chains.commandChain.processBatch(chains.batch);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void commandHandler(final Chains chains, final Cursor cursor) {
+		final int i = cursor.index++;
+		chains.commandHandler.handle(chains.traffic.source(i), chains.traffic.payload(i));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void commandHandlerThreaded(final Chains chains, final Cursor cursor) {
+		final int i = cursor.index++;
+		chains.commandHandler.handle(chains.traffic.source(i), chains.traffic.payload(i));
+	}
+}
@@ -0,0 +1,72 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.EnumLink;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * Measures {@link EnumLink#process} depending on the number of mapped routes.
+ * Commands cycle over all the enumerated values, so that unmapped values
+ * account for the misses. The mutable {@link EnumLink} is compared to its
+ * {@link EnumLink#build() built} ordinal-indexed form.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumLinkBenchmark {
+
+	public enum Route {
+		R0, R1, R2, R3, R4, R5, R6, R7, R8, R9, R10, R11, R12, R13, R14, R15
+	}
+
+	private static final Route[] ROUTES = Route.values();
+
+	@Param({ "1", "4", "16" })
+	private int routes;
+
+	@Param({ "false", "true" })
+	private boolean built;
+
+	private Link<Integer> link;
+	private Integer[] commands;
+	private int index;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		final EnumLink<Integer, Route> enumLink = new EnumLink<>(i -> ROUTES[i]);
+		for (int i = 0; i < routes; i++) {
+			enumLink.with(ROUTES[i], EndLink.of(blackhole::consume));
+		}
+		link = built ? enumLink.build() : enumLink;
+
+		commands = new Integer[ROUTES.length];
+		for (int i = 0; i < commands.length; i++) {
+			commands[i] = i;
+		}
+	}
+
+	@Benchmark
+	public boolean process() {
+		return link.process(commands[index++ & (ROUTES.length - 1)]);
+	}
+}
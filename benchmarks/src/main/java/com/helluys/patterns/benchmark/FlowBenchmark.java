@@ -0,0 +1,111 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.flow.EitherProcessor;
+import com.helluys.patterns.chain.flow.LinkSubscriber;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.common.Either;
+
+/**
+ * Cost per command of publishing {@value #COMMANDS} commands to an end link
+ * through a {@link LinkSubscriber} requesting {@code batchSize} commands at
+ * once, through an {@link EitherProcessor} splitting them in two, and with
+ * {@link SubmissionPublisher#consume} as a baseline requesting commands
+ * unbounded.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowBenchmark {
+
+	private static final int COMMANDS = 10_000;
+
+	@Param({ "1", "16", "256" })
+	private int batchSize;
+
+	private ExecutorService executor;
+	private EndLink<Integer> endLink;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		executor = Executors.newFixedThreadPool(2);
+		endLink = blackhole::consume;
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COMMANDS)
+	public void consume() {
+		try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(executor, batchSize)) {
+			final var completion = publisher.consume(endLink);
+			publish(publisher);
+			publisher.close();
+			completion.join();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COMMANDS)
+	public void subscriber() {
+		final LinkSubscriber<Integer> subscriber = LinkSubscriber.<Integer>builder().batchSize(batchSize)
+				.executor(executor).build(endLink);
+		try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(executor, batchSize)) {
+			publisher.subscribe(subscriber);
+			publish(publisher);
+		}
+		subscriber.completion().toCompletableFuture().join();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COMMANDS)
+	public void processor() {
+		final EitherProcessor<Integer, Integer, Integer> processor = EitherProcessor
+				.of(i -> (i & 1) == 0 ? Either.ofRight(i) : Either.ofLeft(i), batchSize);
+		final LinkSubscriber<Integer> left = LinkSubscriber.<Integer>builder().batchSize(batchSize)
+				.executor(Runnable::run).build(endLink);
+		final LinkSubscriber<Integer> right = LinkSubscriber.<Integer>builder().batchSize(batchSize)
+				.executor(Runnable::run).build(endLink);
+		processor.left().subscribe(left);
+		processor.subscribe(right);
+		try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(executor, batchSize)) {
+			publisher.subscribe(processor);
+			publish(publisher);
+		}
+		left.completion().toCompletableFuture().join();
+		right.completion().toCompletableFuture().join();
+	}
+
+	private static void publish(final SubmissionPublisher<Integer> publisher) {
+		for (int i = 0; i < COMMANDS; i++) {
+			publisher.submit(i);
+		}
+	}
+}
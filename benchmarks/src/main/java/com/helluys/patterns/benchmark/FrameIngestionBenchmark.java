@@ -0,0 +1,104 @@
+package com.helluys.patterns.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.chain.io.FrameReader;
+import com.helluys.patterns.example.chain.command.ByteCommand;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+/**
+ * Cost of ingesting length-prefixed command frames from a channel into the
+ * example {@link CommandChain}, decoding every frame to strings before
+ * processing, compared to processing {@link ByteCommand}s routed on the source
+ * bytes, on the mixed {@link Traffic} and on traffic from unknown sources with
+ * larger payloads.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameIngestionBenchmark {
+
+	private static final int FRAMES = 1024;
+	private static final int MAX_FRAME_LENGTH = 1 << 20;
+
+	@Param({ "mixed", "unknown" })
+	public String traffic;
+
+	private byte[] frames;
+	private CommandChain chain;
+	private CommandChain pooledChain;
+	private SilentOutput silentOutput;
+
+	@Setup
+	public void setup() {
+		silentOutput = SilentOutput.install();
+		final Traffic commands = new Traffic(FRAMES, 42L);
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		for (int i = 0; i < FRAMES; i++) {
+			final ByteBuffer frame = "mixed".equals(traffic)
+					? ByteCommand.frame(commands.source(i), commands.payload(i))
+					: ByteCommand.frame("unknown", commands.payload(i).repeat(16));
+			stream.writeBytes(FrameReader.prefixed(frame).array());
+		}
+		frames = stream.toByteArray();
+		chain = new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES);
+		pooledChain = CommandChain.pooled(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES);
+	}
+
+	@TearDown
+	public void tearDown() {
+		silentOutput.restore();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public long decoded() throws IOException {
+		return new FrameReader(Channels.newChannel(new ByteArrayInputStream(frames)), MAX_FRAME_LENGTH)
+				.readAll(frame -> {
+					final int sourceLength = Short.toUnsignedInt(frame.getShort());
+					final byte[] source = new byte[sourceLength];
+					frame.get(source);
+					final byte[] payload = new byte[frame.remaining()];
+					frame.get(payload);
+					chain.process(new String(source, UTF_8), new String(payload, UTF_8));
+				});
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public long byteCommands() throws IOException {
+		return chain.ingest(Channels.newChannel(new ByteArrayInputStream(frames)));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public long byteCommandsPooled() throws IOException {
+		return pooledChain.ingest(Channels.newChannel(new ByteArrayInputStream(frames)));
+	}
+}
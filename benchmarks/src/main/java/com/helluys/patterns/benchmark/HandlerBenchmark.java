@@ -0,0 +1,100 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.common.Either;
+
+/**
+ * Measures each {@link Handler} composition style on its own, with a terminal
+ * handler consuming into a {@link Blackhole}.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerBenchmark {
+
+	public enum Parity {
+		EVEN, ODD
+	}
+
+	private static final int COMMANDS = 1024;
+
+	private Handler<Integer> terminal;
+	private Handler<Integer> condition;
+	private Handler<Integer> map;
+	private Handler<Integer> fan;
+	private Handler<Integer> either;
+
+	private Integer[] commands;
+	private int index;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		terminal = Handler.terminal(blackhole::consume);
+
+		condition = Handler.condition(v -> (v & 1) == 0, terminal, terminal);
+
+		map = Handler.map(v -> v + 1, terminal);
+
+		final EnumMap<Parity, Handler<Integer>> parities = new EnumMap<>(Parity.class);
+		parities.put(Parity.EVEN, terminal);
+		parities.put(Parity.ODD, terminal);
+		fan = Handler.fan(v -> (v & 1) == 0 ? Parity.EVEN : Parity.ODD, parities);
+
+		either = Handler.map(v -> (v & 1) == 0 ? Either.<Integer, Integer> ofLeft(v) : Either.ofRight(v),
+				Handler.either(terminal, terminal));
+
+		commands = new Integer[COMMANDS];
+		for (int i = 0; i < commands.length; i++) {
+			commands[i] = i;
+		}
+	}
+
+	@Benchmark
+	public void terminal() {
+		terminal.handle(next());
+	}
+
+	@Benchmark
+	public void condition() {
+		condition.handle(next());
+	}
+
+	@Benchmark
+	public void map() {
+		map.handle(next());
+	}
+
+	@Benchmark
+	public void fan() {
+		fan.handle(next());
+	}
+
+	@Benchmark
+	public void either() {
+		either.handle(next());
+	}
+
+	private Integer next() {
+		return commands[index++ & (COMMANDS - 1)];
+	}
+}
@@ -0,0 +1,95 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.chain.metrics.Instrumentation;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+/**
+ * Overhead of {@link Instrumentation} on a single link and on the whole
+ * example {@link CommandChain}: not instrumented, instrumented with
+ * {@link Link#instrumented} while the global instrumentation is disabled, and
+ * instrumented with an enabled instrumentation.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+	private final String[] values = { "", "value" };
+	private final Traffic traffic = new Traffic(1024, 42L);
+	private int index;
+
+	private Link<String> link;
+	private Link<String> disabledLink;
+	private Link<String> enabledLink;
+	private CommandChain chain;
+	private CommandChain enabledChain;
+	private Instrumentation instrumentation;
+	private SilentOutput silentOutput;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		silentOutput = SilentOutput.install();
+		instrumentation = Instrumentation.enabled("benchmark");
+		final Predicate<String> empty = String::isEmpty;
+		link = Link.of(empty, blackhole::consume);
+		disabledLink = Link.instrumented("link", Link.of(empty, blackhole::consume));
+		enabledLink = instrumentation.link("link", Link.of(empty, blackhole::consume));
+		chain = new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES);
+		enabledChain = new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES, instrumentation);
+	}
+
+	@TearDown
+	public void tearDown() {
+		instrumentation.close();
+		silentOutput.restore();
+	}
+
+	@Benchmark
+	public boolean link() {
+		return link.process(values[index++ & 1]);
+	}
+
+	@Benchmark
+	public boolean linkDisabled() {
+		return disabledLink.process(values[index++ & 1]);
+	}
+
+	@Benchmark
+	public boolean linkEnabled() {
+		return enabledLink.process(values[index++ & 1]);
+	}
+
+	@Benchmark
+	public void chain() {
+		final int i = index++;
+		chain.process(traffic.source(i), traffic.payload(i));
+	}
+
+	@Benchmark
+	public void chainEnabled() {
+		final int i = index++;
+		enabledChain.process(traffic.source(i), traffic.payload(i));
+	}
+}
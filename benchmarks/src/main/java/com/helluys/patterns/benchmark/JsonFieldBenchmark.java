@@ -0,0 +1,75 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.example.chain.processors.JsonFieldExtractor;
+
+/**
+ * Cost of reading the {@code name} and {@code text} fields of a JSON command
+ * payload with org.json compared to the streaming {@link JsonFieldExtractor},
+ * on a small payload and on a 100 KB payload whose fields come first or last.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonFieldBenchmark {
+
+	private static final String FIELDS = "\"name\":\"A\",\"text\":\"payload\"";
+
+	@Param({ "small", "large-first", "large-last" })
+	private String payloadShape;
+
+	private final JsonFieldExtractor extractor = new JsonFieldExtractor("name", "text");
+	private final String[] values = new String[2];
+	private String payload;
+
+	@Setup
+	public void setup() {
+		if (payloadShape.equals("small")) {
+			payload = "{" + FIELDS + "}";
+			return;
+		}
+
+		final StringBuilder padding = new StringBuilder("\"padding\":[");
+		for (int i = 0; padding.length() < 100 * 1024; i++) {
+			padding.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"label\":\"item ").append(i)
+					.append("\",\"tags\":[\"a\",\"b\"],\"ratio\":0.").append(i).append('}');
+		}
+		padding.append(']');
+		payload = payloadShape.equals("large-first") ? "{" + FIELDS + "," + padding + "}"
+				: "{" + padding + "," + FIELDS + "}";
+	}
+
+	@Benchmark
+	public void orgJson(final Blackhole blackhole) {
+		final JSONObject json = new JSONObject(payload);
+		blackhole.consume(json.getString("name"));
+		blackhole.consume(json.getString("text"));
+	}
+
+	@Benchmark
+	public void extractor(final Blackhole blackhole) {
+		blackhole.consume(extractor.extract(payload, values));
+		blackhole.consume(values[0]);
+		blackhole.consume(values[1]);
+	}
+}
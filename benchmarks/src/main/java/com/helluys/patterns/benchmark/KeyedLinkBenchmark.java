@@ -0,0 +1,73 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.link.ChainBuilder;
+import com.helluys.patterns.chain.link.KeyPredicate;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.example.chain.command.Command;
+
+/**
+ * Measures routing on the command source across a number of source families,
+ * each family being a link over a {@link KeyPredicate}. The linear chain is
+ * compared to the same chain {@link ChainBuilder#mergeKeyed() merged} into a
+ * single keyed link.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyedLinkBenchmark {
+
+	private static final int COMMANDS = 1024;
+
+	@Param({ "2", "8", "32" })
+	private int families;
+
+	@Param({ "false", "true" })
+	private boolean merged;
+
+	private Link<Command> link;
+	private Command[] commands;
+	private int index;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		final Function<Command, String> source = Command::source;
+		final ChainBuilder<Command> builder = new ChainBuilder<>();
+		for (int i = 0; i < families; i++) {
+			builder.add(Link.of(KeyPredicate.in(source, Set.of("family" + i + "a", "family" + i + "b")),
+					blackhole::consume));
+		}
+		link = merged ? builder.mergeKeyed().build() : builder.build();
+
+		commands = new Command[COMMANDS];
+		for (int i = 0; i < commands.length; i++) {
+			commands[i] = Command.of("family" + i % families + (i % 2 == 0 ? "a" : "b"), "payload");
+		}
+	}
+
+	@Benchmark
+	public boolean process() {
+		return link.process(commands[index++ & (COMMANDS - 1)]);
+	}
+}
@@ -0,0 +1,80 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * Measures the cost of a {@link Link#chain} depending on the chain depth, for
+ * a command consumed by the first link, by the last link, or by none. The
+ * nested chain is compared to its {@link Link#compile() compiled} flat form.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkChainBenchmark {
+
+	@Param({ "1", "10", "100", "1000", "10000" })
+	private int depth;
+
+	@Param({ "false", "true" })
+	private boolean compiled;
+
+	private Link<Integer> chain;
+
+	private Integer first;
+	private Integer last;
+	private Integer miss;
+
+	@Setup
+	public void setup() {
+		Link<Integer> link = keyLink(0);
+		for (int i = 1; i < depth; i++) {
+			link = link.chain(keyLink(i));
+		}
+		chain = compiled ? link.compile() : link;
+
+		first = 0;
+		last = depth - 1;
+		miss = -1;
+	}
+
+	@Benchmark
+	public boolean hitFirst() {
+		return chain.process(first);
+	}
+
+	@Benchmark
+	public boolean hitLast() {
+		return chain.process(last);
+	}
+
+	@Benchmark
+	public boolean miss() {
+		return chain.process(miss);
+	}
+
+	private static Link<Integer> keyLink(final int key) {
+		final Predicate<Integer> predicate = v -> v == key;
+		return Link.of(predicate, v -> {
+		});
+	}
+}
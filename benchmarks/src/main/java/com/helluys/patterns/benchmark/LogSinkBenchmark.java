@@ -0,0 +1,91 @@
+package com.helluys.patterns.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.chain.io.AsyncLogSink;
+
+/**
+ * Cost of logging a line to a file, by one and four threads, the way the
+ * example {@code LoggerLink} does with an auto-flushing {@link PrintStream}
+ * like {@link System#out}, compared to an {@link AsyncLogSink}.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogSinkBenchmark {
+
+	private static final String PREFIX = "A : ";
+	private static final String TEXT = "some command payload";
+
+	private Path printFile;
+	private Path sinkFile;
+	private PrintStream printStream;
+	private FileChannel channel;
+	private AsyncLogSink sink;
+
+	@Setup
+	public void setup() throws IOException {
+		printFile = Files.createTempFile("print", ".log");
+		sinkFile = Files.createTempFile("sink", ".log");
+		printStream = new PrintStream(new BufferedOutputStream(new FileOutputStream(printFile.toFile()), 128), true);
+		channel = FileChannel.open(sinkFile, StandardOpenOption.WRITE);
+		sink = AsyncLogSink.builder().build(channel);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		sink.close();
+		channel.close();
+		printStream.close();
+		Files.delete(printFile);
+		Files.delete(sinkFile);
+	}
+
+	@Benchmark
+	public void println() {
+		printStream.println(PREFIX + "'" + TEXT + "'");
+	}
+
+	@Benchmark
+	public void sink() {
+		sink.log(PREFIX, TEXT);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void printlnThreads() {
+		printStream.println(PREFIX + "'" + TEXT + "'");
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void sinkThreads() {
+		sink.log(PREFIX, TEXT);
+	}
+}
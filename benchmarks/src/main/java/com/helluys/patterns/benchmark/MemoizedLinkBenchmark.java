@@ -0,0 +1,127 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.cache.CacheSpec;
+import com.helluys.patterns.chain.cache.Eviction;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.command.CommandKey;
+import com.helluys.patterns.example.chain.command.ErroneousCommand;
+import com.helluys.patterns.example.chain.command.NamedCommand;
+import com.helluys.patterns.example.chain.processors.JsonParser;
+
+/**
+ * Cost of parsing JSON payloads drawn from a set of {@code distinct} payloads,
+ * directly and through memoized links caching at most 1000 parsed payloads,
+ * by one and four threads. With more distinct payloads than cached, the hit
+ * ratio depends on the eviction policy.
+ * <p>
+ * The parser benchmarks parse a new command per call with
+ * {@link JsonParser#parse}, directly and through a link caching the parsed
+ * commands by {@link CommandKey}, source and payload.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoizedLinkBenchmark {
+
+	private static final Function<String, String> PARSE = payload -> new JSONObject(payload).getString("name");
+
+	@Param({ "100", "10000" })
+	private int distinct;
+
+	private String[] payloads;
+	private EndLink<String> plain;
+	private EndLink<String> lru;
+	private EndLink<String> frequency;
+	private EndLink<Command> parser;
+	private EndLink<Command> memoizedParser;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		payloads = new String[distinct];
+		for (int i = 0; i < distinct; i++) {
+			payloads[i] = "{\"name\":\"N" + i + "\",\"text\":\"some command payload\",\"retries\":3}";
+		}
+		final EndLink<String> consumer = blackhole::consume;
+		plain = Link.of(PARSE, consumer);
+		lru = Link.memoized(PARSE, CacheSpec.lru(1000), consumer);
+		frequency = Link.memoized(PARSE,
+				CacheSpec.builder().eviction(Eviction.FREQUENCY).maximumSize(1000).build(), consumer);
+
+		final EndLink<Either<ErroneousCommand, NamedCommand>> parsed = blackhole::consume;
+		parser = Link.of(JsonParser::parse, parsed);
+		memoizedParser = Link.memoized(CommandKey::of, JsonParser::parse, CacheSpec.lru(1000), parsed);
+	}
+
+	/**
+	 * @return a payload, the first tenth of the payloads being drawn half the
+	 *         time
+	 */
+	private String payload() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		return payloads[random.nextInt(random.nextBoolean() ? Math.max(1, distinct / 10) : distinct)];
+	}
+
+	@Benchmark
+	public void plain() {
+		plain.accept(payload());
+	}
+
+	@Benchmark
+	public void lru() {
+		lru.accept(payload());
+	}
+
+	@Benchmark
+	public void frequency() {
+		frequency.accept(payload());
+	}
+
+	@Benchmark
+	public void parser() {
+		parser.accept(Command.of("json", payload()));
+	}
+
+	@Benchmark
+	public void memoizedParser() {
+		memoizedParser.accept(Command.of("json", payload()));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void lruThreads() {
+		lru.accept(payload());
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void frequencyThreads() {
+		frequency.accept(payload());
+	}
+}
@@ -0,0 +1,95 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.dispatch.PartitionedDispatcher;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.example.chain.command.Command;
+
+/**
+ * Throughput of a burst of commands from {@value #SOURCES} sources, whose
+ * processing burns a fixed amount of CPU, on the calling thread compared to a
+ * {@link PartitionedDispatcher} keyed on the command source.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionedDispatcherBenchmark {
+
+	private static final int SOURCES = 64;
+	private static final int BURST = 4096;
+
+	@Param({ "1", "2", "4", "8" })
+	private int lanes;
+
+	@Param({ "false", "true" })
+	private boolean rebalancing;
+
+	@Param({ "500" })
+	private long tokens;
+
+	private Command[] commands;
+	private PartitionedDispatcher<Command> dispatcher;
+	private volatile CountDownLatch latch;
+
+	@Setup
+	public void setup() {
+		commands = new Command[BURST];
+		for (int i = 0; i < BURST; i++) {
+			commands[i] = Command.of("source" + i % SOURCES, "[A]payload" + i);
+		}
+		final PartitionedDispatcher.Builder<Command> builder = PartitionedDispatcher
+				.<Command> builder(Command::source).lanes(lanes);
+		dispatcher = (rebalancing ? builder.rebalanceEvery(BURST) : builder).build(EndLink.of(this::process));
+	}
+
+	@TearDown
+	public void tearDown() {
+		dispatcher.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public void callingThread() {
+		latch = new CountDownLatch(BURST);
+		for (final Command command : commands) {
+			process(command);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public void partitioned() throws InterruptedException {
+		latch = new CountDownLatch(BURST);
+		for (final Command command : commands) {
+			dispatcher.process(command);
+		}
+		latch.await();
+	}
+
+	private void process(final Command command) {
+		Blackhole.consumeCPU(tokens);
+		latch.countDown();
+	}
+}
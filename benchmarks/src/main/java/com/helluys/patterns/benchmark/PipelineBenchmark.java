@@ -0,0 +1,75 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.chain.dispatch.Pipeline;
+import com.helluys.patterns.chain.dispatch.WaitStrategy;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+/**
+ * Throughput of the example {@link CommandChain} on mixed text and JSON
+ * {@link Traffic}, with parsing and dispatching on the calling thread compared
+ * to a {@link Pipeline} of stages. The pipelined throughput is the rate at
+ * which the caller can feed the entry stage: once the ring buffers are full, it
+ * is bound by the slowest stage.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+	@Param({ "BUSY_SPIN", "YIELD", "PARK" })
+	private WaitStrategy waitStrategy;
+
+	private Traffic traffic;
+	private CommandChain direct;
+	private CommandChain pipelined;
+	private SilentOutput silentOutput;
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		silentOutput = SilentOutput.install();
+		traffic = new Traffic(1024, 42L);
+		direct = new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES);
+		pipelined = new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES,
+				Pipeline.builder().waitStrategy(waitStrategy));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pipelined.close();
+		silentOutput.restore();
+	}
+
+	@Benchmark
+	public void direct() {
+		final int i = index++;
+		direct.process(traffic.source(i), traffic.payload(i));
+	}
+
+	@Benchmark
+	public void pipelined() {
+		final int i = index++;
+		pipelined.process(traffic.source(i), traffic.payload(i));
+	}
+}
@@ -0,0 +1,107 @@
+package com.helluys.patterns.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.chain.remote.ChainServer;
+import com.helluys.patterns.chain.remote.RemoteEndLink;
+import com.helluys.patterns.chain.remote.RemoteLink;
+import com.helluys.patterns.example.chain.command.ByteCommand;
+import com.helluys.patterns.example.chain.command.Command;
+
+/**
+ * Cost per command of processing commands with a chain hosted by a
+ * {@link ChainServer} over loopback: one command at a time by one and four
+ * threads, in pipelined batches of {@value #BATCH} commands, and through an
+ * end link not waiting for the results. Connections linger
+ * {@code lingerMicros} for more requests before writing a batch.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoteLinkBenchmark {
+
+	private static final int BATCH = 64;
+
+	@Param({ "0", "100" })
+	private int lingerMicros;
+
+	private ChainServer<Command> server;
+	private RemoteLink<Command> link;
+	private RemoteEndLink<Command> endLink;
+	private Command command;
+	private List<Command> batch;
+
+	@Setup
+	public void setup() throws IOException {
+		final Link<Command> hosted = command -> command.source().equals("A");
+		server = ChainServer.<Command>builder()
+				.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), ByteCommand::new, hosted);
+
+		final RemoteLink.Builder<Command> builder = RemoteLink.<Command>builder().connections(4)
+				.linger(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(lingerMicros)));
+		link = builder.build(server.address(), c -> ByteCommand.frame(c.source(), c.payload()));
+		endLink = builder.buildEndLink(server.address(), c -> ByteCommand.frame(c.source(), c.payload()));
+
+		command = Command.of("A", "{\"name\":\"some command\",\"retries\":3}");
+		batch = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			batch.add(command);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		endLink.close();
+		link.close();
+		server.close();
+	}
+
+	@Benchmark
+	public boolean process() {
+		return link.process(command);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean processThreads() {
+		return link.process(command);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public Object processBatch() {
+		return link.processBatch(batch);
+	}
+
+	@Benchmark
+	public void endLink() {
+		endLink.accept(command);
+	}
+}
@@ -0,0 +1,132 @@
+package com.helluys.patterns.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.example.chain.link.ChainReplayer;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+/**
+ * Throughput of replaying a generated file of {@code source<TAB>payload}
+ * {@link Traffic} lines through the example {@link CommandChain}, read line by
+ * line with a {@link BufferedReader}, compared to the memory-mapped
+ * {@link ChainReplayer} on a single thread and on all the available
+ * processors. The {@code read} benchmarks only read the lines, to a
+ * {@link Blackhole} rather than through the chain.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayBenchmark {
+
+	private static final int LINES = 1 << 20;
+
+	private Path file;
+	private CommandChain chain;
+	private ChainReplayer serial;
+	private ChainReplayer parallel;
+	private ChainReplayer read;
+	private Blackhole blackhole;
+	private SilentOutput silentOutput;
+
+	@Setup
+	public void setup(final Blackhole blackhole) throws IOException {
+		this.blackhole = blackhole;
+		silentOutput = SilentOutput.install();
+		final Traffic traffic = new Traffic(LINES, 42L);
+		file = Files.createTempFile("replay", ".tsv");
+		try (BufferedWriter writer = Files.newBufferedWriter(file, UTF_8)) {
+			for (int i = 0; i < LINES; i++) {
+				writer.append(traffic.source(i)).append('\t').append(traffic.payload(i)).append('\n');
+			}
+		}
+		chain = new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES);
+		serial = ChainReplayer.builder().threads(1).build(chain::process);
+		parallel = ChainReplayer.builder().build(chain::process);
+		read = ChainReplayer.builder().threads(1).build(this::consume);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		silentOutput.restore();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public long bufferedReader() throws IOException {
+		long records = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final int tab = line.indexOf('\t');
+				chain.process(line.substring(0, tab), line.substring(tab + 1));
+				records++;
+			}
+		}
+		return records;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public long readBufferedReader() throws IOException {
+		long records = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final int tab = line.indexOf('\t');
+				consume(line.substring(0, tab), line.substring(tab + 1));
+				records++;
+			}
+		}
+		return records;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public long readMapped() throws IOException {
+		return read.replay(file).records();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public long mappedSerial() throws IOException {
+		return serial.replay(file).records();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public long mappedParallel() throws IOException {
+		return parallel.replay(file).records();
+	}
+
+	private void consume(final String source, final String payload) {
+		blackhole.consume(source);
+		blackhole.consume(payload);
+	}
+}
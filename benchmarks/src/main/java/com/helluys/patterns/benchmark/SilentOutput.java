@@ -0,0 +1,37 @@
+package com.helluys.patterns.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Redirects {@link System#out} to a discarding stream, so that the example
+ * chains logging does not flood the benchmark output.
+ *
+ * @author Helluys
+ */
+final class SilentOutput {
+
+	private final PrintStream original;
+
+	private SilentOutput(final PrintStream original) {
+		this.original = original;
+	}
+
+	/**
+	 * Silences {@link System#out} until {@link #restore} is called.
+	 *
+	 * @return the silenced output handle
+	 */
+	static SilentOutput install() {
+		final SilentOutput silentOutput = new SilentOutput(System.out);
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		return silentOutput;
+	}
+
+	/**
+	 * Restores the original {@link System#out}.
+	 */
+	void restore() {
+		System.setOut(original);
+	}
+}
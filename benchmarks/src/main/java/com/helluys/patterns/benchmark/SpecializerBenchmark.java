@@ -0,0 +1,116 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.EnumLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.command.CommandA;
+import com.helluys.patterns.example.chain.command.CommandB;
+import com.helluys.patterns.example.chain.command.CommandC;
+import com.helluys.patterns.example.chain.command.CommandType;
+import com.helluys.patterns.example.chain.command.ErroneousCommand;
+import com.helluys.patterns.example.chain.command.NamedCommand;
+import com.helluys.patterns.example.chain.command.TypedCommand;
+import com.helluys.patterns.example.chain.processors.JsonParser;
+import com.helluys.patterns.example.chain.processors.TextParser;
+
+/**
+ * Compares generic chain graphs to their {@link ChainSpecializer specialized}
+ * form: the example command route on mixed {@link Traffic}, as an
+ * {@link EndLink} and as a {@link Handler}.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecializerBenchmark {
+
+	@Param({ "false", "true" })
+	private boolean specialized;
+
+	private Traffic traffic;
+	private EndLink<Command> endLink;
+	private Handler<Command> handler;
+	private int index;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		traffic = new Traffic(1024, 42L);
+
+		final EndLink<Command> genericEndLink = endLink(blackhole);
+		final Handler<Command> genericHandler = handler(blackhole);
+
+		endLink = specialized ? ChainSpecializer.specialize(genericEndLink) : genericEndLink;
+		handler = specialized ? ChainSpecializer.specialize(genericHandler) : genericHandler;
+	}
+
+	@Benchmark
+	public void endLink() {
+		final int i = index++;
+		endLink.process(Command.of(traffic.source(i), traffic.payload(i)));
+	}
+
+	@Benchmark
+	public void handler() {
+		final int i = index++;
+		handler.handle(Command.of(traffic.source(i), traffic.payload(i)));
+	}
+
+	private static EndLink<Command> endLink(final Blackhole blackhole) {
+		final TextParser textParser = new TextParser(Traffic.TEXT_SOURCES);
+		final JsonParser jsonParser = new JsonParser(Traffic.JSON_SOURCES);
+		final EndLink<String> sink = EndLink.of(blackhole::consume);
+
+		final EndLink<ErroneousCommand> erroneous = Link.of(ErroneousCommand::error, sink);
+		final EndLink<NamedCommand> typed = new EnumLink<NamedCommand, CommandType>(CommandType::from)
+				.with(CommandType.A, Link.of(CommandA::new, Link.of(NamedCommand::text, sink)))
+				.with(CommandType.B, Link.of(CommandB::new, Link.of(NamedCommand::text, sink)))
+				.with(CommandType.C, Link.of(CommandC::new, Link.of(NamedCommand::text, sink)))
+				.otherwise(Link.of(NamedCommand::name, sink));
+
+		return Link.<Command> of(textParser::isText, Link.of(TextParser::parse, erroneous, typed))
+				.chain(Link.of(jsonParser::isJson, Link.of(JsonParser::parse, erroneous, typed)))
+				.chain(Link.of(Command::source, sink));
+	}
+
+	private static Handler<Command> handler(final Blackhole blackhole) {
+		final TextParser textParser = new TextParser(Traffic.TEXT_SOURCES);
+		final JsonParser jsonParser = new JsonParser(Traffic.JSON_SOURCES);
+		final Handler<String> sink = Handler.terminal(blackhole::consume);
+
+		final Handler<ErroneousCommand> erroneous = Handler.map(ErroneousCommand::error, sink);
+		final EnumMap<CommandType, Handler<NamedCommand>> types = new EnumMap<>(CommandType.class);
+		types.put(CommandType.A, Handler.map(CommandA::new, Handler.map(TypedCommand::text, sink)));
+		types.put(CommandType.B, Handler.map(CommandB::new, Handler.map(TypedCommand::text, sink)));
+		types.put(CommandType.C, Handler.map(CommandC::new, Handler.map(TypedCommand::text, sink)));
+		final Handler<NamedCommand> typed = Handler.condition(c -> CommandType.from(c) != null,
+				Handler.fan(CommandType::from, types), Handler.map(NamedCommand::name, sink));
+
+		return Handler.condition(textParser::isText,
+				Handler.map(TextParser::parse, Handler.either(erroneous, typed)),
+				Handler.condition(jsonParser::isJson, Handler.map(JsonParser::parse, Handler.either(erroneous, typed)),
+						Handler.map(Command::source, sink)));
+	}
+}
@@ -0,0 +1,61 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
+import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.processors.TextParser;
+
+/**
+ * Cost of routing a parsed text command to a left or right end link, with the
+ * parser returning an {@link Either} compared to a {@link Splitter} passing
+ * the parsed command directly on. Run with {@code -prof gc} to compare the
+ * allocation rates.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark {
+
+	private final Command[] commands = { Command.of("text1", "[A]payload"), Command.of("text1", "(A)payload") };
+
+	private EndLink<Command> either;
+	private EndLink<Command> split;
+	private int index;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		either = Link.of(TextParser::parse, EndLink.of(blackhole::consume), EndLink.of(blackhole::consume));
+		split = Link.split(TextParser::split, EndLink.of(blackhole::consume), EndLink.of(blackhole::consume));
+	}
+
+	@Benchmark
+	public void either() {
+		either.accept(commands[index++ & 1]);
+	}
+
+	@Benchmark
+	public void split() {
+		split.accept(commands[index++ & 1]);
+	}
+}
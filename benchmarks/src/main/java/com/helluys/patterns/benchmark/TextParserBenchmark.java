@@ -0,0 +1,63 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.helluys.patterns.example.chain.processors.TextParser;
+
+/**
+ * Cost of parsing a valid and an invalid {@code [NAME]text} payload with the
+ * regular expression {@link TextParser} used to run, compared to its scanner,
+ * with and without extracting the name and text strings.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextParserBenchmark {
+
+	private static final Pattern TEXT_PATTERN = Pattern.compile("\\[([A-Z]*)](.*)");
+
+	private final String[] payloads = { "[A]some command payload", "(A)some command payload" };
+	private int index;
+
+	@Benchmark
+	public void regex(final Blackhole blackhole) {
+		final Matcher matcher = TEXT_PATTERN.matcher(payloads[index++ & 1]);
+		if (matcher.matches()) {
+			blackhole.consume(matcher.group(1));
+			blackhole.consume(matcher.group(2));
+		}
+	}
+
+	@Benchmark
+	public void scanner(final Blackhole blackhole) {
+		final String payload = payloads[index++ & 1];
+		final int end = TextParser.scan(payload);
+		if (end >= 0) {
+			blackhole.consume(payload.substring(1, end));
+			blackhole.consume(payload.substring(end + 1));
+		}
+	}
+
+	@Benchmark
+	public void scannerOffsets(final Blackhole blackhole) {
+		blackhole.consume(TextParser.scan(payloads[index++ & 1]));
+	}
+}
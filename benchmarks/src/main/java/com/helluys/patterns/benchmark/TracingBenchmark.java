@@ -0,0 +1,76 @@
+package com.helluys.patterns.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.chain.trace.LinkVisitEvent;
+import com.helluys.patterns.chain.trace.Tracer;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+import jdk.jfr.Recording;
+
+/**
+ * Cost of {@link Tracer} on the example {@link CommandChain} on mixed
+ * {@link Traffic}, without tracing, traced without sampling, and traced with a
+ * sampling rate while a Flight Recorder recording enables the events.
+ *
+ * @author Helluys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracingBenchmark {
+
+	/**
+	 * The sampling rate, negative for no tracing.
+	 */
+	@Param({ "-1", "0", "0.01", "1" })
+	public double samplingRate;
+
+	private final Traffic traffic = new Traffic(1024, 42L);
+	private int index;
+
+	private CommandChain chain;
+	private Recording recording;
+	private SilentOutput silentOutput;
+
+	@Setup
+	public void setup() {
+		silentOutput = SilentOutput.install();
+		chain = samplingRate < 0 ? new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES)
+				: new CommandChain(Traffic.TEXT_SOURCES, Traffic.JSON_SOURCES, new Tracer(samplingRate));
+		recording = new Recording();
+		recording.enable(LinkVisitEvent.NAME).withThreshold(Duration.ZERO);
+		recording.setToDisk(false);
+		recording.setMaxSize(16 << 20);
+		recording.start();
+	}
+
+	@TearDown
+	public void tearDown() {
+		recording.close();
+		silentOutput.restore();
+	}
+
+	@Benchmark
+	public void chain() {
+		final int i = index++;
+		chain.process(traffic.source(i), traffic.payload(i));
+	}
+}
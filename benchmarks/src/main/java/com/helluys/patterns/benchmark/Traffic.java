@@ -0,0 +1,69 @@
+package com.helluys.patterns.benchmark;
+
+import static java.util.stream.Collectors.toSet;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A reproducible mix of text and JSON commands as received by the example
+ * chains. Most commands are valid, a few have an unknown name, an invalid
+ * payload or an unknown source.
+ *
+ * @author Helluys
+ */
+final class Traffic {
+
+	static final Set<String> TEXT_SOURCES = Stream.of("text1", "text2").collect(toSet());
+	static final Set<String> JSON_SOURCES = Stream.of("json1", "json2").collect(toSet());
+
+	private static final String[] NAMES = { "A", "B", "C", "A", "B", "C", "A", "D" };
+
+	private final String[] sources;
+	private final String[] payloads;
+
+	/**
+	 * Generates the traffic.
+	 *
+	 * @param size the number of commands, must be a power of two
+	 * @param seed the random seed
+	 */
+	Traffic(final int size, final long seed) {
+		if (Integer.bitCount(size) != 1) {
+			throw new IllegalArgumentException("Traffic size must be a power of two: " + size);
+		}
+
+		final Random random = new Random(seed);
+		sources = new String[size];
+		payloads = new String[size];
+		for (int i = 0; i < size; i++) {
+			final String name = NAMES[random.nextInt(NAMES.length)];
+			final int kind = random.nextInt(100);
+			if (kind < 45) {
+				sources[i] = random.nextBoolean() ? "text1" : "text2";
+				payloads[i] = "[" + name + "]payload " + i;
+			} else if (kind < 90) {
+				sources[i] = random.nextBoolean() ? "json1" : "json2";
+				payloads[i] = "{\"name\":\"" + name + "\",\"text\":\"payload " + i + "\"}";
+			} else if (kind < 94) {
+				sources[i] = "text1";
+				payloads[i] = "(" + name + ")payload " + i;
+			} else if (kind < 98) {
+				sources[i] = "json1";
+				payloads[i] = "(\"name\":\"" + name + "\")";
+			} else {
+				sources[i] = "other";
+				payloads[i] = "[" + name + "]payload " + i;
+			}
+		}
+	}
+
+	String source(final int index) {
+		return sources[index & (sources.length - 1)];
+	}
+
+	String payload(final int index) {
+		return payloads[index & (payloads.length - 1)];
+	}
+}
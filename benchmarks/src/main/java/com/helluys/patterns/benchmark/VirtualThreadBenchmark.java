@@ -0,0 +1,86 @@
+package com.helluys.patterns.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helluys.patterns.chain.dispatch.VirtualThreadDispatcher;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * Time to process a burst of commands whose terminal processing blocks for a
+ * simulated latency, with a {@link VirtualThreadDispatcher} compared to a
+ * fixed platform thread pool.
+ *
+ * @author Helluys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+	@Param({ "100", "1000" })
+	private long latencyMicros;
+
+	@Param({ "1000" })
+	private int burst;
+
+	@Param({ "16" })
+	private int poolSize;
+
+	private ExecutorService pool;
+	private VirtualThreadDispatcher<CountDownLatch> dispatcher;
+
+	@Setup
+	public void setup() {
+		pool = Executors.newFixedThreadPool(poolSize);
+		dispatcher = VirtualThreadDispatcher.of(EndLink.of(this::block), burst);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdownNow();
+		dispatcher.close();
+	}
+
+	@Benchmark
+	public void fixedPool() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(burst);
+		for (int i = 0; i < burst; i++) {
+			pool.execute(() -> block(latch));
+		}
+		latch.await();
+	}
+
+	@Benchmark
+	public void virtualThreads() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(burst);
+		for (int i = 0; i < burst; i++) {
+			dispatcher.process(latch);
+		}
+		latch.await();
+	}
+
+	private void block(final CountDownLatch latch) {
+		LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+		latch.countDown();
+	}
+}
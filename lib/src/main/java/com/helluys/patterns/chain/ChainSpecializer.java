@@ -0,0 +1,371 @@
+package com.helluys.patterns.chain;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
+
+/**
+ * Specializes a finished chain into a single class. The chain graph is
+ * described as a tree of {@link MethodHandle}s, with the predicates, mappers
+ * and consumers bound as constants, and the tree is held by a static final
+ * field of a new hidden class. The JIT can then inline the whole route of a
+ * command instead of going through megamorphic interface calls.
+ * <p>
+ * Nodes are described through {@link Specializable}. Other nodes, and the
+ * parts of the graph beyond {@link #MAX_DEPTH} nested nodes or
+ * {@link #MAX_LINKS} chained links, are called as is.
+ *
+ * @author Helluys
+ */
+public final class ChainSpecializer {
+
+	/**
+	 * The maximum number of nested nodes described as method handles.
+	 */
+	public static final int MAX_DEPTH = 64;
+
+	/**
+	 * The maximum number of links of a chain described as method handles.
+	 */
+	public static final int MAX_LINKS = 64;
+
+	private static final MethodType LINK_TYPE = methodType(boolean.class, Object.class);
+	private static final MethodType END_TYPE = methodType(void.class, Object.class);
+
+	private static final MethodHandle LINK_PROCESS;
+	private static final MethodHandle END_LINK_ACCEPT;
+	private static final MethodHandle HANDLER_HANDLE;
+	private static final MethodHandle PREDICATE_TEST;
+	private static final MethodHandle FUNCTION_APPLY;
+	private static final MethodHandle CONSUMER_ACCEPT;
+	private static final MethodHandle EITHER_IS_LEFT;
+	private static final MethodHandle EITHER_LEFT;
+	private static final MethodHandle EITHER_RIGHT;
+	private static final MethodHandle SPLITTER_SPLIT;
+	private static final MethodHandle IDENTICAL;
+	private static final MethodHandle FIRST_MATCH;
+	private static final MethodHandle TRUE = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true),
+			0, Object.class);
+	private static final MethodHandle FALSE = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false),
+			0, Object.class);
+	private static final MethodHandle NOTHING = MethodHandles.empty(END_TYPE);
+
+	static {
+		final Lookup lookup = MethodHandles.lookup();
+		try {
+			LINK_PROCESS = lookup.findVirtual(Link.class, "process", LINK_TYPE);
+			END_LINK_ACCEPT = lookup.findVirtual(EndLink.class, "accept", END_TYPE);
+			HANDLER_HANDLE = lookup.findVirtual(Handler.class, "handle", END_TYPE);
+			PREDICATE_TEST = lookup.findVirtual(Predicate.class, "test", LINK_TYPE);
+			FUNCTION_APPLY = lookup.findVirtual(Function.class, "apply", methodType(Object.class, Object.class));
+			CONSUMER_ACCEPT = lookup.findVirtual(Consumer.class, "accept", END_TYPE);
+			EITHER_IS_LEFT = lookup.findVirtual(Either.class, "isLeft", methodType(boolean.class)).asType(LINK_TYPE);
+			EITHER_LEFT = lookup.findVirtual(Either.class, "left", methodType(Object.class))
+					.asType(methodType(Object.class, Object.class));
+			EITHER_RIGHT = lookup.findVirtual(Either.class, "right", methodType(Object.class))
+					.asType(methodType(Object.class, Object.class));
+			SPLITTER_SPLIT = lookup.findVirtual(Splitter.class, "split",
+					methodType(boolean.class, Object.class, Predicate.class, Predicate.class));
+			IDENTICAL = lookup.findStatic(ChainSpecializer.class, "identical",
+					methodType(boolean.class, Object.class, Object.class));
+			FIRST_MATCH = lookup.findStatic(ChainSpecializer.class, "firstMatch",
+					methodType(boolean.class, Link[].class, Object.class));
+		} catch (final ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static MethodHandle pendingTarget;
+
+	private int depth;
+
+	private ChainSpecializer() {
+	}
+
+	/**
+	 * Returns a specialized equivalent of the given end link.
+	 *
+	 * @param <Command> the command type
+	 * @param endLink   the end link, or ended chain
+	 * @return the specialized end link
+	 */
+	@SuppressWarnings("unchecked")
+	public static <Command> EndLink<Command> specialize(final EndLink<Command> endLink) {
+		return (EndLink<Command>) define(SpecializedEndLink.class, new ChainSpecializer().endLink(endLink));
+	}
+
+	/**
+	 * Returns a specialized equivalent of the given handler.
+	 *
+	 * @param <Command> the command type
+	 * @param handler   the handler
+	 * @return the specialized handler
+	 */
+	@SuppressWarnings("unchecked")
+	public static <Command> Handler<Command> specialize(final Handler<Command> handler) {
+		return (Handler<Command>) define(SpecializedHandler.class, new ChainSpecializer().handler(handler));
+	}
+
+	/**
+	 * Describes a link.
+	 *
+	 * @param link the link
+	 * @return a {@code (Object)boolean} method handle
+	 */
+	public MethodHandle link(final Link<?> link) {
+		return describe(link, LINK_TYPE, LINK_PROCESS);
+	}
+
+	/**
+	 * Describes an end link.
+	 *
+	 * @param endLink the end link
+	 * @return a {@code (Object)void} method handle
+	 */
+	public MethodHandle endLink(final EndLink<?> endLink) {
+		return describe(endLink, END_TYPE, END_LINK_ACCEPT);
+	}
+
+	/**
+	 * Describes a handler.
+	 *
+	 * @param handler the handler
+	 * @return a {@code (Object)void} method handle
+	 */
+	public MethodHandle handler(final Handler<?> handler) {
+		return describe(handler, END_TYPE, HANDLER_HANDLE);
+	}
+
+	/**
+	 * @param predicate the predicate
+	 * @return a {@code (Object)boolean} method handle testing the predicate
+	 */
+	public static MethodHandle test(final Predicate<?> predicate) {
+		return PREDICATE_TEST.bindTo(predicate);
+	}
+
+	/**
+	 * @param function the function
+	 * @return a {@code (Object)Object} method handle applying the function
+	 */
+	public static MethodHandle apply(final Function<?, ?> function) {
+		return FUNCTION_APPLY.bindTo(function);
+	}
+
+	/**
+	 * @param consumer the consumer
+	 * @return a {@code (Object)void} method handle accepting with the consumer
+	 */
+	public static MethodHandle accept(final Consumer<?> consumer) {
+		return CONSUMER_ACCEPT.bindTo(consumer);
+	}
+
+	/**
+	 * @param handler the handler
+	 * @return a {@code (Object)void} method handle calling the handler as is,
+	 *         without describing it
+	 */
+	public static MethodHandle handle(final Handler<?> handler) {
+		return HANDLER_HANDLE.bindTo(handler);
+	}
+
+	/**
+	 * @param target a {@code (Object)void} method handle
+	 * @return a {@code (Object)boolean} method handle calling the target and
+	 *         returning {@code true}
+	 */
+	public static MethodHandle consumed(final MethodHandle target) {
+		return MethodHandles.filterReturnValue(target, MethodHandles.constant(boolean.class, true));
+	}
+
+	/**
+	 * @param mapper a {@code (Object)Object} method handle
+	 * @param target the method handle to call with the mapped command
+	 * @return a method handle calling the target with the mapped command
+	 */
+	public static MethodHandle map(final MethodHandle mapper, final MethodHandle target) {
+		return MethodHandles.filterArguments(target, 0, mapper);
+	}
+
+	/**
+	 * @param condition a {@code (Object)boolean} method handle
+	 * @param target    the method handle to call if the condition is true
+	 * @param fallback  the method handle to call otherwise
+	 * @return a method handle calling the target or the fallback
+	 */
+	public static MethodHandle condition(final MethodHandle condition, final MethodHandle target,
+			final MethodHandle fallback) {
+		return MethodHandles.guardWithTest(condition, target, fallback);
+	}
+
+	/**
+	 * @param left  the method handle to call with the left value
+	 * @param right the method handle to call with the right value
+	 * @return a method handle calling the left or right method handle with the
+	 *         value of an {@link Either} command
+	 */
+	public static MethodHandle either(final MethodHandle left, final MethodHandle right) {
+		return MethodHandles.guardWithTest(EITHER_IS_LEFT, map(EITHER_LEFT, left), map(EITHER_RIGHT, right));
+	}
+
+	/**
+	 * Describes a split. The splitter passes its result on to sinks, which call
+	 * the left and right method handles: sinks are hidden classes, whose final
+	 * fields the JIT trusts as constants, so the method handles can still be
+	 * inlined.
+	 *
+	 * @param splitter the splitter
+	 * @param left     a {@code (Object)boolean} or {@code (Object)void} method
+	 *                 handle to call with the left value
+	 * @param right    a method handle of the same type to call with the right
+	 *                 value
+	 * @return a {@code (Object)boolean} method handle returning the result of
+	 *         the split
+	 */
+	public static MethodHandle split(final Splitter<?, ?, ?> splitter, final MethodHandle left,
+			final MethodHandle right) {
+		return MethodHandles.insertArguments(SPLITTER_SPLIT.bindTo(splitter), 1, sink(left), sink(right));
+	}
+
+	private static Predicate<Object> sink(final MethodHandle target) {
+		final MethodHandle link = target.type().returnType() == void.class ? consumed(target) : target;
+		return value -> {
+			try {
+				return (boolean) link.invokeExact(value);
+			} catch (final RuntimeException | Error e) {
+				throw e;
+			} catch (final Throwable t) {
+				throw new UndeclaredThrowableException(t);
+			}
+		};
+	}
+
+	/**
+	 * Describes a chain of links: the links are tried in order until one
+	 * consumes the command.
+	 *
+	 * @param links the links
+	 * @return a {@code (Object)boolean} method handle
+	 */
+	public MethodHandle chain(final Link<?>[] links) {
+		return chain(links, FALSE, TRUE);
+	}
+
+	/**
+	 * Describes a chain of links ended by an end link.
+	 *
+	 * @param links the links
+	 * @param end   the end link
+	 * @return a {@code (Object)void} method handle
+	 */
+	public MethodHandle chain(final Link<?>[] links, final EndLink<?> end) {
+		return chain(links, endLink(end), NOTHING);
+	}
+
+	/**
+	 * Describes a dispatch on the identity of a key extracted from the command.
+	 *
+	 * @param extractor a {@code (Object)Object} method handle extracting the key
+	 * @param keys      the keys
+	 * @param targets   the method handle to call for each key
+	 * @param otherwise the method handle to call for any other key
+	 * @return a method handle calling the target of the extracted key
+	 */
+	public static MethodHandle dispatch(final MethodHandle extractor, final Object[] keys,
+			final MethodHandle[] targets, final MethodHandle otherwise) {
+		MethodHandle handle = MethodHandles.dropArguments(otherwise, 0, Object.class);
+		for (int i = keys.length - 1; i >= 0; i--) {
+			handle = MethodHandles.guardWithTest(
+					MethodHandles.dropArguments(IDENTICAL.bindTo(keys[i]), 1, Object.class),
+					MethodHandles.dropArguments(targets[i], 0, Object.class), handle);
+		}
+		return MethodHandles.foldArguments(handle, extractor);
+	}
+
+	/**
+	 * @return a {@code (Object)boolean} method handle always returning
+	 *         {@code false}
+	 */
+	public static MethodHandle notConsumed() {
+		return FALSE;
+	}
+
+	private MethodHandle chain(final Link<?>[] links, final MethodHandle end, final MethodHandle consumed) {
+		final int inlined = Math.min(links.length, MAX_LINKS);
+		MethodHandle handle = end;
+		if (links.length > inlined) {
+			handle = MethodHandles.guardWithTest(FIRST_MATCH.bindTo(Arrays.copyOfRange(links, inlined, links.length)),
+					consumed, end);
+		}
+		for (int i = inlined - 1; i >= 0; i--) {
+			handle = MethodHandles.guardWithTest(link(links[i]), consumed, handle);
+		}
+		return handle;
+	}
+
+	private MethodHandle describe(final Object node, final MethodType type, final MethodHandle opaque) {
+		if (!(node instanceof Specializable) || depth >= MAX_DEPTH) {
+			return opaque.bindTo(node);
+		}
+		depth++;
+		try {
+			return ((Specializable) node).specialize(this).asType(type);
+		} finally {
+			depth--;
+		}
+	}
+
+	private static synchronized Object define(final Class<?> template, final MethodHandle target) {
+		pendingTarget = target;
+		try {
+			final Lookup hidden = MethodHandles.lookup().defineHiddenClass(bytes(template), true);
+			return hidden.findConstructor(hidden.lookupClass(), methodType(void.class)).invoke();
+		} catch (final RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable t) {
+			throw new IllegalStateException("Unable to specialize chain", t);
+		} finally {
+			pendingTarget = null;
+		}
+	}
+
+	private static byte[] bytes(final Class<?> template) throws IOException {
+		try (InputStream in = template.getResourceAsStream(template.getSimpleName() + ".class")) {
+			return in.readAllBytes();
+		}
+	}
+
+	static MethodHandle pendingTarget() {
+		return pendingTarget;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static boolean firstMatch(final Link<?>[] links, final Object command) {
+		for (final Link<?> link : links) {
+			if (((Link<Object>) link).process(command)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean identical(final Object a, final Object b) {
+		return a == b;
+	}
+}
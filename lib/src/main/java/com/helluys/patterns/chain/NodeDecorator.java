@@ -0,0 +1,75 @@
+package com.helluys.patterns.chain;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * Decorates the named nodes of a chain graph while it is built, for instance
+ * to record metrics or traces. A graph is decorated as a whole by passing the
+ * decorator to its builder, which decorates each node it creates, and the
+ * entry node of the graph as the root.
+ *
+ * @author Helluys
+ */
+public interface NodeDecorator {
+
+	<Command> Link<Command> link(String name, Link<Command> link);
+
+	<Command> EndLink<Command> endLink(String name, EndLink<Command> endLink);
+
+	<Command> Handler<Command> handler(String name, Handler<Command> handler);
+
+	/**
+	 * Decorates the entry node of a graph, through which every command enters.
+	 * Decorated as any other end link by default.
+	 */
+	default <Command> EndLink<Command> root(final String name, final EndLink<Command> endLink) {
+		return endLink(name, endLink);
+	}
+
+	/**
+	 * Decorates the entry node of a graph, through which every command enters.
+	 * Decorated as any other handler by default.
+	 */
+	default <Command> Handler<Command> root(final String name, final Handler<Command> handler) {
+		return handler(name, handler);
+	}
+
+	/**
+	 * Returns a decorator applying this decorator, then the given one around it.
+	 *
+	 * @param outer the outer decorator
+	 * @return the composed decorator
+	 */
+	default NodeDecorator andThen(final NodeDecorator outer) {
+		final NodeDecorator inner = this;
+		return new NodeDecorator() {
+
+			@Override
+			public <Command> Link<Command> link(final String name, final Link<Command> link) {
+				return outer.link(name, inner.link(name, link));
+			}
+
+			@Override
+			public <Command> EndLink<Command> endLink(final String name, final EndLink<Command> endLink) {
+				return outer.endLink(name, inner.endLink(name, endLink));
+			}
+
+			@Override
+			public <Command> Handler<Command> handler(final String name, final Handler<Command> handler) {
+				return outer.handler(name, inner.handler(name, handler));
+			}
+
+			@Override
+			public <Command> EndLink<Command> root(final String name, final EndLink<Command> endLink) {
+				return outer.root(name, inner.root(name, endLink));
+			}
+
+			@Override
+			public <Command> Handler<Command> root(final String name, final Handler<Command> handler) {
+				return outer.root(name, inner.root(name, handler));
+			}
+		};
+	}
+}
@@ -0,0 +1,23 @@
+package com.helluys.patterns.chain;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A chain node that can describe its processing as a {@link MethodHandle}, so
+ * that a {@link ChainSpecializer} can bind it into a single specialized class.
+ * The returned handle takes the command as its only {@code Object} parameter,
+ * and returns {@code boolean} for a link and {@code void} for an end link or a
+ * handler.
+ *
+ * @author Helluys
+ */
+public interface Specializable {
+
+	/**
+	 * Describes this node processing as a method handle.
+	 *
+	 * @param specializer the specializer, used to describe the next nodes
+	 * @return the method handle
+	 */
+	MethodHandle specialize(ChainSpecializer specializer);
+}
@@ -0,0 +1,29 @@
+package com.helluys.patterns.chain;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import com.helluys.patterns.chain.handler.Handler;
+
+/**
+ * Template of the hidden classes defined by {@link ChainSpecializer} for
+ * handlers. Each hidden class copy holds its own constant method handle, which
+ * the JIT can inline as a whole.
+ *
+ * @author Helluys
+ */
+final class SpecializedHandler implements Handler<Object> {
+
+	private static final MethodHandle TARGET = ChainSpecializer.pendingTarget();
+
+	@Override
+	public void handle(final Object command) {
+		try {
+			TARGET.invokeExact(command);
+		} catch (final RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable t) {
+			throw new UndeclaredThrowableException(t);
+		}
+	}
+}
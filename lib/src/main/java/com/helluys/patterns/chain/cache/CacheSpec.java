@@ -0,0 +1,108 @@
+package com.helluys.patterns.chain.cache;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * The immutable specification of a {@link MemoCache}: its eviction policy,
+ * its size bound in entries or in estimated weight, and its optional expiry.
+ *
+ * @author Helluys
+ */
+public final class CacheSpec {
+
+	final Eviction eviction;
+	final long maximum;
+	final Weigher weigher;
+	final long expiryNanos;
+	final LongSupplier ticker;
+
+	private CacheSpec(final Builder builder) {
+		this.eviction = builder.eviction;
+		this.maximum = builder.maximum;
+		this.weigher = builder.weigher;
+		this.expiryNanos = builder.expiryNanos;
+		this.ticker = builder.ticker;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return a specification of at most the given number of entries, evicted
+	 *         with {@link Eviction#LRU}
+	 */
+	public static CacheSpec lru(final long maximumSize) {
+		return builder().maximumSize(maximumSize).build();
+	}
+
+	public static final class Builder {
+		private Eviction eviction = Eviction.LRU;
+		private long maximum = 10_000;
+		private Weigher weigher;
+		private long expiryNanos = Long.MAX_VALUE;
+		private LongSupplier ticker = System::nanoTime;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the eviction policy. Defaults to {@link Eviction#LRU}.
+		 */
+		public Builder eviction(final Eviction eviction) {
+			this.eviction = eviction;
+			return this;
+		}
+
+		/**
+		 * Bounds the cache to the given number of entries. Defaults to 10 000.
+		 */
+		public Builder maximumSize(final long maximumSize) {
+			if (maximumSize < 1) {
+				throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+			}
+			this.maximum = maximumSize;
+			this.weigher = null;
+			return this;
+		}
+
+		/**
+		 * Bounds the cache to the given total weight of its entries, such as
+		 * their estimated size in bytes with {@link Weigher#ESTIMATED_BYTES}.
+		 */
+		public Builder maximumWeight(final long maximumWeight, final Weigher weigher) {
+			if (maximumWeight < 1) {
+				throw new IllegalArgumentException("Maximum weight must be positive: " + maximumWeight);
+			}
+			this.maximum = maximumWeight;
+			this.weigher = weigher;
+			return this;
+		}
+
+		/**
+		 * Expires the entries the given duration after they are computed. Entries
+		 * do not expire by default.
+		 */
+		public Builder expireAfterWrite(final Duration duration) {
+			if (duration.isNegative() || duration.isZero()) {
+				throw new IllegalArgumentException("Expiry must be positive: " + duration);
+			}
+			this.expiryNanos = duration.toNanos();
+			return this;
+		}
+
+		/**
+		 * Sets the nanosecond time source of the expiry. Defaults to
+		 * {@link System#nanoTime()}.
+		 */
+		public Builder ticker(final LongSupplier ticker) {
+			this.ticker = ticker;
+			return this;
+		}
+
+		public CacheSpec build() {
+			return new CacheSpec(this);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.helluys.patterns.chain.cache;
+
+/**
+ * A snapshot of the statistics of a {@link MemoCache}.
+ *
+ * @author Helluys
+ */
+public final class CacheStats {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long expirations;
+
+	CacheStats(final long hits, final long misses, final long evictions, final long expirations) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.expirations = expirations;
+	}
+
+	public long hits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups that had to compute the value
+	 */
+	public long misses() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of entries evicted or rejected over the size bound
+	 */
+	public long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of entries found expired
+	 */
+	public long expirations() {
+		return expirations;
+	}
+
+	/**
+	 * @return the fraction of the lookups that were hits, 1 if there was none
+	 */
+	public double hitRate() {
+		final long lookups = hits + misses;
+		return lookups == 0 ? 1 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", expirations="
+				+ expirations + "]";
+	}
+}
@@ -0,0 +1,22 @@
+package com.helluys.patterns.chain.cache;
+
+/**
+ * The eviction policy of a {@link MemoCache} over its size bound.
+ *
+ * @author Helluys
+ */
+public enum Eviction {
+
+	/**
+	 * Evicts the least recently used entry.
+	 */
+	LRU,
+
+	/**
+	 * Evicts the least recently used entry only if a new entry was used more
+	 * often, by an estimate of the recent use frequencies of the keys, and
+	 * rejects the new entry otherwise. This keeps the frequently used entries
+	 * cached when the new entries are mostly used once.
+	 */
+	FREQUENCY
+}
@@ -0,0 +1,73 @@
+package com.helluys.patterns.chain.cache;
+
+/**
+ * A count-min sketch of the recent use frequencies of keys, with four 4 bits
+ * counters per key. All the counters are halved once the number of recorded
+ * uses reaches ten times the expected number of keys, so that the estimates
+ * favour recent uses. Not thread-safe.
+ *
+ * @author Helluys
+ */
+final class FrequencySketch {
+
+	private static final long[] SEEDS = { 0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL,
+			0xCBF29CE484222325L };
+	private static final long HALF_MASK = 0x7777777777777777L;
+
+	private final long[] table;
+	private final int mask;
+	private final int sampleSize;
+	private int size;
+
+	/**
+	 * @param width the expected number of distinct keys
+	 */
+	FrequencySketch(final long width) {
+		// One word of sixteen counters per expected key, so that collisions stay rare
+		final int length = Integer.highestOneBit((int) Math.max(16, Math.min(1 << 24, width)) * 2 - 1);
+		this.table = new long[length];
+		this.mask = length - 1;
+		this.sampleSize = 10 * length;
+	}
+
+	int frequency(final int hash) {
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < SEEDS.length; i++) {
+			final long h = spread(hash, i);
+			frequency = Math.min(frequency, (int) ((table[index(h)] >>> shift(h)) & 0xF));
+		}
+		return frequency;
+	}
+
+	void increment(final int hash) {
+		boolean added = false;
+		for (int i = 0; i < SEEDS.length; i++) {
+			final long h = spread(hash, i);
+			final int index = index(h);
+			final int shift = shift(h);
+			if (((table[index] >>> shift) & 0xF) < 0xF) {
+				table[index] += 1L << shift;
+				added = true;
+			}
+		}
+		if (added && ++size >= sampleSize) {
+			for (int i = 0; i < table.length; i++) {
+				table[i] = (table[i] >>> 1) & HALF_MASK;
+			}
+			size /= 2;
+		}
+	}
+
+	private static long spread(final int hash, final int i) {
+		final long h = (hash + SEEDS[i]) * SEEDS[i];
+		return h ^ (h >>> 29);
+	}
+
+	private int index(final long h) {
+		return (int) (h >>> 32) & mask;
+	}
+
+	private static int shift(final long h) {
+		return ((int) h & 0xF) << 2;
+	}
+}
@@ -0,0 +1,330 @@
+package com.helluys.patterns.chain.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A bounded concurrent cache of computed values, as specified by a
+ * {@link CacheSpec}.
+ * <p>
+ * Entries are held by a {@link ConcurrentHashMap}, so that lookups take no
+ * lock. The recency and frequency of use are maintained apart, under a lock
+ * only ever tried: lookups record their entry in a lossy striped buffer, new
+ * and removed entries are queued, and the buffers and queue are drained in
+ * batches by whichever thread gets the lock, which then evicts over the size
+ * bound. The bound may thus be exceeded briefly under contention, and a value
+ * may be computed more than once by concurrent lookups of a missing key.
+ * <p>
+ * {@code null} keys are not supported, and {@code null} values are not cached.
+ *
+ * @author Helluys
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class MemoCache<K, V> {
+
+	private static final int READ_BUFFER_SIZE = 32;
+	private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+	private static final int MAX_STRIPES = 16;
+
+	private final CacheSpec spec;
+	private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedQueue<Node<K, V>> changes = new ConcurrentLinkedQueue<>();
+	private final int stripeMask;
+	private final AtomicReferenceArray<Node<K, V>> reads;
+	private final AtomicIntegerArray readCounts;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final FrequencySketch sketch;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+
+	// Guarded by lock: the entries from least to most recently used
+	private final Node<K, V> order = new Node<>(null, null, 0, 0);
+	private long weight;
+
+	/**
+	 * Constructs an instance.
+	 *
+	 * @param spec the cache specification
+	 */
+	public MemoCache(final CacheSpec spec) {
+		this.spec = spec;
+		final int processors = Runtime.getRuntime().availableProcessors();
+		final int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, processors * 2 - 1)));
+		this.stripeMask = stripes - 1;
+		this.reads = new AtomicReferenceArray<>(stripes * READ_BUFFER_SIZE);
+		// Counters a cache line apart
+		this.readCounts = new AtomicIntegerArray(stripes * 16);
+		this.sketch = spec.eviction == Eviction.FREQUENCY
+				? new FrequencySketch(spec.weigher == null ? spec.maximum : 1 << 16)
+				: null;
+		order.previous = order;
+		order.next = order;
+	}
+
+	/**
+	 * Returns the cached value of the key, computing and caching it on a miss.
+	 *
+	 * @param key    the key
+	 * @param loader the value computation
+	 * @return the value
+	 */
+	public V get(final K key, final Function<? super K, ? extends V> loader) {
+		return get(key, key, loader);
+	}
+
+	/**
+	 * Returns the cached value of the key, computing it from the given argument
+	 * and caching it on a miss.
+	 *
+	 * @param <T>      the argument type
+	 * @param key      the key
+	 * @param argument the argument the value is computed from, such as the
+	 *                 object the key was extracted from
+	 * @param loader   the value computation
+	 * @return the value
+	 */
+	public <T> V get(final K key, final T argument, final Function<? super T, ? extends V> loader) {
+		final Node<K, V> node = data.get(key);
+		if (node != null) {
+			if (!isExpired(node)) {
+				hits.increment();
+				recordRead(node);
+				return node.value;
+			}
+			expirations.increment();
+			if (data.remove(key, node)) {
+				changes.add(node);
+			}
+		}
+
+		misses.increment();
+		final V value = loader.apply(argument);
+		if (value == null) {
+			return null;
+		}
+		final Node<K, V> created = new Node<>(key, value,
+				spec.weigher == null ? 1 : spec.weigher.weigh(key, value), spec.ticker.getAsLong());
+		final Node<K, V> existing = data.putIfAbsent(key, created);
+		if (existing != null && !isExpired(existing)) {
+			return existing.value;
+		} else if (existing != null && !data.replace(key, existing, created)) {
+			return value;
+		}
+		if (existing != null) {
+			changes.add(existing);
+		}
+		changes.add(created);
+		maintain();
+		return value;
+	}
+
+	/**
+	 * @return the cached value of the key, or {@code null}
+	 */
+	public V getIfPresent(final K key) {
+		final Node<K, V> node = data.get(key);
+		if (node == null || isExpired(node)) {
+			return null;
+		}
+		recordRead(node);
+		return node.value;
+	}
+
+	/**
+	 * @return the number of cached entries, expired ones included
+	 */
+	public long size() {
+		return data.mappingCount();
+	}
+
+	/**
+	 * @return the total weight of the cached entries, after pending
+	 *         maintenance
+	 */
+	public long weight() {
+		lock.lock();
+		try {
+			drain();
+			return weight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public CacheStats stats() {
+		return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+	}
+
+	/**
+	 * Removes all the entries.
+	 */
+	public void invalidateAll() {
+		lock.lock();
+		try {
+			data.clear();
+			while (order.next != order) {
+				unlink(order.next);
+			}
+			drain();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Performs the pending maintenance, evicting over the size bound.
+	 */
+	public void cleanUp() {
+		lock.lock();
+		try {
+			drain();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean isExpired(final Node<K, V> node) {
+		return spec.expiryNanos != Long.MAX_VALUE && spec.ticker.getAsLong() - node.writeNanos >= spec.expiryNanos;
+	}
+
+	private void recordRead(final Node<K, V> node) {
+		final int stripe = stripe();
+		final int count = readCounts.getAndIncrement(stripe * 16);
+		reads.lazySet(stripe * READ_BUFFER_SIZE + (count & READ_BUFFER_MASK), node);
+		if ((count & READ_BUFFER_MASK) == READ_BUFFER_MASK) {
+			maintain();
+		}
+	}
+
+	/**
+	 * Drains the buffers if no other thread does, until no change is pending.
+	 */
+	private void maintain() {
+		do {
+			if (!lock.tryLock()) {
+				return;
+			}
+			try {
+				drain();
+			} finally {
+				lock.unlock();
+			}
+		} while (!changes.isEmpty());
+	}
+
+	private void drain() {
+		for (int i = 0; i < reads.length(); i++) {
+			final Node<K, V> node = reads.getAndSet(i, null);
+			if (node != null && node.linked()) {
+				moveToTail(node);
+				if (sketch != null) {
+					sketch.increment(node.key.hashCode());
+				}
+			}
+		}
+
+		Node<K, V> node;
+		while ((node = changes.poll()) != null) {
+			final boolean live = data.get(node.key) == node;
+			if (live && !node.linked()) {
+				link(node);
+				if (sketch != null) {
+					sketch.increment(node.key.hashCode());
+				}
+				evict(node);
+			} else if (!live && node.linked()) {
+				unlink(node);
+			}
+		}
+	}
+
+	/**
+	 * Evicts over the size bound, starting with the expired and least recently
+	 * used entries.
+	 */
+	private void evict(final Node<K, V> candidate) {
+		while (order.next != order && isExpired(order.next)) {
+			expirations.increment();
+			remove(order.next);
+		}
+		while (weight > spec.maximum && order.next != order) {
+			final Node<K, V> victim = order.next;
+			if (candidate.linked() && victim != candidate && sketch != null
+					&& sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+				remove(candidate);
+			} else {
+				remove(victim);
+			}
+			evictions.increment();
+		}
+	}
+
+	private void remove(final Node<K, V> node) {
+		data.remove(node.key, node);
+		unlink(node);
+	}
+
+	private void link(final Node<K, V> node) {
+		node.previous = order.previous;
+		node.next = order;
+		order.previous.next = node;
+		order.previous = node;
+		weight += node.weight;
+	}
+
+	private void unlink(final Node<K, V> node) {
+		node.previous.next = node.next;
+		node.next.previous = node.previous;
+		node.previous = null;
+		node.next = null;
+		weight -= node.weight;
+	}
+
+	private void moveToTail(final Node<K, V> node) {
+		if (order.previous != node) {
+			node.previous.next = node.next;
+			node.next.previous = node.previous;
+			node.previous = order.previous;
+			node.next = order;
+			order.previous.next = node;
+			order.previous = node;
+		}
+	}
+
+	private int stripe() {
+		final long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+	}
+
+	private static final class Node<K, V> {
+		private final K key;
+		private final V value;
+		private final long weight;
+		private final long writeNanos;
+
+		// Guarded by the cache lock
+		private Node<K, V> previous;
+		private Node<K, V> next;
+
+		private Node(final K key, final V value, final long weight, final long writeNanos) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeNanos = writeNanos;
+		}
+
+		private boolean linked() {
+			return next != null;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.helluys.patterns.chain.cache;
+
+import java.util.function.Function;
+
+/**
+ * A function caching the results of another in a {@link MemoCache}. The cache
+ * keys are the arguments, or keys extracted from them: they must be immutable,
+ * with value equality. Arguments with equal keys share the same result.
+ *
+ * @author Helluys
+ *
+ * @param <T> the argument type
+ * @param <R> the result type
+ */
+public final class MemoizedFunction<T, R> implements Function<T, R> {
+
+	private final Function<? super T, ?> keyExtractor;
+	private final Function<T, R> function;
+	private final MemoCache<Object, R> cache;
+
+	private MemoizedFunction(final Function<? super T, ?> keyExtractor, final Function<T, R> function,
+			final MemoCache<Object, R> cache) {
+		this.keyExtractor = keyExtractor;
+		this.function = function;
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns a function caching the results of the given function by argument.
+	 *
+	 * @param <T>      the argument type
+	 * @param <R>      the result type
+	 * @param function the function
+	 * @param spec     the cache specification
+	 * @return the memoized function
+	 */
+	public static <T, R> MemoizedFunction<T, R> of(final Function<T, R> function, final CacheSpec spec) {
+		return new MemoizedFunction<>(Function.identity(), function, new MemoCache<>(spec));
+	}
+
+	/**
+	 * Returns a function caching the results of the given function by a key
+	 * extracted from the argument.
+	 *
+	 * @param <T>          the argument type
+	 * @param <R>          the result type
+	 * @param keyExtractor the key extraction function
+	 * @param function     the function
+	 * @param spec         the cache specification
+	 * @return the memoized function
+	 */
+	public static <T, R> MemoizedFunction<T, R> of(final Function<? super T, ?> keyExtractor,
+			final Function<T, R> function, final CacheSpec spec) {
+		return new MemoizedFunction<>(keyExtractor, function, new MemoCache<>(spec));
+	}
+
+	@Override
+	public R apply(final T argument) {
+		return cache.get(keyExtractor.apply(argument), argument, function);
+	}
+
+	public MemoCache<?, R> cache() {
+		return cache;
+	}
+}
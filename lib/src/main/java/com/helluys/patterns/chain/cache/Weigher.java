@@ -0,0 +1,27 @@
+package com.helluys.patterns.chain.cache;
+
+/**
+ * Estimates the size of a cache entry, for instance in bytes.
+ *
+ * @author Helluys
+ */
+@FunctionalInterface
+public interface Weigher {
+
+	/**
+	 * Estimates the size of strings as their UTF-16 content plus the object
+	 * headers, and of other objects as a fixed 64 bytes.
+	 */
+	Weigher ESTIMATED_BYTES = (key, value) -> estimatedBytes(key) + estimatedBytes(value);
+
+	/**
+	 * @param key   the entry key
+	 * @param value the entry value
+	 * @return the non-negative entry weight
+	 */
+	long weigh(Object key, Object value);
+
+	private static long estimatedBytes(final Object object) {
+		return object instanceof String ? 56 + 2L * ((String) object).length() : 64;
+	}
+}
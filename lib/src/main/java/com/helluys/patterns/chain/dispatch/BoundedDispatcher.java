@@ -0,0 +1,331 @@
+package com.helluys.patterns.chain.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * Dispatches commands through a fixed-capacity queue to worker threads
+ * processing them with the same {@link EndLink} or {@link Handler}, in no
+ * particular order. When the queue is full, the command is handled according
+ * to the {@link OverloadPolicy}, and counted.
+ * <p>
+ * Once {@link #close() closed}, the dispatcher rejects new commands and waits
+ * for the queued ones to be processed. Exceptions thrown by the processing are
+ * passed on to the worker thread uncaught exception handler, or thrown to the
+ * caller when it runs the command itself.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class BoundedDispatcher<Command> implements EndLink<Command>, Handler<Command>, AutoCloseable {
+
+	/**
+	 * The error of the rejections of diverted commands.
+	 */
+	public static final String OVERLOADED = "Dispatcher overloaded";
+
+	private static final AtomicInteger COUNT = new AtomicInteger();
+	/** Queued after the last command, once per worker, on close. */
+	private static final Object STOP = new Object();
+
+	private final Consumer<Command> processing;
+	private final OverloadPolicy policy;
+	private final Consumer<Command> diversion;
+	private final BlockingQueue<Object> queue;
+	private final List<Thread> workers;
+	/** The number of threads dispatching, counted before checking the dispatcher is open. */
+	private final AtomicInteger dispatching = new AtomicInteger();
+	private volatile boolean closed;
+
+	private final LongAdder dispatched = new LongAdder();
+	private final LongAdder callerRuns = new LongAdder();
+	private final LongAdder shed = new LongAdder();
+	private final LongAdder diverted = new LongAdder();
+
+	private BoundedDispatcher(final Builder<Command> builder, final Consumer<Command> processing) {
+		this.processing = processing;
+		this.policy = builder.policy;
+		this.diversion = builder.diversion;
+		this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+
+		final int id = COUNT.incrementAndGet();
+		this.workers = new ArrayList<>(builder.threads);
+		for (int i = 0; i < builder.threads; i++) {
+			final Thread worker = new Thread(this::run, "chain-bounded-" + id + "-worker-" + i);
+			worker.setDaemon(true);
+			workers.add(worker);
+		}
+		for (final Thread worker : workers) {
+			worker.start();
+		}
+	}
+
+	/**
+	 * @param <Command> the command type
+	 * @return a new builder
+	 */
+	public static <Command> Builder<Command> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Queues the command, or applies the overload policy if the queue is full.
+	 *
+	 * @param command the command
+	 * @throws RejectedExecutionException if the dispatcher is closed, or the
+	 *                                    caller is interrupted while blocked
+	 */
+	@Override
+	public void accept(final Command command) {
+		dispatching.incrementAndGet();
+		try {
+			if (closed) {
+				throw new RejectedExecutionException("Dispatcher is closed");
+			}
+			dispatch(command);
+		} finally {
+			dispatching.decrementAndGet();
+		}
+	}
+
+	private void dispatch(final Command command) {
+		dispatched.increment();
+		if (queue.offer(command)) {
+			return;
+		}
+
+		switch (policy) {
+			case BLOCK:
+				try {
+					queue.put(command);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RejectedExecutionException("Interrupted while waiting for a queue slot", e);
+				}
+				break;
+			case CALLER_RUNS:
+				callerRuns.increment();
+				processing.accept(command);
+				break;
+			case DROP_NEWEST:
+				shed.increment();
+				break;
+			case DROP_OLDEST:
+				while (!queue.offer(command)) {
+					if (queue.poll() != null) {
+						shed.increment();
+					}
+				}
+				break;
+			case DIVERT:
+				diverted.increment();
+				diversion.accept(command);
+				break;
+			default:
+				throw new IllegalStateException("Unknown policy " + policy);
+		}
+	}
+
+	@Override
+	public void handle(final Command command) {
+		accept(command);
+	}
+
+	public OverloadPolicy policy() {
+		return policy;
+	}
+
+	/**
+	 * @return the number of commands waiting in the queue
+	 */
+	public int depth() {
+		return queue.size();
+	}
+
+	/**
+	 * @return the number of dispatched commands, rejected ones included
+	 */
+	public long dispatched() {
+		return dispatched.sum();
+	}
+
+	/**
+	 * @return the number of commands processed by their caller
+	 */
+	public long callerRuns() {
+		return callerRuns.sum();
+	}
+
+	/**
+	 * @return the number of dropped commands
+	 */
+	public long shed() {
+		return shed.sum();
+	}
+
+	/**
+	 * @return the number of diverted commands
+	 */
+	public long diverted() {
+		return diverted.sum();
+	}
+
+	/**
+	 * Rejects new commands and waits for all the queued commands to be
+	 * processed. If interrupted while waiting, returns early with the interrupt
+	 * flag set.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			// Commands being dispatched are queued before the stop markers, which
+			// are therefore never dropped
+			while (dispatching.get() > 0) {
+				Thread.onSpinWait();
+			}
+			for (int i = 0; i < workers.size(); i++) {
+				queue.put(STOP);
+			}
+			for (final Thread worker : workers) {
+				worker.join();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void run() {
+		final Thread thread = Thread.currentThread();
+		while (true) {
+			final Object command;
+			try {
+				command = queue.take();
+			} catch (final InterruptedException e) {
+				continue;
+			}
+			if (command == STOP) {
+				return;
+			}
+			try {
+				processing.accept((Command) command);
+			} catch (final RuntimeException e) {
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+		}
+	}
+
+	/**
+	 * Builds a {@link BoundedDispatcher}.
+	 *
+	 * @param <Command> the command type
+	 */
+	public static final class Builder<Command> {
+
+		private int threads = Runtime.getRuntime().availableProcessors();
+		private int queueCapacity = 1024;
+		private OverloadPolicy policy = OverloadPolicy.BLOCK;
+		private Consumer<Command> diversion;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the number of worker threads, the number of available processors by
+		 * default.
+		 *
+		 * @param threads the number of worker threads
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> threads(final int threads) {
+			if (threads <= 0) {
+				throw new IllegalArgumentException("Thread count must be positive: " + threads);
+			}
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * Sets the queue capacity, 1024 by default.
+		 *
+		 * @param queueCapacity the queue capacity
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> queueCapacity(final int queueCapacity) {
+			if (queueCapacity <= 0) {
+				throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+			}
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		/**
+		 * Sets the overload policy, {@link OverloadPolicy#BLOCK} by default. The
+		 * {@link OverloadPolicy#DIVERT} policy is set by {@link #divert}.
+		 *
+		 * @param policy the overload policy
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> overload(final OverloadPolicy policy) {
+			if (policy == OverloadPolicy.DIVERT) {
+				throw new IllegalArgumentException("Diverting requires a rejection end link");
+			}
+			this.policy = Objects.requireNonNull(policy);
+			this.diversion = null;
+			return this;
+		}
+
+		/**
+		 * Sets the {@link OverloadPolicy#DIVERT} policy: commands dispatched while
+		 * the queue is full are turned into rejections with the
+		 * {@value BoundedDispatcher#OVERLOADED} error, passed to the given end
+		 * link on the calling thread.
+		 *
+		 * @param <Rejection> the rejection type
+		 * @param rejection   the rejection of a command with an error, such as
+		 *                    the constructor of an erroneous command
+		 * @param endLink     the end link of the rejections
+		 * @return this {@link Builder}
+		 */
+		public <Rejection> Builder<Command> divert(
+				final BiFunction<? super Command, String, ? extends Rejection> rejection,
+				final EndLink<? super Rejection> endLink) {
+			this.policy = OverloadPolicy.DIVERT;
+			this.diversion = command -> endLink.accept(rejection.apply(command, OVERLOADED));
+			return this;
+		}
+
+		/**
+		 * Builds and starts a dispatcher to the given end link.
+		 *
+		 * @param endLink the end link run by the workers
+		 * @return the started dispatcher
+		 */
+		public BoundedDispatcher<Command> build(final EndLink<Command> endLink) {
+			return new BoundedDispatcher<>(this, endLink);
+		}
+
+		/**
+		 * Builds and starts a dispatcher to the given handler.
+		 *
+		 * @param handler the handler run by the workers
+		 * @return the started dispatcher
+		 */
+		public BoundedDispatcher<Command> build(final Handler<Command> handler) {
+			return new BoundedDispatcher<>(this, handler::handle);
+		}
+	}
+}
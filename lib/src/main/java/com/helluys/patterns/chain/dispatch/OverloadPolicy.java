@@ -0,0 +1,39 @@
+package com.helluys.patterns.chain.dispatch;
+
+/**
+ * What a {@link BoundedDispatcher} does with a command dispatched while its
+ * queue is full. Every policy but {@link #BLOCK} keeps the producers from
+ * waiting on the workers, so that the latency of the accepted commands stays
+ * bounded by the queue capacity under overload.
+ *
+ * @author Helluys
+ */
+public enum OverloadPolicy {
+
+	/**
+	 * Blocks the caller until a slot frees up.
+	 */
+	BLOCK,
+
+	/**
+	 * Processes the command on the calling thread, which slows the producer down
+	 * to the pace of the processing.
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * Drops the dispatched command.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * Drops the oldest queued command to make room for the dispatched one.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Passes the dispatched command, as a rejection, to the end link set by
+	 * {@link BoundedDispatcher.Builder#divert}.
+	 */
+	DIVERT
+}
@@ -0,0 +1,423 @@
+package com.helluys.patterns.chain.dispatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * Dispatches commands to a fixed number of lanes, each processing its commands
+ * in order on a single thread with the same {@link EndLink} or
+ * {@link Handler}. Commands are assigned to a lane by hashing a key extracted
+ * from them, so that commands with the same key, dispatched by the same
+ * thread, are processed in order while commands with different keys are
+ * processed in parallel.
+ * <p>
+ * With {@link Builder#rebalanceEvery rebalancing}, the lane of each key is
+ * recorded, and hot keys sharing a lane are periodically moved to the least
+ * loaded lane. A key is only moved while none of its commands is waiting or
+ * being processed, so that its order is kept. Rebalancing costs a lock, a map
+ * lookup and an allocation per command. The entry of a key is dropped once it
+ * has neither pending commands nor commands dispatched since the previous
+ * rebalancing.
+ * <p>
+ * Commands with a {@code null} key are all dispatched to the first lane.
+ * <p>
+ * When the queue of a lane is full, dispatching blocks the caller. Once
+ * {@link #close() closed}, the dispatcher rejects new commands and waits for
+ * the queued ones to be processed. Exceptions thrown by the processing are
+ * passed on to the lane thread uncaught exception handler.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class PartitionedDispatcher<Command> implements EndLink<Command>, Handler<Command>, AutoCloseable {
+
+	private static final AtomicInteger COUNT = new AtomicInteger();
+	/** Queued after the last command of a lane on close. */
+	private static final Object STOP = new Object();
+
+	private final Function<? super Command, ?> keyExtractor;
+	private final Consumer<Command> processing;
+	private final List<Lane> lanes;
+	private final Map<Object, Route> routes;
+	private final long rebalancePeriod;
+	private final AtomicLong dispatched = new AtomicLong();
+	private final ReentrantLock rebalancing = new ReentrantLock();
+	/** The number of threads dispatching, counted before checking the dispatcher is open. */
+	private final AtomicInteger dispatching = new AtomicInteger();
+	private volatile boolean closed;
+
+	private PartitionedDispatcher(final Builder<Command> builder, final Consumer<Command> processing) {
+		this.keyExtractor = builder.keyExtractor;
+		this.processing = processing;
+		this.rebalancePeriod = builder.rebalancePeriod;
+		this.routes = rebalancePeriod > 0 ? new ConcurrentHashMap<>() : null;
+
+		final int id = COUNT.incrementAndGet();
+		this.lanes = new ArrayList<>(builder.lanes);
+		for (int i = 0; i < builder.lanes; i++) {
+			lanes.add(new Lane(builder.queueCapacity, "chain-partition-" + id + "-lane-" + i));
+		}
+		for (final Lane lane : lanes) {
+			lane.thread.start();
+		}
+	}
+
+	/**
+	 * Returns a new builder of dispatchers partitioning commands by the given
+	 * key.
+	 *
+	 * @param <Command>    the command type
+	 * @param keyExtractor the key extractor
+	 * @return a new builder
+	 */
+	public static <Command> Builder<Command> builder(final Function<? super Command, ?> keyExtractor) {
+		return new Builder<>(keyExtractor);
+	}
+
+	/**
+	 * Puts the command in the queue of the lane of its key, blocking while the
+	 * queue is full.
+	 *
+	 * @param command the command
+	 * @throws RejectedExecutionException if the dispatcher is closed, or the
+	 *                                    caller is interrupted while blocked
+	 */
+	@Override
+	public void accept(final Command command) {
+		dispatching.incrementAndGet();
+		try {
+			if (closed) {
+				throw new RejectedExecutionException("Dispatcher is closed");
+			}
+			dispatch(command);
+		} finally {
+			dispatching.decrementAndGet();
+		}
+	}
+
+	private void dispatch(final Command command) {
+		final Object key = keyExtractor.apply(command);
+		if (routes == null || key == null) {
+			put(lanes.get(hashLane(key)), command);
+			return;
+		}
+
+		Route route;
+		int lane;
+		while (true) {
+			route = routes.computeIfAbsent(key, Route::new);
+			synchronized (route) {
+				if (route.evicted) {
+					continue;
+				}
+				// Routes with pending commands are neither moved nor evicted
+				route.pending.incrementAndGet();
+				route.hits++;
+				lane = route.lane;
+			}
+			break;
+		}
+		try {
+			put(lanes.get(lane), new Routed(command, route));
+		} catch (final RuntimeException e) {
+			route.pending.decrementAndGet();
+			throw e;
+		}
+		if (dispatched.incrementAndGet() % rebalancePeriod == 0 && rebalancing.tryLock()) {
+			try {
+				rebalance();
+			} finally {
+				rebalancing.unlock();
+			}
+		}
+	}
+
+	@Override
+	public void handle(final Command command) {
+		accept(command);
+	}
+
+	/**
+	 * @return the number of commands waiting in the queue of each lane
+	 */
+	public int[] depths() {
+		final int[] depths = new int[lanes.size()];
+		for (int i = 0; i < depths.length; i++) {
+			depths[i] = lanes.get(i).queue.size();
+		}
+		return depths;
+	}
+
+	/**
+	 * @param key a key
+	 * @return the index of the lane the commands with the given key are
+	 *         dispatched to
+	 */
+	public int laneOf(final Object key) {
+		if (routes != null && key != null) {
+			final Route route = routes.get(key);
+			if (route != null) {
+				synchronized (route) {
+					return route.lane;
+				}
+			}
+		}
+		return hashLane(key);
+	}
+
+	/**
+	 * Rejects new commands and waits for all the queued commands to be
+	 * processed. If interrupted while waiting, returns early with the interrupt
+	 * flag set.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			// Commands being dispatched are queued before the stop marker
+			while (dispatching.get() > 0) {
+				Thread.onSpinWait();
+			}
+			for (final Lane lane : lanes) {
+				lane.queue.put(STOP);
+			}
+			for (final Lane lane : lanes) {
+				lane.thread.join();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Moves the hottest keys of the most loaded lane to the least loaded lane
+	 * while it lowers the maximum load, the load of a lane being the number of
+	 * commands dispatched to its keys since the last rebalancing. Drops the
+	 * routes of the keys without pending commands nor commands dispatched since
+	 * the last rebalancing.
+	 */
+	private void rebalance() {
+		final long[] loads = new long[lanes.size()];
+		final List<Route> sampled = new ArrayList<>(routes.values());
+		for (final Route route : sampled) {
+			synchronized (route) {
+				route.sampled = route.hits;
+				route.hits = 0;
+				loads[route.lane] += route.sampled;
+				if (route.sampled == 0 && route.pending.get() == 0) {
+					route.evicted = true;
+					routes.remove(route.key, route);
+				}
+			}
+		}
+
+		int max = 0;
+		int min = 0;
+		for (int i = 1; i < loads.length; i++) {
+			max = loads[i] > loads[max] ? i : max;
+			min = loads[i] < loads[min] ? i : min;
+		}
+
+		sampled.sort(Comparator.comparingLong((final Route route) -> route.sampled).reversed());
+		for (final Route route : sampled) {
+			if (route.sampled == 0 || loads[min] + route.sampled >= loads[max]) {
+				continue;
+			}
+			synchronized (route) {
+				if (route.lane == max && route.pending.get() == 0) {
+					route.lane = min;
+					loads[max] -= route.sampled;
+					loads[min] += route.sampled;
+				}
+			}
+		}
+	}
+
+	private int hashLane(final Object key) {
+		if (key == null) {
+			return 0;
+		}
+		final int hash = key.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), lanes.size());
+	}
+
+	private void put(final Lane lane, final Object command) {
+		try {
+			lane.queue.put(command);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for a lane slot", e);
+		}
+	}
+
+	private final class Lane {
+		private final BlockingQueue<Object> queue;
+		private final Thread thread;
+
+		private Lane(final int queueCapacity, final String name) {
+			this.queue = new ArrayBlockingQueue<>(queueCapacity);
+			this.thread = new Thread(this::run, name);
+			this.thread.setDaemon(true);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void run() {
+			while (true) {
+				final Object command;
+				try {
+					command = queue.take();
+				} catch (final InterruptedException e) {
+					continue;
+				}
+				if (command == STOP) {
+					return;
+				} else if (command instanceof PartitionedDispatcher.Routed) {
+					final Routed routed = (Routed) command;
+					try {
+						run(routed.command);
+					} finally {
+						routed.route.pending.decrementAndGet();
+					}
+				} else {
+					run((Command) command);
+				}
+			}
+		}
+
+		private void run(final Command command) {
+			try {
+				processing.accept(command);
+			} catch (final RuntimeException e) {
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+		}
+	}
+
+	/**
+	 * A command queued with the route it was dispatched through, so that its
+	 * completion is accounted to that route even if its key changed meanwhile.
+	 */
+	private final class Routed {
+		private final Command command;
+		private final Route route;
+
+		private Routed(final Command command, final Route route) {
+			this.command = command;
+			this.route = route;
+		}
+	}
+
+	private final class Route {
+		private final Object key;
+		private final AtomicInteger pending = new AtomicInteger();
+		private int lane;
+		private long hits;
+		/** Hits since the previous rebalancing, only used by the rebalancing thread. */
+		private long sampled;
+		/** Whether the route was dropped, so that dispatching looks it up again. */
+		private boolean evicted;
+
+		private Route(final Object key) {
+			this.key = key;
+			this.lane = hashLane(key);
+		}
+	}
+
+	/**
+	 * Builds a {@link PartitionedDispatcher}.
+	 *
+	 * @param <Command> the command type
+	 */
+	public static final class Builder<Command> {
+
+		private final Function<? super Command, ?> keyExtractor;
+		private int lanes = Runtime.getRuntime().availableProcessors();
+		private int queueCapacity = 1024;
+		private long rebalancePeriod;
+
+		private Builder(final Function<? super Command, ?> keyExtractor) {
+			if (keyExtractor == null) {
+				throw new NullPointerException("Key extractor is null");
+			}
+			this.keyExtractor = keyExtractor;
+		}
+
+		/**
+		 * Sets the number of lanes, the number of available processors by default.
+		 *
+		 * @param lanes the number of lanes
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> lanes(final int lanes) {
+			if (lanes <= 0) {
+				throw new IllegalArgumentException("Lane count must be positive: " + lanes);
+			}
+			this.lanes = lanes;
+			return this;
+		}
+
+		/**
+		 * Sets the queue capacity of each lane, 1024 by default.
+		 *
+		 * @param queueCapacity the queue capacity
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> queueCapacity(final int queueCapacity) {
+			if (queueCapacity <= 0) {
+				throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+			}
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		/**
+		 * Enables rebalancing of hot keys every given number of dispatched
+		 * commands. Rebalancing is disabled by default.
+		 *
+		 * @param period the number of commands between two rebalancings
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> rebalanceEvery(final long period) {
+			if (period <= 0) {
+				throw new IllegalArgumentException("Rebalance period must be positive: " + period);
+			}
+			this.rebalancePeriod = period;
+			return this;
+		}
+
+		/**
+		 * Builds and starts a dispatcher to the given end link.
+		 *
+		 * @param endLink the end link run by each lane
+		 * @return the started dispatcher
+		 */
+		public PartitionedDispatcher<Command> build(final EndLink<Command> endLink) {
+			return new PartitionedDispatcher<>(this, endLink);
+		}
+
+		/**
+		 * Builds and starts a dispatcher to the given handler.
+		 *
+		 * @param handler the handler run by each lane
+		 * @return the started dispatcher
+		 */
+		public PartitionedDispatcher<Command> build(final Handler<Command> handler) {
+			return new PartitionedDispatcher<>(this, handler::handle);
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package com.helluys.patterns.chain.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * A chain cut into stages, each run by its own thread. Stages are connected by
+ * preallocated single-producer single-consumer ring buffers, so that a slow
+ * stage, like parsing, does not stall the others, like dispatching.
+ * <p>
+ * The chain is cut at the points marked with {@link Builder#stage}: the
+ * returned end link or handler puts commands in the ring buffer of a new stage
+ * instead of processing them, and is used to build the upstream part of the
+ * chain. The entry stage is built last, with {@link Builder#build}. Each stage
+ * processes its commands in order, one at a time, exactly as the uncut chain
+ * would.
+ * <p>
+ * Each ring buffer has a single producer: the entry stage must be fed by one
+ * thread at a time, and a cut point must only be reached from one stage. When
+ * a ring buffer is full, its producer waits with the {@link WaitStrategy}.
+ * Exceptions thrown by a stage are passed on to its thread uncaught exception
+ * handler, and the stage goes on with the next command.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class Pipeline<Command> implements EndLink<Command>, Handler<Command>, AutoCloseable {
+
+	private static final AtomicInteger COUNT = new AtomicInteger();
+
+	private final PipelineStage<Command> entry;
+	private final List<PipelineStage<?>> stages;
+
+	private Pipeline(final PipelineStage<Command> entry, final List<PipelineStage<?>> stages) {
+		this.entry = entry;
+		this.stages = stages;
+	}
+
+	/**
+	 * @return a new pipeline builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Puts the command in the entry stage, waiting while its ring buffer is full.
+	 *
+	 * @param command the command
+	 * @throws RejectedExecutionException if the pipeline is closed
+	 */
+	@Override
+	public void accept(final Command command) {
+		entry.accept(command);
+	}
+
+	@Override
+	public void handle(final Command command) {
+		entry.accept(command);
+	}
+
+	/**
+	 * @return the number of commands waiting in each stage, from the entry stage
+	 *         to the last cut point
+	 */
+	public int[] depths() {
+		final int[] depths = new int[stages.size()];
+		for (int i = 0; i < depths.length; i++) {
+			depths[i] = stages.get(i).depth();
+		}
+		return depths;
+	}
+
+	/**
+	 * Rejects new commands, then drains and stops the stages from the entry to
+	 * the last cut point. Must be called once the entry stage is no longer fed.
+	 */
+	@Override
+	public void close() {
+		for (final PipelineStage<?> stage : stages) {
+			stage.close();
+		}
+	}
+
+	/**
+	 * Builds a {@link Pipeline}, from the last cut point up to the entry stage.
+	 */
+	public static final class Builder {
+
+		private final int id = COUNT.incrementAndGet();
+		private final List<PipelineStage<?>> stages = new ArrayList<>();
+		private int ringSize = 1024;
+		private WaitStrategy waitStrategy = WaitStrategy.YIELD;
+		private boolean built;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the ring buffer size of the next stages, 1024 by default.
+		 *
+		 * @param ringSize the ring buffer size, rounded up to a power of two
+		 * @return this {@link Builder}
+		 */
+		public Builder ringSize(final int ringSize) {
+			if (ringSize <= 0) {
+				throw new IllegalArgumentException("Ring size must be positive: " + ringSize);
+			}
+			this.ringSize = ringSize;
+			return this;
+		}
+
+		/**
+		 * Sets the wait strategy of the next stages, {@link WaitStrategy#YIELD} by
+		 * default.
+		 *
+		 * @param waitStrategy the wait strategy
+		 * @return this {@link Builder}
+		 */
+		public Builder waitStrategy(final WaitStrategy waitStrategy) {
+			if (waitStrategy == null) {
+				throw new NullPointerException("Wait strategy is null");
+			}
+			this.waitStrategy = waitStrategy;
+			return this;
+		}
+
+		/**
+		 * Cuts the chain before the given end link, which is run by a new stage.
+		 *
+		 * @param <T>     the command type of the stage
+		 * @param endLink the end link of the stage
+		 * @return an end link putting commands in the stage
+		 */
+		public <T> EndLink<T> stage(final EndLink<T> endLink) {
+			return add(endLink);
+		}
+
+		/**
+		 * Cuts the chain before the given handler, which is run by a new stage.
+		 *
+		 * @param <T>     the command type of the stage
+		 * @param handler the handler of the stage
+		 * @return a handler putting commands in the stage
+		 */
+		public <T> Handler<T> stage(final Handler<T> handler) {
+			return add(handler::handle);
+		}
+
+		/**
+		 * Builds the pipeline with the given end link as entry stage, and starts
+		 * all the stages.
+		 *
+		 * @param <Command> the command type
+		 * @param endLink   the end link of the entry stage
+		 * @return the started pipeline
+		 */
+		public <Command> Pipeline<Command> build(final EndLink<Command> endLink) {
+			return start(add(endLink));
+		}
+
+		/**
+		 * Builds the pipeline with the given handler as entry stage, and starts all
+		 * the stages.
+		 *
+		 * @param <Command> the command type
+		 * @param handler   the handler of the entry stage
+		 * @return the started pipeline
+		 */
+		public <Command> Pipeline<Command> build(final Handler<Command> handler) {
+			return start(add(handler::handle));
+		}
+
+		private <T> PipelineStage<T> add(final Consumer<T> processing) {
+			if (built) {
+				throw new IllegalStateException("Pipeline already built");
+			}
+			final PipelineStage<T> stage = new PipelineStage<>(processing, ringSize, waitStrategy,
+					"chain-pipeline-" + id + "-stage-" + stages.size());
+			stages.add(stage);
+			return stage;
+		}
+
+		private <Command> Pipeline<Command> start(final PipelineStage<Command> entry) {
+			built = true;
+			final List<PipelineStage<?>> ordered = new ArrayList<>(stages);
+			Collections.reverse(ordered);
+			for (final PipelineStage<?> stage : ordered) {
+				stage.start();
+			}
+			return new Pipeline<>(entry, Collections.unmodifiableList(ordered));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.helluys.patterns.chain.dispatch;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * A {@link Pipeline} stage: commands accepted by the stage are put in its ring
+ * buffer, and processed in order by the stage thread. Commands must be
+ * accepted by a single thread at a time.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class PipelineStage<Command> implements EndLink<Command>, Handler<Command> {
+
+	private final Consumer<Command> processing;
+	private final RingBuffer<Command> ring;
+	private final WaitStrategy waitStrategy;
+	private final Thread thread;
+	private volatile boolean closed;
+
+	PipelineStage(final Consumer<Command> processing, final int capacity, final WaitStrategy waitStrategy,
+			final String name) {
+		this.processing = processing;
+		this.ring = new RingBuffer<>(capacity);
+		this.waitStrategy = waitStrategy;
+		this.thread = new Thread(this::run, name);
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Puts the command in the ring buffer, waiting while it is full.
+	 *
+	 * @param command the command
+	 * @throws RejectedExecutionException if the stage is closed
+	 */
+	@Override
+	public void accept(final Command command) {
+		int idles = 0;
+		while (!closed) {
+			if (ring.offer(command)) {
+				return;
+			}
+			idles = waitStrategy.idle(idles);
+		}
+		throw new RejectedExecutionException("Pipeline is closed");
+	}
+
+	@Override
+	public void handle(final Command command) {
+		accept(command);
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	int depth() {
+		return ring.size();
+	}
+
+	/**
+	 * Stops the stage once its ring buffer is drained, and waits for it.
+	 */
+	void close() {
+		closed = true;
+		try {
+			thread.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		int idles = 0;
+		while (true) {
+			final Command command = ring.poll();
+			if (command != null) {
+				idles = 0;
+				run(command);
+			} else if (closed) {
+				// Commands offered before closing are visible once closed is read
+				final Command last = ring.poll();
+				if (last == null) {
+					return;
+				}
+				run(last);
+			} else {
+				idles = waitStrategy.idle(idles);
+			}
+		}
+	}
+
+	private void run(final Command command) {
+		try {
+			processing.accept(command);
+		} catch (final RuntimeException e) {
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		}
+	}
+}
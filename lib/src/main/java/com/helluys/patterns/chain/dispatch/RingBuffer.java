@@ -0,0 +1,111 @@
+package com.helluys.patterns.chain.dispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded, preallocated, single-producer single-consumer queue. Each side
+ * only writes its own position, published with a release store, and caches
+ * the last read position of the other side so that it only reads the shared
+ * position when the cached one says the buffer is full or empty.
+ *
+ * @author Helluys
+ *
+ * @param <T> the element type
+ */
+final class RingBuffer<T> {
+
+	private static final VarHandle HEAD;
+	private static final VarHandle TAIL;
+
+	static {
+		try {
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			HEAD = lookup.findVarHandle(RingBuffer.class, "head", long.class);
+			TAIL = lookup.findVarHandle(RingBuffer.class, "tail", long.class);
+		} catch (final ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final Object[] slots;
+	private final int mask;
+
+	/** Next position to read, only written by the consumer. */
+	private long head;
+	/** Next position to write, only written by the producer. */
+	private long tail;
+
+	/** Last head read by the producer. */
+	private long cachedHead;
+	/** Last tail read by the consumer. */
+	private long cachedTail;
+
+	/**
+	 * @param capacity the capacity, rounded up to a power of two
+	 */
+	RingBuffer(final int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+		}
+		final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		this.slots = new Object[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Producer side.
+	 *
+	 * @param value the value, not null
+	 * @return {@code true} if the value was added, {@code false} if the buffer
+	 *         is full
+	 */
+	boolean offer(final T value) {
+		final long position = tail;
+		if (position - cachedHead >= slots.length) {
+			cachedHead = (long) HEAD.getAcquire(this);
+			if (position - cachedHead >= slots.length) {
+				return false;
+			}
+		}
+		slots[(int) position & mask] = value;
+		TAIL.setRelease(this, position + 1);
+		return true;
+	}
+
+	/**
+	 * Consumer side.
+	 *
+	 * @return the oldest value, or {@code null} if the buffer is empty
+	 */
+	@SuppressWarnings("unchecked")
+	T poll() {
+		final long position = head;
+		if (position >= cachedTail) {
+			cachedTail = (long) TAIL.getAcquire(this);
+			if (position >= cachedTail) {
+				return null;
+			}
+		}
+		final int index = (int) position & mask;
+		final T value = (T) slots[index];
+		slots[index] = null;
+		HEAD.setRelease(this, position + 1);
+		return value;
+	}
+
+	/**
+	 * @return the number of values in the buffer, from any thread
+	 */
+	int size() {
+		final long read = (long) HEAD.getAcquire(this);
+		return (int) ((long) TAIL.getAcquire(this) - read);
+	}
+
+	/**
+	 * @return the capacity of the buffer
+	 */
+	int capacity() {
+		return slots.length;
+	}
+}
@@ -0,0 +1,194 @@
+package com.helluys.patterns.chain.dispatch;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * Dispatches each command to an {@link EndLink} or {@link Handler} on its own
+ * virtual thread, so that blocking terminal processing (JDBC, files...) is not
+ * capped by the size of a platform thread pool. On runtimes without virtual
+ * threads, a new daemon platform thread is started per command instead.
+ * <p>
+ * At most {@code maxConcurrency} commands are processed at once: beyond that,
+ * dispatching blocks the caller until a command completes. Once
+ * {@link #close() closed}, the dispatcher rejects new commands and waits for
+ * the in-flight ones to complete. Exceptions thrown by the processing are
+ * passed on to the thread uncaught exception handler.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class VirtualThreadDispatcher<Command> implements EndLink<Command>, Handler<Command>, AutoCloseable {
+
+	private static final ThreadFactory THREAD_FACTORY = threadFactory();
+
+	private final Consumer<Command> processing;
+	private final int maxConcurrency;
+	private final Semaphore permits;
+	/** The number of threads dispatching, counted before checking the dispatcher is open. */
+	private final AtomicInteger dispatching = new AtomicInteger();
+	private volatile boolean closed;
+
+	private VirtualThreadDispatcher(final Consumer<Command> processing, final int maxConcurrency) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Maximum concurrency must be positive: " + maxConcurrency);
+		}
+		this.processing = processing;
+		this.maxConcurrency = maxConcurrency;
+		this.permits = new Semaphore(maxConcurrency);
+	}
+
+	/**
+	 * Returns a new dispatcher to the given end link.
+	 *
+	 * @param <Command>      the command type
+	 * @param endLink        the end link
+	 * @param maxConcurrency the maximum number of commands processed at once
+	 * @return a new dispatcher
+	 */
+	public static <Command> VirtualThreadDispatcher<Command> of(final EndLink<Command> endLink,
+			final int maxConcurrency) {
+		return new VirtualThreadDispatcher<>(endLink, maxConcurrency);
+	}
+
+	/**
+	 * Returns a new dispatcher to the given handler.
+	 *
+	 * @param <Command>      the command type
+	 * @param handler        the handler
+	 * @param maxConcurrency the maximum number of commands processed at once
+	 * @return a new dispatcher
+	 */
+	public static <Command> VirtualThreadDispatcher<Command> of(final Handler<Command> handler,
+			final int maxConcurrency) {
+		return new VirtualThreadDispatcher<>(handler::handle, maxConcurrency);
+	}
+
+	/**
+	 * @return {@code true} if commands are dispatched on virtual threads,
+	 *         {@code false} if this runtime falls back to platform threads
+	 */
+	public static boolean virtualThreads() {
+		return !(THREAD_FACTORY instanceof PlatformThreadFactory);
+	}
+
+	/**
+	 * Dispatches the command, blocking while {@code maxConcurrency} commands are
+	 * already in flight.
+	 *
+	 * @param command the command
+	 * @throws RejectedExecutionException if the dispatcher is closed, or the
+	 *                                    caller is interrupted while blocked
+	 */
+	@Override
+	public void accept(final Command command) {
+		dispatching.incrementAndGet();
+		try {
+			if (closed) {
+				throw new RejectedExecutionException("Dispatcher is closed");
+			}
+			dispatch(command);
+		} finally {
+			dispatching.decrementAndGet();
+		}
+	}
+
+	private void dispatch(final Command command) {
+		try {
+			permits.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for a dispatch slot", e);
+		}
+
+		try {
+			THREAD_FACTORY.newThread(() -> {
+				try {
+					processing.accept(command);
+				} finally {
+					permits.release();
+				}
+			}).start();
+		} catch (final RuntimeException | Error e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public void handle(final Command command) {
+		accept(command);
+	}
+
+	/**
+	 * @return the number of commands being processed
+	 */
+	public int inFlight() {
+		return maxConcurrency - permits.availablePermits();
+	}
+
+	/**
+	 * Waits for all the in-flight commands to complete.
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit    the time unit of the timeout
+	 * @return {@code true} if all commands completed, {@code false} if the
+	 *         timeout elapsed first
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean awaitDrain(final long timeout, final TimeUnit unit) throws InterruptedException {
+		if (permits.tryAcquire(maxConcurrency, timeout, unit)) {
+			permits.release(maxConcurrency);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Rejects new commands and waits for all the in-flight commands to complete.
+	 * If interrupted while waiting, returns early with the interrupt flag set.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			// Commands being dispatched are started before draining
+			while (dispatching.get() > 0) {
+				Thread.onSpinWait();
+			}
+			permits.acquire(maxConcurrency);
+			permits.release(maxConcurrency);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static ThreadFactory threadFactory() {
+		try {
+			final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			return new PlatformThreadFactory();
+		}
+	}
+
+	private static final class PlatformThreadFactory implements ThreadFactory {
+		private final AtomicLong count = new AtomicLong();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, "chain-dispatch-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.helluys.patterns.chain.dispatch;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a {@link Pipeline} stage waits while its ring buffer is empty, or while
+ * the ring buffer of the next stage is full. The strategies trade latency for
+ * CPU: {@link #BUSY_SPIN} reacts fastest but burns a core per stage,
+ * {@link #PARK} leaves the core to other threads at the cost of wake-up
+ * latency.
+ *
+ * @author Helluys
+ */
+public enum WaitStrategy {
+
+	/**
+	 * Spins on the CPU without ever giving up the core.
+	 */
+	BUSY_SPIN {
+		@Override
+		int idle(final int idles) {
+			Thread.onSpinWait();
+			return idles;
+		}
+	},
+
+	/**
+	 * Spins for a while, then yields the core to other threads.
+	 */
+	YIELD {
+		@Override
+		int idle(final int idles) {
+			if (idles < SPINS) {
+				Thread.onSpinWait();
+				return idles + 1;
+			}
+			Thread.yield();
+			return idles;
+		}
+	},
+
+	/**
+	 * Spins for a while, yields for a while, then parks the thread for
+	 * {@value #PARK_NANOS} nanoseconds at a time.
+	 */
+	PARK {
+		@Override
+		int idle(final int idles) {
+			if (idles < SPINS) {
+				Thread.onSpinWait();
+				return idles + 1;
+			} else if (idles < SPINS + YIELDS) {
+				Thread.yield();
+				return idles + 1;
+			}
+			LockSupport.parkNanos(PARK_NANOS);
+			return idles;
+		}
+	};
+
+	private static final int SPINS = 100;
+	private static final int YIELDS = 100;
+	private static final long PARK_NANOS = 50_000L;
+
+	/**
+	 * Waits once.
+	 *
+	 * @param idles the number of times waited since the last progress
+	 * @return the number of times waited to pass on the next call
+	 */
+	abstract int idle(int idles);
+}
@@ -0,0 +1,309 @@
+package com.helluys.patterns.chain.flow;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.helluys.patterns.common.Either;
+
+/**
+ * A {@link Flow.Processor} mapping each command to an {@link Either}, as
+ * {@link com.helluys.patterns.chain.link.Link#of(Function, com.helluys.patterns.chain.link.Link, com.helluys.patterns.chain.link.Link)
+ * Link.of(mapper, left, right)}, then publishing the left values, usually
+ * errors, with the {@link #left()} publisher and the right values with the
+ * {@link #right()} publisher. Subscribing to the processor subscribes to the
+ * right publisher.
+ * <p>
+ * Each publisher accepts a single subscriber, and buffers the values until it
+ * is requested. The processor requests the commands of its own publisher in
+ * batches, as a {@link LinkSubscriber}, and at most a batch of values is ever
+ * buffered by both publishers: a slow subscriber, or a side left without
+ * subscriber, throttles the upstream publisher. Values of a cancelled side are
+ * dropped.
+ * <p>
+ * If the mapper throws an exception, the upstream subscription is cancelled and
+ * both publishers fail with the exception once their buffered values have been
+ * delivered.
+ *
+ * @author Helluys
+ *
+ * @param <Command>      the command type
+ * @param <LeftCommand>  the left value type
+ * @param <RightCommand> the right value type
+ */
+public final class EitherProcessor<Command, LeftCommand, RightCommand>
+		implements Flow.Processor<Command, RightCommand> {
+
+	private final Function<Command, Either<LeftCommand, RightCommand>> mapper;
+	private final int batchSize;
+	private final int replenish;
+	private final Side<LeftCommand> left = new Side<>();
+	private final Side<RightCommand> right = new Side<>();
+
+	private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+	/** Values delivered or dropped since the last request. */
+	private final AtomicInteger consumed = new AtomicInteger();
+	private volatile boolean failed;
+
+	private EitherProcessor(final Function<Command, Either<LeftCommand, RightCommand>> mapper, final int batchSize) {
+		this.mapper = mapper;
+		this.batchSize = batchSize;
+		this.replenish = batchSize - batchSize / 2;
+	}
+
+	/**
+	 * Returns a new processor requesting the
+	 * {@link Flow#defaultBufferSize() default buffer size} of commands at once.
+	 *
+	 * @param <Command>      the command type
+	 * @param <LeftCommand>  the left value type
+	 * @param <RightCommand> the right value type
+	 * @param mapper         the command mapping function
+	 * @return a new processor
+	 */
+	public static <Command, LeftCommand, RightCommand> EitherProcessor<Command, LeftCommand, RightCommand> of(
+			final Function<Command, Either<LeftCommand, RightCommand>> mapper) {
+		return of(mapper, Flow.defaultBufferSize());
+	}
+
+	/**
+	 * Returns a new processor requesting the given number of commands at once.
+	 *
+	 * @param <Command>      the command type
+	 * @param <LeftCommand>  the left value type
+	 * @param <RightCommand> the right value type
+	 * @param mapper         the command mapping function
+	 * @param batchSize      the number of commands requested at once
+	 * @return a new processor
+	 */
+	public static <Command, LeftCommand, RightCommand> EitherProcessor<Command, LeftCommand, RightCommand> of(
+			final Function<Command, Either<LeftCommand, RightCommand>> mapper, final int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		return new EitherProcessor<>(Objects.requireNonNull(mapper), batchSize);
+	}
+
+	/**
+	 * @return the publisher of the left values
+	 */
+	public Flow.Publisher<LeftCommand> left() {
+		return left;
+	}
+
+	/**
+	 * @return the publisher of the right values
+	 */
+	public Flow.Publisher<RightCommand> right() {
+		return right;
+	}
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super RightCommand> subscriber) {
+		right.subscribe(subscriber);
+	}
+
+	@Override
+	public void onSubscribe(final Flow.Subscription subscription) {
+		Objects.requireNonNull(subscription);
+		if (!upstream.compareAndSet(null, subscription)) {
+			subscription.cancel();
+			return;
+		}
+		subscription.request(batchSize);
+	}
+
+	@Override
+	public void onNext(final Command command) {
+		Objects.requireNonNull(command);
+		if (failed) {
+			return;
+		}
+
+		final Either<LeftCommand, RightCommand> either;
+		try {
+			either = mapper.apply(command);
+		} catch (final RuntimeException e) {
+			failed = true;
+			upstream.get().cancel();
+			left.terminate(e);
+			right.terminate(e);
+			return;
+		}
+		either.consume(left::offer, right::offer);
+	}
+
+	@Override
+	public void onError(final Throwable throwable) {
+		Objects.requireNonNull(throwable);
+		if (!failed) {
+			left.terminate(throwable);
+			right.terminate(throwable);
+		}
+	}
+
+	@Override
+	public void onComplete() {
+		if (!failed) {
+			left.terminate(null);
+			right.terminate(null);
+		}
+	}
+
+	/**
+	 * Requests more commands once half a batch of values has been delivered or
+	 * dropped.
+	 */
+	private void consumed(final int count) {
+		int current = consumed.addAndGet(count);
+		while (current >= replenish) {
+			if (consumed.compareAndSet(current, current - replenish)) {
+				upstream.get().request(replenish);
+				current -= replenish;
+			} else {
+				current = consumed.get();
+			}
+		}
+	}
+
+	private void sideCancelled() {
+		final Flow.Subscription subscription = upstream.get();
+		if (left.cancelled && right.cancelled && subscription != null) {
+			subscription.cancel();
+		}
+	}
+
+	/**
+	 * The unicast publisher of one side of the processor.
+	 *
+	 * @param <T> the value type
+	 */
+	private final class Side<T> implements Flow.Publisher<T>, Flow.Subscription {
+
+		private final AtomicReference<Flow.Subscriber<? super T>> subscriber = new AtomicReference<>();
+		private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean done;
+		private volatile Throwable error;
+		private volatile boolean cancelled;
+		private volatile Throwable invalid;
+		/** Whether the subscriber has been terminated, accessed by the drain only. */
+		private boolean terminated;
+
+		@Override
+		public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+			Objects.requireNonNull(subscriber);
+			if (!this.subscriber.compareAndSet(null, subscriber)) {
+				subscriber.onSubscribe(new Flow.Subscription() {
+					@Override
+					public void request(final long n) {
+					}
+
+					@Override
+					public void cancel() {
+					}
+				});
+				subscriber.onError(new IllegalStateException("Already subscribed"));
+				return;
+			}
+			subscriber.onSubscribe(this);
+			drain();
+		}
+
+		@Override
+		public void request(final long n) {
+			if (n <= 0) {
+				invalid = new IllegalArgumentException("Requested count must be positive: " + n);
+			} else {
+				requested.accumulateAndGet(n,
+						(current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				drain();
+				sideCancelled();
+			}
+		}
+
+		void offer(final T value) {
+			queue.offer(value);
+			drain();
+		}
+
+		void terminate(final Throwable throwable) {
+			error = throwable;
+			done = true;
+			drain();
+		}
+
+		private void drain() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				final Flow.Subscriber<? super T> current = subscriber.get();
+				if (current != null && invalid != null && !terminated) {
+					terminated = true;
+					dropAll();
+					current.onError(invalid);
+					cancel();
+				} else if (cancelled || terminated) {
+					dropAll();
+				} else if (current != null) {
+					emit(current);
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emit(final Flow.Subscriber<? super T> current) {
+			final long demand = requested.get();
+			long emitted = 0;
+			while (emitted != demand && !cancelled) {
+				final T value = queue.poll();
+				if (value == null) {
+					break;
+				}
+				current.onNext(value);
+				emitted++;
+			}
+			if (emitted != 0) {
+				if (demand != Long.MAX_VALUE) {
+					requested.addAndGet(-emitted);
+				}
+				consumed((int) emitted);
+			}
+
+			if (!cancelled && done && queue.isEmpty()) {
+				terminated = true;
+				if (error == null) {
+					current.onComplete();
+				} else {
+					current.onError(error);
+				}
+			}
+		}
+
+		private void dropAll() {
+			int dropped = 0;
+			while (queue.poll() != null) {
+				dropped++;
+			}
+			if (dropped != 0) {
+				consumed(dropped);
+			}
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.helluys.patterns.chain.flow;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * A {@link Flow.Subscriber} processing the received commands with an
+ * {@link EndLink} or a {@link Handler}, one at a time and in order, on an
+ * executor.
+ * <p>
+ * The subscriber requests a batch of commands on subscription, then requests
+ * half a batch each time half a batch has been processed: at most a batch of
+ * commands is ever buffered, and a slow processing throttles the publisher.
+ * <p>
+ * If the processing throws an exception, the subscription is cancelled and the
+ * {@link #completion() completion} fails with the exception.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class LinkSubscriber<Command> implements Flow.Subscriber<Command> {
+
+	private final Consumer<Command> processing;
+	private final Executor executor;
+	private final int batchSize;
+	private final int replenish;
+
+	private final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+	private final Queue<Command> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger wip = new AtomicInteger();
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+	private volatile boolean done;
+	private volatile Throwable error;
+	private volatile boolean cancelled;
+	/** Commands processed since the last request, accessed by the drain only. */
+	private int consumed;
+
+	private LinkSubscriber(final Builder<Command> builder, final Consumer<Command> processing) {
+		this.processing = processing;
+		this.executor = builder.executor;
+		this.batchSize = builder.batchSize;
+		this.replenish = batchSize - batchSize / 2;
+	}
+
+	/**
+	 * @param <Command> the command type
+	 * @return a new builder
+	 */
+	public static <Command> Builder<Command> builder() {
+		return new Builder<>();
+	}
+
+	@Override
+	public void onSubscribe(final Flow.Subscription subscription) {
+		Objects.requireNonNull(subscription);
+		if (!this.subscription.compareAndSet(null, subscription)) {
+			subscription.cancel();
+			return;
+		}
+		if (cancelled) {
+			subscription.cancel();
+		} else {
+			subscription.request(batchSize);
+		}
+	}
+
+	@Override
+	public void onNext(final Command command) {
+		queue.offer(Objects.requireNonNull(command));
+		schedule();
+	}
+
+	@Override
+	public void onError(final Throwable throwable) {
+		error = Objects.requireNonNull(throwable);
+		done = true;
+		schedule();
+	}
+
+	@Override
+	public void onComplete() {
+		done = true;
+		schedule();
+	}
+
+	/**
+	 * Cancels the subscription and drops the buffered commands. The completion
+	 * is cancelled.
+	 */
+	public void cancel() {
+		cancelled = true;
+		final Flow.Subscription current = subscription.get();
+		if (current != null) {
+			current.cancel();
+		}
+		completion.cancel(false);
+	}
+
+	/**
+	 * @return a stage completed once the publisher has completed and all the
+	 *         received commands have been processed, or failed with the error
+	 *         of the publisher or of the processing
+	 */
+	public CompletionStage<Void> completion() {
+		return completion.minimalCompletionStage();
+	}
+
+	private void schedule() {
+		if (wip.getAndIncrement() == 0) {
+			try {
+				executor.execute(this::drain);
+			} catch (final RejectedExecutionException e) {
+				fail(e);
+			}
+		}
+	}
+
+	private void drain() {
+		int missed = 1;
+		do {
+			while (!cancelled) {
+				final boolean terminated = done;
+				final Command command = queue.poll();
+				if (command == null) {
+					if (terminated) {
+						complete();
+						return;
+					}
+					break;
+				}
+
+				try {
+					processing.accept(command);
+				} catch (final RuntimeException e) {
+					fail(e);
+					return;
+				}
+				if (++consumed == replenish) {
+					consumed = 0;
+					subscription.get().request(replenish);
+				}
+			}
+			if (cancelled) {
+				queue.clear();
+				return;
+			}
+			missed = wip.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	private void complete() {
+		if (error == null) {
+			completion.complete(null);
+		} else {
+			completion.completeExceptionally(error);
+		}
+	}
+
+	private void fail(final Throwable throwable) {
+		cancelled = true;
+		queue.clear();
+		final Flow.Subscription current = subscription.get();
+		if (current != null) {
+			current.cancel();
+		}
+		completion.completeExceptionally(throwable);
+	}
+
+	/**
+	 * Builds a {@link LinkSubscriber}.
+	 *
+	 * @param <Command> the command type
+	 */
+	public static final class Builder<Command> {
+
+		private int batchSize = Flow.defaultBufferSize();
+		private Executor executor = ForkJoinPool.commonPool();
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the number of commands requested at once, the
+		 * {@link Flow#defaultBufferSize() default buffer size} by default.
+		 *
+		 * @param batchSize the number of commands requested at once
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> batchSize(final int batchSize) {
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets the executor of the processing, the common fork join pool by
+		 * default. {@code Runnable::run} processes the commands on the publisher
+		 * thread.
+		 *
+		 * @param executor the executor of the processing
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> executor(final Executor executor) {
+			this.executor = Objects.requireNonNull(executor);
+			return this;
+		}
+
+		/**
+		 * Builds a subscriber processing the commands with the given end link.
+		 *
+		 * @param endLink the end link
+		 * @return the subscriber
+		 */
+		public LinkSubscriber<Command> build(final EndLink<Command> endLink) {
+			return new LinkSubscriber<>(this, endLink);
+		}
+
+		/**
+		 * Builds a subscriber processing the commands with the given handler.
+		 *
+		 * @param handler the handler
+		 * @return the subscriber
+		 */
+		public LinkSubscriber<Command> build(final Handler<Command> handler) {
+			return new LinkSubscriber<>(this, handler::handle);
+		}
+	}
+}
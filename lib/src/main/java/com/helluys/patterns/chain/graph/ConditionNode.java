@@ -0,0 +1,89 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.ChainBuilder;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.KeyPredicate;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * A {@link NodeKind#CONDITION} node.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class ConditionNode<Command> extends GraphNode<Command> {
+
+	final Predicate<Command> predicate;
+	final GraphNode<Command> ifTrue;
+	final GraphNode<Command> ifFalse;
+
+	ConditionNode(final String name, final Predicate<Command> predicate, final GraphNode<Command> ifTrue,
+			final GraphNode<Command> ifFalse) {
+		super(name);
+		this.predicate = predicate;
+		this.ifTrue = ifTrue;
+		this.ifFalse = ifFalse;
+	}
+
+	@Override
+	public NodeKind kind() {
+		return NodeKind.CONDITION;
+	}
+
+	@Override
+	public GraphNode<Command> named(final String name) {
+		return new ConditionNode<>(name, predicate, ifTrue, ifFalse);
+	}
+
+	@Override
+	Map<String, GraphNode<?>> edges() {
+		final Map<String, GraphNode<?>> edges = new LinkedHashMap<>();
+		edges.put("true", ifTrue);
+		edges.put("false", ifFalse);
+		return edges;
+	}
+
+	/**
+	 * Emits a flat chain: the conditions of a chain of conditions are tested by
+	 * a single loop.
+	 */
+	@Override
+	EndLink<Command> emitEndLink(final Emitter emitter) {
+		return new ChainBuilder<Command>().add(Link.of(predicate, emitter.endLink(ifTrue)))
+				.end(emitter.endLink(ifFalse));
+	}
+
+	@Override
+	Handler<Command> emitHandler(final Emitter emitter) {
+		return Handler.condition(predicate, emitter.handler(ifTrue), emitter.handler(ifFalse));
+	}
+
+	@Override
+	boolean sameAs(final GraphNode<?> other) {
+		if (!(other instanceof ConditionNode)) {
+			return false;
+		}
+		final ConditionNode<?> condition = (ConditionNode<?>) other;
+		return condition.predicate == predicate && condition.ifTrue.equals(ifTrue)
+				&& condition.ifFalse.equals(ifFalse);
+	}
+
+	@Override
+	int localHash() {
+		return System.identityHashCode(predicate);
+	}
+
+	@Override
+	public String toString() {
+		if (predicate instanceof KeyPredicate) {
+			return super.toString() + " key in " + ((KeyPredicate<?, ?>) predicate).keys();
+		}
+		return super.toString();
+	}
+}
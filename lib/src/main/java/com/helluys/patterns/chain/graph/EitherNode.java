@@ -0,0 +1,68 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+
+/**
+ * A {@link NodeKind#EITHER} node.
+ *
+ * @author Helluys
+ *
+ * @param <LeftCommand>  the left command type
+ * @param <RightCommand> the right command type
+ */
+final class EitherNode<LeftCommand, RightCommand> extends GraphNode<Either<LeftCommand, RightCommand>> {
+
+	final GraphNode<LeftCommand> left;
+	final GraphNode<RightCommand> right;
+
+	EitherNode(final String name, final GraphNode<LeftCommand> left, final GraphNode<RightCommand> right) {
+		super(name);
+		this.left = left;
+		this.right = right;
+	}
+
+	@Override
+	public NodeKind kind() {
+		return NodeKind.EITHER;
+	}
+
+	@Override
+	public GraphNode<Either<LeftCommand, RightCommand>> named(final String name) {
+		return new EitherNode<>(name, left, right);
+	}
+
+	@Override
+	Map<String, GraphNode<?>> edges() {
+		final Map<String, GraphNode<?>> edges = new LinkedHashMap<>();
+		edges.put("left", left);
+		edges.put("right", right);
+		return edges;
+	}
+
+	@Override
+	Handler<Either<LeftCommand, RightCommand>> emitHandler(final Emitter emitter) {
+		return Handler.either(emitter.handler(left), emitter.handler(right));
+	}
+
+	@Override
+	EndLink<Either<LeftCommand, RightCommand>> emitEndLink(final Emitter emitter) {
+		return Link.either(emitter.endLink(left), emitter.endLink(right));
+	}
+
+	@Override
+	boolean sameAs(final GraphNode<?> other) {
+		return other instanceof EitherNode && ((EitherNode<?, ?>) other).left.equals(left)
+				&& ((EitherNode<?, ?>) other).right.equals(right);
+	}
+
+	@Override
+	int localHash() {
+		return 0;
+	}
+}
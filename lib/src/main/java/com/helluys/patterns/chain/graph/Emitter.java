@@ -0,0 +1,39 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * Turns a graph into executable handlers or end links, a node shared by
+ * several parents being turned into a single instance.
+ *
+ * @author Helluys
+ */
+final class Emitter {
+
+	private final Map<GraphNode<?>, Handler<?>> handlers = new IdentityHashMap<>();
+	private final Map<GraphNode<?>, EndLink<?>> endLinks = new IdentityHashMap<>();
+
+	@SuppressWarnings("unchecked")
+	<Command> Handler<Command> handler(final GraphNode<Command> node) {
+		Handler<Command> handler = (Handler<Command>) handlers.get(node);
+		if (handler == null) {
+			handler = node.emitHandler(this);
+			handlers.put(node, handler);
+		}
+		return handler;
+	}
+
+	@SuppressWarnings("unchecked")
+	<Command> EndLink<Command> endLink(final GraphNode<Command> node) {
+		EndLink<Command> endLink = (EndLink<Command>) endLinks.get(node);
+		if (endLink == null) {
+			endLink = node.emitEndLink(this);
+			endLinks.put(node, endLink);
+		}
+		return endLink;
+	}
+}
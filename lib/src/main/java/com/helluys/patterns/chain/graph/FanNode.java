@@ -0,0 +1,107 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.EnumLink;
+
+/**
+ * A {@link NodeKind#FAN} node. Without default node, unmapped enumerated values
+ * are an error, as with {@link Handler#fan}.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ * @param <Type>    the enumerated value type
+ */
+final class FanNode<Command, Type extends Enum<Type>> extends GraphNode<Command> {
+
+	private static final String MISSING = "No handler for the command type";
+
+	final Function<Command, Type> typeExtractor;
+	final EnumMap<Type, GraphNode<Command>> branches;
+	/** The default node, or {@code null}. */
+	final GraphNode<Command> otherwise;
+
+	FanNode(final String name, final Function<Command, Type> typeExtractor,
+			final EnumMap<Type, GraphNode<Command>> branches, final GraphNode<Command> otherwise) {
+		super(name);
+		this.typeExtractor = typeExtractor;
+		this.branches = branches;
+		this.otherwise = otherwise;
+	}
+
+	@Override
+	public NodeKind kind() {
+		return NodeKind.FAN;
+	}
+
+	@Override
+	public GraphNode<Command> named(final String name) {
+		return new FanNode<>(name, typeExtractor, branches, otherwise);
+	}
+
+	/**
+	 * @return whether every enumerated value has a branch
+	 */
+	boolean covers() {
+		return !branches.isEmpty() && branches.size() == branches.keySet().iterator().next().getDeclaringClass()
+				.getEnumConstants().length;
+	}
+
+	@Override
+	Map<String, GraphNode<?>> edges() {
+		final Map<String, GraphNode<?>> edges = new LinkedHashMap<>();
+		branches.forEach((type, branch) -> edges.put(type.name(), branch));
+		if (otherwise != null) {
+			edges.put("otherwise", otherwise);
+		}
+		return edges;
+	}
+
+	@Override
+	Handler<Command> emitHandler(final Emitter emitter) {
+		if (branches.isEmpty()) {
+			return otherwise == null ? Handler.terminal(c -> {
+				throw new NullPointerException(MISSING);
+			}) : emitter.handler(otherwise);
+		}
+
+		final EnumMap<Type, Handler<Command>> handlers = new EnumMap<>(
+				branches.keySet().iterator().next().getDeclaringClass());
+		branches.forEach((type, branch) -> handlers.put(type, emitter.handler(branch)));
+		if (otherwise != null) {
+			// Null values go to the default node too, as with an EnumLink
+			return Handler.keyed(typeExtractor, handlers, emitter.handler(otherwise));
+		}
+		return Handler.fan(typeExtractor, handlers);
+	}
+
+	@Override
+	EndLink<Command> emitEndLink(final Emitter emitter) {
+		final EnumLink<Command, Type> link = new EnumLink<>(typeExtractor);
+		branches.forEach((type, branch) -> link.with(type, emitter.endLink(branch)));
+		return link.otherwise(otherwise != null ? emitter.endLink(otherwise) : c -> {
+			throw new NullPointerException(MISSING);
+		});
+	}
+
+	@Override
+	boolean sameAs(final GraphNode<?> other) {
+		if (!(other instanceof FanNode)) {
+			return false;
+		}
+		final FanNode<?, ?> fan = (FanNode<?, ?>) other;
+		return fan.typeExtractor == typeExtractor && fan.branches.equals(branches)
+				&& (otherwise == null ? fan.otherwise == null : otherwise.equals(fan.otherwise));
+	}
+
+	@Override
+	int localHash() {
+		return System.identityHashCode(typeExtractor);
+	}
+}
@@ -0,0 +1,110 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * Lifts a chain built with the {@link Handler} and {@link Link} factories into
+ * a graph. Nodes are described through {@link Liftable} and
+ * {@link LiftableLink}. Other handlers and end links are lifted as opaque
+ * terminal nodes. Other links are lifted as a condition testing whether they
+ * consume the command, the only condition whose predicate has side effects:
+ * its branches are never equal, so the optimizer keeps it.
+ * <p>
+ * A handler or end link shared by several parents is lifted into a single
+ * node.
+ *
+ * @author Helluys
+ */
+public final class GraphLifter {
+
+	private final Map<Object, GraphNode<?>> lifted = new IdentityHashMap<>();
+
+	GraphLifter() {
+	}
+
+	/**
+	 * Lifts a handler.
+	 *
+	 * @param <Command> the command type
+	 * @param handler   the handler
+	 * @return the graph node
+	 */
+	@SuppressWarnings("unchecked")
+	public <Command> GraphNode<Command> handler(final Handler<Command> handler) {
+		GraphNode<Command> node = (GraphNode<Command>) lifted.get(handler);
+		if (node == null) {
+			node = handler instanceof Liftable ? (GraphNode<Command>) ((Liftable) handler).lift(this)
+					: GraphNode.terminal(handler::handle);
+			lifted.put(handler, node);
+		}
+		return node;
+	}
+
+	/**
+	 * Lifts an end link.
+	 *
+	 * @param <Command> the command type
+	 * @param endLink   the end link, or ended chain
+	 * @return the graph node
+	 */
+	@SuppressWarnings("unchecked")
+	public <Command> GraphNode<Command> endLink(final EndLink<Command> endLink) {
+		GraphNode<Command> node = (GraphNode<Command>) lifted.get(endLink);
+		if (node == null) {
+			node = endLink instanceof Liftable ? (GraphNode<Command>) ((Liftable) endLink).lift(this)
+					: GraphNode.terminal(endLink);
+			lifted.put(endLink, node);
+		}
+		return node;
+	}
+
+	/**
+	 * Lifts a link ahead of the node of the commands it does not consume.
+	 *
+	 * @param <Command> the command type
+	 * @param link      the link
+	 * @param otherwise the node of the commands the link does not consume
+	 * @return the graph node
+	 */
+	@SuppressWarnings("unchecked")
+	public <Command> GraphNode<Command> link(final Link<Command> link, final GraphNode<Command> otherwise) {
+		if (link instanceof LiftableLink) {
+			return (GraphNode<Command>) ((LiftableLink) link).lift(this, otherwise);
+		}
+		return GraphNode.condition(link::process, GraphNode.terminal(new Consumed<>()), otherwise).named("link");
+	}
+
+	/**
+	 * Lifts a chain of links: the links are tried in order until one consumes
+	 * the command.
+	 *
+	 * @param <Command> the command type
+	 * @param links     the links
+	 * @param otherwise the node of the commands no link consumes
+	 * @return the graph node
+	 */
+	public <Command> GraphNode<Command> chain(final Link<Command>[] links, final GraphNode<Command> otherwise) {
+		GraphNode<Command> node = otherwise;
+		for (int i = links.length - 1; i >= 0; i--) {
+			node = link(links[i], node);
+		}
+		return node;
+	}
+
+	/**
+	 * The processing of the commands consumed by an opaque link, a distinct
+	 * instance per link so that its terminal node equals no other.
+	 */
+	private static final class Consumed<Command> implements Consumer<Command> {
+		@Override
+		public void accept(final Command command) {
+			// Already consumed by the link
+		}
+	}
+}
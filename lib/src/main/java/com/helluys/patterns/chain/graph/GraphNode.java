@@ -0,0 +1,303 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.KeyPredicate;
+import com.helluys.patterns.common.Either;
+
+/**
+ * A node of an inspectable chain graph. A graph can be {@link #dump() dumped}
+ * and {@link #optimize() optimized} before being turned into an executable
+ * {@link Handler} or {@link EndLink}. Every node always consumes its command,
+ * as a handler or an end link does.
+ * <p>
+ * A graph is either built with the factories of this class, or
+ * {@link #of(Handler) lifted} from a chain built with the {@link Handler} and
+ * {@link com.helluys.patterns.chain.link.Link Link} factories, whose nodes
+ * describe their structure through {@link Liftable} and {@link LiftableLink}.
+ * <p>
+ * Nodes are immutable, and may be shared by several parents: a shared node is
+ * turned into a single handler or end link. Two nodes are equal if they have
+ * the same structure over the same function, predicate and consumer instances.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public abstract class GraphNode<Command> {
+
+	private final String name;
+	private int hash;
+
+	GraphNode(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Lifts the given handler into a graph, as described by {@link GraphLifter}.
+	 *
+	 * @param <Command> the command type
+	 * @param handler   the handler
+	 * @return the graph of the handler
+	 */
+	public static <Command> GraphNode<Command> of(final Handler<Command> handler) {
+		return new GraphLifter().handler(handler);
+	}
+
+	/**
+	 * Lifts the given end link, or ended chain, into a graph, as described by
+	 * {@link GraphLifter}.
+	 *
+	 * @param <Command> the command type
+	 * @param endLink   the end link
+	 * @return the graph of the end link
+	 */
+	public static <Command> GraphNode<Command> of(final EndLink<Command> endLink) {
+		return new GraphLifter().endLink(endLink);
+	}
+
+	/**
+	 * Returns a node consuming the command with the given processing.
+	 *
+	 * @param <Command>  the command type
+	 * @param processing the processing
+	 * @return a new terminal node
+	 */
+	public static <Command> GraphNode<Command> terminal(final Consumer<Command> processing) {
+		return new TerminalNode<>(null, Objects.requireNonNull(processing));
+	}
+
+	/**
+	 * Returns a node mapping the command to a new type before passing it on to
+	 * the given node.
+	 *
+	 * @param <Command>    the command type
+	 * @param <NewCommand> the mapped command type
+	 * @param mapper       the command mapping function
+	 * @param next         the next node
+	 * @return a new map node
+	 */
+	public static <Command, NewCommand> GraphNode<Command> map(final Function<Command, NewCommand> mapper,
+			final GraphNode<NewCommand> next) {
+		return new MapNode<>(null, Objects.requireNonNull(mapper), Objects.requireNonNull(next));
+	}
+
+	/**
+	 * Returns a node passing the command on to the true node if the predicate
+	 * is true, to the false node otherwise. Conditions over a
+	 * {@link KeyPredicate} take part in the key optimizations.
+	 *
+	 * @param <Command> the command type
+	 * @param predicate the predicate
+	 * @param ifTrue    the node of the commands matching the predicate
+	 * @param ifFalse   the node of the other commands
+	 * @return a new condition node
+	 */
+	public static <Command> GraphNode<Command> condition(final Predicate<Command> predicate,
+			final GraphNode<Command> ifTrue, final GraphNode<Command> ifFalse) {
+		return new ConditionNode<>(null, Objects.requireNonNull(predicate), Objects.requireNonNull(ifTrue),
+				Objects.requireNonNull(ifFalse));
+	}
+
+	/**
+	 * Returns a node passing the left or right value of an {@link Either}
+	 * command on to the left or right node.
+	 *
+	 * @param <LeftCommand>  the left command type
+	 * @param <RightCommand> the right command type
+	 * @param left           the left node
+	 * @param right          the right node
+	 * @return a new either node
+	 */
+	public static <LeftCommand, RightCommand> GraphNode<Either<LeftCommand, RightCommand>> either(
+			final GraphNode<LeftCommand> left, final GraphNode<RightCommand> right) {
+		return new EitherNode<>(null, Objects.requireNonNull(left), Objects.requireNonNull(right));
+	}
+
+	/**
+	 * Returns a node passing the command on to the node of an enumerated value
+	 * extracted from it, as {@link Handler#fan}: unmapped values are an error.
+	 *
+	 * @param <Command>     the command type
+	 * @param <Type>        the enumerated value type
+	 * @param typeExtractor the enumerated value extraction function
+	 * @param branches      the node of each enumerated value
+	 * @return a new fan node
+	 */
+	public static <Command, Type extends Enum<Type>> GraphNode<Command> fan(
+			final Function<Command, Type> typeExtractor, final EnumMap<Type, GraphNode<Command>> branches) {
+		return new FanNode<>(null, Objects.requireNonNull(typeExtractor), new EnumMap<>(branches), null);
+	}
+
+	/**
+	 * Returns a node passing the command on to the node of an enumerated value
+	 * extracted from it, or to the default node for unmapped values, as an
+	 * {@link com.helluys.patterns.chain.link.EnumLink EnumLink}.
+	 *
+	 * @param <Command>     the command type
+	 * @param <Type>        the enumerated value type
+	 * @param typeExtractor the enumerated value extraction function
+	 * @param branches      the node of each enumerated value
+	 * @param otherwise     the default node
+	 * @return a new fan node
+	 */
+	public static <Command, Type extends Enum<Type>> GraphNode<Command> fan(
+			final Function<Command, Type> typeExtractor, final EnumMap<Type, GraphNode<Command>> branches,
+			final GraphNode<Command> otherwise) {
+		return new FanNode<>(null, Objects.requireNonNull(typeExtractor), new EnumMap<>(branches),
+				Objects.requireNonNull(otherwise));
+	}
+
+	/**
+	 * Returns a node passing the command on to the node of a key extracted from
+	 * it, or to the default node for unmapped or {@code null} keys.
+	 *
+	 * @param <Command>    the command type
+	 * @param <K>          the key type
+	 * @param keyExtractor the key extraction function
+	 * @param branches     the node of each key
+	 * @param otherwise    the default node
+	 * @return a new keyed node
+	 */
+	public static <Command, K> GraphNode<Command> keyed(final Function<Command, K> keyExtractor,
+			final Map<K, GraphNode<Command>> branches, final GraphNode<Command> otherwise) {
+		return new KeyedNode<>(null, Objects.requireNonNull(keyExtractor), new LinkedHashMap<>(branches),
+				Objects.requireNonNull(otherwise));
+	}
+
+	public abstract NodeKind kind();
+
+	/**
+	 * @return the name of this node in dumps, or {@code null}
+	 */
+	public final String name() {
+		return name;
+	}
+
+	/**
+	 * @param name the name of the node in dumps
+	 * @return a copy of this node with the given name
+	 */
+	public abstract GraphNode<Command> named(String name);
+
+	/**
+	 * @return the nodes this node passes commands on to
+	 */
+	public final List<GraphNode<?>> children() {
+		return new ArrayList<>(edges().values());
+	}
+
+	/**
+	 * @return an executable handler equivalent to this graph
+	 */
+	public final Handler<Command> toHandler() {
+		return new Emitter().handler(this);
+	}
+
+	/**
+	 * @return an executable end link equivalent to this graph
+	 */
+	public final EndLink<Command> toEndLink() {
+		return new Emitter().endLink(this);
+	}
+
+	/**
+	 * Optimizes this graph: adjacent mappers are fused, conditions and fans whose
+	 * branches are equal are collapsed, chains of key conditions over the same
+	 * extractor are merged into a keyed node extracting the key once, and
+	 * branches that the keys tested upstream make unreachable are dropped.
+	 * Predicates and extractors are assumed free of side effects: dropping one
+	 * does not change the processing.
+	 *
+	 * @return the optimization, with the optimized graph
+	 */
+	public final Optimization<Command> optimize() {
+		final Optimizer optimizer = new Optimizer();
+		return new Optimization<>(this, optimizer.optimize(this), optimizer.rewrites());
+	}
+
+	/**
+	 * Dumps this graph, one node per line indented under its parent. Each node
+	 * is numbered: a node shared by several parents is dumped once, then
+	 * referenced by number.
+	 *
+	 * @return the dump
+	 */
+	public final String dump() {
+		final StringBuilder dump = new StringBuilder();
+		dump(dump, null, 0, new IdentityHashMap<>());
+		return dump.toString();
+	}
+
+	private void dump(final StringBuilder dump, final String edge, final int depth,
+			final Map<GraphNode<?>, Integer> numbers) {
+		dump.append("  ".repeat(depth));
+		if (edge != null) {
+			dump.append(edge).append(": ");
+		}
+		final Integer number = numbers.get(this);
+		if (number != null) {
+			dump.append("-> #").append(number).append(System.lineSeparator());
+			return;
+		}
+
+		numbers.put(this, numbers.size() + 1);
+		dump.append('#').append(numbers.size()).append(' ').append(this).append(System.lineSeparator());
+		edges().forEach((childEdge, child) -> child.dump(dump, childEdge, depth + 1, numbers));
+	}
+
+	/**
+	 * @return the nodes this node passes commands on to, by edge label
+	 */
+	abstract Map<String, GraphNode<?>> edges();
+
+	abstract Handler<Command> emitHandler(Emitter emitter);
+
+	abstract EndLink<Command> emitEndLink(Emitter emitter);
+
+	/**
+	 * @return whether the given node has the same kind and functions as this
+	 *         one, and equal children
+	 */
+	abstract boolean sameAs(GraphNode<?> other);
+
+	/**
+	 * @return the hash code of the functions of this node, children excluded
+	 */
+	abstract int localHash();
+
+	@Override
+	public final boolean equals(final Object other) {
+		return this == other || other instanceof GraphNode && hashCode() == other.hashCode()
+				&& sameAs((GraphNode<?>) other);
+	}
+
+	@Override
+	public final int hashCode() {
+		if (hash == 0) {
+			int h = kind().hashCode() * 31 + localHash();
+			for (final GraphNode<?> child : edges().values()) {
+				h = h * 31 + child.hashCode();
+			}
+			hash = h == 0 ? 1 : h;
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		final String kind = kind().name().toLowerCase();
+		return name == null ? kind : kind + " " + name;
+	}
+}
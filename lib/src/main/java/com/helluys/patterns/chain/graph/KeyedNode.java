@@ -0,0 +1,96 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.KeyedLink;
+
+/**
+ * A {@link NodeKind#KEYED} node.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ * @param <K>       the key type
+ */
+final class KeyedNode<Command, K> extends GraphNode<Command> {
+
+	final Function<Command, K> keyExtractor;
+	final LinkedHashMap<K, GraphNode<Command>> branches;
+	final GraphNode<Command> otherwise;
+
+	KeyedNode(final String name, final Function<Command, K> keyExtractor,
+			final LinkedHashMap<K, GraphNode<Command>> branches, final GraphNode<Command> otherwise) {
+		super(name);
+		this.keyExtractor = keyExtractor;
+		this.branches = branches;
+		this.otherwise = otherwise;
+	}
+
+	@Override
+	public NodeKind kind() {
+		return NodeKind.KEYED;
+	}
+
+	@Override
+	public GraphNode<Command> named(final String name) {
+		return new KeyedNode<>(name, keyExtractor, branches, otherwise);
+	}
+
+	/**
+	 * @return the keys of each branch, in the order of their first key
+	 */
+	List<Map.Entry<GraphNode<Command>, List<K>>> keysByBranch() {
+		final Map<GraphNode<Command>, List<K>> keys = new IdentityHashMap<>();
+		final List<Map.Entry<GraphNode<Command>, List<K>>> ordered = new ArrayList<>();
+		branches.forEach((key, branch) -> keys.computeIfAbsent(branch, b -> {
+			final List<K> branchKeys = new ArrayList<>();
+			ordered.add(Map.entry(b, branchKeys));
+			return branchKeys;
+		}).add(key));
+		return ordered;
+	}
+
+	@Override
+	Map<String, GraphNode<?>> edges() {
+		final Map<String, GraphNode<?>> edges = new LinkedHashMap<>();
+		keysByBranch().forEach(entry -> edges.put(entry.getValue().toString(), entry.getKey()));
+		edges.put("otherwise", otherwise);
+		return edges;
+	}
+
+	@Override
+	Handler<Command> emitHandler(final Emitter emitter) {
+		final Map<K, Handler<Command>> handlers = new LinkedHashMap<>();
+		branches.forEach((key, branch) -> handlers.put(key, emitter.handler(branch)));
+		return Handler.keyed(keyExtractor, handlers, emitter.handler(otherwise));
+	}
+
+	@Override
+	EndLink<Command> emitEndLink(final Emitter emitter) {
+		final KeyedLink<Command, K> link = new KeyedLink<>(keyExtractor);
+		branches.forEach((key, branch) -> link.with(key, emitter.endLink(branch)));
+		return link.otherwise(emitter.endLink(otherwise));
+	}
+
+	@Override
+	boolean sameAs(final GraphNode<?> other) {
+		if (!(other instanceof KeyedNode)) {
+			return false;
+		}
+		final KeyedNode<?, ?> keyed = (KeyedNode<?, ?>) other;
+		return keyed.keyExtractor == keyExtractor && keyed.branches.equals(branches)
+				&& keyed.otherwise.equals(otherwise);
+	}
+
+	@Override
+	int localHash() {
+		return System.identityHashCode(keyExtractor);
+	}
+}
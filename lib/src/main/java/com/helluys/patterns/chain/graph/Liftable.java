@@ -0,0 +1,24 @@
+package com.helluys.patterns.chain.graph;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * A {@link Handler} or {@link EndLink} that can describe its structure as a
+ * {@link GraphNode}, so that {@link GraphNode#of(Handler)} and
+ * {@link GraphNode#of(EndLink)} can lift a chain built with the {@link Handler}
+ * and {@link com.helluys.patterns.chain.link.Link Link} factories into an
+ * inspectable graph.
+ *
+ * @author Helluys
+ */
+public interface Liftable {
+
+	/**
+	 * Describes this node as a graph node.
+	 *
+	 * @param lifter the lifter, used to describe the next nodes
+	 * @return the graph node
+	 */
+	GraphNode<?> lift(GraphLifter lifter);
+}
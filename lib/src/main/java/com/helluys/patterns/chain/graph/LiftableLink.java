@@ -0,0 +1,22 @@
+package com.helluys.patterns.chain.graph;
+
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * A {@link Link} that can describe its structure as a {@link GraphNode}. As a
+ * link may not consume a command, it is described ahead of the node the
+ * commands it does not consume are passed on to, as in a chain.
+ *
+ * @author Helluys
+ */
+public interface LiftableLink {
+
+	/**
+	 * Describes this link as a graph node.
+	 *
+	 * @param lifter    the lifter, used to describe the next nodes
+	 * @param otherwise the node of the commands this link does not consume
+	 * @return the graph node
+	 */
+	GraphNode<?> lift(GraphLifter lifter, GraphNode<?> otherwise);
+}
@@ -0,0 +1,64 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * A {@link NodeKind#MAP} node.
+ *
+ * @author Helluys
+ *
+ * @param <Command>    the command type
+ * @param <NewCommand> the mapped command type
+ */
+final class MapNode<Command, NewCommand> extends GraphNode<Command> {
+
+	final Function<Command, NewCommand> mapper;
+	final GraphNode<NewCommand> next;
+
+	MapNode(final String name, final Function<Command, NewCommand> mapper, final GraphNode<NewCommand> next) {
+		super(name);
+		this.mapper = mapper;
+		this.next = next;
+	}
+
+	@Override
+	public NodeKind kind() {
+		return NodeKind.MAP;
+	}
+
+	@Override
+	public GraphNode<Command> named(final String name) {
+		return new MapNode<>(name, mapper, next);
+	}
+
+	@Override
+	Map<String, GraphNode<?>> edges() {
+		return Map.of("next", next);
+	}
+
+	@Override
+	Handler<Command> emitHandler(final Emitter emitter) {
+		return Handler.map(mapper, emitter.handler(next));
+	}
+
+	@Override
+	EndLink<Command> emitEndLink(final Emitter emitter) {
+		return Link.of(mapper, emitter.endLink(next));
+	}
+
+	@Override
+	boolean sameAs(final GraphNode<?> other) {
+		return other instanceof MapNode && ((MapNode<?, ?>) other).mapper == mapper
+				&& ((MapNode<?, ?>) other).next.equals(next);
+	}
+
+	@Override
+	int localHash() {
+		return System.identityHashCode(mapper);
+	}
+}
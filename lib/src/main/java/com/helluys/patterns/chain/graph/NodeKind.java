@@ -0,0 +1,42 @@
+package com.helluys.patterns.chain.graph;
+
+/**
+ * The kinds of {@link GraphNode}.
+ *
+ * @author Helluys
+ */
+public enum NodeKind {
+
+	/**
+	 * Consumes the command.
+	 */
+	TERMINAL,
+
+	/**
+	 * Maps the command before passing it on to the next node.
+	 */
+	MAP,
+
+	/**
+	 * Passes the command on to one of two nodes, depending on a predicate.
+	 */
+	CONDITION,
+
+	/**
+	 * Passes the left or right value of an {@link com.helluys.patterns.common.Either
+	 * Either} command on to the left or right node.
+	 */
+	EITHER,
+
+	/**
+	 * Passes the command on to the node of an enumerated value extracted from it,
+	 * or to a default node.
+	 */
+	FAN,
+
+	/**
+	 * Passes the command on to the node of a key extracted from it, or to a
+	 * default node.
+	 */
+	KEYED
+}
@@ -0,0 +1,56 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.List;
+
+/**
+ * The result of {@link GraphNode#optimize()}: the graph before and after
+ * optimization, and the rewrites applied.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class Optimization<Command> {
+
+	private final GraphNode<Command> before;
+	private final GraphNode<Command> after;
+	private final List<String> rewrites;
+
+	Optimization(final GraphNode<Command> before, final GraphNode<Command> after, final List<String> rewrites) {
+		this.before = before;
+		this.after = after;
+		this.rewrites = List.copyOf(rewrites);
+	}
+
+	public GraphNode<Command> before() {
+		return before;
+	}
+
+	public GraphNode<Command> after() {
+		return after;
+	}
+
+	/**
+	 * @return the description of each rewrite, in the order they were applied
+	 */
+	public List<String> rewrites() {
+		return rewrites;
+	}
+
+	/**
+	 * @return the dumps of the graph before and after optimization, and the
+	 *         applied rewrites
+	 */
+	@Override
+	public String toString() {
+		final String separator = System.lineSeparator();
+		final StringBuilder report = new StringBuilder();
+		report.append("before:").append(separator).append(before.dump());
+		report.append("after:").append(separator).append(after.dump());
+		report.append("rewrites:").append(separator);
+		for (final String rewrite : rewrites) {
+			report.append("- ").append(rewrite).append(separator);
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,314 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.helluys.patterns.chain.link.KeyPredicate;
+
+/**
+ * Rewrites a graph bottom-up, see {@link GraphNode#optimize()}. While walking
+ * down the graph, the optimizer records what the key conditions passed tell
+ * about the keys of the command, until a map node changes the command.
+ *
+ * @author Helluys
+ */
+final class Optimizer {
+
+	private final List<String> rewrites = new ArrayList<>();
+	/** The optimized nodes, when optimized without facts. */
+	private final Map<GraphNode<?>, GraphNode<?>> optimized = new IdentityHashMap<>();
+
+	List<String> rewrites() {
+		return rewrites;
+	}
+
+	<Command> GraphNode<Command> optimize(final GraphNode<Command> node) {
+		return optimize(node, Facts.NONE);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <Command> GraphNode<Command> optimize(final GraphNode<Command> node, final Facts facts) {
+		if (facts.isEmpty() && optimized.containsKey(node)) {
+			return (GraphNode<Command>) optimized.get(node);
+		}
+
+		final GraphNode<Command> result;
+		if (node instanceof MapNode) {
+			result = map((MapNode<Command, ?>) node);
+		} else if (node instanceof ConditionNode) {
+			result = condition((ConditionNode<Command>) node, facts);
+		} else if (node instanceof EitherNode) {
+			result = (GraphNode<Command>) either((EitherNode<?, ?>) node);
+		} else if (node instanceof FanNode) {
+			result = fan((FanNode<Command, ?>) node, facts);
+		} else if (node instanceof KeyedNode) {
+			result = keyed((KeyedNode<Command, ?>) node, facts);
+		} else {
+			result = node;
+		}
+
+		if (facts.isEmpty()) {
+			optimized.put(node, result);
+		}
+		return result;
+	}
+
+	private <Command, NewCommand> GraphNode<Command> map(final MapNode<Command, NewCommand> node) {
+		final GraphNode<NewCommand> next = optimize(node.next, Facts.NONE);
+		if (next instanceof MapNode) {
+			rewrites.add("fused " + node + " with " + next);
+			return fuse(node, (MapNode<NewCommand, ?>) next);
+		}
+		return next == node.next ? node : new MapNode<>(node.name(), node.mapper, next);
+	}
+
+	private static <Command, Mapped, NewCommand> GraphNode<Command> fuse(final MapNode<Command, Mapped> first,
+			final MapNode<Mapped, NewCommand> second) {
+		final String name = first.name() == null && second.name() == null ? null
+				: first.name() + " | " + second.name();
+		return new MapNode<>(name, first.mapper.andThen(second.mapper), second.next);
+	}
+
+	private <Command> GraphNode<Command> condition(final ConditionNode<Command> node, final Facts facts) {
+		final KeyPredicate<Command, ?> key = node.predicate instanceof KeyPredicate
+				? (KeyPredicate<Command, ?>) node.predicate
+				: null;
+
+		final GraphNode<Command> ifTrue;
+		final GraphNode<Command> ifFalse;
+		if (key != null) {
+			final Boolean known = facts.test(key.extractor(), key.keys());
+			if (known != null) {
+				rewrites.add("dropped the unreachable " + !known + " branch of " + node);
+				return optimize(known ? node.ifTrue : node.ifFalse, facts);
+			}
+			ifTrue = optimize(node.ifTrue, facts.within(key.extractor(), key.keys()));
+			ifFalse = optimize(node.ifFalse, facts.without(key.extractor(), key.keys()));
+		} else {
+			ifTrue = optimize(node.ifTrue, facts);
+			ifFalse = optimize(node.ifFalse, facts);
+		}
+
+		if (ifTrue.equals(ifFalse)) {
+			rewrites.add("collapsed " + node + " with equal branches");
+			return ifTrue;
+		}
+		if (key != null) {
+			final GraphNode<Command> keyed = hoist(node, key, ifTrue, ifFalse);
+			if (keyed != null) {
+				return keyed;
+			}
+		}
+		return ifTrue == node.ifTrue && ifFalse == node.ifFalse ? node
+				: new ConditionNode<>(node.name(), node.predicate, ifTrue, ifFalse);
+	}
+
+	/**
+	 * Merges a key condition and the key conditions or keyed node over the same
+	 * extractor of its false branch into a single keyed node.
+	 *
+	 * @return the keyed node, or {@code null} if the false branch does not
+	 *         test the same key
+	 */
+	@SuppressWarnings("unchecked")
+	private <Command, K> GraphNode<Command> hoist(final ConditionNode<Command> node, final KeyPredicate<Command, K> key,
+			final GraphNode<Command> ifTrue, final GraphNode<Command> ifFalse) {
+		final LinkedHashMap<K, GraphNode<Command>> branches = new LinkedHashMap<>();
+		for (final K k : key.keys()) {
+			branches.put(k, ifTrue);
+		}
+
+		final GraphNode<Command> otherwise;
+		if (ifFalse instanceof KeyedNode && ((KeyedNode<Command, ?>) ifFalse).keyExtractor == key.extractor()) {
+			final KeyedNode<Command, K> rest = (KeyedNode<Command, K>) ifFalse;
+			rest.branches.forEach(branches::putIfAbsent);
+			otherwise = rest.otherwise;
+		} else if (ifFalse instanceof ConditionNode
+				&& ((ConditionNode<Command>) ifFalse).predicate instanceof KeyPredicate
+				&& ((KeyPredicate<Command, ?>) ((ConditionNode<Command>) ifFalse).predicate).extractor() == key
+						.extractor()) {
+			final ConditionNode<Command> rest = (ConditionNode<Command>) ifFalse;
+			for (final K k : ((KeyPredicate<Command, K>) rest.predicate).keys()) {
+				branches.putIfAbsent(k, rest.ifTrue);
+			}
+			otherwise = rest.ifFalse;
+		} else {
+			return null;
+		}
+
+		rewrites.add("hoisted the key extractor of " + node + " and of " + ifFalse + " into a keyed node");
+		return new KeyedNode<>(node.name(), key.extractor(), branches, otherwise);
+	}
+
+	private <L, R> GraphNode<?> either(final EitherNode<L, R> node) {
+		final GraphNode<L> left = optimize(node.left, Facts.NONE);
+		final GraphNode<R> right = optimize(node.right, Facts.NONE);
+		return left == node.left && right == node.right ? node : new EitherNode<>(node.name(), left, right);
+	}
+
+	private <Command, Type extends Enum<Type>> GraphNode<Command> fan(final FanNode<Command, Type> node,
+			final Facts facts) {
+		final EnumMap<Type, GraphNode<Command>> branches = new EnumMap<>(node.branches);
+		branches.replaceAll((type, branch) -> optimize(branch, facts));
+		GraphNode<Command> otherwise = node.otherwise == null ? null : optimize(node.otherwise, facts);
+		FanNode<Command, Type> fan = new FanNode<>(node.name(), node.typeExtractor, branches, otherwise);
+
+		if (otherwise != null && fan.covers()) {
+			rewrites.add("dropped the unreachable otherwise branch of " + node);
+			otherwise = null;
+			fan = new FanNode<>(node.name(), node.typeExtractor, branches, null);
+		}
+		if (branches.isEmpty() && otherwise != null) {
+			rewrites.add("replaced " + node + " without branches by its otherwise branch");
+			return otherwise;
+		}
+
+		final GraphNode<Command> first = branches.isEmpty() ? null : branches.values().iterator().next();
+		if (first != null && (otherwise != null ? first.equals(otherwise) : fan.covers())
+				&& branches.values().stream().allMatch(first::equals)) {
+			rewrites.add("collapsed " + node + " with equal branches");
+			return first;
+		}
+
+		final boolean unchanged = otherwise == node.otherwise && branches.size() == node.branches.size()
+				&& branches.entrySet().stream().allMatch(e -> node.branches.get(e.getKey()) == e.getValue());
+		return unchanged ? node : fan;
+	}
+
+	private <Command, K> GraphNode<Command> keyed(final KeyedNode<Command, K> node, final Facts facts) {
+		final LinkedHashMap<K, GraphNode<Command>> branches = new LinkedHashMap<>();
+		boolean unchanged = true;
+		for (final Map.Entry<GraphNode<Command>, List<K>> entry : node.keysByBranch()) {
+			final List<K> keys = new ArrayList<>();
+			final List<K> unreachable = new ArrayList<>();
+			for (final K key : entry.getValue()) {
+				(facts.excludes(node.keyExtractor, key) ? unreachable : keys).add(key);
+			}
+			if (!unreachable.isEmpty()) {
+				rewrites.add("dropped the unreachable keys " + unreachable + " of " + node);
+				unchanged = false;
+			}
+			if (!keys.isEmpty()) {
+				final GraphNode<Command> branch = optimize(entry.getKey(),
+						facts.within(node.keyExtractor, new HashSet<>(keys)));
+				unchanged &= branch == entry.getKey();
+				for (final K key : keys) {
+					branches.put(key, branch);
+				}
+			}
+		}
+		final GraphNode<Command> otherwise = optimize(node.otherwise,
+				facts.without(node.keyExtractor, node.branches.keySet()));
+
+		if (branches.isEmpty()) {
+			rewrites.add("replaced " + node + " without reachable keys by its otherwise branch");
+			return otherwise;
+		} else if (branches.values().stream().allMatch(otherwise::equals)) {
+			rewrites.add("collapsed " + node + " with equal branches");
+			return otherwise;
+		}
+		return unchanged && otherwise == node.otherwise ? node
+				: new KeyedNode<>(node.name(), node.keyExtractor, branches, otherwise);
+	}
+
+	/**
+	 * What is known of the keys extracted from the command by each extractor
+	 * instance. Immutable.
+	 */
+	private static final class Facts {
+
+		private static final Facts NONE = new Facts(new IdentityHashMap<>());
+
+		private final Map<Object, Constraint> constraints;
+
+		private Facts(final Map<Object, Constraint> constraints) {
+			this.constraints = constraints;
+		}
+
+		boolean isEmpty() {
+			return constraints.isEmpty();
+		}
+
+		/**
+		 * @return whether the extracted key is known to belong to the keys, or
+		 *         {@code null} if unknown
+		 */
+		Boolean test(final Object extractor, final Set<?> keys) {
+			final Constraint constraint = constraints.get(extractor);
+			if (constraint == null) {
+				return null;
+			} else if (constraint.allowed != null && keys.containsAll(constraint.allowed)) {
+				return Boolean.TRUE;
+			} else if (constraint.allowed != null && Collections.disjoint(constraint.allowed, keys)
+					|| constraint.excluded.containsAll(keys)) {
+				return Boolean.FALSE;
+			}
+			return null;
+		}
+
+		/**
+		 * @return whether the extracted key is known to differ from the key
+		 */
+		boolean excludes(final Object extractor, final Object key) {
+			final Constraint constraint = constraints.get(extractor);
+			return constraint != null && (constraint.excluded.contains(key)
+					|| constraint.allowed != null && !constraint.allowed.contains(key));
+		}
+
+		/**
+		 * @return these facts, knowing that the extracted key belongs to the keys
+		 */
+		Facts within(final Object extractor, final Set<?> keys) {
+			final Constraint constraint = constraints.get(extractor);
+			final Set<Object> allowed = new HashSet<>(keys);
+			if (constraint != null && constraint.allowed != null) {
+				allowed.retainAll(constraint.allowed);
+			}
+			return with(extractor, new Constraint(allowed, constraint == null ? Set.of() : constraint.excluded));
+		}
+
+		/**
+		 * @return these facts, knowing that the extracted key does not belong to
+		 *         the keys
+		 */
+		Facts without(final Object extractor, final Collection<?> keys) {
+			final Constraint constraint = constraints.get(extractor);
+			final Set<Object> excluded = new HashSet<>(keys);
+			Set<Object> allowed = null;
+			if (constraint != null) {
+				excluded.addAll(constraint.excluded);
+				if (constraint.allowed != null) {
+					allowed = new HashSet<>(constraint.allowed);
+					allowed.removeAll(keys);
+				}
+			}
+			return with(extractor, new Constraint(allowed, excluded));
+		}
+
+		private Facts with(final Object extractor, final Constraint constraint) {
+			final Map<Object, Constraint> updated = new IdentityHashMap<>(constraints);
+			updated.put(extractor, constraint);
+			return new Facts(updated);
+		}
+	}
+
+	private static final class Constraint {
+		/** The keys the extracted key may be, or {@code null} if any. */
+		private final Set<Object> allowed;
+		/** The keys the extracted key cannot be. */
+		private final Set<Object> excluded;
+
+		private Constraint(final Set<Object> allowed, final Set<Object> excluded) {
+			this.allowed = allowed;
+			this.excluded = excluded;
+		}
+	}
+}
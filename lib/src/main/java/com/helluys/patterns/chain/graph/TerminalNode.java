@@ -0,0 +1,59 @@
+package com.helluys.patterns.chain.graph;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * A {@link NodeKind#TERMINAL} node.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class TerminalNode<Command> extends GraphNode<Command> {
+
+	final Consumer<Command> processing;
+
+	TerminalNode(final String name, final Consumer<Command> processing) {
+		super(name);
+		this.processing = processing;
+	}
+
+	@Override
+	public NodeKind kind() {
+		return NodeKind.TERMINAL;
+	}
+
+	@Override
+	public GraphNode<Command> named(final String name) {
+		return new TerminalNode<>(name, processing);
+	}
+
+	@Override
+	Map<String, GraphNode<?>> edges() {
+		return Map.of();
+	}
+
+	@Override
+	Handler<Command> emitHandler(final Emitter emitter) {
+		return Handler.terminal(processing);
+	}
+
+	@Override
+	EndLink<Command> emitEndLink(final Emitter emitter) {
+		return processing instanceof EndLink ? (EndLink<Command>) processing : EndLink.of(processing);
+	}
+
+	@Override
+	boolean sameAs(final GraphNode<?> other) {
+		return other instanceof TerminalNode && ((TerminalNode<?>) other).processing == processing;
+	}
+
+	@Override
+	int localHash() {
+		return System.identityHashCode(processing);
+	}
+}
@@ -0,0 +1,122 @@
+package com.helluys.patterns.chain.handler;
+
+import java.util.EnumMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.common.Either;
+
+/**
+ * An asynchronous chain of responsibility node. Like a {@link Handler}, it
+ * processes a command, but completes the returned stage once done instead of
+ * returning, so that a slow handler does not block the caller thread.
+ * <p>
+ * Synchronous handlers {@link #of(Handler) wrapped} as asynchronous handlers
+ * run inline on the caller thread without allocating a future, and combinators
+ * applied only to such handlers combine the synchronous handlers themselves.
+ *
+ * @author Helluys
+ */
+@FunctionalInterface
+public interface AsyncHandler<Command> {
+	CompletionStage<Void> handle(Command command);
+
+	static <Command> AsyncHandler<Command> of(final Handler<Command> handler) {
+		return new SyncAsyncHandler<>(handler);
+	}
+
+	static <Command> AsyncHandler<Command> of(final Handler<Command> handler, final Executor executor) {
+		return of(handler).on(executor);
+	}
+
+	static <Command> AsyncHandler<Command> terminal(final Consumer<Command> processing) {
+		return of(Handler.terminal(processing));
+	}
+
+	static <Command> AsyncHandler<Command> terminal(final Consumer<Command> processing, final Executor executor) {
+		return terminal(processing).on(executor);
+	}
+
+	static <Command> AsyncHandler<Command> condition(final Predicate<Command> condition,
+			final AsyncHandler<Command> trueHandler, final AsyncHandler<Command> falseHandler) {
+		if (trueHandler instanceof SyncAsyncHandler && falseHandler instanceof SyncAsyncHandler) {
+			return of(Handler.condition(condition, ((SyncAsyncHandler<Command>) trueHandler).handler,
+					((SyncAsyncHandler<Command>) falseHandler).handler));
+		}
+		return command -> {
+			final boolean test;
+			try {
+				test = condition.test(command);
+			} catch (final RuntimeException e) {
+				return CompletableFuture.failedStage(e);
+			}
+			return test ? trueHandler.handle(command) : falseHandler.handle(command);
+		};
+	}
+
+	static <CommandL, CommandR> AsyncHandler<Either<CommandL, CommandR>> either(
+			final AsyncHandler<CommandL> leftHandler, final AsyncHandler<CommandR> rightHandler) {
+		if (leftHandler instanceof SyncAsyncHandler && rightHandler instanceof SyncAsyncHandler) {
+			return of(Handler.either(((SyncAsyncHandler<CommandL>) leftHandler).handler,
+					((SyncAsyncHandler<CommandR>) rightHandler).handler));
+		}
+		return command -> command.isLeft() ? leftHandler.handle(command.left()) : rightHandler.handle(command.right());
+	}
+
+	static <Command1, Command2> AsyncHandler<Command1> map(final Function<Command1, Command2> mapping,
+			final AsyncHandler<Command2> next) {
+		if (next instanceof SyncAsyncHandler) {
+			return of(Handler.map(mapping, ((SyncAsyncHandler<Command2>) next).handler));
+		}
+		return command -> {
+			final Command2 mapped;
+			try {
+				mapped = mapping.apply(command);
+			} catch (final RuntimeException e) {
+				return CompletableFuture.failedStage(e);
+			}
+			return next.handle(mapped);
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	static <Command, Type extends Enum<Type>> AsyncHandler<Command> fan(final Function<Command, Type> typeExtractor,
+			final EnumMap<Type, AsyncHandler<Command>> fanner) {
+		if (!fanner.isEmpty() && fanner.values().stream().allMatch(SyncAsyncHandler.class::isInstance)) {
+			final EnumMap<Type, Handler<Command>> handlers = new EnumMap<>(
+					fanner.keySet().iterator().next().getDeclaringClass());
+			fanner.forEach((type, handler) -> handlers.put(type, ((SyncAsyncHandler<Command>) handler).handler));
+			return of(Handler.fan(typeExtractor, handlers));
+		}
+
+		final EnumMap<Type, AsyncHandler<Command>> handlers = new EnumMap<>(fanner);
+		return command -> {
+			final AsyncHandler<Command> handler;
+			try {
+				handler = handlers.get(typeExtractor.apply(command));
+			} catch (final RuntimeException e) {
+				return CompletableFuture.failedStage(e);
+			}
+			if (handler == null) {
+				return CompletableFuture.failedStage(new NullPointerException("No handler for the command type"));
+			}
+			return handler.handle(command);
+		};
+	}
+
+	/**
+	 * Returns a new asynchronous handler that starts the processing of this
+	 * handler on the given executor, leaving the caller thread free.
+	 *
+	 * @param executor the executor
+	 * @return a new asynchronous handler
+	 */
+	default AsyncHandler<Command> on(final Executor executor) {
+		return command -> CompletableFuture.supplyAsync(() -> handle(command), executor)
+				.thenCompose(Function.identity());
+	}
+}
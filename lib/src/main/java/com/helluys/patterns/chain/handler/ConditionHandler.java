@@ -1,7 +1,16 @@
 package com.helluys.patterns.chain.handler;
 
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+
 /**
  * A conditional {@link Handler} that applies its processing if a condition on
  * the command is true, and passes the command to the next handler otherwise.
@@ -11,7 +20,7 @@ import java.util.function.Predicate;
  * @param <Command> type of the command object
  * @param <Result>  type of the processing result
  */
-final class ConditionHandler<Command> implements Handler<Command> {
+final class ConditionHandler<Command> implements Handler<Command>, Specializable, Liftable {
 
 	private final Predicate<Command> condition;
 	private final Handler<Command> trueHandler;
@@ -32,4 +41,31 @@ final class ConditionHandler<Command> implements Handler<Command> {
 			falseHandler.handle(command);
 		}
 	}
+
+	@Override
+	public void handleBatch(final List<Command> commands) {
+		final List<Command> trueCommands = new ArrayList<>();
+		final List<Command> falseCommands = new ArrayList<>();
+		for (final Command command : commands) {
+			(condition.test(command) ? trueCommands : falseCommands).add(command);
+		}
+
+		if (!trueCommands.isEmpty()) {
+			trueHandler.handleBatch(trueCommands);
+		}
+		if (!falseCommands.isEmpty()) {
+			falseHandler.handleBatch(falseCommands);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.condition(ChainSpecializer.test(condition), specializer.handler(trueHandler),
+				specializer.handler(falseHandler));
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return GraphNode.condition(condition, lifter.handler(trueHandler), lifter.handler(falseHandler));
+	}
 }
@@ -1,8 +1,17 @@
 package com.helluys.patterns.chain.handler;
 
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
 import com.helluys.patterns.common.Either;
 
-final class EitherHandler<CommandL, CommandR> implements Handler<Either<CommandL, CommandR>> {
+final class EitherHandler<CommandL, CommandR> implements Handler<Either<CommandL, CommandR>>, Specializable, Liftable {
 
 	private final Handler<CommandL> leftHandler;
 	private final Handler<CommandR> rightHandler;
@@ -14,6 +23,40 @@ final class EitherHandler<CommandL, CommandR> implements Handler<Either<CommandL
 
 	@Override
 	public void handle(final Either<CommandL, CommandR> command) {
-		command.consume(leftHandler::handle, rightHandler::handle);
+		if (command.isLeft()) {
+			leftHandler.handle(command.left());
+		} else {
+			rightHandler.handle(command.right());
+		}
+	}
+
+	@Override
+	public void handleBatch(final List<Either<CommandL, CommandR>> commands) {
+		final List<CommandL> lefts = new ArrayList<>();
+		final List<CommandR> rights = new ArrayList<>();
+		for (final Either<CommandL, CommandR> command : commands) {
+			if (command.isLeft()) {
+				lefts.add(command.left());
+			} else {
+				rights.add(command.right());
+			}
+		}
+
+		if (!lefts.isEmpty()) {
+			leftHandler.handleBatch(lefts);
+		}
+		if (!rights.isEmpty()) {
+			rightHandler.handleBatch(rights);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.either(specializer.handler(leftHandler), specializer.handler(rightHandler));
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return GraphNode.either(lifter.handler(leftHandler), lifter.handler(rightHandler));
 	}
 }
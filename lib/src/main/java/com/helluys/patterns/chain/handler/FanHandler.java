@@ -1,11 +1,23 @@
 package com.helluys.patterns.chain.handler;
 
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+
 /**
  * A {@link Handler} that fans to multiple handlers based on an enumerated
- * property of the command.
+ * property of the command. The handlers are copied at construction into an
+ * array indexed by the enumerated property ordinal, so that fanning is a single
+ * array load and later changes to the provided map have no effect.
  *
  * @author Helluys
  *
@@ -13,18 +25,83 @@ import java.util.function.Function;
  * @param <Command> type of the command object
  * @param <Result>  type of the processing result
  */
-final class FanHandler<Command, Type extends Enum<Type>> implements Handler<Command> {
+final class FanHandler<Command, Type extends Enum<Type>> implements Handler<Command>, Specializable, Liftable {
 
 	private final Function<Command, Type> typeExtractor;
-	private final EnumMap<Type, Handler<Command>> fanner;
+	private final Type[] types;
+	private final Handler<Command>[] fanner;
 
+	@SuppressWarnings("unchecked")
 	public FanHandler(final Function<Command, Type> typeExtractor, final EnumMap<Type, Handler<Command>> fanner) {
 		this.typeExtractor = typeExtractor;
-		this.fanner = fanner;
+		this.types = fanner.keySet().stream().findAny().map(t -> t.getDeclaringClass().getEnumConstants())
+				.orElse(null);
+		this.fanner = new Handler[types == null ? 0 : types.length];
+		fanner.forEach((type, handler) -> this.fanner[type.ordinal()] = handler);
 	}
 
 	@Override
 	public void handle(final Command command) {
-		fanner.get(typeExtractor.apply(command)).handle(command);
+		final int ordinal = typeExtractor.apply(command).ordinal();
+		final Handler<Command> handler = ordinal < fanner.length ? fanner[ordinal] : null;
+		Objects.requireNonNull(handler, "No handler for the command type").handle(command);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void handleBatch(final List<Command> commands) {
+		final List<Command>[] batches = new List[fanner.length];
+		for (final Command command : commands) {
+			final int ordinal = typeExtractor.apply(command).ordinal();
+			if (ordinal >= fanner.length || fanner[ordinal] == null) {
+				throw new NullPointerException("No handler for the command type");
+			}
+			if (batches[ordinal] == null) {
+				batches[ordinal] = new ArrayList<>();
+			}
+			batches[ordinal].add(command);
+		}
+
+		for (int ordinal = 0; ordinal < batches.length; ordinal++) {
+			if (batches[ordinal] != null) {
+				fanner[ordinal].handleBatch(batches[ordinal]);
+			}
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		int count = 0;
+		for (final Handler<Command> handler : fanner) {
+			if (handler != null) {
+				count++;
+			}
+		}
+
+		final Object[] keys = new Object[count];
+		final MethodHandle[] targets = new MethodHandle[count];
+		for (int ordinal = 0, i = 0; ordinal < fanner.length; ordinal++) {
+			if (fanner[ordinal] != null) {
+				keys[i] = types[ordinal];
+				targets[i] = specializer.handler(fanner[ordinal]);
+				i++;
+			}
+		}
+		return ChainSpecializer.dispatch(ChainSpecializer.apply(typeExtractor), keys, targets,
+				ChainSpecializer.handle(this));
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		if (types == null) {
+			return GraphNode.terminal(this::handle);
+		}
+		final EnumMap<Type, GraphNode<Command>> branches = new EnumMap<>(types[0].getDeclaringClass());
+		for (int ordinal = 0; ordinal < fanner.length; ordinal++) {
+			if (fanner[ordinal] != null) {
+				branches.put(types[ordinal], lifter.handler(fanner[ordinal]));
+			}
+		}
+		return GraphNode.fan(typeExtractor, branches);
 	}
 }
@@ -1,11 +1,17 @@
 package com.helluys.patterns.chain.handler;
 
 import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.helluys.patterns.chain.cache.CacheSpec;
+import com.helluys.patterns.chain.cache.MemoizedFunction;
+import com.helluys.patterns.chain.metrics.Instrumentation;
 import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
 
 /**
  * A generic chain of responsibility node. Processes a command object into a
@@ -16,6 +22,20 @@ import com.helluys.patterns.common.Either;
 public interface Handler<Command> {
 	void handle(Command command);
 
+	/**
+	 * Handles a batch of commands. Each command is handled as by {@link #handle},
+	 * but handlers may handle the batch as a whole, and pass sub-batches on to the
+	 * next handlers: the relative order of commands taking different routes is not
+	 * kept.
+	 *
+	 * @param commands the commands
+	 */
+	default void handleBatch(final List<Command> commands) {
+		for (final Command command : commands) {
+			handle(command);
+		}
+	}
+
 	static <Command> Handler<Command> condition(final Predicate<Command> condition, final Handler<Command> trueHandler,
 			final Handler<Command> falseHandler) {
 		return new ConditionHandler<Command>(condition, trueHandler, falseHandler);
@@ -26,17 +46,56 @@ public interface Handler<Command> {
 		return new EitherHandler<CommandL, CommandR>(leftHandler, rightHandler);
 	}
 
+	static <Command, CommandL, CommandR> Handler<Command> split(final Splitter<Command, CommandL, CommandR> splitter,
+			final Handler<CommandL> leftHandler, final Handler<CommandR> rightHandler) {
+		return new SplitHandler<Command, CommandL, CommandR>(splitter, leftHandler, rightHandler);
+	}
+
 	static <Command1, Command2> Handler<Command1> map(final Function<Command1, Command2> mapping,
 			final Handler<Command2> next) {
 		return new MapperHandler<Command1, Command2>(mapping, next);
 	}
 
+	/**
+	 * Returns a handler like {@link #map}, caching the mapped commands of the
+	 * commands already seen. The commands are the cache keys: they must be
+	 * immutable, with value equality.
+	 */
+	static <Command1, Command2> Handler<Command1> memoizedMap(final Function<Command1, Command2> mapping,
+			final CacheSpec spec, final Handler<Command2> next) {
+		return new MapperHandler<Command1, Command2>(MemoizedFunction.of(mapping, spec), next);
+	}
+
+	/**
+	 * Returns a handler like {@link #map}, caching the mapped commands by a key
+	 * extracted from the commands. The keys must be immutable, with value
+	 * equality: commands with equal keys are passed on the same mapped command.
+	 */
+	static <Command1, Command2> Handler<Command1> memoizedMap(final Function<? super Command1, ?> keyExtractor,
+			final Function<Command1, Command2> mapping, final CacheSpec spec, final Handler<Command2> next) {
+		return new MapperHandler<Command1, Command2>(MemoizedFunction.of(keyExtractor, mapping, spec), next);
+	}
+
 	static <Command, Type extends Enum<Type>> Handler<Command> fan(final Function<Command, Type> typeExtractor,
 			final EnumMap<Type, Handler<Command>> fanner) {
 		return new FanHandler<Command, Type>(typeExtractor, fanner);
 	}
 
+	/**
+	 * Returns a handler passing the command on to the handler of the key
+	 * extracted from it, found with a single hash lookup, or to the default
+	 * handler for unmapped or {@code null} keys.
+	 */
+	static <Command, K> Handler<Command> keyed(final Function<Command, K> keyExtractor,
+			final Map<K, Handler<Command>> handlers, final Handler<Command> otherwise) {
+		return new KeyedHandler<Command, K>(keyExtractor, handlers, otherwise);
+	}
+
 	static <Command> Handler<Command> terminal(final Consumer<Command> processing) {
 		return new TerminalHandler<Command>(processing);
 	}
+
+	static <Command> Handler<Command> instrumented(final String name, final Handler<Command> handler) {
+		return Instrumentation.global().handler(name, handler);
+	}
 }
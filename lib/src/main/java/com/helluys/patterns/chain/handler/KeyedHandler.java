@@ -0,0 +1,63 @@
+package com.helluys.patterns.chain.handler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+
+/**
+ * A {@link Handler} that passes the command on to another handler based on the
+ * equality of a key extracted from the command, with a single hash lookup
+ * whatever the number of keys. For unmapped keys, or if the extractor returns
+ * {@code null}, the command is passed on to the default handler.
+ *
+ * @author Helluys
+ *
+ * @param <Command> type of the command object
+ * @param <K>       type of the key
+ */
+final class KeyedHandler<Command, K> implements Handler<Command>, Liftable {
+
+	private final Function<Command, K> extractor;
+	private final Map<K, Handler<Command>> handlers;
+	private final Handler<Command> otherwise;
+
+	public KeyedHandler(final Function<Command, K> extractor, final Map<K, Handler<Command>> handlers,
+			final Handler<Command> otherwise) {
+		this.extractor = extractor;
+		this.handlers = Map.copyOf(handlers);
+		this.otherwise = otherwise;
+	}
+
+	@Override
+	public void handle(final Command command) {
+		route(command).handle(command);
+	}
+
+	@Override
+	public void handleBatch(final List<Command> commands) {
+		final Map<Handler<Command>, List<Command>> batches = new LinkedHashMap<>();
+		for (final Command command : commands) {
+			batches.computeIfAbsent(route(command), h -> new ArrayList<>()).add(command);
+		}
+		batches.forEach(Handler::handleBatch);
+	}
+
+	private Handler<Command> route(final Command command) {
+		final K key = extractor.apply(command);
+		final Handler<Command> handler = key == null ? null : handlers.get(key);
+		return handler == null ? otherwise : handler;
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		final Map<K, GraphNode<Command>> branches = new LinkedHashMap<>();
+		handlers.forEach((key, handler) -> branches.put(key, lifter.handler(handler)));
+		return GraphNode.keyed(extractor, branches, lifter.handler(otherwise));
+	}
+}
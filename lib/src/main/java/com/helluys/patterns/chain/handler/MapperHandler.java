@@ -1,7 +1,16 @@
 package com.helluys.patterns.chain.handler;
 
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+
 /**
  * A mapping {@link Handler} that converts the command to another type before
  * sending it to the next handler.
@@ -11,7 +20,7 @@ import java.util.function.Function;
  * @param <Command> type of the command object
  * @param <Result>  type of the processing result
  */
-final class MapperHandler<Command1, Command2> implements Handler<Command1> {
+final class MapperHandler<Command1, Command2> implements Handler<Command1>, Specializable, Liftable {
 
 	private final Function<Command1, Command2> mapping;
 	private final Handler<Command2> next;
@@ -25,4 +34,23 @@ final class MapperHandler<Command1, Command2> implements Handler<Command1> {
 	public void handle(final Command1 command) {
 		next.handle(mapping.apply(command));
 	}
+
+	@Override
+	public void handleBatch(final List<Command1> commands) {
+		final List<Command2> mapped = new ArrayList<>(commands.size());
+		for (final Command1 command : commands) {
+			mapped.add(mapping.apply(command));
+		}
+		next.handleBatch(mapped);
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.map(ChainSpecializer.apply(mapping), specializer.handler(next));
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return GraphNode.map(mapping, lifter.handler(next));
+	}
 }
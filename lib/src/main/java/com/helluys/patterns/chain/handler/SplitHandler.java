@@ -0,0 +1,73 @@
+package com.helluys.patterns.chain.handler;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.common.Splitter;
+
+/**
+ * A {@link Handler} that splits the command into a left or right command
+ * passed on to the left or right handler, as returned by
+ * {@link Handler#split(Splitter, Handler, Handler)}.
+ *
+ * @author Helluys
+ *
+ * @param <Command>  the command type
+ * @param <CommandL> the left handler command type
+ * @param <CommandR> the right handler command type
+ */
+final class SplitHandler<Command, CommandL, CommandR> implements Handler<Command>, Specializable {
+
+	private final Splitter<Command, CommandL, CommandR> splitter;
+	private final Handler<CommandL> leftHandler;
+	private final Handler<CommandR> rightHandler;
+	private final Predicate<CommandL> leftSink;
+	private final Predicate<CommandR> rightSink;
+
+	public SplitHandler(final Splitter<Command, CommandL, CommandR> splitter, final Handler<CommandL> leftHandler,
+			final Handler<CommandR> rightHandler) {
+		this.splitter = splitter;
+		this.leftHandler = leftHandler;
+		this.rightHandler = rightHandler;
+		this.leftSink = l -> {
+			leftHandler.handle(l);
+			return true;
+		};
+		this.rightSink = r -> {
+			rightHandler.handle(r);
+			return true;
+		};
+	}
+
+	@Override
+	public void handle(final Command command) {
+		splitter.split(command, leftSink, rightSink);
+	}
+
+	@Override
+	public void handleBatch(final List<Command> commands) {
+		final List<CommandL> lefts = new ArrayList<>();
+		final List<CommandR> rights = new ArrayList<>();
+		final Predicate<CommandL> leftCollector = lefts::add;
+		final Predicate<CommandR> rightCollector = rights::add;
+		for (final Command command : commands) {
+			splitter.split(command, leftCollector, rightCollector);
+		}
+
+		if (!lefts.isEmpty()) {
+			leftHandler.handleBatch(lefts);
+		}
+		if (!rights.isEmpty()) {
+			rightHandler.handleBatch(rights);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.split(splitter, specializer.handler(leftHandler), specializer.handler(rightHandler));
+	}
+}
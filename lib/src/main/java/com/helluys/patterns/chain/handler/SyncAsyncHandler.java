@@ -0,0 +1,35 @@
+package com.helluys.patterns.chain.handler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An {@link AsyncHandler} running a synchronous {@link Handler} inline, as
+ * returned by {@link AsyncHandler#of(Handler)}. The result is a shared
+ * completed stage, so that no future is allocated per command. Combining
+ * synchronous handlers combines the underlying handlers instead.
+ *
+ * @author Helluys
+ *
+ * @param <Command> type of the command object
+ */
+final class SyncAsyncHandler<Command> implements AsyncHandler<Command> {
+
+	static final CompletionStage<Void> DONE = CompletableFuture.completedStage(null);
+
+	final Handler<Command> handler;
+
+	public SyncAsyncHandler(final Handler<Command> handler) {
+		this.handler = handler;
+	}
+
+	@Override
+	public CompletionStage<Void> handle(final Command command) {
+		try {
+			handler.handle(command);
+			return DONE;
+		} catch (final RuntimeException e) {
+			return CompletableFuture.failedStage(e);
+		}
+	}
+}
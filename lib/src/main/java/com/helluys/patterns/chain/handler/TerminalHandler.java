@@ -1,16 +1,26 @@
 package com.helluys.patterns.chain.handler;
 
+import java.lang.invoke.MethodHandle;
+import java.util.List;
 import java.util.function.Consumer;
 
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+import com.helluys.patterns.chain.link.EndLink;
+
 /**
  * A terminal {@link Handler} that applies its processing on the condition.
+ * Batches are processed in bulk if the processing is an {@link EndLink}.
  *
  * @author Helluys
  *
  * @param <Command> type of the command object
  * @param <Result>  type of the processing result
  */
-final class TerminalHandler<Command> implements Handler<Command> {
+final class TerminalHandler<Command> implements Handler<Command>, Specializable, Liftable {
 
 	private final Consumer<Command> processing;
 
@@ -22,4 +32,23 @@ final class TerminalHandler<Command> implements Handler<Command> {
 	public void handle(final Command command) {
 		processing.accept(command);
 	}
+
+	@Override
+	public void handleBatch(final List<Command> commands) {
+		if (processing instanceof EndLink) {
+			((EndLink<Command>) processing).processBatch(commands);
+		} else {
+			commands.forEach(processing);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.accept(processing);
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return GraphNode.terminal(processing);
+	}
 }
@@ -0,0 +1,451 @@
+package com.helluys.patterns.chain.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * Writes log lines from any number of threads on a background writer thread,
+ * so that logging threads neither format strings nor wait on the output.
+ * <p>
+ * Each record is encoded in UTF-8 straight into a slot of a preallocated ring
+ * of reusable buffers, claimed without lock, then published to the writer,
+ * which copies the published records into a batch buffer and writes the batch
+ * at once to an {@link OutputStream} or a {@link FileChannel}. Logging
+ * allocates nothing, unless a record outgrows the buffer of its slot. When the
+ * ring is full, logging threads wait for the writer.
+ * <p>
+ * The output is flushed whenever the writer has written all the published
+ * records, or at most every {@link Builder#flushInterval flush interval}.
+ * {@link #close() Closing} the sink writes and flushes all the records logged
+ * before, but leaves the output open.
+ *
+ * @author Helluys
+ */
+public final class AsyncLogSink implements EndLink<String>, AutoCloseable {
+
+	private static final AtomicInteger COUNT = new AtomicInteger();
+	private static final int INITIAL_RECORD_CAPACITY = 256;
+	private static final int SPINS = 100;
+	private static final long PARK_NANOS = 1_000_000L;
+	private static final byte[] LINE_SEPARATOR = encode(System.lineSeparator());
+
+	private final Output output;
+	private final long flushIntervalNanos;
+	private final byte[] batch;
+
+	private final int mask;
+	private final byte[][] records;
+	private final int[] lengths;
+	/** The position of the record each slot is ready to be claimed or read for. */
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	/** The number of threads logging, counted before checking the sink is open. */
+	private final AtomicInteger logging = new AtomicInteger();
+	private final Thread writer;
+	private volatile boolean parked;
+	private volatile boolean closed;
+
+	// Only used by the writer thread
+	private long head;
+	private int batchLength;
+	private boolean dirty;
+	private long lastFlush;
+	private IOException failure;
+
+	private AsyncLogSink(final Builder builder, final Output output) {
+		this.output = output;
+		this.flushIntervalNanos = builder.flushInterval.toNanos();
+		this.batch = new byte[builder.batchSize];
+
+		final int capacity = Integer.highestOneBit(builder.capacity) == builder.capacity ? builder.capacity
+				: Integer.highestOneBit(builder.capacity) << 1;
+		this.mask = capacity - 1;
+		this.records = new byte[capacity][INITIAL_RECORD_CAPACITY];
+		this.lengths = new int[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+
+		this.writer = new Thread(this::write, "chain-log-sink-" + COUNT.incrementAndGet());
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * @return a new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Logs the line, followed by the line separator.
+	 *
+	 * @param line the line
+	 * @throws IllegalStateException if the sink is closed
+	 */
+	@Override
+	public void accept(final String line) {
+		log(line, null, null);
+	}
+
+	/**
+	 * Logs {@code prefix + "'" + value + "'"}, followed by the line separator.
+	 *
+	 * @param prefix the prefix
+	 * @param value  the quoted value
+	 * @throws IllegalStateException if the sink is closed
+	 */
+	public void log(final String prefix, final String value) {
+		// A null value is written as "null" like the concatenation, the null
+		// second part marking the unquoted lines
+		log(String.valueOf(prefix), "'", String.valueOf(value));
+	}
+
+	/**
+	 * Returns an end link logging each string it consumes, quoted, after the
+	 * given prefix.
+	 *
+	 * @param prefix the prefix
+	 * @return a new end link
+	 * @see #log(String, String)
+	 */
+	public EndLink<String> logger(final String prefix) {
+		return value -> log(prefix, value);
+	}
+
+	/**
+	 * Writes and flushes all the records logged before, then stops the writer.
+	 * The output is not closed. If interrupted while waiting, returns early with
+	 * the interrupt flag set.
+	 *
+	 * @throws IOException the first failure to write to the output, after which
+	 *                     records were discarded
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Logs {@code first + quote + second + quote}, the null parts being left
+	 * out, followed by the line separator.
+	 */
+	private void log(final String first, final String quote, final String second) {
+		logging.incrementAndGet();
+		try {
+			if (closed) {
+				throw new IllegalStateException("Log sink is closed");
+			}
+			final long position = claim();
+			final int slot = (int) position & mask;
+			final int maxLength = 3 * (first.length() + (second == null ? 0 : second.length() + 2))
+					+ LINE_SEPARATOR.length;
+			if (records[slot].length < maxLength) {
+				records[slot] = new byte[Math.max(maxLength, records[slot].length * 2)];
+			}
+
+			final byte[] record = records[slot];
+			int length = encode(first, record, 0);
+			if (second != null) {
+				length = encode(quote, record, length);
+				length = encode(second, record, length);
+				length = encode(quote, record, length);
+			}
+			System.arraycopy(LINE_SEPARATOR, 0, record, length, LINE_SEPARATOR.length);
+			lengths[slot] = length + LINE_SEPARATOR.length;
+			sequences.setRelease(slot, position + 1);
+		} finally {
+			logging.decrementAndGet();
+		}
+		if (parked) {
+			parked = false;
+			LockSupport.unpark(writer);
+		}
+	}
+
+	/**
+	 * Claims the next free slot, waiting for the writer while the ring is full.
+	 *
+	 * @return the position of the claimed slot
+	 */
+	private long claim() {
+		int idles = 0;
+		long position = tail.get();
+		while (true) {
+			final long difference = sequences.getAcquire((int) position & mask) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					return position;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				// Full: the slot still holds the record of the previous lap
+				if (idles++ < SPINS) {
+					Thread.onSpinWait();
+				} else {
+					LockSupport.unpark(writer);
+					LockSupport.parkNanos(PARK_NANOS);
+				}
+				position = tail.get();
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	private void write() {
+		lastFlush = System.nanoTime();
+		while (true) {
+			final boolean last = closed && logging.get() == 0;
+			drain();
+			writeBatch();
+			final boolean idle = sequences.getAcquire((int) head & mask) != head + 1;
+			if (dirty && (last || (flushIntervalNanos == 0 ? idle
+					: System.nanoTime() - lastFlush >= flushIntervalNanos))) {
+				flush();
+			}
+			if (!idle) {
+				continue;
+			} else if (last && head == tail.get()) {
+				return;
+			}
+
+			// A record published while parking is missed for one park at most
+			parked = true;
+			if (sequences.getAcquire((int) head & mask) != head + 1 && !closed) {
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+			parked = false;
+		}
+	}
+
+	/**
+	 * Copies the published records into the batch buffer, at most one ring lap
+	 * of them, writing it out each time it is full, and frees their slots.
+	 */
+	private void drain() {
+		int drained = 0;
+		while (drained <= mask && sequences.getAcquire((int) head & mask) == head + 1) {
+			final int slot = (int) head & mask;
+			final byte[] record = records[slot];
+			final int length = lengths[slot];
+			int offset = 0;
+			while (offset < length) {
+				if (batchLength == batch.length) {
+					writeBatch();
+				}
+				final int copied = Math.min(length - offset, batch.length - batchLength);
+				System.arraycopy(record, offset, batch, batchLength, copied);
+				batchLength += copied;
+				offset += copied;
+			}
+			sequences.setRelease(slot, head + mask + 1);
+			head++;
+			drained++;
+		}
+	}
+
+	private void writeBatch() {
+		if (batchLength == 0) {
+			return;
+		}
+		if (failure == null) {
+			try {
+				output.write(batch, batchLength);
+				dirty = true;
+			} catch (final IOException e) {
+				failure = e;
+			}
+		}
+		batchLength = 0;
+	}
+
+	private void flush() {
+		if (failure == null) {
+			try {
+				output.flush();
+			} catch (final IOException e) {
+				failure = e;
+			}
+		}
+		dirty = false;
+		lastFlush = System.nanoTime();
+	}
+
+	private static byte[] encode(final String string) {
+		final byte[] bytes = new byte[3 * string.length()];
+		final int length = encode(string, bytes, 0);
+		final byte[] encoded = new byte[length];
+		System.arraycopy(bytes, 0, encoded, 0, length);
+		return encoded;
+	}
+
+	/**
+	 * Encodes the string in UTF-8, at most three bytes per char, unpaired
+	 * surrogates being replaced by {@code '?'}.
+	 *
+	 * @return the offset after the encoded bytes
+	 */
+	private static int encode(final String string, final byte[] bytes, final int offset) {
+		int position = offset;
+		final int length = string.length();
+		for (int i = 0; i < length; i++) {
+			final char c = string.charAt(i);
+			if (c < 0x80) {
+				bytes[position++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[position++] = (byte) (0xC0 | c >> 6);
+				bytes[position++] = (byte) (0x80 | c & 0x3F);
+			} else if (!Character.isSurrogate(c)) {
+				bytes[position++] = (byte) (0xE0 | c >> 12);
+				bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+				bytes[position++] = (byte) (0x80 | c & 0x3F);
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(string.charAt(i + 1))) {
+				final int codePoint = Character.toCodePoint(c, string.charAt(++i));
+				bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+				bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+				bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+				bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+			} else {
+				bytes[position++] = '?';
+			}
+		}
+		return position;
+	}
+
+	private interface Output {
+		void write(byte[] bytes, int length) throws IOException;
+
+		void flush() throws IOException;
+	}
+
+	/**
+	 * Builds an {@link AsyncLogSink}.
+	 */
+	public static final class Builder {
+
+		private int capacity = 1024;
+		private int batchSize = 64 * 1024;
+		private Duration flushInterval = Duration.ZERO;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the number of records that can wait for the writer, rounded up to a
+		 * power of two, 1024 by default.
+		 *
+		 * @param capacity the record capacity
+		 * @return this {@link Builder}
+		 */
+		public Builder capacity(final int capacity) {
+			if (capacity <= 0 || capacity > 1 << 30) {
+				throw new IllegalArgumentException("Invalid capacity: " + capacity);
+			}
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 * Sets the size of the batches written at once, 64 KiB by default.
+		 *
+		 * @param batchSize the batch size, in bytes
+		 * @return this {@link Builder}
+		 */
+		public Builder batchSize(final int batchSize) {
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets the minimum interval between two flushes of the output. By default,
+		 * the output is flushed as soon as all the logged records are written.
+		 *
+		 * @param flushInterval the flush interval
+		 * @return this {@link Builder}
+		 */
+		public Builder flushInterval(final Duration flushInterval) {
+			if (flushInterval.isNegative()) {
+				throw new IllegalArgumentException("Flush interval must not be negative: " + flushInterval);
+			}
+			this.flushInterval = flushInterval;
+			return this;
+		}
+
+		/**
+		 * Builds and starts a sink writing to the given stream, flushed as
+		 * configured.
+		 *
+		 * @param out the output stream
+		 * @return the started sink
+		 */
+		public AsyncLogSink build(final OutputStream out) {
+			return new AsyncLogSink(this, new Output() {
+
+				@Override
+				public void write(final byte[] bytes, final int length) throws IOException {
+					out.write(bytes, 0, length);
+				}
+
+				@Override
+				public void flush() throws IOException {
+					out.flush();
+				}
+			});
+		}
+
+		/**
+		 * Builds and starts a sink writing to the given file channel. The batches
+		 * are written straight to the file: there is nothing to flush.
+		 *
+		 * @param channel the file channel
+		 * @return the started sink
+		 */
+		public AsyncLogSink build(final FileChannel channel) {
+			return new AsyncLogSink(this, new Output() {
+				private ByteBuffer buffer;
+
+				@Override
+				public void write(final byte[] bytes, final int length) throws IOException {
+					if (buffer == null || buffer.array() != bytes) {
+						buffer = ByteBuffer.wrap(bytes);
+					}
+					buffer.clear().limit(length);
+					while (buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+				}
+
+				@Override
+				public void flush() {
+					// Nothing buffered
+				}
+			});
+		}
+	}
+}
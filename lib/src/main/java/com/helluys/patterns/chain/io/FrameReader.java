@@ -0,0 +1,147 @@
+package com.helluys.patterns.chain.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * Reads length-prefixed frames from a channel: each frame is a big-endian
+ * {@code int} length followed by that many bytes. The frames are passed on to
+ * an {@link EndLink} as the remaining bytes of the read buffer itself, without
+ * copy: a frame is only valid during the call, and must be copied to be kept
+ * or passed on to another thread. Changes to the position and limit of the
+ * frame do not affect the reader.
+ * <p>
+ * The read buffer starts at the initial capacity and grows as needed up to
+ * the maximum frame length. A reader is not meant to be shared across threads.
+ *
+ * @author Helluys
+ */
+public final class FrameReader {
+
+	/**
+	 * The length of the frame length prefix.
+	 */
+	public static final int PREFIX_LENGTH = Integer.BYTES;
+
+	private static final int INITIAL_CAPACITY = 64 * 1024;
+
+	private final ReadableByteChannel channel;
+	private final int maxFrameLength;
+	private ByteBuffer buffer;
+
+	/**
+	 * Constructs an instance.
+	 *
+	 * @param channel        the channel to read from
+	 * @param maxFrameLength the maximum length of a frame, prefix excluded
+	 */
+	public FrameReader(final ReadableByteChannel channel, final int maxFrameLength) {
+		if (maxFrameLength < 0 || maxFrameLength > Integer.MAX_VALUE - PREFIX_LENGTH) {
+			throw new IllegalArgumentException("Invalid maximum frame length: " + maxFrameLength);
+		}
+		this.channel = channel;
+		this.maxFrameLength = maxFrameLength;
+		this.buffer = ByteBuffer.allocate(Math.min(INITIAL_CAPACITY, maxFrameLength + PREFIX_LENGTH));
+	}
+
+	/**
+	 * Reads from the channel once, and passes on every frame completed by that
+	 * read. On a non-blocking channel, this is the call to make when a selector
+	 * reports the channel readable.
+	 *
+	 * @param frames the end link processing the frames
+	 * @return the number of frames passed on, or -1 at the end of the stream
+	 * @throws IOException  on read failure, or if a frame is longer than the
+	 *                      maximum frame length
+	 * @throws EOFException if the stream ends within a frame
+	 */
+	public int read(final EndLink<ByteBuffer> frames) throws IOException {
+		if (channel.read(buffer) < 0) {
+			if (buffer.position() > 0) {
+				throw new EOFException("Stream ended within a frame");
+			}
+			return -1;
+		}
+
+		buffer.flip();
+		int count = 0;
+		while (buffer.remaining() >= PREFIX_LENGTH) {
+			final int start = buffer.position();
+			final int length = buffer.getInt(start);
+			if (length < 0 || length > maxFrameLength) {
+				throw new IOException("Invalid frame length: " + length);
+			}
+			final int end = start + PREFIX_LENGTH + length;
+			if (end > buffer.limit()) {
+				break;
+			}
+
+			final int limit = buffer.limit();
+			buffer.position(start + PREFIX_LENGTH).limit(end);
+			try {
+				frames.accept(buffer);
+			} finally {
+				buffer.limit(limit).position(end);
+			}
+			count++;
+		}
+		buffer.compact();
+		ensureCapacity();
+		return count;
+	}
+
+	/**
+	 * Reads and passes on frames until the end of the stream. The channel must be
+	 * in blocking mode.
+	 *
+	 * @param frames the end link processing the frames
+	 * @return the number of frames passed on
+	 * @throws IOException  on read failure, or if a frame is longer than the
+	 *                      maximum frame length
+	 * @throws EOFException if the stream ends within a frame
+	 */
+	public long readAll(final EndLink<ByteBuffer> frames) throws IOException {
+		long count = 0;
+		int read;
+		while ((read = read(frames)) >= 0) {
+			count += read;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a new buffer holding the given frame prefixed with its length,
+	 * ready to be written to a channel. The frame is read from its position to
+	 * its limit, and left unchanged.
+	 *
+	 * @param frame the frame
+	 * @return the length-prefixed frame
+	 */
+	public static ByteBuffer prefixed(final ByteBuffer frame) {
+		final ByteBuffer prefixed = ByteBuffer.allocate(PREFIX_LENGTH + frame.remaining());
+		prefixed.putInt(frame.remaining()).put(frame.duplicate()).flip();
+		return prefixed;
+	}
+
+	/**
+	 * Grows the buffer if it is full with the start of a frame longer than its
+	 * capacity.
+	 */
+	private void ensureCapacity() {
+		if (buffer.hasRemaining() || buffer.position() < PREFIX_LENGTH) {
+			return;
+		}
+		final int required = PREFIX_LENGTH + buffer.getInt(0);
+		if (required > buffer.capacity()) {
+			final ByteBuffer grown = ByteBuffer.allocate(Math.max(required, Math.min(buffer.capacity() * 2,
+					maxFrameLength + PREFIX_LENGTH)));
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+	}
+}
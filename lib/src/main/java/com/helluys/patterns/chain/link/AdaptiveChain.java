@@ -0,0 +1,142 @@
+package com.helluys.patterns.chain.link;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A chain of mutually exclusive links, that periodically reorders its links so
+ * that the most frequently consuming ones are tried first. Since the links are
+ * exclusive, at most one of them consumes any command, and the order does not
+ * change which link processes it: only the number of links tried before.
+ * <p>
+ * Hits are counted per link with striped counters. Every {@code reorderPeriod}
+ * commands on average, a processing thread recomputes the order from the
+ * recent hits, with older hits decaying, and publishes a new link array. The
+ * processing path never locks: it reads the current array and walks it.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class AdaptiveChain<Command> implements Link<Command> {
+
+	/**
+	 * The default average number of commands between reorderings.
+	 */
+	public static final int DEFAULT_REORDER_PERIOD = 1024;
+
+	private static final class Entry<Command> {
+		final Link<Command> link;
+		final int index;
+		final LongAdder recentHits = new LongAdder();
+		volatile long hits;
+		long score;
+
+		Entry(final Link<Command> link, final int index) {
+			this.link = link;
+			this.index = index;
+		}
+	}
+
+	private final Entry<Command>[] registered;
+	private final int reorderPeriod;
+	private final AtomicBoolean reordering = new AtomicBoolean();
+	private volatile Entry<Command>[] entries;
+
+	/**
+	 * Constructs an instance reordering every {@link #DEFAULT_REORDER_PERIOD}
+	 * commands on average.
+	 *
+	 * @param links the links, which must be mutually exclusive: no command may be
+	 *              consumed by more than one of them
+	 */
+	public AdaptiveChain(final List<? extends Link<Command>> links) {
+		this(links, DEFAULT_REORDER_PERIOD);
+	}
+
+	/**
+	 * Constructs an instance.
+	 *
+	 * @param links         the links, which must be mutually exclusive: no command
+	 *                      may be consumed by more than one of them
+	 * @param reorderPeriod the average number of commands between reorderings,
+	 *                      must be positive
+	 */
+	@SuppressWarnings("unchecked")
+	public AdaptiveChain(final List<? extends Link<Command>> links, final int reorderPeriod) {
+		if (reorderPeriod <= 0) {
+			throw new IllegalArgumentException("Reorder period must be positive: " + reorderPeriod);
+		}
+		this.reorderPeriod = reorderPeriod;
+
+		registered = new Entry[links.size()];
+		for (int i = 0; i < registered.length; i++) {
+			registered[i] = new Entry<>(links.get(i), i);
+		}
+		entries = registered.clone();
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		if (ThreadLocalRandom.current().nextInt(reorderPeriod) == 0) {
+			reorder();
+		}
+
+		for (final Entry<Command> entry : entries) {
+			if (entry.link.process(command)) {
+				entry.recentHits.increment();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reorders the links by decreasing recent hits now. This is a no-op if
+	 * another thread is already reordering.
+	 */
+	public void reorder() {
+		if (!reordering.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			final Entry<Command>[] current = entries;
+			for (final Entry<Command> entry : current) {
+				final long recent = entry.recentHits.sumThenReset();
+				entry.hits += recent;
+				entry.score = entry.score / 2 + recent;
+			}
+
+			final Entry<Command>[] reordered = current.clone();
+			Arrays.sort(reordered, Comparator.comparingLong((final Entry<Command> e) -> e.score).reversed());
+			if (!Arrays.equals(current, reordered)) {
+				entries = reordered;
+			}
+		} finally {
+			reordering.set(false);
+		}
+	}
+
+	/**
+	 * @return the current order of the links, as their indices in the list
+	 *         provided at construction
+	 */
+	public int[] order() {
+		return Arrays.stream(entries).mapToInt(e -> e.index).toArray();
+	}
+
+	/**
+	 * Returns the number of commands consumed by each link. Under concurrent
+	 * processing the counts are a close approximation.
+	 *
+	 * @return the number of commands consumed by each link, in the order of the
+	 *         list provided at construction
+	 */
+	public long[] hits() {
+		return Arrays.stream(registered).mapToLong(e -> e.hits + e.recentHits.sum()).toArray();
+	}
+}
@@ -0,0 +1,218 @@
+package com.helluys.patterns.chain.link;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import com.helluys.patterns.common.Either;
+
+/**
+ * An asynchronous responsibility chain link. Like a {@link Link}, it may or may
+ * not consume the command, but completes the returned stage with the result
+ * instead of returning it, so that a slow link does not block the caller
+ * thread.
+ * <p>
+ * Synchronous links {@link #of(Link) wrapped} as asynchronous links run inline
+ * on the caller thread without allocating a future, and combinators applied
+ * only to such links combine the synchronous links themselves.
+ *
+ * @author Helluys
+ * @param <Command> the command type
+ */
+@FunctionalInterface
+public interface AsyncLink<Command> {
+
+	/**
+	 * Returns a new asynchronous link running the given link inline.
+	 *
+	 * @param <Command> the command type
+	 * @param link      the link
+	 * @return a new asynchronous link
+	 */
+	static <Command> AsyncLink<Command> of(final Link<Command> link) {
+		return new SyncAsyncLink<>(link);
+	}
+
+	/**
+	 * Returns a new asynchronous link running the given link on the given
+	 * executor.
+	 *
+	 * @param <Command> the command type
+	 * @param link      the link
+	 * @param executor  the executor
+	 * @return a new asynchronous link
+	 */
+	static <Command> AsyncLink<Command> of(final Link<Command> link, final Executor executor) {
+		return of(link).on(executor);
+	}
+
+	/**
+	 * Returns a new asynchronous link that always consumes with the given end
+	 * link, run inline.
+	 *
+	 * @param <Command> the command type
+	 * @param link      the end link
+	 * @return a new asynchronous link
+	 */
+	static <Command> AsyncLink<Command> terminal(final EndLink<Command> link) {
+		return of(v -> {
+			link.process(v);
+			return true;
+		});
+	}
+
+	/**
+	 * Returns a new asynchronous link that always consumes with the given end
+	 * link, run on the given executor. This is meant for blocking terminal
+	 * processing.
+	 *
+	 * @param <Command> the command type
+	 * @param link      the end link
+	 * @param executor  the executor
+	 * @return a new asynchronous link
+	 */
+	static <Command> AsyncLink<Command> terminal(final EndLink<Command> link, final Executor executor) {
+		return terminal(link).on(executor);
+	}
+
+	/**
+	 * Returns a new asynchronous link that first maps the command to a new type
+	 * before passing it on to the provided link.
+	 *
+	 * @param <Command>    the returned link command type
+	 * @param <NewCommand> the provided link command type
+	 * @param mapper       the command mapping function
+	 * @param link         the link
+	 * @return a new mapped asynchronous link
+	 */
+	static <Command, NewCommand> AsyncLink<Command> of(final Function<Command, NewCommand> mapper,
+			final AsyncLink<NewCommand> link) {
+		if (link instanceof SyncAsyncLink) {
+			return of(Link.of(mapper, ((SyncAsyncLink<NewCommand>) link).link));
+		}
+		return v -> {
+			final NewCommand mapped;
+			try {
+				mapped = mapper.apply(v);
+			} catch (final RuntimeException e) {
+				return CompletableFuture.failedStage(e);
+			}
+			return link.process(mapped);
+		};
+	}
+
+	/**
+	 * Returns a new asynchronous link that first maps the command to a new
+	 * {@link Either} type before passing it on to the correct left or right
+	 * provided link.
+	 *
+	 * @param <Command>      the returned link command type
+	 * @param <LeftCommand>  the provided left link command type
+	 * @param <RightCommand> the provided right link command type
+	 * @param mapper         the command mapping function
+	 * @param left           the left link
+	 * @param right          the right link
+	 * @return a new mapped asynchronous link
+	 * @see Either
+	 */
+	static <Command, LeftCommand, RightCommand> AsyncLink<Command> of(
+			final Function<Command, Either<LeftCommand, RightCommand>> mapper, final AsyncLink<LeftCommand> left,
+			final AsyncLink<RightCommand> right) {
+		return of(mapper, either(left, right));
+	}
+
+	/**
+	 * Returns a new asynchronous link for an {@link Either} command type that
+	 * applies the correct left or right provided link.
+	 *
+	 * @param <LeftCommand>  the provided left link command type
+	 * @param <RightCommand> the provided right link command type
+	 * @param left           the left link
+	 * @param right          the right link
+	 * @return a new asynchronous link
+	 * @see Either
+	 */
+	static <LeftCommand, RightCommand> AsyncLink<Either<LeftCommand, RightCommand>> either(
+			final AsyncLink<LeftCommand> left, final AsyncLink<RightCommand> right) {
+		if (left instanceof SyncAsyncLink && right instanceof SyncAsyncLink) {
+			return of(Link.either(((SyncAsyncLink<LeftCommand>) left).link, ((SyncAsyncLink<RightCommand>) right).link));
+		}
+		return v -> v.isLeft() ? left.process(v.left()) : right.process(v.right());
+	}
+
+	/**
+	 * Returns a new asynchronous link that fans the processing of the command to
+	 * another link based on an enumerated value extracted from the command, like
+	 * an {@link EnumLink}. The command is not consumed if the extracted value is
+	 * {@code null} or not associated to any link.
+	 *
+	 * @param <Command> the command type
+	 * @param <E>       the enumerated value type
+	 * @param extractor the enumerated value extraction function
+	 * @param links     the link associated to each enumerated value
+	 * @return a new asynchronous link
+	 */
+	@SuppressWarnings("unchecked")
+	static <Command, E extends Enum<E>> AsyncLink<Command> fan(final Function<Command, E> extractor,
+			final Map<E, AsyncLink<Command>> links) {
+		if (links.values().stream().allMatch(SyncAsyncLink.class::isInstance)) {
+			final Link<Command>[] routes = new Link[links.keySet().stream().findAny()
+					.map(e -> e.getDeclaringClass().getEnumConstants().length).orElse(0)];
+			links.forEach((e, link) -> routes[e.ordinal()] = ((SyncAsyncLink<Command>) link).link);
+			return of(v -> {
+				final E e = extractor.apply(v);
+				return e != null && e.ordinal() < routes.length && routes[e.ordinal()] != null
+						&& routes[e.ordinal()].process(v);
+			});
+		}
+
+		final AsyncLink<Command>[] routes = new AsyncLink[links.keySet().stream().findAny()
+				.map(e -> e.getDeclaringClass().getEnumConstants().length).orElse(0)];
+		links.forEach((e, link) -> routes[e.ordinal()] = link);
+		return v -> {
+			final E e;
+			try {
+				e = extractor.apply(v);
+			} catch (final RuntimeException x) {
+				return CompletableFuture.failedStage(x);
+			}
+			if (e == null || e.ordinal() >= routes.length || routes[e.ordinal()] == null) {
+				return SyncAsyncLink.NOT_CONSUMED;
+			}
+			return routes[e.ordinal()].process(v);
+		};
+	}
+
+	/**
+	 * Attempts to process the command.
+	 *
+	 * @param command the command
+	 * @return a stage completed with {@code true} if the command was processed
+	 */
+	CompletionStage<Boolean> process(Command command);
+
+	/**
+	 * Returns a new asynchronous link that is made of the chain of this link and
+	 * the provided one. The command is passed on to the next link once this link
+	 * completes, if it was not consumed.
+	 *
+	 * @param next the next link
+	 * @return a chain made of this link and the provided one
+	 */
+	default AsyncLink<Command> chain(final AsyncLink<Command> next) {
+		return v -> process(v).thenCompose(consumed -> consumed ? SyncAsyncLink.CONSUMED : next.process(v));
+	}
+
+	/**
+	 * Returns a new asynchronous link that starts the processing of this link on
+	 * the given executor, leaving the caller thread free.
+	 *
+	 * @param executor the executor
+	 * @return a new asynchronous link
+	 */
+	default AsyncLink<Command> on(final Executor executor) {
+		return v -> CompletableFuture.supplyAsync(() -> process(v), executor).thenCompose(Function.identity());
+	}
+}
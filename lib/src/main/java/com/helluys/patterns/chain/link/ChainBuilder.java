@@ -0,0 +1,142 @@
+package com.helluys.patterns.chain.link;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Builds a flat chain of links. Unlike {@link Link#chain}, which nests one
+ * link per call, the built chain stores its links in an array walked by a
+ * single loop: its length costs no stack depth. Chains and compiled chains
+ * added to the builder are flattened in place, keeping the same first-match
+ * order.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class ChainBuilder<Command> {
+
+	private final List<Link<Command>> links = new ArrayList<>();
+
+	/**
+	 * Appends a link, or all the links of a chain, to the chain being built.
+	 *
+	 * @param link the link or chain
+	 * @return this {@link ChainBuilder}
+	 */
+	public ChainBuilder<Command> add(final Link<Command> link) {
+		final Deque<Link<Command>> pending = new ArrayDeque<>();
+		pending.push(link);
+		while (!pending.isEmpty()) {
+			final Link<Command> current = pending.pop();
+			if (current instanceof ChainedLink) {
+				final ChainedLink<Command> chained = (ChainedLink<Command>) current;
+				pending.push(chained.next);
+				pending.push(chained.first);
+			} else if (current instanceof CompiledLink) {
+				final Link<Command>[] compiled = ((CompiledLink<Command>) current).links;
+				for (int i = compiled.length - 1; i >= 0; i--) {
+					pending.push(compiled[i]);
+				}
+			} else {
+				links.add(current);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Merges each run of consecutive added links made with
+	 * {@link Link#of(java.util.function.Predicate, java.util.function.Consumer)}
+	 * over a {@link KeyPredicate}, whose predicates share the same extractor, into
+	 * a single {@link KeyedLink}. The run is then routed with one hash lookup
+	 * instead of one predicate per link. When several links of a run accept the
+	 * same key, the first one keeps it, as in the original chain.
+	 *
+	 * @return this {@link ChainBuilder}
+	 */
+	public ChainBuilder<Command> mergeKeyed() {
+		final List<Link<Command>> merged = new ArrayList<>(links.size());
+		int start = 0;
+		while (start < links.size()) {
+			final Function<Command, ?> extractor = keyExtractor(links.get(start));
+			int end = start + 1;
+			while (extractor != null && end < links.size() && keyExtractor(links.get(end)) == extractor) {
+				end++;
+			}
+
+			if (end - start > 1) {
+				merged.add(merge(extractor, links.subList(start, end)));
+			} else {
+				merged.add(links.get(start));
+			}
+			start = end;
+		}
+
+		links.clear();
+		links.addAll(merged);
+		return this;
+	}
+
+	/**
+	 * @return a flat link trying the added links in order
+	 */
+	public Link<Command> build() {
+		return new CompiledLink<>(toArray());
+	}
+
+	/**
+	 * Completes the chain with the given end link. If the end link is itself an
+	 * ended chain, its links are flattened as well.
+	 *
+	 * @param end the end link, that always consumes the command
+	 * @return a flat end link trying the added links in order, then the end link
+	 */
+	public EndLink<Command> end(final EndLink<Command> end) {
+		EndLink<Command> current = end;
+		while (true) {
+			if (current instanceof ChainedEndLink) {
+				final ChainedEndLink<Command> chained = (ChainedEndLink<Command>) current;
+				add(chained.link);
+				current = chained.end;
+			} else if (current instanceof CompiledEndLink) {
+				final CompiledEndLink<Command> compiled = (CompiledEndLink<Command>) current;
+				add(new CompiledLink<>(compiled.links));
+				current = compiled.end;
+			} else {
+				return new CompiledEndLink<>(toArray(), current);
+			}
+		}
+	}
+
+	private Function<Command, ?> keyExtractor(final Link<Command> link) {
+		if (link instanceof PredicateLink && ((PredicateLink<Command>) link).predicate instanceof KeyPredicate) {
+			return ((KeyPredicate<Command, ?>) ((PredicateLink<Command>) link).predicate).extractor();
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <Command, K> Link<Command> merge(final Function<Command, K> extractor,
+			final List<Link<Command>> run) {
+		final KeyedLink<Command, K> keyed = new KeyedLink<>(extractor);
+		for (final Link<Command> link : run) {
+			final PredicateLink<Command> predicateLink = (PredicateLink<Command>) link;
+			final EndLink<Command> processing = predicateLink.processing instanceof EndLink
+					? (EndLink<Command>) predicateLink.processing
+					: EndLink.of(predicateLink.processing);
+			for (final K key : ((KeyPredicate<Command, K>) predicateLink.predicate).keys()) {
+				keyed.putIfAbsent(key, processing);
+			}
+		}
+		return keyed.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Link<Command>[] toArray() {
+		return links.toArray(new Link[links.size()]);
+	}
+}
@@ -0,0 +1,62 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+
+/**
+ * An {@link EndLink} made of the chain of a link and an end link, as returned
+ * by {@link Link#chain(EndLink)}. The command is passed on to the end link only
+ * if the link did not consume it. Keeping both links visible allows
+ * {@link ChainBuilder} to flatten the chain.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class ChainedEndLink<Command> implements EndLink<Command>, Specializable, Liftable {
+
+	final Link<Command> link;
+	final EndLink<Command> end;
+
+	public ChainedEndLink(final Link<Command> link, final EndLink<Command> end) {
+		this.link = link;
+		this.end = end;
+	}
+
+	@Override
+	public void accept(final Command command) {
+		if (!link.process(command)) {
+			end.process(command);
+		}
+	}
+
+	@Override
+	public EndLink<Command> compile() {
+		return new ChainBuilder<Command>().end(this);
+	}
+
+	@Override
+	public void processBatch(final List<Command> commands) {
+		final List<Command> remaining = SubBatch.remaining(commands, link.processBatch(commands)).commands;
+		if (!remaining.isEmpty()) {
+			end.processBatch(remaining);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		final CompiledEndLink<Command> compiled = (CompiledEndLink<Command>) compile();
+		return specializer.chain(compiled.links, compiled.end);
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return lifter.link(link, lifter.endLink(end));
+	}
+}
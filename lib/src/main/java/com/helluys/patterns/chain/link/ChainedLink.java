@@ -0,0 +1,55 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
+import java.util.List;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.LiftableLink;
+
+/**
+ * A {@link Link} made of the chain of two links, as returned by
+ * {@link Link#chain(Link)}. The command is passed on to the next link only if
+ * the first one did not consume it. Keeping both links visible allows
+ * {@link ChainBuilder} to flatten the chain.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class ChainedLink<Command> implements Link<Command>, Specializable, LiftableLink {
+
+	final Link<Command> first;
+	final Link<Command> next;
+
+	public ChainedLink(final Link<Command> first, final Link<Command> next) {
+		this.first = first;
+		this.next = next;
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		return first.process(command) || next.process(command);
+	}
+
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		final BitSet consumed = first.processBatch(commands);
+		SubBatch.passOn(commands, consumed, next);
+		return consumed;
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return specializer.chain(((CompiledLink<Command>) compile()).links);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public GraphNode<?> lift(final GraphLifter lifter, final GraphNode<?> otherwise) {
+		return lifter.link(first, lifter.link(next, (GraphNode<Command>) otherwise));
+	}
+}
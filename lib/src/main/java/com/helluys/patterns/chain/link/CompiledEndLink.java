@@ -0,0 +1,68 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
+import java.util.List;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+
+/**
+ * A flat chain of links completed by an end link, as built by
+ * {@link ChainBuilder}. The links are tried in order by a single loop, and the
+ * end link consumes the command if none of them did.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class CompiledEndLink<Command> implements EndLink<Command>, Specializable, Liftable {
+
+	final Link<Command>[] links;
+	final EndLink<Command> end;
+
+	public CompiledEndLink(final Link<Command>[] links, final EndLink<Command> end) {
+		this.links = links;
+		this.end = end;
+	}
+
+	@Override
+	public void accept(final Command command) {
+		for (final Link<Command> link : links) {
+			if (link.process(command)) {
+				return;
+			}
+		}
+		end.process(command);
+	}
+
+	@Override
+	public EndLink<Command> compile() {
+		return this;
+	}
+
+	@Override
+	public void processBatch(final List<Command> commands) {
+		final BitSet consumed = new BitSet(commands.size());
+		for (int i = 0; i < links.length && consumed.cardinality() < commands.size(); i++) {
+			SubBatch.passOn(commands, consumed, links[i]);
+		}
+		final List<Command> remaining = SubBatch.remaining(commands, consumed).commands;
+		if (!remaining.isEmpty()) {
+			end.processBatch(remaining);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return specializer.chain(links, end);
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return lifter.chain(links, lifter.endLink(end));
+	}
+}
@@ -0,0 +1,64 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
+import java.util.List;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.LiftableLink;
+
+/**
+ * A flat chain of links, as built by {@link ChainBuilder}. The links are tried
+ * in order by a single loop until one consumes the command, so that the chain
+ * length costs no stack depth.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class CompiledLink<Command> implements Link<Command>, Specializable, LiftableLink {
+
+	final Link<Command>[] links;
+
+	public CompiledLink(final Link<Command>[] links) {
+		this.links = links;
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		for (final Link<Command> link : links) {
+			if (link.process(command)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Link<Command> compile() {
+		return this;
+	}
+
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		final BitSet consumed = new BitSet(commands.size());
+		for (int i = 0; i < links.length && consumed.cardinality() < commands.size(); i++) {
+			SubBatch.passOn(commands, consumed, links[i]);
+		}
+		return consumed;
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return specializer.chain(links);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public GraphNode<?> lift(final GraphLifter lifter, final GraphNode<?> otherwise) {
+		return lifter.chain(links, (GraphNode<Command>) otherwise);
+	}
+}
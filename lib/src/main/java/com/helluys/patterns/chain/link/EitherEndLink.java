@@ -0,0 +1,68 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+import com.helluys.patterns.common.Either;
+
+/**
+ * An {@link EndLink} for an {@link Either} command type that applies the left
+ * or right end link, as returned by {@link Link#either(EndLink, EndLink)}.
+ *
+ * @author Helluys
+ *
+ * @param <LeftCommand>  the left end link command type
+ * @param <RightCommand> the right end link command type
+ */
+final class EitherEndLink<LeftCommand, RightCommand>
+		implements EndLink<Either<LeftCommand, RightCommand>>, Specializable, Liftable {
+
+	final EndLink<LeftCommand> left;
+	final EndLink<RightCommand> right;
+
+	public EitherEndLink(final EndLink<LeftCommand> left, final EndLink<RightCommand> right) {
+		this.left = left;
+		this.right = right;
+	}
+
+	@Override
+	public void accept(final Either<LeftCommand, RightCommand> command) {
+		command.consume(left, right);
+	}
+
+	@Override
+	public void processBatch(final List<Either<LeftCommand, RightCommand>> commands) {
+		final List<LeftCommand> lefts = new ArrayList<>();
+		final List<RightCommand> rights = new ArrayList<>();
+		for (final Either<LeftCommand, RightCommand> command : commands) {
+			if (command.isLeft()) {
+				lefts.add(command.left());
+			} else {
+				rights.add(command.right());
+			}
+		}
+
+		if (!lefts.isEmpty()) {
+			left.processBatch(lefts);
+		}
+		if (!rights.isEmpty()) {
+			right.processBatch(rights);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.either(specializer.endLink(left), specializer.endLink(right));
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return GraphNode.either(lifter.endLink(left), lifter.endLink(right));
+	}
+}
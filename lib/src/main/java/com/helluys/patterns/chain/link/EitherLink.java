@@ -0,0 +1,62 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
+import java.util.List;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.common.Either;
+
+/**
+ * A {@link Link} for an {@link Either} command type that applies the left or
+ * right link, as returned by {@link Link#either(Link, Link)}.
+ *
+ * @author Helluys
+ *
+ * @param <LeftCommand>  the left link command type
+ * @param <RightCommand> the right link command type
+ */
+final class EitherLink<LeftCommand, RightCommand> implements Link<Either<LeftCommand, RightCommand>>, Specializable {
+
+	final Link<LeftCommand> left;
+	final Link<RightCommand> right;
+
+	public EitherLink(final Link<LeftCommand> left, final Link<RightCommand> right) {
+		this.left = left;
+		this.right = right;
+	}
+
+	@Override
+	public boolean process(final Either<LeftCommand, RightCommand> command) {
+		return command.isLeft() ? left.process(command.left()) : right.process(command.right());
+	}
+
+	@Override
+	public BitSet processBatch(final List<Either<LeftCommand, RightCommand>> commands) {
+		final SubBatch<LeftCommand> lefts = new SubBatch<>();
+		final SubBatch<RightCommand> rights = new SubBatch<>();
+		for (int i = 0; i < commands.size(); i++) {
+			final Either<LeftCommand, RightCommand> command = commands.get(i);
+			if (command.isLeft()) {
+				lefts.add(command.left(), i);
+			} else {
+				rights.add(command.right(), i);
+			}
+		}
+
+		final BitSet consumed = new BitSet(commands.size());
+		if (!lefts.commands.isEmpty()) {
+			lefts.mark(left.processBatch(lefts.commands), consumed);
+		}
+		if (!rights.commands.isEmpty()) {
+			rights.mark(right.processBatch(rights.commands), consumed);
+		}
+		return consumed;
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.either(specializer.link(left), specializer.link(right));
+	}
+}
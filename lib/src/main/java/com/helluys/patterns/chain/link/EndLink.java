@@ -1,7 +1,10 @@
 package com.helluys.patterns.chain.link;
 
+import java.util.List;
 import java.util.function.Consumer;
 
+import com.helluys.patterns.chain.metrics.Instrumentation;
+
 /**
  * A responsibility chain final link. Unlike a {@link Link}, it cannot be
  * {@link Link#chain chained} with others, it represents the last element of a
@@ -24,7 +27,75 @@ public interface EndLink<Command> extends Consumer<Command> {
 		return processing::accept;
 	}
 
+	/**
+	 * Returns a new end link that always consumes with the given processing, and
+	 * consumes batches of commands as a whole with the given batch processing.
+	 * This is meant for terminal processing with an efficient bulk form, such as
+	 * bulk writes.
+	 *
+	 * @param <Command>       the command type
+	 * @param processing      the processing
+	 * @param batchProcessing the batch processing
+	 * @return a new end link
+	 */
+	static <Command> EndLink<Command> of(final Consumer<Command> processing,
+			final Consumer<List<Command>> batchProcessing) {
+		return new EndLink<Command>() {
+
+			@Override
+			public void accept(final Command command) {
+				processing.accept(command);
+			}
+
+			@Override
+			public void processBatch(final List<Command> commands) {
+				batchProcessing.accept(commands);
+			}
+		};
+	}
+
+	/**
+	 * Returns an end link recording the metrics of the given end link with the
+	 * {@link Instrumentation#global() global instrumentation}, or the given end
+	 * link itself if it is disabled.
+	 *
+	 * @param <Command> the command type
+	 * @param name      the metrics name
+	 * @param endLink   the end link
+	 * @return the instrumented end link
+	 */
+	static <Command> EndLink<Command> instrumented(final String name, final EndLink<Command> endLink) {
+		return Instrumentation.global().endLink(name, endLink);
+	}
+
 	default void process(final Command value) {
 		accept(value);
 	}
+
+	/**
+	 * Processes a batch of commands. Each command is processed as by
+	 * {@link #process}, but end links may process the batch as a whole, and pass
+	 * sub-batches on to the next links: the relative order of commands taking
+	 * different routes is not kept. Terminal end links may override this method
+	 * to process the batch in bulk.
+	 *
+	 * @param commands the commands
+	 */
+	default void processBatch(final List<Command> commands) {
+		for (final Command command : commands) {
+			accept(command);
+		}
+	}
+
+	/**
+	 * Returns a flat equivalent of this end link. The links of a chain ended with
+	 * {@link Link#chain(EndLink)} are tried in order by a single loop instead of
+	 * nested calls, so that the chain length costs no stack depth.
+	 *
+	 * @return a flat equivalent of this end link
+	 * @see ChainBuilder
+	 */
+	default EndLink<Command> compile() {
+		return this;
+	}
 }
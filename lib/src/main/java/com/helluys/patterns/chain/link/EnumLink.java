@@ -1,23 +1,39 @@
 package com.helluys.patterns.chain.link;
 
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.LiftableLink;
+
 /**
  * A {@link Link} that fans the processing of the command to another link based
  * on the value of an enumerated value extracted from teh command.
+ * <p>
+ * An {@link EnumLink} is mutable while its links are associated, and is not
+ * meant to be shared across threads. {@link #build()} and {@link #otherwise}
+ * freeze it into an immutable link dispatching through an array indexed by the
+ * enumerated value ordinal, which may be shared across threads.
  *
  * @author Helluys
  *
  * @param <Command> the command type
  * @param <E>       the enumerated value type
  */
-public final class EnumLink<Command, E extends Enum<E>> implements Link<Command> {
+public final class EnumLink<Command, E extends Enum<E>> implements Link<Command>, Specializable, LiftableLink {
 
 	private final Function<Command, E> extractor;
 	private final Map<E, EndLink<Command>> links;
+	/** The frozen links, built on demand and dropped by {@link #with}. */
+	private OrdinalLink<Command, E> frozen;
 
 	/**
 	 * Constructs an instance. Based on the desired behaviour, for unmappable input
@@ -40,9 +56,9 @@ public final class EnumLink<Command, E extends Enum<E>> implements Link<Command>
 
 	@Override
 	public final boolean process(final Command value) {
-		final E e = extractor.apply(value);
-		if (links.containsKey(e)) {
-			links.get(e).process(value);
+		final EndLink<Command> link = links.get(extractor.apply(value));
+		if (link != null) {
+			link.process(value);
 			return true;
 		}
 		return false;
@@ -54,24 +70,63 @@ public final class EnumLink<Command, E extends Enum<E>> implements Link<Command>
 	 * provided enumerated value.
 	 *
 	 * @param value the enumerated value, must be non-null
-	 * @param link  the end link for that enumerated value
+	 * @param link  the end link for that enumerated value, must be non-null
 	 * @return this {@link EnumLink}
 	 */
 	public final EnumLink<Command, E> with(final E value, final EndLink<Command> link) {
 		Objects.requireNonNull(value);
+		Objects.requireNonNull(link);
 		links.put(value, link);
+		frozen = null;
 		return this;
 	}
 
+	/**
+	 * Freezes the associated links into an immutable link, dispatching through an
+	 * array indexed by the enumerated value ordinal. Later calls to {@link #with}
+	 * do not affect the returned link, which may be shared across threads.
+	 *
+	 * @return an immutable link equivalent to this {@link EnumLink}
+	 */
+	public final Link<Command> build() {
+		return frozen();
+	}
+
 	/**
 	 * Associates the given end link for non-mapped enumerated values. This is
-	 * equivalent to {@link #chain(EndLink)}.
+	 * equivalent to {@link #build()} chained with the given end link.
 	 *
 	 * @param defaultProcessing the default processing to apply when the enumerated
 	 *                          value is not associated to any {@link Link}
 	 * @return this {@link EnumLink} chained with the given end link
 	 */
 	public final EndLink<Command> otherwise(final EndLink<Command> defaultProcessing) {
-		return chain(defaultProcessing);
+		return build().chain(defaultProcessing);
+	}
+
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		return frozen().processBatch(commands);
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return frozen().specialize(specializer);
+	}
+
+	/**
+	 * @return the links frozen into an {@link OrdinalLink}, built once until the
+	 *         next call to {@link #with}
+	 */
+	private OrdinalLink<Command, E> frozen() {
+		if (frozen == null) {
+			frozen = new OrdinalLink<>(extractor, links);
+		}
+		return frozen;
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter, final GraphNode<?> otherwise) {
+		return frozen().lift(lifter, otherwise);
 	}
 }
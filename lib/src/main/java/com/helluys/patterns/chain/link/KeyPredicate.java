@@ -0,0 +1,65 @@
+package com.helluys.patterns.chain.link;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Predicate} testing whether a key extracted from the command belongs
+ * to a set of keys. Unlike an opaque predicate, it lets
+ * {@link ChainBuilder#mergeKeyed()} merge consecutive links testing keys
+ * extracted by the same function into a single {@link KeyedLink}.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ * @param <K>       the key type
+ */
+public final class KeyPredicate<Command, K> implements Predicate<Command> {
+
+	private final Function<Command, K> extractor;
+	private final Set<K> keys;
+
+	private KeyPredicate(final Function<Command, K> extractor, final Set<K> keys) {
+		this.extractor = extractor;
+		this.keys = keys;
+	}
+
+	/**
+	 * Returns a predicate testing whether the extracted key belongs to the given
+	 * keys. Links are only merged if they share the same extractor instance.
+	 *
+	 * @param <Command> the command type
+	 * @param <K>       the key type
+	 * @param extractor the key extraction function
+	 * @param keys      the accepted keys, must not contain {@code null}, copied
+	 * @return a new key predicate, never accepting a {@code null} key
+	 */
+	public static <Command, K> KeyPredicate<Command, K> in(final Function<Command, K> extractor, final Set<K> keys) {
+		if (keys.stream().anyMatch(Objects::isNull)) {
+			throw new NullPointerException("Keys must be non-null");
+		}
+		return new KeyPredicate<>(extractor, Set.copyOf(keys));
+	}
+
+	@Override
+	public boolean test(final Command command) {
+		final K key = extractor.apply(command);
+		return key != null && keys.contains(key);
+	}
+
+	/**
+	 * @return the key extraction function
+	 */
+	public Function<Command, K> extractor() {
+		return extractor;
+	}
+
+	/**
+	 * @return the accepted keys, unmodifiable
+	 */
+	public Set<K> keys() {
+		return keys;
+	}
+}
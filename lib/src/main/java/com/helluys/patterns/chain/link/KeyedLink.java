@@ -0,0 +1,145 @@
+package com.helluys.patterns.chain.link;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.LiftableLink;
+
+/**
+ * A {@link Link} that passes the command on to another link based on the
+ * equality of a key extracted from the command. The link is found with a
+ * single hash lookup, whatever the number of keys. For unmapped keys, or if
+ * the extractor returns {@code null}, the command is not processed.
+ * <p>
+ * A {@link KeyedLink} is mutable while its links are associated, and is not
+ * meant to be shared across threads. {@link #build()} and {@link #otherwise}
+ * freeze it into an immutable link, which may be shared across threads.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ * @param <K>       the key type
+ */
+public final class KeyedLink<Command, K> implements Link<Command>, LiftableLink {
+
+	private final Function<Command, K> extractor;
+	private final Map<K, EndLink<Command>> links;
+
+	/**
+	 * Constructs an instance.
+	 *
+	 * @param extractor the key extraction function
+	 */
+	public KeyedLink(final Function<Command, K> extractor) {
+		this(extractor, new HashMap<>());
+	}
+
+	private KeyedLink(final Function<Command, K> extractor, final Map<K, EndLink<Command>> links) {
+		this.extractor = extractor;
+		this.links = links;
+	}
+
+	@Override
+	public final boolean process(final Command command) {
+		final K key = extractor.apply(command);
+		if (key != null) {
+			final EndLink<Command> link = links.get(key);
+			if (link != null) {
+				link.process(command);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Associates an {@link EndLink} to a key. This link will be called on
+	 * {@link #process} with the command if the extractor returns an equal key.
+	 *
+	 * @param key  the key, must be non-null
+	 * @param link the end link for that key, must be non-null
+	 * @return this {@link KeyedLink}
+	 * @throws UnsupportedOperationException if this {@link KeyedLink} is built
+	 */
+	public final KeyedLink<Command, K> with(final K key, final EndLink<Command> link) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(link);
+		links.put(key, link);
+		return this;
+	}
+
+	/**
+	 * Associates an {@link EndLink} to each of the given keys.
+	 *
+	 * @param keys the keys, must be non-null
+	 * @param link the end link for those keys, must be non-null
+	 * @return this {@link KeyedLink}
+	 * @throws UnsupportedOperationException if this {@link KeyedLink} is built
+	 */
+	public final KeyedLink<Command, K> withAll(final Collection<K> keys, final EndLink<Command> link) {
+		keys.forEach(key -> with(key, link));
+		return this;
+	}
+
+	/**
+	 * Freezes the associated links into an immutable {@link KeyedLink}. Later
+	 * calls to {@link #with} on this instance do not affect the returned link,
+	 * which may be shared across threads.
+	 *
+	 * @return an immutable {@link KeyedLink} equivalent to this one
+	 */
+	public final KeyedLink<Command, K> build() {
+		return new KeyedLink<>(extractor, Map.copyOf(links));
+	}
+
+	/**
+	 * Associates the given end link for non-mapped keys. This is equivalent to
+	 * {@link #build()} chained with the given end link.
+	 *
+	 * @param defaultProcessing the default processing to apply when the key is
+	 *                          not associated to any {@link Link}
+	 * @return this {@link KeyedLink} chained with the given end link
+	 */
+	public final EndLink<Command> otherwise(final EndLink<Command> defaultProcessing) {
+		return build().chain(defaultProcessing);
+	}
+
+	void putIfAbsent(final K key, final EndLink<Command> link) {
+		links.putIfAbsent(key, link);
+	}
+
+	@Override
+	public final BitSet processBatch(final List<Command> commands) {
+		final Map<EndLink<Command>, SubBatch<Command>> routes = new LinkedHashMap<>();
+		for (int i = 0; i < commands.size(); i++) {
+			final K key = extractor.apply(commands.get(i));
+			final EndLink<Command> link = key == null ? null : links.get(key);
+			if (link != null) {
+				routes.computeIfAbsent(link, l -> new SubBatch<>()).add(commands.get(i), i);
+			}
+		}
+
+		final BitSet consumed = new BitSet(commands.size());
+		routes.forEach((link, route) -> {
+			link.processBatch(route.commands);
+			route.markAll(consumed);
+		});
+		return consumed;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public GraphNode<?> lift(final GraphLifter lifter, final GraphNode<?> otherwise) {
+		final Map<K, GraphNode<Command>> branches = new LinkedHashMap<>();
+		links.forEach((key, link) -> branches.put(key, lifter.endLink(link)));
+		return GraphNode.keyed(extractor, branches, (GraphNode<Command>) otherwise);
+	}
+}
@@ -1,10 +1,16 @@
 package com.helluys.patterns.chain.link;
 
+import java.util.BitSet;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.helluys.patterns.chain.cache.CacheSpec;
+import com.helluys.patterns.chain.cache.MemoizedFunction;
+import com.helluys.patterns.chain.metrics.Instrumentation;
 import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
 
 /**
  * A responsibility chain link. It may or may not consume the command it is
@@ -27,14 +33,7 @@ public interface Link<Command> {
 	 * @return a new link
 	 */
 	static <Command> Link<Command> of(final Predicate<Command> predicate, final Consumer<Command> processing) {
-		return v -> {
-			if (predicate.test(v)) {
-				processing.accept(v);
-				return true;
-			} else {
-				return false;
-			}
-		};
+		return new PredicateLink<>(predicate, processing);
 	}
 
 	/**
@@ -49,7 +48,7 @@ public interface Link<Command> {
 	 */
 	static <Command, NewCommand> Link<Command> of(final Function<Command, NewCommand> mapper,
 			final Link<NewCommand> link) {
-		return v -> link.process(mapper.apply(v));
+		return new MapperLink<>(mapper, link);
 	}
 
 	/**
@@ -65,7 +64,7 @@ public interface Link<Command> {
 	 */
 	static <Command, NewCommand> EndLink<Command> of(final Function<Command, NewCommand> mapper,
 			final EndLink<NewCommand> link) {
-		return v -> link.process(mapper.apply(v));
+		return new MapperEndLink<>(mapper, link);
 	}
 
 	/**
@@ -106,6 +105,120 @@ public interface Link<Command> {
 		return of(mapper, either(left, right));
 	}
 
+	/**
+	 * Returns a new link that splits the command into a left or right command
+	 * passed on directly to the correct left or right provided link, without
+	 * allocating an {@link Either}.
+	 *
+	 * @param <Command>      the returned link command type
+	 * @param <LeftCommand>  the provided left link command type
+	 * @param <RightCommand> the provided right link command type
+	 * @param splitter       the command splitting function
+	 * @param left           the left link
+	 * @param right          the right link
+	 * @return a new split link
+	 * @see Splitter
+	 */
+	static <Command, LeftCommand, RightCommand> Link<Command> split(
+			final Splitter<Command, LeftCommand, RightCommand> splitter, final Link<LeftCommand> left,
+			final Link<RightCommand> right) {
+		return new SplitLink<>(splitter, left, right);
+	}
+
+	/**
+	 * Returns a new end link that splits the command into a left or right command
+	 * passed on directly to the correct left or right provided end link, without
+	 * allocating an {@link Either}.
+	 *
+	 * @param <Command>      the returned link command type
+	 * @param <LeftCommand>  the provided left link command type
+	 * @param <RightCommand> the provided right link command type
+	 * @param splitter       the command splitting function
+	 * @param left           the left end link
+	 * @param right          the right end link
+	 * @return a new split end link
+	 * @see EndLink
+	 * @see Splitter
+	 */
+	static <Command, LeftCommand, RightCommand> EndLink<Command> split(
+			final Splitter<Command, LeftCommand, RightCommand> splitter, final EndLink<LeftCommand> left,
+			final EndLink<RightCommand> right) {
+		return new SplitEndLink<>(splitter, left, right);
+	}
+
+	/**
+	 * Returns a new link like {@link #of(Function, Link)}, caching the mapped
+	 * commands of the commands already seen. The commands are the cache keys:
+	 * they must be immutable, with value equality. Extract such a key otherwise,
+	 * with {@link #memoized(Function, Function, CacheSpec, Link)}. Use
+	 * {@link MemoizedFunction} directly to read the cache statistics.
+	 *
+	 * @param <Command>    the returned link command type
+	 * @param <NewCommand> the provided link command type
+	 * @param mapper       the command mapping function
+	 * @param spec         the cache specification
+	 * @param link         the link
+	 * @return a new memoized mapped link
+	 */
+	static <Command, NewCommand> Link<Command> memoized(final Function<Command, NewCommand> mapper,
+			final CacheSpec spec, final Link<NewCommand> link) {
+		return new MapperLink<>(MemoizedFunction.of(mapper, spec), link);
+	}
+
+	/**
+	 * Returns a new end link like {@link #of(Function, EndLink)}, caching the
+	 * mapped commands of the commands already seen, as
+	 * {@link #memoized(Function, CacheSpec, Link)}.
+	 *
+	 * @param <Command>    the returned link command type
+	 * @param <NewCommand> the provided link command type
+	 * @param mapper       the command mapping function
+	 * @param spec         the cache specification
+	 * @param link         the end link
+	 * @return a new memoized mapped end link
+	 */
+	static <Command, NewCommand> EndLink<Command> memoized(final Function<Command, NewCommand> mapper,
+			final CacheSpec spec, final EndLink<NewCommand> link) {
+		return new MapperEndLink<>(MemoizedFunction.of(mapper, spec), link);
+	}
+
+	/**
+	 * Returns a new link like {@link #of(Function, Link)}, caching the mapped
+	 * commands by a key extracted from the commands, such as their content. The
+	 * keys must be immutable, with value equality: commands with equal keys are
+	 * passed on the same mapped command.
+	 *
+	 * @param <Command>    the returned link command type
+	 * @param <NewCommand> the provided link command type
+	 * @param keyExtractor the cache key extraction function
+	 * @param mapper       the command mapping function
+	 * @param spec         the cache specification
+	 * @param link         the link
+	 * @return a new memoized mapped link
+	 */
+	static <Command, NewCommand> Link<Command> memoized(final Function<? super Command, ?> keyExtractor,
+			final Function<Command, NewCommand> mapper, final CacheSpec spec, final Link<NewCommand> link) {
+		return new MapperLink<>(MemoizedFunction.of(keyExtractor, mapper, spec), link);
+	}
+
+	/**
+	 * Returns a new end link like {@link #of(Function, EndLink)}, caching the
+	 * mapped commands by a key extracted from the commands, as
+	 * {@link #memoized(Function, Function, CacheSpec, Link)}.
+	 *
+	 * @param <Command>    the returned link command type
+	 * @param <NewCommand> the provided link command type
+	 * @param keyExtractor the cache key extraction function
+	 * @param mapper       the command mapping function
+	 * @param spec         the cache specification
+	 * @param link         the end link
+	 * @return a new memoized mapped end link
+	 */
+	static <Command, NewCommand> EndLink<Command> memoized(final Function<? super Command, ?> keyExtractor,
+			final Function<Command, NewCommand> mapper, final CacheSpec spec, final EndLink<NewCommand> link) {
+		return new MapperEndLink<>(MemoizedFunction.of(keyExtractor, mapper, spec), link);
+	}
+
 	/**
 	 * Returns a new link for an {@link Either} command type that applies the
 	 * correct left or right provided link.
@@ -119,7 +232,7 @@ public interface Link<Command> {
 	 */
 	static <LeftCommand, RightCommand> Link<Either<LeftCommand, RightCommand>> either(final Link<LeftCommand> left,
 			final Link<RightCommand> right) {
-		return v -> v.reduce(left::process, right::process);
+		return new EitherLink<>(left, right);
 	}
 
 	/**
@@ -137,7 +250,21 @@ public interface Link<Command> {
 	 */
 	static <LeftCommand, RigthCommand> EndLink<Either<LeftCommand, RigthCommand>> either(
 			final EndLink<LeftCommand> left, final EndLink<RigthCommand> right) {
-		return v -> v.consume(left, right);
+		return new EitherEndLink<>(left, right);
+	}
+
+	/**
+	 * Returns a link recording the metrics of the given link with the
+	 * {@link Instrumentation#global() global instrumentation}, or the given link
+	 * itself if it is disabled.
+	 *
+	 * @param <Command> the command type
+	 * @param name      the metrics name
+	 * @param link      the link
+	 * @return the instrumented link
+	 */
+	static <Command> Link<Command> instrumented(final String name, final Link<Command> link) {
+		return Instrumentation.global().link(name, link);
 	}
 
 	/**
@@ -148,6 +275,25 @@ public interface Link<Command> {
 	 */
 	boolean process(Command command);
 
+	/**
+	 * Attempts to process a batch of commands. Each command is processed as by
+	 * {@link #process}, but links may process the batch as a whole, and pass
+	 * sub-batches on to the next links: the relative order of commands taking
+	 * different routes is not kept.
+	 *
+	 * @param commands the commands
+	 * @return the indices in the batch of the processed commands
+	 */
+	default BitSet processBatch(final List<Command> commands) {
+		final BitSet consumed = new BitSet(commands.size());
+		for (int i = 0; i < commands.size(); i++) {
+			if (process(commands.get(i))) {
+				consumed.set(i);
+			}
+		}
+		return consumed;
+	}
+
 	/**
 	 * Returns a new link that is made of the chain of this link and the provided
 	 * one. {@link #process} will be executed first on the this link, and passed on
@@ -158,7 +304,7 @@ public interface Link<Command> {
 	 * @return a chain made of this link and the provided one
 	 */
 	default Link<Command> chain(final Link<Command> next) {
-		return v -> process(v) ? true : next.process(v);
+		return new ChainedLink<>(this, next);
 	}
 
 	/**
@@ -171,11 +317,7 @@ public interface Link<Command> {
 	 * @return a completed chain made of this link and the provided one
 	 */
 	default EndLink<Command> chain(final EndLink<Command> next) {
-		return v -> {
-			if (!process(v)) {
-				next.process(v);
-			}
-		};
+		return new ChainedEndLink<>(this, next);
 	}
 
 	/**
@@ -191,6 +333,18 @@ public interface Link<Command> {
 	 * @return a chain made of this link and the provided one
 	 */
 	default <NewCommand> Link<Command> map(final Function<Command, NewCommand> mapper, final Link<NewCommand> next) {
-		return v -> process(v) ? true : next.process(mapper.apply(v));
+		return chain(of(mapper, next));
+	}
+
+	/**
+	 * Returns a flat equivalent of this link. The links of a chain built with
+	 * {@link #chain(Link)} are tried in order by a single loop instead of nested
+	 * calls, so that the chain length costs no stack depth.
+	 *
+	 * @return a flat equivalent of this link
+	 * @see ChainBuilder
+	 */
+	default Link<Command> compile() {
+		return new ChainBuilder<Command>().add(this).build();
 	}
 }
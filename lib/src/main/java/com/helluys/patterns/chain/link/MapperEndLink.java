@@ -0,0 +1,56 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.Liftable;
+
+/**
+ * An {@link EndLink} that maps the command to a new type before passing it on
+ * to the next end link, as returned by {@link Link#of(Function, EndLink)}.
+ *
+ * @author Helluys
+ *
+ * @param <Command>    the command type
+ * @param <NewCommand> the next end link command type
+ */
+final class MapperEndLink<Command, NewCommand> implements EndLink<Command>, Specializable, Liftable {
+
+	final Function<Command, NewCommand> mapper;
+	final EndLink<NewCommand> link;
+
+	public MapperEndLink(final Function<Command, NewCommand> mapper, final EndLink<NewCommand> link) {
+		this.mapper = mapper;
+		this.link = link;
+	}
+
+	@Override
+	public void accept(final Command command) {
+		link.process(mapper.apply(command));
+	}
+
+	@Override
+	public void processBatch(final List<Command> commands) {
+		final List<NewCommand> mapped = new ArrayList<>(commands.size());
+		for (final Command command : commands) {
+			mapped.add(mapper.apply(command));
+		}
+		link.processBatch(mapped);
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.map(ChainSpecializer.apply(mapper), specializer.endLink(link));
+	}
+
+	@Override
+	public GraphNode<?> lift(final GraphLifter lifter) {
+		return GraphNode.map(mapper, lifter.endLink(link));
+	}
+}
@@ -0,0 +1,49 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+
+/**
+ * A {@link Link} that maps the command to a new type before passing it on to
+ * the next link, as returned by {@link Link#of(Function, Link)}.
+ *
+ * @author Helluys
+ *
+ * @param <Command>    the command type
+ * @param <NewCommand> the next link command type
+ */
+final class MapperLink<Command, NewCommand> implements Link<Command>, Specializable {
+
+	final Function<Command, NewCommand> mapper;
+	final Link<NewCommand> link;
+
+	public MapperLink(final Function<Command, NewCommand> mapper, final Link<NewCommand> link) {
+		this.mapper = mapper;
+		this.link = link;
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		return link.process(mapper.apply(command));
+	}
+
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		final List<NewCommand> mapped = new ArrayList<>(commands.size());
+		for (final Command command : commands) {
+			mapped.add(mapper.apply(command));
+		}
+		return link.processBatch(mapped);
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.map(ChainSpecializer.apply(mapper), specializer.link(link));
+	}
+}
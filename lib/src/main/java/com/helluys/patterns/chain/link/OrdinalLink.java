@@ -0,0 +1,116 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.LiftableLink;
+
+/**
+ * An immutable {@link Link} that fans the processing of the command to another
+ * link based on an enumerated value extracted from the command, as built by
+ * {@link EnumLink#build()}. The links are stored in an array indexed by the
+ * enumerated value ordinal, so that dispatching is a single array load. Once
+ * built, it may be shared across threads.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ * @param <E>       the enumerated value type
+ */
+final class OrdinalLink<Command, E extends Enum<E>> implements Link<Command>, Specializable, LiftableLink {
+
+	private final Function<Command, E> extractor;
+	private final E[] values;
+	private final EndLink<Command>[] links;
+
+	@SuppressWarnings("unchecked")
+	public OrdinalLink(final Function<Command, E> extractor, final Map<E, EndLink<Command>> links) {
+		this.extractor = extractor;
+		this.values = links.keySet().stream().findAny().map(e -> e.getDeclaringClass().getEnumConstants())
+				.orElse(null);
+		this.links = new EndLink[values == null ? 0 : values.length];
+		links.forEach((value, link) -> this.links[value.ordinal()] = link);
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		final E e = extractor.apply(command);
+		if (e != null && e.ordinal() < links.length) {
+			final EndLink<Command> link = links[e.ordinal()];
+			if (link != null) {
+				link.process(command);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public BitSet processBatch(final List<Command> commands) {
+		final SubBatch<Command>[] routes = new SubBatch[links.length];
+		for (int i = 0; i < commands.size(); i++) {
+			final E e = extractor.apply(commands.get(i));
+			if (e != null && e.ordinal() < links.length && links[e.ordinal()] != null) {
+				if (routes[e.ordinal()] == null) {
+					routes[e.ordinal()] = new SubBatch<>();
+				}
+				routes[e.ordinal()].add(commands.get(i), i);
+			}
+		}
+
+		final BitSet consumed = new BitSet(commands.size());
+		for (int ordinal = 0; ordinal < routes.length; ordinal++) {
+			if (routes[ordinal] != null) {
+				links[ordinal].processBatch(routes[ordinal].commands);
+				routes[ordinal].markAll(consumed);
+			}
+		}
+		return consumed;
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		int count = 0;
+		for (final EndLink<Command> link : links) {
+			if (link != null) {
+				count++;
+			}
+		}
+
+		final Object[] keys = new Object[count];
+		final MethodHandle[] targets = new MethodHandle[count];
+		for (int ordinal = 0, i = 0; ordinal < links.length; ordinal++) {
+			if (links[ordinal] != null) {
+				keys[i] = values[ordinal];
+				targets[i] = ChainSpecializer.consumed(specializer.endLink(links[ordinal]));
+				i++;
+			}
+		}
+		return ChainSpecializer.dispatch(ChainSpecializer.apply(extractor), keys, targets,
+				ChainSpecializer.notConsumed());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public GraphNode<?> lift(final GraphLifter lifter, final GraphNode<?> otherwise) {
+		if (values == null) {
+			return otherwise;
+		}
+		final EnumMap<E, GraphNode<Command>> branches = new EnumMap<>(values[0].getDeclaringClass());
+		for (int ordinal = 0; ordinal < links.length; ordinal++) {
+			if (links[ordinal] != null) {
+				branches.put(values[ordinal], lifter.endLink(links[ordinal]));
+			}
+		}
+		return GraphNode.fan(extractor, branches, (GraphNode<Command>) otherwise);
+	}
+}
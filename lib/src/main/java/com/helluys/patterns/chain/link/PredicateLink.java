@@ -0,0 +1,76 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.graph.GraphLifter;
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.LiftableLink;
+
+/**
+ * A {@link Link} that consumes with its processing only if its predicate
+ * evaluates to true, as returned by {@link Link#of(Predicate, Consumer)}.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class PredicateLink<Command> implements Link<Command>, Specializable, LiftableLink {
+
+	final Predicate<Command> predicate;
+	final Consumer<Command> processing;
+
+	public PredicateLink(final Predicate<Command> predicate, final Consumer<Command> processing) {
+		this.predicate = predicate;
+		this.processing = processing;
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		if (predicate.test(command)) {
+			processing.accept(command);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		final SubBatch<Command> accepted = new SubBatch<>();
+		for (int i = 0; i < commands.size(); i++) {
+			if (predicate.test(commands.get(i))) {
+				accepted.add(commands.get(i), i);
+			}
+		}
+
+		if (accepted.commands.isEmpty()) {
+			return new BitSet();
+		} else if (processing instanceof EndLink) {
+			((EndLink<Command>) processing).processBatch(accepted.commands);
+		} else {
+			accepted.commands.forEach(processing);
+		}
+
+		final BitSet consumed = new BitSet(commands.size());
+		accepted.markAll(consumed);
+		return consumed;
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.condition(ChainSpecializer.test(predicate),
+				ChainSpecializer.consumed(ChainSpecializer.accept(processing)), ChainSpecializer.notConsumed());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public GraphNode<?> lift(final GraphLifter lifter, final GraphNode<?> otherwise) {
+		return GraphNode.condition(predicate, GraphNode.terminal(processing), (GraphNode<Command>) otherwise);
+	}
+}
@@ -0,0 +1,74 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.common.Splitter;
+
+/**
+ * An {@link EndLink} that splits the command into a left or right command
+ * passed on to the left or right end link, as returned by
+ * {@link Link#split(Splitter, EndLink, EndLink)}.
+ *
+ * @author Helluys
+ *
+ * @param <Command>      the command type
+ * @param <LeftCommand>  the left end link command type
+ * @param <RightCommand> the right end link command type
+ */
+final class SplitEndLink<Command, LeftCommand, RightCommand> implements EndLink<Command>, Specializable {
+
+	final Splitter<Command, LeftCommand, RightCommand> splitter;
+	final EndLink<LeftCommand> left;
+	final EndLink<RightCommand> right;
+
+	private final Predicate<LeftCommand> leftSink;
+	private final Predicate<RightCommand> rightSink;
+
+	public SplitEndLink(final Splitter<Command, LeftCommand, RightCommand> splitter, final EndLink<LeftCommand> left,
+			final EndLink<RightCommand> right) {
+		this.splitter = splitter;
+		this.left = left;
+		this.right = right;
+		this.leftSink = l -> {
+			left.accept(l);
+			return true;
+		};
+		this.rightSink = r -> {
+			right.accept(r);
+			return true;
+		};
+	}
+
+	@Override
+	public void accept(final Command command) {
+		splitter.split(command, leftSink, rightSink);
+	}
+
+	@Override
+	public void processBatch(final List<Command> commands) {
+		final List<LeftCommand> lefts = new ArrayList<>();
+		final List<RightCommand> rights = new ArrayList<>();
+		final Predicate<LeftCommand> leftCollector = lefts::add;
+		final Predicate<RightCommand> rightCollector = rights::add;
+		for (final Command command : commands) {
+			splitter.split(command, leftCollector, rightCollector);
+		}
+
+		if (!lefts.isEmpty()) {
+			left.processBatch(lefts);
+		}
+		if (!rights.isEmpty()) {
+			right.processBatch(rights);
+		}
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.split(splitter, specializer.endLink(left), specializer.endLink(right));
+	}
+}
@@ -0,0 +1,77 @@
+package com.helluys.patterns.chain.link;
+
+import java.lang.invoke.MethodHandle;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.common.Splitter;
+
+/**
+ * A {@link Link} that splits the command into a left or right command passed
+ * on to the left or right link, as returned by
+ * {@link Link#split(Splitter, Link, Link)}.
+ *
+ * @author Helluys
+ *
+ * @param <Command>      the command type
+ * @param <LeftCommand>  the left link command type
+ * @param <RightCommand> the right link command type
+ */
+final class SplitLink<Command, LeftCommand, RightCommand> implements Link<Command>, Specializable {
+
+	final Splitter<Command, LeftCommand, RightCommand> splitter;
+	final Link<LeftCommand> left;
+	final Link<RightCommand> right;
+
+	private final Predicate<LeftCommand> leftSink;
+	private final Predicate<RightCommand> rightSink;
+
+	public SplitLink(final Splitter<Command, LeftCommand, RightCommand> splitter, final Link<LeftCommand> left,
+			final Link<RightCommand> right) {
+		this.splitter = splitter;
+		this.left = left;
+		this.right = right;
+		this.leftSink = left::process;
+		this.rightSink = right::process;
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		return splitter.split(command, leftSink, rightSink);
+	}
+
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		final SubBatch<LeftCommand> lefts = new SubBatch<>();
+		final SubBatch<RightCommand> rights = new SubBatch<>();
+		final int[] index = new int[1];
+		final Predicate<LeftCommand> leftCollector = l -> {
+			lefts.add(l, index[0]);
+			return true;
+		};
+		final Predicate<RightCommand> rightCollector = r -> {
+			rights.add(r, index[0]);
+			return true;
+		};
+		for (index[0] = 0; index[0] < commands.size(); index[0]++) {
+			splitter.split(commands.get(index[0]), leftCollector, rightCollector);
+		}
+
+		final BitSet consumed = new BitSet(commands.size());
+		if (!lefts.commands.isEmpty()) {
+			lefts.mark(left.processBatch(lefts.commands), consumed);
+		}
+		if (!rights.commands.isEmpty()) {
+			rights.mark(right.processBatch(rights.commands), consumed);
+		}
+		return consumed;
+	}
+
+	@Override
+	public MethodHandle specialize(final ChainSpecializer specializer) {
+		return ChainSpecializer.split(splitter, specializer.link(left), specializer.link(right));
+	}
+}
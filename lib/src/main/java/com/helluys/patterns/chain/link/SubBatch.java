@@ -0,0 +1,86 @@
+package com.helluys.patterns.chain.link;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A sub-batch of commands taking the same route, remembering the index of each
+ * command in the original batch so that the consumed commands can be reported
+ * back to it.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class SubBatch<Command> {
+
+	final List<Command> commands = new ArrayList<>();
+	private int[] indices = new int[8];
+
+	/**
+	 * Returns the sub-batch of the commands that are not yet consumed.
+	 *
+	 * @param <Command> the command type
+	 * @param commands  the original batch
+	 * @param consumed  the indices of the consumed commands
+	 * @return the sub-batch of remaining commands
+	 */
+	static <Command> SubBatch<Command> remaining(final List<Command> commands, final BitSet consumed) {
+		final SubBatch<Command> remaining = new SubBatch<>();
+		for (int i = consumed.nextClearBit(0); i < commands.size(); i = consumed.nextClearBit(i + 1)) {
+			remaining.add(commands.get(i), i);
+		}
+		return remaining;
+	}
+
+	/**
+	 * Passes the commands that are not yet consumed on to the link, and marks
+	 * those it consumes.
+	 *
+	 * @param <Command> the command type
+	 * @param commands  the original batch
+	 * @param consumed  the indices of the consumed commands, updated
+	 * @param link      the link
+	 */
+	static <Command> void passOn(final List<Command> commands, final BitSet consumed, final Link<Command> link) {
+		final SubBatch<Command> remaining = remaining(commands, consumed);
+		if (!remaining.commands.isEmpty()) {
+			remaining.mark(link.processBatch(remaining.commands), consumed);
+		}
+	}
+
+	void add(final Command command, final int index) {
+		if (commands.size() == indices.length) {
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		indices[commands.size()] = index;
+		commands.add(command);
+	}
+
+	/**
+	 * Marks the consumed commands of this sub-batch in the original batch.
+	 *
+	 * @param subConsumed the indices of the consumed commands of this sub-batch
+	 * @param consumed    the indices of the consumed commands of the original
+	 *                    batch, updated
+	 */
+	void mark(final BitSet subConsumed, final BitSet consumed) {
+		for (int i = subConsumed.nextSetBit(0); i >= 0; i = subConsumed.nextSetBit(i + 1)) {
+			consumed.set(indices[i]);
+		}
+	}
+
+	/**
+	 * Marks all the commands of this sub-batch as consumed in the original batch.
+	 *
+	 * @param consumed the indices of the consumed commands of the original batch,
+	 *                 updated
+	 */
+	void markAll(final BitSet consumed) {
+		for (int i = 0; i < commands.size(); i++) {
+			consumed.set(indices[i]);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.helluys.patterns.chain.link;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An {@link AsyncLink} running a synchronous {@link Link} inline, as returned
+ * by {@link AsyncLink#of(Link)}. The result is one of two shared completed
+ * stages, so that no future is allocated per command. Combining synchronous
+ * links combines the underlying links instead.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class SyncAsyncLink<Command> implements AsyncLink<Command> {
+
+	static final CompletionStage<Boolean> CONSUMED = CompletableFuture.completedStage(true);
+	static final CompletionStage<Boolean> NOT_CONSUMED = CompletableFuture.completedStage(false);
+
+	final Link<Command> link;
+
+	public SyncAsyncLink(final Link<Command> link) {
+		this.link = link;
+	}
+
+	@Override
+	public CompletionStage<Boolean> process(final Command command) {
+		try {
+			return link.process(command) ? CONSUMED : NOT_CONSUMED;
+		} catch (final RuntimeException e) {
+			return CompletableFuture.failedStage(e);
+		}
+	}
+
+	@Override
+	public AsyncLink<Command> chain(final AsyncLink<Command> next) {
+		if (next instanceof SyncAsyncLink) {
+			return new SyncAsyncLink<>(link.chain(((SyncAsyncLink<Command>) next).link));
+		}
+		return AsyncLink.super.chain(next);
+	}
+}
@@ -0,0 +1,160 @@
+package com.helluys.patterns.chain.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.helluys.patterns.chain.NodeDecorator;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * Decorates chain nodes to record their {@link LinkMetrics}, published as
+ * MBeans of the platform MBean server under
+ * {@code com.helluys.patterns.chain:type=Link,instrumentation=<name>,name=<node>}.
+ * Nodes instrumented under the same name share the same metrics.
+ * <p>
+ * A disabled instrumentation returns the nodes as is, so that instrumentation
+ * costs nothing unless enabled. The {@link #global()} instrumentation, used by
+ * {@link Link#instrumented}, {@link EndLink#instrumented} and
+ * {@link Handler#instrumented}, is enabled by the
+ * {@value #ENABLED_PROPERTY} system property.
+ *
+ * @author Helluys
+ */
+public final class Instrumentation implements NodeDecorator, AutoCloseable {
+
+	/**
+	 * The JMX domain of the published MBeans.
+	 */
+	public static final String DOMAIN = "com.helluys.patterns.chain";
+
+	/**
+	 * The system property enabling the {@link #global()} instrumentation.
+	 */
+	public static final String ENABLED_PROPERTY = "com.helluys.patterns.chain.instrumentation";
+
+	private static final Instrumentation DISABLED = new Instrumentation(null);
+	private static final Instrumentation GLOBAL = Boolean.getBoolean(ENABLED_PROPERTY) ? new Instrumentation("global")
+			: DISABLED;
+
+	private final String name;
+	private final ConcurrentMap<String, LinkMetrics> metrics = new ConcurrentHashMap<>();
+
+	private Instrumentation(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the instrumentation enabled by the {@value #ENABLED_PROPERTY}
+	 *         system property
+	 */
+	public static Instrumentation global() {
+		return GLOBAL;
+	}
+
+	/**
+	 * @return an instrumentation returning the nodes as is
+	 */
+	public static Instrumentation disabled() {
+		return DISABLED;
+	}
+
+	/**
+	 * Returns a new enabled instrumentation. Its name must be unique among the
+	 * instrumentations publishing MBeans at the same time.
+	 *
+	 * @param name the instrumentation name
+	 * @return a new instrumentation
+	 */
+	public static Instrumentation enabled(final String name) {
+		return new Instrumentation(name);
+	}
+
+	public boolean isEnabled() {
+		return name != null;
+	}
+
+	@Override
+	public <Command> Link<Command> link(final String node, final Link<Command> link) {
+		return isEnabled() ? new InstrumentedLink<>(metrics(node), link) : link;
+	}
+
+	@Override
+	public <Command> EndLink<Command> endLink(final String node, final EndLink<Command> endLink) {
+		return isEnabled() ? new InstrumentedEndLink<>(metrics(node), endLink) : endLink;
+	}
+
+	@Override
+	public <Command> Handler<Command> handler(final String node, final Handler<Command> handler) {
+		return isEnabled() ? new InstrumentedHandler<>(metrics(node), handler) : handler;
+	}
+
+	/**
+	 * Returns the metrics of a node, creating and publishing them if needed.
+	 *
+	 * @param node the node name
+	 * @return the node metrics
+	 * @throws IllegalStateException if this instrumentation is disabled, or if
+	 *                               the MBean cannot be published
+	 */
+	public LinkMetrics metrics(final String node) {
+		if (!isEnabled()) {
+			throw new IllegalStateException("Instrumentation is disabled");
+		}
+		return metrics.computeIfAbsent(node, n -> {
+			final LinkMetrics created = new LinkMetrics(n);
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(created, objectName(n));
+			} catch (final JMException e) {
+				throw new IllegalStateException("Unable to publish metrics " + n, e);
+			}
+			return created;
+		});
+	}
+
+	/**
+	 * @return the metrics of the instrumented nodes, by node name
+	 */
+	public Map<String, LinkMetrics> metrics() {
+		return Collections.unmodifiableMap(new TreeMap<>(metrics));
+	}
+
+	/**
+	 * @return the object name of the MBean of a node
+	 */
+	public ObjectName objectName(final String node) {
+		try {
+			return new ObjectName(DOMAIN + ":type=Link,instrumentation=" + ObjectName.quote(name) + ",name="
+					+ ObjectName.quote(node));
+		} catch (final JMException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/**
+	 * Unpublishes the MBeans. The instrumented nodes keep recording.
+	 */
+	@Override
+	public void close() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (final String node : metrics.keySet()) {
+			try {
+				server.unregisterMBean(objectName(node));
+			} catch (final InstanceNotFoundException e) {
+				// Already unpublished
+			} catch (final JMException e) {
+				throw new IllegalStateException("Unable to unpublish metrics " + node, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.helluys.patterns.chain.metrics;
+
+import java.util.List;
+
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * An {@link EndLink} recording the metrics of another, as returned by
+ * {@link Instrumentation#endLink}. Every command counts as a hit.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class InstrumentedEndLink<Command> implements EndLink<Command> {
+
+	private final LinkMetrics metrics;
+	private final EndLink<Command> endLink;
+
+	public InstrumentedEndLink(final LinkMetrics metrics, final EndLink<Command> endLink) {
+		this.metrics = metrics;
+		this.endLink = endLink;
+	}
+
+	@Override
+	public void accept(final Command command) {
+		final long start = System.nanoTime();
+		try {
+			endLink.accept(command);
+		} catch (final RuntimeException | Error e) {
+			metrics.recordException();
+			throw e;
+		}
+		metrics.record(true, System.nanoTime() - start);
+	}
+
+	@Override
+	public void processBatch(final List<Command> commands) {
+		final long start = System.nanoTime();
+		try {
+			endLink.processBatch(commands);
+		} catch (final RuntimeException | Error e) {
+			metrics.recordException();
+			throw e;
+		}
+		metrics.recordBatch(commands.size(), commands.size(), System.nanoTime() - start);
+	}
+}
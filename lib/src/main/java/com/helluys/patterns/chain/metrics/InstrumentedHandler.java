@@ -0,0 +1,48 @@
+package com.helluys.patterns.chain.metrics;
+
+import java.util.List;
+
+import com.helluys.patterns.chain.handler.Handler;
+
+/**
+ * A {@link Handler} recording the metrics of another, as returned by
+ * {@link Instrumentation#handler}. Every command counts as a hit.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class InstrumentedHandler<Command> implements Handler<Command> {
+
+	private final LinkMetrics metrics;
+	private final Handler<Command> handler;
+
+	public InstrumentedHandler(final LinkMetrics metrics, final Handler<Command> handler) {
+		this.metrics = metrics;
+		this.handler = handler;
+	}
+
+	@Override
+	public void handle(final Command command) {
+		final long start = System.nanoTime();
+		try {
+			handler.handle(command);
+		} catch (final RuntimeException | Error e) {
+			metrics.recordException();
+			throw e;
+		}
+		metrics.record(true, System.nanoTime() - start);
+	}
+
+	@Override
+	public void handleBatch(final List<Command> commands) {
+		final long start = System.nanoTime();
+		try {
+			handler.handleBatch(commands);
+		} catch (final RuntimeException | Error e) {
+			metrics.recordException();
+			throw e;
+		}
+		metrics.recordBatch(commands.size(), commands.size(), System.nanoTime() - start);
+	}
+}
@@ -0,0 +1,53 @@
+package com.helluys.patterns.chain.metrics;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * A {@link Link} recording the metrics of another, as returned by
+ * {@link Instrumentation#link}.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class InstrumentedLink<Command> implements Link<Command> {
+
+	private final LinkMetrics metrics;
+	private final Link<Command> link;
+
+	public InstrumentedLink(final LinkMetrics metrics, final Link<Command> link) {
+		this.metrics = metrics;
+		this.link = link;
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		final long start = System.nanoTime();
+		final boolean consumed;
+		try {
+			consumed = link.process(command);
+		} catch (final RuntimeException | Error e) {
+			metrics.recordException();
+			throw e;
+		}
+		metrics.record(consumed, System.nanoTime() - start);
+		return consumed;
+	}
+
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		final long start = System.nanoTime();
+		final BitSet consumed;
+		try {
+			consumed = link.processBatch(commands);
+		} catch (final RuntimeException | Error e) {
+			metrics.recordException();
+			throw e;
+		}
+		metrics.recordBatch(consumed.cardinality(), commands.size(), System.nanoTime() - start);
+		return consumed;
+	}
+}
@@ -0,0 +1,146 @@
+package com.helluys.patterns.chain.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-memory histogram of non-negative durations, in nanoseconds. Values
+ * are counted in log-scaled buckets: each power of two range is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so that any value is known within
+ * 12.5%, from 0 to {@link Long#MAX_VALUE}, with {@value #BUCKETS} buckets.
+ * <p>
+ * The counts are striped by thread: recording threads mostly add to their own
+ * stripe instead of contending on the same counters, and the stripes are only
+ * summed when reading.
+ *
+ * @author Helluys
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BITS = 3;
+
+	/**
+	 * The number of sub-buckets per power of two.
+	 */
+	public static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	/**
+	 * The number of buckets.
+	 */
+	public static final int BUCKETS = (Long.SIZE - SUB_BITS) << SUB_BITS;
+
+	private static final int MAX_STRIPES = 32;
+
+	private final int stripeMask;
+	private final AtomicLongArray counts;
+
+	/**
+	 * Constructs an instance with one stripe per available processor.
+	 */
+	public LatencyHistogram() {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		final int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, processors * 2 - 1)));
+		this.stripeMask = stripes - 1;
+		this.counts = new AtomicLongArray(stripes * BUCKETS);
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @param nanos the value, negative values count as 0
+	 */
+	public void record(final long nanos) {
+		record(nanos, 1);
+	}
+
+	/**
+	 * Records a value several times.
+	 *
+	 * @param nanos the value, negative values count as 0
+	 * @param count the number of times
+	 */
+	public void record(final long nanos, final long count) {
+		counts.getAndAdd(stripe() * BUCKETS + bucket(nanos), count);
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	public long count() {
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the value at the given quantile: the highest value of the bucket
+	 * holding it.
+	 *
+	 * @param quantile the quantile, between 0 and 1
+	 * @return the value, or 0 if no value was recorded
+	 */
+	public long quantile(final double quantile) {
+		final long[] buckets = buckets();
+		long total = 0;
+		for (final long count : buckets) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += buckets[bucket];
+			if (seen >= rank) {
+				return highestValue(bucket);
+			}
+		}
+		return highestValue(BUCKETS - 1);
+	}
+
+	/**
+	 * Clears the recorded values. Values recorded concurrently may or may not be
+	 * cleared.
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+	}
+
+	/**
+	 * @return the count of each bucket, summed over the stripes
+	 */
+	long[] buckets() {
+		final long[] buckets = new long[BUCKETS];
+		for (int i = 0; i < counts.length(); i++) {
+			buckets[i % BUCKETS] += counts.get(i);
+		}
+		return buckets;
+	}
+
+	static int bucket(final long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) Math.max(0, nanos);
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+		return ((exponent - SUB_BITS + 1) << SUB_BITS) | (int) ((nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+	}
+
+	static long highestValue(final int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		final int shift = (bucket >>> SUB_BITS) - 1;
+		final long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	private int stripe() {
+		final long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+	}
+}
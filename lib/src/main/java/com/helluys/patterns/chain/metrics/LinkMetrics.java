@@ -0,0 +1,119 @@
+package com.helluys.patterns.chain.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of an instrumented chain node: hit, miss and exception counts,
+ * and the latency of the processing, the processing of the next nodes
+ * included. All the counters are striped, so that concurrent recordings do
+ * not contend.
+ *
+ * @author Helluys
+ * @see Instrumentation
+ */
+public final class LinkMetrics implements LinkMetricsMBean {
+
+	private final String name;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder exceptions = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	/**
+	 * Constructs an instance.
+	 *
+	 * @param name the node name
+	 */
+	public LinkMetrics(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records a processed command.
+	 *
+	 * @param hit   whether the command was consumed
+	 * @param nanos the processing duration
+	 */
+	public void record(final boolean hit, final long nanos) {
+		(hit ? hits : misses).increment();
+		latency.record(nanos);
+	}
+
+	/**
+	 * Records a processed batch. Each command counts for the mean duration.
+	 *
+	 * @param hits  the number of consumed commands
+	 * @param size  the number of commands
+	 * @param nanos the processing duration of the whole batch
+	 */
+	public void recordBatch(final int hits, final int size, final long nanos) {
+		if (size > 0) {
+			this.hits.add(hits);
+			this.misses.add(size - hits);
+			latency.record(nanos / size, size);
+		}
+	}
+
+	/**
+	 * Records a command whose processing threw.
+	 */
+	public void recordException() {
+		exceptions.increment();
+	}
+
+	/**
+	 * @return the latency histogram
+	 */
+	public LatencyHistogram latency() {
+		return latency;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public long getExceptions() {
+		return exceptions.sum();
+	}
+
+	@Override
+	public long getP50Nanos() {
+		return latency.quantile(0.5);
+	}
+
+	@Override
+	public long getP99Nanos() {
+		return latency.quantile(0.99);
+	}
+
+	@Override
+	public long getP999Nanos() {
+		return latency.quantile(0.999);
+	}
+
+	@Override
+	public void reset() {
+		hits.reset();
+		misses.reset();
+		exceptions.reset();
+		latency.reset();
+	}
+
+	@Override
+	public String toString() {
+		return name + " [hits=" + getHits() + ", misses=" + getMisses() + ", exceptions=" + getExceptions()
+				+ ", p50=" + getP50Nanos() + "ns, p99=" + getP99Nanos() + "ns, p999=" + getP999Nanos() + "ns]";
+	}
+}
@@ -0,0 +1,37 @@
+package com.helluys.patterns.chain.metrics;
+
+/**
+ * The management interface of {@link LinkMetrics}.
+ *
+ * @author Helluys
+ */
+public interface LinkMetricsMBean {
+
+	String getName();
+
+	/**
+	 * @return the number of commands consumed
+	 */
+	long getHits();
+
+	/**
+	 * @return the number of commands not consumed
+	 */
+	long getMisses();
+
+	/**
+	 * @return the number of commands whose processing threw
+	 */
+	long getExceptions();
+
+	long getP50Nanos();
+
+	long getP99Nanos();
+
+	long getP999Nanos();
+
+	/**
+	 * Clears the counts and latencies.
+	 */
+	void reset();
+}
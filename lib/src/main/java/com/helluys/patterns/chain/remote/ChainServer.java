@@ -0,0 +1,303 @@
+package com.helluys.patterns.chain.remote;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.io.FrameReader;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * Hosts a chain processing the commands sent by {@link RemoteLink}s and
+ * {@link RemoteEndLink}s. Each connection is served by its own thread, which
+ * processes the requests of the connection in order, and writes the responses
+ * to all the requests read at once in a single batch.
+ * <p>
+ * The command decoder is given a view of the request frame, only valid during
+ * the call, as a {@link FrameReader} frame: the chain may process the decoded
+ * command without copy, but must copy it to keep it. Exceptions thrown by the
+ * chain are sent back as failures.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class ChainServer<Command> implements AutoCloseable {
+
+	private static final AtomicInteger COUNT = new AtomicInteger();
+	private static final int INITIAL_RESPONSES_CAPACITY = 16 * 1024;
+
+	private final ServerSocketChannel server;
+	private final InetSocketAddress address;
+	private final Function<ByteBuffer, ? extends Command> decoder;
+	private final Link<Command> link;
+	private final int maxFrameLength;
+	private final String name;
+	private final Thread acceptor;
+	private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+	private final List<Thread> threads = new ArrayList<>();
+	private final LongAdder processed = new LongAdder();
+	private volatile boolean closed;
+
+	private ChainServer(final Builder<Command> builder, final SocketAddress address,
+			final Function<ByteBuffer, ? extends Command> decoder, final Link<Command> link) throws IOException {
+		this.decoder = Objects.requireNonNull(decoder);
+		this.link = link;
+		this.maxFrameLength = builder.maxFrameLength;
+		this.server = ServerSocketChannel.open();
+		try {
+			server.bind(address, builder.backlog);
+		} catch (final IOException e) {
+			server.close();
+			throw e;
+		}
+		this.address = (InetSocketAddress) server.getLocalAddress();
+
+		this.name = "chain-server-" + COUNT.incrementAndGet();
+		this.acceptor = new Thread(this::acceptConnections, name + "-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * @param <Command> the command type
+	 * @return a new builder
+	 */
+	public static <Command> Builder<Command> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * @return the address the server is bound to
+	 */
+	public InetSocketAddress address() {
+		return address;
+	}
+
+	/**
+	 * @return the number of open connections
+	 */
+	public int connections() {
+		return connections.size();
+	}
+
+	/**
+	 * @return the number of processed commands, failed ones included
+	 */
+	public long processed() {
+		return processed.sum();
+	}
+
+	/**
+	 * Stops accepting connections and closes the open ones. Requests not yet
+	 * answered fail on the client side.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			server.close();
+		} catch (final IOException e) {
+			// Nothing left to release
+		}
+		for (final SocketChannel connection : connections) {
+			closeQuietly(connection);
+		}
+
+		final List<Thread> joined;
+		synchronized (threads) {
+			joined = new ArrayList<>(threads);
+		}
+		try {
+			acceptor.join();
+			for (final Thread thread : joined) {
+				thread.join();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void acceptConnections() {
+		int count = 0;
+		while (!closed) {
+			final SocketChannel connection;
+			try {
+				connection = server.accept();
+				connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			} catch (final IOException e) {
+				if (closed || !server.isOpen()) {
+					return;
+				}
+				continue;
+			}
+
+			connections.add(connection);
+			final Thread thread = new Thread(() -> serve(connection), name + "-connection-" + count++);
+			thread.setDaemon(true);
+			synchronized (threads) {
+				threads.add(thread);
+			}
+			thread.start();
+			if (closed) {
+				closeQuietly(connection);
+			}
+		}
+	}
+
+	private void serve(final SocketChannel connection) {
+		final FrameReader reader = new FrameReader(connection, maxFrameLength);
+		final Session session = new Session(connection);
+		try {
+			while (reader.read(session) >= 0) {
+				session.flush();
+			}
+		} catch (final IOException e) {
+			// The client is gone, or sent an invalid frame: drop the connection
+		} finally {
+			connections.remove(connection);
+			closeQuietly(connection);
+			synchronized (threads) {
+				threads.remove(Thread.currentThread());
+			}
+		}
+	}
+
+	private static void closeQuietly(final SocketChannel connection) {
+		try {
+			connection.close();
+		} catch (final IOException e) {
+			// Nothing left to release
+		}
+	}
+
+	/**
+	 * Processes the requests of a connection and batches the responses.
+	 */
+	private final class Session implements EndLink<ByteBuffer> {
+
+		private final SocketChannel connection;
+		private ByteBuffer responses = ByteBuffer.allocate(INITIAL_RESPONSES_CAPACITY);
+
+		private Session(final SocketChannel connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public void accept(final ByteBuffer frame) {
+			final long id = frame.getLong();
+			byte status;
+			String failure = null;
+			try {
+				status = link.process(decoder.apply(frame)) ? RemoteProtocol.CONSUMED : RemoteProtocol.NOT_CONSUMED;
+			} catch (final RuntimeException e) {
+				status = RemoteProtocol.FAILED;
+				failure = e.toString();
+			}
+			processed.increment();
+			responses = RemoteProtocol.putResponse(responses, id, status, failure);
+		}
+
+		private void flush() throws IOException {
+			responses.flip();
+			while (responses.hasRemaining()) {
+				connection.write(responses);
+			}
+			responses.clear();
+		}
+	}
+
+	/**
+	 * Builds a {@link ChainServer}.
+	 *
+	 * @param <Command> the command type
+	 */
+	public static final class Builder<Command> {
+
+		private int maxFrameLength = RemoteProtocol.DEFAULT_MAX_FRAME_LENGTH;
+		private int backlog = 50;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the maximum length of a request frame, 16 MiB by default. Longer
+		 * frames drop the connection.
+		 *
+		 * @param maxFrameLength the maximum frame length
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> maxFrameLength(final int maxFrameLength) {
+			if (maxFrameLength < RemoteProtocol.REQUEST_HEADER) {
+				throw new IllegalArgumentException("Maximum frame length too small: " + maxFrameLength);
+			}
+			this.maxFrameLength = maxFrameLength;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of pending connections, 50 by default.
+		 *
+		 * @param backlog the maximum number of pending connections
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> backlog(final int backlog) {
+			if (backlog <= 0) {
+				throw new IllegalArgumentException("Backlog must be positive: " + backlog);
+			}
+			this.backlog = backlog;
+			return this;
+		}
+
+		/**
+		 * Binds and starts a server hosting the given link.
+		 *
+		 * @param address the address to bind to, with port 0 for any free port
+		 * @param decoder the command decoding function, given the encoded command
+		 *                from the position to the limit of a buffer only valid
+		 *                during the call
+		 * @param link    the hosted link
+		 * @return the started server
+		 * @throws IOException if the address cannot be bound
+		 */
+		public ChainServer<Command> bind(final SocketAddress address,
+				final Function<ByteBuffer, ? extends Command> decoder, final Link<Command> link) throws IOException {
+			return new ChainServer<>(this, address, decoder, Objects.requireNonNull(link));
+		}
+
+		/**
+		 * Binds and starts a server hosting the given end link. Commands are always
+		 * reported consumed.
+		 *
+		 * @param address the address to bind to, with port 0 for any free port
+		 * @param decoder the command decoding function, given the encoded command
+		 *                from the position to the limit of a buffer only valid
+		 *                during the call
+		 * @param endLink the hosted end link
+		 * @return the started server
+		 * @throws IOException if the address cannot be bound
+		 */
+		public ChainServer<Command> bind(final SocketAddress address,
+				final Function<ByteBuffer, ? extends Command> decoder, final EndLink<Command> endLink)
+				throws IOException {
+			Objects.requireNonNull(endLink);
+			return new ChainServer<>(this, address, decoder, command -> {
+				endLink.accept(command);
+				return true;
+			});
+		}
+	}
+}
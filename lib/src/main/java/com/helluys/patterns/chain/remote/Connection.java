@@ -0,0 +1,298 @@
+package com.helluys.patterns.chain.remote;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.helluys.patterns.chain.io.FrameReader;
+
+/**
+ * A pipelined connection to a {@link ChainServer}. Requests are appended to a
+ * batch under a lock by the callers, and written by a writer thread: while it
+ * writes a batch, the next one fills up, and with a linger it waits for the
+ * batch to fill up before writing it. A reader thread completes the requests
+ * with the responses.
+ * <p>
+ * At most the pipeline depth of requests are pending at once: further callers
+ * block until a response frees a slot. Once failed, a connection fails all its
+ * pending and new requests.
+ *
+ * @author Helluys
+ */
+final class Connection implements Closeable {
+
+	private static final AtomicInteger COUNT = new AtomicInteger();
+	private static final int INITIAL_BATCH_CAPACITY = 64 * 1024;
+
+	private final SocketChannel channel;
+	private final long lingerNanos;
+	private final int maxBatchBytes;
+	private final int pipelineDepth;
+	private final long timeoutNanos;
+	private final Semaphore window;
+	private final Map<Long, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+	private final Thread writer;
+	private final Thread reader;
+
+	private final Object lock = new Object();
+	/** The batch being filled, guarded by the lock. */
+	private ByteBuffer batch = ByteBuffer.allocate(INITIAL_BATCH_CAPACITY);
+	/** The batch being written, accessed by the writer only. */
+	private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BATCH_CAPACITY);
+	/** The next request id, guarded by the lock. */
+	private long nextId;
+	/** Whether new requests are rejected, guarded by the lock. */
+	private boolean closing;
+	private volatile boolean closed;
+	private volatile IOException failure;
+	/** Whether the batch reached the maximum batch size while lingering. */
+	private volatile boolean full;
+
+	Connection(final SocketAddress address, final ConnectionPool.Settings settings) throws IOException {
+		this.channel = SocketChannel.open(address);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		this.lingerNanos = settings.lingerNanos;
+		this.maxBatchBytes = settings.maxBatchBytes;
+		this.pipelineDepth = settings.pipelineDepth;
+		this.timeoutNanos = settings.timeoutNanos;
+		this.window = new Semaphore(pipelineDepth);
+
+		final int id = COUNT.incrementAndGet();
+		final FrameReader frames = new FrameReader(channel, settings.maxFrameLength);
+		writer = new Thread(this::write, "chain-remote-" + id + "-writer");
+		reader = new Thread(() -> read(frames), "chain-remote-" + id + "-reader");
+		writer.setDaemon(true);
+		reader.setDaemon(true);
+		writer.start();
+		reader.start();
+	}
+
+	/**
+	 * @return whether the connection accepts requests
+	 */
+	boolean isOpen() {
+		return failure == null && !closed;
+	}
+
+	/**
+	 * Sends an encoded command, blocking while the pipeline is full.
+	 *
+	 * @param command the encoded command, read from its position to its limit
+	 * @return the future of the command result, completed by the reader thread
+	 */
+	CompletableFuture<Boolean> send(final ByteBuffer command) {
+		final CompletableFuture<Boolean> result = new CompletableFuture<>();
+		try {
+			window.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.completeExceptionally(new UncheckedIOException(new InterruptedIOException("Interrupted")));
+			return result;
+		}
+
+		synchronized (lock) {
+			if (closing || failure != null) {
+				window.release();
+				result.completeExceptionally(unavailable());
+				return result;
+			}
+			final long id = nextId++;
+			pending.put(id, result);
+
+			final boolean wasEmpty = batch.position() == 0;
+			final int length = RemoteProtocol.REQUEST_HEADER + command.remaining();
+			batch = RemoteProtocol.ensureRemaining(batch, FrameReader.PREFIX_LENGTH + length);
+			batch.putInt(length).putLong(id).put(command);
+			if (wasEmpty) {
+				lock.notifyAll();
+			}
+			if (lingerNanos > 0 && !full && batch.position() >= maxBatchBytes) {
+				full = true;
+				LockSupport.unpark(writer);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Waits for all the pending requests to complete.
+	 *
+	 * @throws UncheckedIOException if they did not complete within the timeout
+	 */
+	void flush() {
+		try {
+			if (!window.tryAcquire(pipelineDepth, timeoutNanos, TimeUnit.NANOSECONDS)) {
+				throw new UncheckedIOException(new SocketTimeoutException("Pending requests not completed in time"));
+			}
+			window.release(pipelineDepth);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new InterruptedIOException("Interrupted while flushing"));
+		}
+	}
+
+	/**
+	 * Rejects new requests, waits for the pending ones within the timeout, then
+	 * closes the connection. Requests still pending fail.
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			if (closing) {
+				return;
+			}
+			closing = true;
+		}
+		try {
+			flush();
+		} catch (final UncheckedIOException e) {
+			// Closing anyway: the remaining requests fail
+		}
+
+		closed = true;
+		synchronized (lock) {
+			lock.notifyAll();
+		}
+		LockSupport.unpark(writer);
+		try {
+			channel.close();
+		} catch (final IOException e) {
+			// Nothing left to release
+		}
+		try {
+			writer.join();
+			reader.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		failPending();
+	}
+
+	private void write() {
+		try {
+			while (true) {
+				synchronized (lock) {
+					while (batch.position() == 0 && !closed && failure == null) {
+						lock.wait();
+					}
+					if (closed || failure != null) {
+						return;
+					}
+				}
+				linger();
+				synchronized (lock) {
+					final ByteBuffer filled = batch;
+					batch = writing;
+					writing = filled;
+					full = false;
+				}
+
+				writing.flip();
+				while (writing.hasRemaining()) {
+					channel.write(writing);
+				}
+				writing.clear();
+			}
+		} catch (final IOException e) {
+			fail(e);
+		} catch (final InterruptedException e) {
+			fail(new InterruptedIOException("Writer interrupted"));
+		}
+	}
+
+	/**
+	 * Waits for the linger, or for the batch to fill up. Parks rather than waits
+	 * on the lock, whose timed waits are rounded up to the millisecond.
+	 */
+	private void linger() {
+		if (lingerNanos == 0) {
+			return;
+		}
+		final long deadline = System.nanoTime() + lingerNanos;
+		long remaining;
+		while (!full && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+
+	private void read(final FrameReader frames) {
+		try {
+			frames.readAll(this::receive);
+			fail(new EOFException("Connection closed by the server"));
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	private void receive(final ByteBuffer frame) {
+		final long id = frame.getLong();
+		final byte status = frame.get();
+		final CompletableFuture<Boolean> result = pending.remove(id);
+		if (result == null) {
+			return;
+		}
+
+		// Completes before releasing the slot, so that flushing waits for the
+		// dependent actions
+		switch (status) {
+			case RemoteProtocol.CONSUMED:
+				result.complete(Boolean.TRUE);
+				break;
+			case RemoteProtocol.NOT_CONSUMED:
+				result.complete(Boolean.FALSE);
+				break;
+			default:
+				result.completeExceptionally(new RemoteProcessingException(RemoteProtocol.failure(frame)));
+				break;
+		}
+		window.release();
+	}
+
+	private void fail(final IOException e) {
+		if (closed) {
+			return;
+		}
+		synchronized (lock) {
+			if (failure == null) {
+				failure = e;
+			}
+			lock.notifyAll();
+		}
+		try {
+			channel.close();
+		} catch (final IOException suppressed) {
+			e.addSuppressed(suppressed);
+		}
+		failPending();
+	}
+
+	private void failPending() {
+		for (final Long id : pending.keySet()) {
+			final CompletableFuture<Boolean> result = pending.remove(id);
+			if (result != null) {
+				result.completeExceptionally(unavailable());
+				window.release();
+			}
+		}
+	}
+
+	private UncheckedIOException unavailable() {
+		final IOException cause = failure;
+		return new UncheckedIOException(cause != null ? cause : new ClosedChannelException());
+	}
+}
@@ -0,0 +1,146 @@
+package com.helluys.patterns.chain.remote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-size pool of {@link Connection connections} to a
+ * {@link ChainServer}, opened on first use and reopened once failed. Each
+ * calling thread always sends on the same connection, so that the commands of
+ * a thread are processed in order.
+ *
+ * @author Helluys
+ */
+final class ConnectionPool implements Closeable {
+
+	private final SocketAddress address;
+	private final Settings settings;
+	private final AtomicReferenceArray<Connection> connections;
+	private boolean closed;
+
+	ConnectionPool(final SocketAddress address, final Settings settings) {
+		this.address = address;
+		this.settings = settings;
+		this.connections = new AtomicReferenceArray<>(settings.connections);
+	}
+
+	/**
+	 * Sends an encoded command on the connection of the calling thread.
+	 *
+	 * @param command the encoded command
+	 * @return the future of the command result
+	 */
+	CompletableFuture<Boolean> send(final ByteBuffer command) {
+		try {
+			return connection().send(command);
+		} catch (final IOException e) {
+			return CompletableFuture.failedFuture(new UncheckedIOException(e));
+		}
+	}
+
+	/**
+	 * Waits for the result of a command within the timeout.
+	 *
+	 * @param result the future of the command result
+	 * @return the command result
+	 * @throws UncheckedIOException      on connection failure or timeout
+	 * @throws RemoteProcessingException if the remote processing failed
+	 */
+	boolean await(final CompletableFuture<Boolean> result) {
+		try {
+			return result.get(settings.timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (final TimeoutException e) {
+			throw new UncheckedIOException(new SocketTimeoutException("No response in time"));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for a response"));
+		}
+	}
+
+	/**
+	 * Waits for all the pending commands of all the connections to complete.
+	 */
+	void flush() {
+		for (int i = 0; i < connections.length(); i++) {
+			final Connection connection = connections.get(i);
+			if (connection != null) {
+				connection.flush();
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		synchronized (connections) {
+			closed = true;
+		}
+		for (int i = 0; i < connections.length(); i++) {
+			final Connection connection = connections.getAndSet(i, null);
+			if (connection != null) {
+				connection.close();
+			}
+		}
+	}
+
+	private Connection connection() throws IOException {
+		final int index = (int) (Thread.currentThread().getId() % connections.length());
+		final Connection connection = connections.get(index);
+		if (connection != null && connection.isOpen()) {
+			return connection;
+		}
+
+		synchronized (connections) {
+			if (closed) {
+				throw new ClosedChannelException();
+			}
+			final Connection current = connections.get(index);
+			if (current != null && current.isOpen()) {
+				return current;
+			} else if (current != null) {
+				current.close();
+			}
+			final Connection opened = new Connection(address, settings);
+			connections.set(index, opened);
+			return opened;
+		}
+	}
+
+	/**
+	 * The connection settings, set by the builders.
+	 */
+	static final class Settings {
+		int connections = 2;
+		int pipelineDepth = 1024;
+		int maxBatchBytes = 64 * 1024;
+		long lingerNanos;
+		long timeoutNanos = TimeUnit.SECONDS.toNanos(30);
+		int maxFrameLength = RemoteProtocol.DEFAULT_MAX_FRAME_LENGTH;
+
+		Settings copy() {
+			final Settings copy = new Settings();
+			copy.connections = connections;
+			copy.pipelineDepth = pipelineDepth;
+			copy.maxBatchBytes = maxBatchBytes;
+			copy.lingerNanos = lingerNanos;
+			copy.timeoutNanos = timeoutNanos;
+			copy.maxFrameLength = maxFrameLength;
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.helluys.patterns.chain.remote;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * An end link passing commands on to the chain hosted by a
+ * {@link ChainServer}, usually in another process. Unlike a
+ * {@link RemoteLink}, it does not wait for the results: commands are only
+ * pipelined, and the caller only blocks while the pipeline of its connection is
+ * full. Each calling thread always uses the same connection, so that its
+ * commands are processed in order.
+ * <p>
+ * Failures are counted, and the first one is thrown by the next
+ * {@link #flush()} or {@link #close()}.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ * @see RemoteLink#builder()
+ */
+public final class RemoteEndLink<Command> implements EndLink<Command>, AutoCloseable {
+
+	private final ConnectionPool pool;
+	private final Function<? super Command, ByteBuffer> encoder;
+	private final LongAdder failures = new LongAdder();
+	private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+	RemoteEndLink(final ConnectionPool pool, final Function<? super Command, ByteBuffer> encoder) {
+		this.pool = pool;
+		this.encoder = encoder;
+	}
+
+	@Override
+	public void accept(final Command command) {
+		pool.send(encoder.apply(command)).whenComplete((consumed, error) -> {
+			if (error != null) {
+				failures.increment();
+				failure.compareAndSet(null, unwrap(error));
+			}
+		});
+	}
+
+	/**
+	 * @return the number of commands whose sending or remote processing failed
+	 */
+	public long failures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Waits for the results of the commands sent so far, within the timeout.
+	 *
+	 * @throws java.io.UncheckedIOException if a connection failed, or the
+	 *                                      results did not come in time
+	 * @throws RemoteProcessingException    if a remote processing failed
+	 */
+	public void flush() {
+		pool.flush();
+		throwFailure();
+	}
+
+	/**
+	 * Waits for the pending commands within the timeout, then closes the
+	 * connections.
+	 *
+	 * @throws java.io.UncheckedIOException if a connection failed
+	 * @throws RemoteProcessingException    if a remote processing failed
+	 */
+	@Override
+	public void close() {
+		pool.close();
+		throwFailure();
+	}
+
+	private void throwFailure() {
+		final RuntimeException first = failure.getAndSet(null);
+		if (first != null) {
+			throw first;
+		}
+	}
+
+	private static RuntimeException unwrap(final Throwable error) {
+		final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+				: error;
+		return cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+	}
+}
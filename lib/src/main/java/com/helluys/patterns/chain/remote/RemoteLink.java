@@ -0,0 +1,238 @@
+package com.helluys.patterns.chain.remote;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * A link processing commands with the chain hosted by a {@link ChainServer},
+ * usually in another process. The commands are encoded to bytes, sent over a
+ * pool of connections, and the result of the remote {@link Link#process} is
+ * returned.
+ * <p>
+ * Each connection pipelines the requests of its callers: a caller does not
+ * wait for the responses to other callers, and {@link #processAsync} and
+ * {@link #processBatch} do not wait for the response to a command before
+ * sending the next one. Requests are written in batches, see
+ * {@link Builder#linger}. Each calling thread always uses the same connection,
+ * so that its commands are processed in order.
+ * <p>
+ * Failures of the connection or timeouts throw an
+ * {@link java.io.UncheckedIOException UncheckedIOException}, and failures of
+ * the remote processing a {@link RemoteProcessingException}. A failed
+ * connection is reopened for the next command.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+public final class RemoteLink<Command> implements Link<Command>, AutoCloseable {
+
+	private final ConnectionPool pool;
+	private final Function<? super Command, ByteBuffer> encoder;
+
+	private RemoteLink(final ConnectionPool pool, final Function<? super Command, ByteBuffer> encoder) {
+		this.pool = pool;
+		this.encoder = encoder;
+	}
+
+	/**
+	 * @param <Command> the command type
+	 * @return a new builder
+	 */
+	public static <Command> Builder<Command> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Processes the command remotely, waiting for the result.
+	 *
+	 * @param command the command
+	 * @return whether the remote chain consumed the command
+	 */
+	@Override
+	public boolean process(final Command command) {
+		return pool.await(processAsync(command));
+	}
+
+	/**
+	 * Sends the command without waiting for the result. Blocks while the
+	 * pipeline of the connection is full.
+	 *
+	 * @param command the command
+	 * @return the future of whether the remote chain consumed the command,
+	 *         completed by a connection thread
+	 */
+	public CompletableFuture<Boolean> processAsync(final Command command) {
+		return pool.send(encoder.apply(command));
+	}
+
+	/**
+	 * Sends all the commands before waiting for their results.
+	 */
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		final List<CompletableFuture<Boolean>> results = new ArrayList<>(commands.size());
+		for (final Command command : commands) {
+			results.add(processAsync(command));
+		}
+
+		final BitSet consumed = new BitSet(commands.size());
+		for (int i = 0; i < results.size(); i++) {
+			if (pool.await(results.get(i))) {
+				consumed.set(i);
+			}
+		}
+		return consumed;
+	}
+
+	/**
+	 * Waits for the pending commands within the timeout, then closes the
+	 * connections.
+	 */
+	@Override
+	public void close() {
+		pool.close();
+	}
+
+	/**
+	 * Builds a {@link RemoteLink} or a {@link RemoteEndLink}.
+	 *
+	 * @param <Command> the command type
+	 */
+	public static final class Builder<Command> {
+
+		private final ConnectionPool.Settings settings = new ConnectionPool.Settings();
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the number of pooled connections, 2 by default.
+		 *
+		 * @param connections the number of connections
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> connections(final int connections) {
+			if (connections <= 0) {
+				throw new IllegalArgumentException("Connection count must be positive: " + connections);
+			}
+			settings.connections = connections;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of commands sent on a connection and waiting for
+		 * their results, 1024 by default. Callers block while it is reached.
+		 *
+		 * @param pipelineDepth the maximum number of pending commands per
+		 *                      connection
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> pipelineDepth(final int pipelineDepth) {
+			if (pipelineDepth <= 0) {
+				throw new IllegalArgumentException("Pipeline depth must be positive: " + pipelineDepth);
+			}
+			settings.pipelineDepth = pipelineDepth;
+			return this;
+		}
+
+		/**
+		 * Sets how long a connection waits for more requests before writing a batch
+		 * smaller than the maximum batch size, zero by default. Without linger, a
+		 * batch is written as soon as the previous write completes, so that
+		 * batches only grow under load.
+		 *
+		 * @param linger the linger
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> linger(final Duration linger) {
+			if (linger.isNegative()) {
+				throw new IllegalArgumentException("Linger must not be negative: " + linger);
+			}
+			settings.lingerNanos = linger.toNanos();
+			return this;
+		}
+
+		/**
+		 * Sets the batch size in bytes above which a connection stops lingering,
+		 * 64 KiB by default.
+		 *
+		 * @param maxBatchBytes the batch size
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> maxBatchBytes(final int maxBatchBytes) {
+			if (maxBatchBytes <= 0) {
+				throw new IllegalArgumentException("Batch size must be positive: " + maxBatchBytes);
+			}
+			settings.maxBatchBytes = maxBatchBytes;
+			return this;
+		}
+
+		/**
+		 * Sets how long a caller waits for a result, 30 seconds by default.
+		 *
+		 * @param timeout the timeout
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> timeout(final Duration timeout) {
+			if (timeout.isNegative() || timeout.isZero()) {
+				throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+			}
+			settings.timeoutNanos = timeout.toNanos();
+			return this;
+		}
+
+		/**
+		 * Sets the maximum length of a response frame, 16 MiB by default.
+		 *
+		 * @param maxFrameLength the maximum frame length
+		 * @return this {@link Builder}
+		 */
+		public Builder<Command> maxFrameLength(final int maxFrameLength) {
+			if (maxFrameLength < RemoteProtocol.RESPONSE_HEADER) {
+				throw new IllegalArgumentException("Maximum frame length too small: " + maxFrameLength);
+			}
+			settings.maxFrameLength = maxFrameLength;
+			return this;
+		}
+
+		/**
+		 * Builds a link to the server at the given address. Connections are opened
+		 * on first use.
+		 *
+		 * @param address the server address
+		 * @param encoder the command encoding function, returning a buffer read
+		 *                from its position to its limit
+		 * @return the link
+		 */
+		public RemoteLink<Command> build(final SocketAddress address,
+				final Function<? super Command, ByteBuffer> encoder) {
+			return new RemoteLink<>(new ConnectionPool(Objects.requireNonNull(address), settings.copy()),
+					Objects.requireNonNull(encoder));
+		}
+
+		/**
+		 * Builds an end link to the server at the given address. Connections are
+		 * opened on first use.
+		 *
+		 * @param address the server address
+		 * @param encoder the command encoding function, returning a buffer read
+		 *                from its position to its limit
+		 * @return the end link
+		 */
+		public RemoteEndLink<Command> buildEndLink(final SocketAddress address,
+				final Function<? super Command, ByteBuffer> encoder) {
+			return new RemoteEndLink<>(new ConnectionPool(Objects.requireNonNull(address), settings.copy()),
+					Objects.requireNonNull(encoder));
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.helluys.patterns.chain.remote;
+
+/**
+ * Thrown when the processing of a command by the chain hosted by a
+ * {@link ChainServer} failed. The message is the server side failure.
+ *
+ * @author Helluys
+ */
+public class RemoteProcessingException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RemoteProcessingException(final String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,72 @@
+package com.helluys.patterns.chain.remote;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+
+import com.helluys.patterns.chain.io.FrameReader;
+
+/**
+ * The framing of the remote chain protocol. Requests and responses are
+ * {@link FrameReader length-prefixed frames}:
+ * <ul>
+ * <li>a request is the big-endian {@code long} request id, then the encoded
+ * command up to the end of the frame;</li>
+ * <li>a response is the id of the request, a status byte, then for a failure
+ * the UTF-8 failure message up to the end of the frame.</li>
+ * </ul>
+ * A server answers the requests of a connection in order, but clients match
+ * responses by id.
+ *
+ * @author Helluys
+ */
+final class RemoteProtocol {
+
+	static final int REQUEST_HEADER = Long.BYTES;
+	static final int RESPONSE_HEADER = Long.BYTES + Byte.BYTES;
+
+	static final byte NOT_CONSUMED = 0;
+	static final byte CONSUMED = 1;
+	static final byte FAILED = 2;
+
+	static final int DEFAULT_MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+	private RemoteProtocol() {
+	}
+
+	/**
+	 * Appends a response to the buffer, growing it as needed.
+	 *
+	 * @return the buffer, or a grown copy
+	 */
+	static ByteBuffer putResponse(final ByteBuffer buffer, final long id, final byte status, final String failure) {
+		final byte[] message = failure == null ? new byte[0] : failure.getBytes(UTF_8);
+		final ByteBuffer target = ensureRemaining(buffer,
+				FrameReader.PREFIX_LENGTH + RESPONSE_HEADER + message.length);
+		target.putInt(RESPONSE_HEADER + message.length).putLong(id).put(status).put(message);
+		return target;
+	}
+
+	/**
+	 * @return the failure message of a response frame positioned after its header
+	 */
+	static String failure(final ByteBuffer frame) {
+		final byte[] message = new byte[frame.remaining()];
+		frame.get(message);
+		return new String(message, UTF_8);
+	}
+
+	/**
+	 * @return the buffer if it has the given remaining capacity, or a grown copy
+	 *         of its content otherwise
+	 */
+	static ByteBuffer ensureRemaining(final ByteBuffer buffer, final int remaining) {
+		if (buffer.remaining() >= remaining) {
+			return buffer;
+		}
+		final ByteBuffer grown = ByteBuffer
+				.allocate(Math.max(buffer.capacity() * 2, buffer.position() + remaining));
+		buffer.flip();
+		return grown.put(buffer);
+	}
+}
@@ -0,0 +1,43 @@
+package com.helluys.patterns.chain.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event recording the visit of a traced chain node by a
+ * sampled command. Its duration covers the processing of the next nodes.
+ *
+ * @author Helluys
+ * @see Tracer
+ */
+@Name(LinkVisitEvent.NAME)
+@Label("Link Visit")
+@Category({ "Chain of Responsibility" })
+@Description("Visit of a chain node by a sampled command")
+@StackTrace(false)
+public final class LinkVisitEvent extends Event {
+
+	/**
+	 * The event type name.
+	 */
+	public static final String NAME = "com.helluys.patterns.chain.LinkVisit";
+
+	@Label("Trace Id")
+	@Description("Identifies the visits of the same command")
+	long traceId;
+
+	@Label("Depth")
+	@Description("Nesting depth of the node in the path of the command, 0 for the root")
+	int depth;
+
+	@Label("Node")
+	String node;
+
+	@Label("Outcome")
+	@Description("hit or miss for links, visit for end links and handlers, or the thrown exception")
+	String outcome;
+}
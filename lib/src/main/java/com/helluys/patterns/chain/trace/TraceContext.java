@@ -0,0 +1,19 @@
+package com.helluys.patterns.chain.trace;
+
+/**
+ * The trace of the command processed by a thread.
+ *
+ * @author Helluys
+ */
+final class TraceContext {
+
+	/**
+	 * The trace id of the sampled command, 0 if the command is not sampled.
+	 */
+	long traceId;
+
+	/**
+	 * The depth of the next visited node.
+	 */
+	int depth;
+}
@@ -0,0 +1,61 @@
+package com.helluys.patterns.chain.trace;
+
+import java.util.List;
+
+import com.helluys.patterns.chain.link.EndLink;
+
+/**
+ * An {@link EndLink} recording the visits of sampled commands, as returned by
+ * {@link Tracer#endLink} and {@link Tracer#root(String, EndLink)}. A root end
+ * link samples the commands entering it.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class TracedEndLink<Command> implements EndLink<Command> {
+
+	private final Tracer tracer;
+	private final String name;
+	private final EndLink<Command> endLink;
+	private final boolean root;
+
+	public TracedEndLink(final Tracer tracer, final String name, final EndLink<Command> endLink, final boolean root) {
+		this.tracer = tracer;
+		this.name = name;
+		this.endLink = endLink;
+		this.root = root;
+	}
+
+	@Override
+	public void accept(final Command command) {
+		TraceContext context = tracer.context();
+		final boolean started = context == null && root && (context = tracer.start()) != null;
+		if (context == null) {
+			endLink.accept(command);
+			return;
+		}
+
+		final LinkVisitEvent event = tracer.begin(context, name);
+		try {
+			endLink.accept(command);
+			event.outcome = "visit";
+		} catch (final RuntimeException | Error e) {
+			event.outcome = e.toString();
+			throw e;
+		} finally {
+			tracer.commit(context, event);
+			if (started) {
+				tracer.stop(context);
+			}
+		}
+	}
+
+	/**
+	 * Batches are not traced.
+	 */
+	@Override
+	public void processBatch(final List<Command> commands) {
+		endLink.processBatch(commands);
+	}
+}
@@ -0,0 +1,61 @@
+package com.helluys.patterns.chain.trace;
+
+import java.util.List;
+
+import com.helluys.patterns.chain.handler.Handler;
+
+/**
+ * A {@link Handler} recording the visits of sampled commands, as returned by
+ * {@link Tracer#handler} and {@link Tracer#root(String, Handler)}. A root
+ * handler samples the commands entering it.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class TracedHandler<Command> implements Handler<Command> {
+
+	private final Tracer tracer;
+	private final String name;
+	private final Handler<Command> handler;
+	private final boolean root;
+
+	public TracedHandler(final Tracer tracer, final String name, final Handler<Command> handler, final boolean root) {
+		this.tracer = tracer;
+		this.name = name;
+		this.handler = handler;
+		this.root = root;
+	}
+
+	@Override
+	public void handle(final Command command) {
+		TraceContext context = tracer.context();
+		final boolean started = context == null && root && (context = tracer.start()) != null;
+		if (context == null) {
+			handler.handle(command);
+			return;
+		}
+
+		final LinkVisitEvent event = tracer.begin(context, name);
+		try {
+			handler.handle(command);
+			event.outcome = "visit";
+		} catch (final RuntimeException | Error e) {
+			event.outcome = e.toString();
+			throw e;
+		} finally {
+			tracer.commit(context, event);
+			if (started) {
+				tracer.stop(context);
+			}
+		}
+	}
+
+	/**
+	 * Batches are not traced.
+	 */
+	@Override
+	public void handleBatch(final List<Command> commands) {
+		handler.handleBatch(commands);
+	}
+}
@@ -0,0 +1,55 @@
+package com.helluys.patterns.chain.trace;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.helluys.patterns.chain.link.Link;
+
+/**
+ * A {@link Link} recording the visits of sampled commands, as returned by
+ * {@link Tracer#link}.
+ *
+ * @author Helluys
+ *
+ * @param <Command> the command type
+ */
+final class TracedLink<Command> implements Link<Command> {
+
+	private final Tracer tracer;
+	private final String name;
+	private final Link<Command> link;
+
+	public TracedLink(final Tracer tracer, final String name, final Link<Command> link) {
+		this.tracer = tracer;
+		this.name = name;
+		this.link = link;
+	}
+
+	@Override
+	public boolean process(final Command command) {
+		final TraceContext context = tracer.context();
+		if (context == null) {
+			return link.process(command);
+		}
+
+		final LinkVisitEvent event = tracer.begin(context, name);
+		try {
+			final boolean consumed = link.process(command);
+			event.outcome = consumed ? "hit" : "miss";
+			return consumed;
+		} catch (final RuntimeException | Error e) {
+			event.outcome = e.toString();
+			throw e;
+		} finally {
+			tracer.commit(context, event);
+		}
+	}
+
+	/**
+	 * Batches are not traced.
+	 */
+	@Override
+	public BitSet processBatch(final List<Command> commands) {
+		return link.processBatch(commands);
+	}
+}
@@ -0,0 +1,129 @@
+package com.helluys.patterns.chain.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.helluys.patterns.chain.NodeDecorator;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+import jdk.jfr.EventType;
+
+/**
+ * Decorates chain nodes to trace the path of sampled commands as
+ * {@link LinkVisitEvent} Flight Recorder events: one event per visited node,
+ * with the trace id of the command, the depth of the node in the path, the
+ * outcome of the visit and its duration.
+ * <p>
+ * Commands are sampled when they enter a {@link #root root} node, with the
+ * sampling rate, and only while a recording enables the event. The trace
+ * follows the command on the thread processing it: nodes visited on another
+ * thread, such as pipeline stages, are not traced, nor are batches. While no
+ * sampled command is being processed, the decorated nodes only cost a volatile
+ * read and a branch.
+ *
+ * @author Helluys
+ */
+public final class Tracer implements NodeDecorator {
+
+	private static final AtomicLong TRACE_IDS = new AtomicLong();
+	private static final EventType EVENT_TYPE = EventType.getEventType(LinkVisitEvent.class);
+
+	private final double samplingRate;
+	private final AtomicInteger sampled = new AtomicInteger();
+	private final ThreadLocal<TraceContext> contexts = ThreadLocal.withInitial(TraceContext::new);
+
+	/**
+	 * Constructs an instance.
+	 *
+	 * @param samplingRate the fraction of the commands to trace, between 0 and 1
+	 */
+	public Tracer(final double samplingRate) {
+		if (!(samplingRate >= 0 && samplingRate <= 1)) {
+			throw new IllegalArgumentException("Sampling rate must be between 0 and 1: " + samplingRate);
+		}
+		this.samplingRate = samplingRate;
+	}
+
+	@Override
+	public <Command> Link<Command> link(final String name, final Link<Command> link) {
+		return new TracedLink<>(this, name, link);
+	}
+
+	@Override
+	public <Command> EndLink<Command> endLink(final String name, final EndLink<Command> endLink) {
+		return new TracedEndLink<>(this, name, endLink, false);
+	}
+
+	@Override
+	public <Command> Handler<Command> handler(final String name, final Handler<Command> handler) {
+		return new TracedHandler<>(this, name, handler, false);
+	}
+
+	/**
+	 * Decorates an end link sampling the commands entering it.
+	 */
+	@Override
+	public <Command> EndLink<Command> root(final String name, final EndLink<Command> endLink) {
+		return new TracedEndLink<>(this, name, endLink, true);
+	}
+
+	/**
+	 * Decorates a handler sampling the commands entering it.
+	 */
+	@Override
+	public <Command> Handler<Command> root(final String name, final Handler<Command> handler) {
+		return new TracedHandler<>(this, name, handler, true);
+	}
+
+	/**
+	 * @return the trace of the sampled command processed by the current thread,
+	 *         or {@code null}
+	 */
+	TraceContext context() {
+		if (sampled.get() == 0) {
+			return null;
+		}
+		final TraceContext context = contexts.get();
+		return context.traceId == 0 ? null : context;
+	}
+
+	/**
+	 * Samples the command entering a root node.
+	 *
+	 * @return the new trace of the command, or {@code null} if not sampled
+	 */
+	TraceContext start() {
+		if (samplingRate == 0 || samplingRate < 1 && ThreadLocalRandom.current().nextDouble() >= samplingRate
+				|| !EVENT_TYPE.isEnabled()) {
+			return null;
+		}
+		final TraceContext context = contexts.get();
+		context.traceId = TRACE_IDS.incrementAndGet();
+		context.depth = 0;
+		sampled.incrementAndGet();
+		return context;
+	}
+
+	void stop(final TraceContext context) {
+		context.traceId = 0;
+		sampled.decrementAndGet();
+	}
+
+	LinkVisitEvent begin(final TraceContext context, final String node) {
+		final LinkVisitEvent event = new LinkVisitEvent();
+		event.traceId = context.traceId;
+		event.depth = context.depth++;
+		event.node = node;
+		event.begin();
+		return event;
+	}
+
+	void commit(final TraceContext context, final LinkVisitEvent event) {
+		event.end();
+		context.depth--;
+		event.commit();
+	}
+}
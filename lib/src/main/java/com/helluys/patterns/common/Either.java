@@ -1,11 +1,14 @@
 package com.helluys.patterns.common;
 
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
- * Either a left or a right.
+ * Either a left or a right. {@link Left} and {@link Right} are the only
+ * implementations: both are final, so that calls on an {@link Either} of a
+ * known side can be devirtualized and short-lived instances scalar replaced.
  *
  * @param <L> the left type
  * @param <R> the right type
@@ -23,23 +26,7 @@ public interface Either<L, R> {
 	 * @return a left valued {@link Either}
 	 */
 	static <L, R> Either<L, R> ofLeft(final L value) {
-		return new Either<L, R>() {
-
-			@Override
-			public boolean isLeft() {
-				return true;
-			}
-
-			@Override
-			public L left() {
-				return value;
-			}
-
-			@Override
-			public R right() {
-				throw new IllegalStateException("Either is a right");
-			}
-		};
+		return new Left<>(value);
 	}
 
 	/**
@@ -51,23 +38,7 @@ public interface Either<L, R> {
 	 * @return a right valued {@link Either}
 	 */
 	static <L, R> Either<L, R> ofRight(final R value) {
-		return new Either<L, R>() {
-
-			@Override
-			public boolean isLeft() {
-				return false;
-			}
-
-			@Override
-			public L left() {
-				throw new IllegalStateException("Either is a right");
-			}
-
-			@Override
-			public R right() {
-				return value;
-			}
-		};
+		return new Right<>(value);
 	}
 
 	/**
@@ -186,4 +157,124 @@ public interface Either<L, R> {
 			rightConsumer.accept(right());
 		}
 	}
+
+	/**
+	 * A left valued {@link Either}.
+	 *
+	 * @param <L> the left type
+	 * @param <R> the right type
+	 */
+	final class Left<L, R> implements Either<L, R> {
+
+		private final L value;
+
+		private Left(final L value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean isLeft() {
+			return true;
+		}
+
+		@Override
+		public L left() {
+			return value;
+		}
+
+		@Override
+		public R right() {
+			throw new IllegalStateException("Either is a left");
+		}
+
+		@Override
+		public <TL, TR> Either<TL, TR> map(final Function<L, TL> leftMapper, final Function<R, TR> rightMapper) {
+			return new Left<>(leftMapper.apply(value));
+		}
+
+		@Override
+		public <T> T reduce(final Function<L, T> leftReducer, final Function<R, T> rightReducer) {
+			return leftReducer.apply(value);
+		}
+
+		@Override
+		public void consume(final Consumer<L> leftConsumer, final Consumer<R> rightConsumer) {
+			leftConsumer.accept(value);
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			return other instanceof Left && Objects.equals(value, ((Left<?, ?>) other).value);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(value);
+		}
+
+		@Override
+		public String toString() {
+			return "Left[" + value + "]";
+		}
+	}
+
+	/**
+	 * A right valued {@link Either}.
+	 *
+	 * @param <L> the left type
+	 * @param <R> the right type
+	 */
+	final class Right<L, R> implements Either<L, R> {
+
+		private final R value;
+
+		private Right(final R value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean isLeft() {
+			return false;
+		}
+
+		@Override
+		public L left() {
+			throw new IllegalStateException("Either is a right");
+		}
+
+		@Override
+		public R right() {
+			return value;
+		}
+
+		@Override
+		public <TL, TR> Either<TL, TR> map(final Function<L, TL> leftMapper, final Function<R, TR> rightMapper) {
+			return new Right<>(rightMapper.apply(value));
+		}
+
+		@Override
+		public <T> T reduce(final Function<L, T> leftReducer, final Function<R, T> rightReducer) {
+			return rightReducer.apply(value);
+		}
+
+		@Override
+		public void consume(final Consumer<L> leftConsumer, final Consumer<R> rightConsumer) {
+			rightConsumer.accept(value);
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			return other instanceof Right && Objects.equals(value, ((Right<?, ?>) other).value);
+		}
+
+		@Override
+		public int hashCode() {
+			return ~Objects.hashCode(value);
+		}
+
+		@Override
+		public String toString() {
+			return "Right[" + value + "]";
+		}
+	}
 }
@@ -0,0 +1,29 @@
+package com.helluys.patterns.common;
+
+import java.util.function.Predicate;
+
+/**
+ * Splits a value into a left or a right value, like a function returning an
+ * {@link Either}, but passing the result directly on to a left or right sink
+ * instead of allocating an {@link Either} to hold it.
+ *
+ * @param <T> the value type
+ * @param <L> the left type
+ * @param <R> the right type
+ *
+ * @author Helluys
+ */
+@FunctionalInterface
+public interface Splitter<T, L, R> {
+
+	/**
+	 * Splits the value and passes the result on to the matching sink. At most one
+	 * sink is called.
+	 *
+	 * @param value the value
+	 * @param left  the left sink
+	 * @param right the right sink
+	 * @return the result of the called sink, or {@code false} if none was called
+	 */
+	boolean split(T value, Predicate<L> left, Predicate<R> right);
+}
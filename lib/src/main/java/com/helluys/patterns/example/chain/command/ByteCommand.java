@@ -0,0 +1,121 @@
+package com.helluys.patterns.example.chain.command;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A command read from a binary frame: an unsigned 16 bits big-endian source
+ * length, the UTF-8 source, then the UTF-8 payload up to the end of the frame.
+ * The source and payload are views of the frame, only decoded on the first
+ * call to {@link #source()} or {@link #payload()}, so that commands can be
+ * routed on {@link #sourceBytes()} without decoding.
+ * <p>
+ * The views share the frame content: the command is only valid as long as the
+ * frame is.
+ */
+public class ByteCommand implements Command {
+	private static final int SOURCE_LENGTH_BYTES = Short.BYTES;
+
+	private ByteBuffer frame;
+	private ByteBuffer sourceBytes;
+	private ByteBuffer payloadBytes;
+	private String source;
+	private String payload;
+
+	public ByteCommand(final ByteBuffer frame) {
+		reset(frame);
+	}
+
+	/**
+	 * Reuses this command as a carrier, see {@link CommandCarrier}. The views are
+	 * kept as long as the frames are read from the same buffer.
+	 */
+	void reset(final ByteBuffer frame) {
+		final int start = frame.position();
+		if (frame.remaining() < SOURCE_LENGTH_BYTES) {
+			throw new IllegalArgumentException("Frame too short: " + frame.remaining());
+		}
+		final int sourceEnd = start + SOURCE_LENGTH_BYTES + Short.toUnsignedInt(frame.getShort(start));
+		if (sourceEnd > frame.limit()) {
+			throw new IllegalArgumentException("Source longer than frame: " + frame.remaining());
+		}
+
+		if (frame != this.frame) {
+			this.frame = frame;
+			sourceBytes = frame.duplicate();
+			payloadBytes = frame.duplicate();
+		}
+		sourceBytes.limit(sourceEnd).position(start + SOURCE_LENGTH_BYTES);
+		payloadBytes.limit(frame.limit()).position(sourceEnd);
+		source = null;
+		payload = null;
+	}
+
+	/**
+	 * Returns a new frame holding the given source and payload.
+	 *
+	 * @param source  the source
+	 * @param payload the payload
+	 * @return the frame, ready to be read
+	 */
+	public static ByteBuffer frame(final String source, final String payload) {
+		final byte[] sourceBytes = source.getBytes(UTF_8);
+		final byte[] payloadBytes = payload.getBytes(UTF_8);
+		if (sourceBytes.length > 0xFFFF) {
+			throw new IllegalArgumentException("Source too long: " + sourceBytes.length);
+		}
+		final ByteBuffer frame = ByteBuffer.allocate(SOURCE_LENGTH_BYTES + sourceBytes.length + payloadBytes.length);
+		frame.putShort((short) sourceBytes.length).put(sourceBytes).put(payloadBytes).flip();
+		return frame;
+	}
+
+	/**
+	 * @return the UTF-8 source, as a view of the frame. Its equality and hash
+	 *         code only depend on the source bytes, so that it can be looked up
+	 *         among encoded sources.
+	 */
+	public final ByteBuffer sourceBytes() {
+		return sourceBytes;
+	}
+
+	/**
+	 * @return the UTF-8 payload, as a view of the frame
+	 */
+	public final ByteBuffer payloadBytes() {
+		return payloadBytes;
+	}
+
+	@Override
+	public final String source() {
+		if (source == null) {
+			source = decode(sourceBytes);
+		}
+		return source;
+	}
+
+	@Override
+	public final String payload() {
+		if (payload == null) {
+			payload = decode(payloadBytes);
+		}
+		return payload;
+	}
+
+	/**
+	 * @return the value encoded as UTF-8, to look {@link #sourceBytes()} up
+	 *         among encoded sources
+	 */
+	public static ByteBuffer encode(final String value) {
+		return ByteBuffer.wrap(value.getBytes(UTF_8));
+	}
+
+	private static String decode(final ByteBuffer bytes) {
+		if (bytes.hasArray()) {
+			return new String(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining(), UTF_8);
+		}
+		final byte[] copy = new byte[bytes.remaining()];
+		bytes.get(bytes.position(), copy);
+		return new String(copy, UTF_8);
+	}
+}
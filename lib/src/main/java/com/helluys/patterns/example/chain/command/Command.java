@@ -1,19 +1,23 @@
 package com.helluys.patterns.example.chain.command;
 
-public class Command {
-	private final String source;
-	private final String payload;
+/**
+ * A command read from a source. The derived commands are views reading the
+ * source and payload from the command they derive from, without copying them.
+ */
+public interface Command {
 
-	public Command(final String source, final String payload) {
-		this.source = source;
-		this.payload = payload;
+	/**
+	 * Returns a new command holding the given source and payload.
+	 *
+	 * @param source  the source
+	 * @param payload the payload
+	 * @return a new command
+	 */
+	static Command of(final String source, final String payload) {
+		return new SimpleCommand(source, payload);
 	}
 
-	public String source() {
-		return source;
-	}
+	String source();
 
-	public String payload() {
-		return payload;
-	}
+	String payload();
 }
@@ -0,0 +1,125 @@
+package com.helluys.patterns.example.chain.command;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A pool of one reusable carrier per command class, for chains processing one
+ * command at a time on a single thread. Each call resets and returns the same
+ * carrier instead of allocating a new command, so a carrier is only valid
+ * until the next call for its class: commands must not be kept, nor passed on
+ * to another thread, nor processed in batches.
+ * <p>
+ * The carriers are mutable implementations private to this package: the public
+ * command classes stay immutable.
+ */
+public final class CommandCarrier {
+	private final CarrierCommand command = new CarrierCommand();
+	private final CarrierNamedCommand named = new CarrierNamedCommand();
+	private final CarrierErroneousCommand erroneous = new CarrierErroneousCommand();
+	private ByteCommand frame;
+
+	public Command command(final String source, final String payload) {
+		command.source = source;
+		command.payload = payload;
+		return command;
+	}
+
+	public ByteCommand frame(final ByteBuffer frame) {
+		if (this.frame == null) {
+			this.frame = new ByteCommand(frame);
+		} else {
+			this.frame.reset(frame);
+		}
+		return this.frame;
+	}
+
+	public NamedCommand named(final Command command, final String name, final String text) {
+		named.command = command;
+		named.name = name;
+		named.text = text;
+		return named;
+	}
+
+	public ErroneousCommand erroneous(final Command command, final String error) {
+		erroneous.command = command;
+		erroneous.error = error;
+		return erroneous;
+	}
+
+	static final class CarrierCommand implements Command {
+		private String source;
+		private String payload;
+
+		private CarrierCommand() {
+		}
+
+		@Override
+		public String source() {
+			return source;
+		}
+
+		@Override
+		public String payload() {
+			return payload;
+		}
+	}
+
+	static final class CarrierNamedCommand extends NamedCommand {
+		private Command command;
+		private String name;
+		private String text;
+
+		private CarrierNamedCommand() {
+			super(null, null, null);
+		}
+
+		@Override
+		public String source() {
+			return command.source();
+		}
+
+		@Override
+		public String payload() {
+			return command.payload();
+		}
+
+		@Override
+		Command parent() {
+			return command;
+		}
+
+		@Override
+		public String name() {
+			return name;
+		}
+
+		@Override
+		public String text() {
+			return text;
+		}
+	}
+
+	static final class CarrierErroneousCommand extends ErroneousCommand {
+		private Command command;
+		private String error;
+
+		private CarrierErroneousCommand() {
+			super(null, null);
+		}
+
+		@Override
+		public String source() {
+			return command.source();
+		}
+
+		@Override
+		public String payload() {
+			return command.payload();
+		}
+
+		@Override
+		public String error() {
+			return error;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.helluys.patterns.example.chain.command;
+
+import java.util.Objects;
+
+/**
+ * The content of a command, source and payload, with value equality: a cache
+ * key for the results of parsing commands, which have identity equality.
+ */
+public final class CommandKey {
+	private final String source;
+	private final String payload;
+
+	private CommandKey(final String source, final String payload) {
+		this.source = source;
+		this.payload = payload;
+	}
+
+	public static CommandKey of(final Command command) {
+		return new CommandKey(command.source(), command.payload());
+	}
+
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		} else if (!(other instanceof CommandKey)) {
+			return false;
+		}
+		final CommandKey key = (CommandKey) other;
+		return Objects.equals(source, key.source) && Objects.equals(payload, key.payload);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Objects.hashCode(source) + Objects.hashCode(payload);
+	}
+}
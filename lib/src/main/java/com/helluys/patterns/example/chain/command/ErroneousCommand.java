@@ -1,14 +1,29 @@
 package com.helluys.patterns.example.chain.command;
 
-public class ErroneousCommand extends Command {
+/**
+ * A command that failed to be processed. The source and payload are read from
+ * the parent command rather than copied.
+ */
+public class ErroneousCommand implements Command {
+	private final Command command;
 	private final String error;
 
 	public ErroneousCommand(final Command command, final String error) {
-		super(command.source(), command.payload());
+		this.command = command;
 		this.error = error;
 	}
 
-	public final String error() {
+	@Override
+	public String source() {
+		return command.source();
+	}
+
+	@Override
+	public String payload() {
+		return command.payload();
+	}
+
+	public String error() {
 		return error;
 	}
 }
@@ -1,20 +1,42 @@
 package com.helluys.patterns.example.chain.command;
 
-public class NamedCommand extends Command {
+/**
+ * A command with the name and text parsed from its payload. The source and
+ * payload are read from the parent command rather than copied.
+ */
+public class NamedCommand implements Command {
+	private final Command command;
 	private final String name;
 	private final String text;
 
 	public NamedCommand(final Command command, final String name, final String text) {
-		super(command.source(), command.payload());
+		this.command = command;
 		this.name = name;
 		this.text = text;
 	}
 
-	public final String name() {
+	@Override
+	public String source() {
+		return command.source();
+	}
+
+	@Override
+	public String payload() {
+		return command.payload();
+	}
+
+	/**
+	 * @return the command the source and payload are read from
+	 */
+	Command parent() {
+		return command;
+	}
+
+	public String name() {
 		return name;
 	}
 
-	public final String text() {
+	public String text() {
 		return text;
 	}
 }
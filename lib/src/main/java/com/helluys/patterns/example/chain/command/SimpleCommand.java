@@ -0,0 +1,25 @@
+package com.helluys.patterns.example.chain.command;
+
+/**
+ * A {@link Command} holding its source and payload, as returned by
+ * {@link Command#of(String, String)}.
+ */
+final class SimpleCommand implements Command {
+	private final String source;
+	private final String payload;
+
+	SimpleCommand(final String source, final String payload) {
+		this.source = source;
+		this.payload = payload;
+	}
+
+	@Override
+	public String source() {
+		return source;
+	}
+
+	@Override
+	public String payload() {
+		return payload;
+	}
+}
@@ -1,8 +1,13 @@
 package com.helluys.patterns.example.chain.command;
 
+/**
+ * A named command of a known type. The source and payload are read from the
+ * command the named command derives from, so that the named command is not
+ * kept.
+ */
 public abstract class TypedCommand extends NamedCommand {
 	public TypedCommand(final NamedCommand command) {
-		super(command, command.name(), command.text());
+		super(command.parent(), command.name(), command.text());
 	}
 
 	public abstract CommandType type();
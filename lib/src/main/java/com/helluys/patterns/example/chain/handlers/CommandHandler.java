@@ -4,11 +4,12 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.EnumMap;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import com.helluys.patterns.chain.NodeDecorator;
 import com.helluys.patterns.chain.handler.Handler;
-import com.helluys.patterns.common.Either;
+import com.helluys.patterns.chain.metrics.Instrumentation;
 import com.helluys.patterns.example.chain.command.Command;
 import com.helluys.patterns.example.chain.command.CommandA;
 import com.helluys.patterns.example.chain.command.CommandB;
@@ -25,53 +26,63 @@ public final class CommandHandler {
 	private final Handler<Command> handler;
 
 	public CommandHandler() {
-		final Handler<ErroneousCommand> erroneousHandler = Handler
-				.terminal(c -> System.out.println("Command rejected, " + c.error()));
+		this(Instrumentation.disabled());
+	}
+
+	/**
+	 * Builds the handler with each of its nodes decorated by the given decorator,
+	 * such as an {@link Instrumentation}.
+	 */
+	public CommandHandler(final NodeDecorator decorator) {
+		final Handler<ErroneousCommand> erroneousHandler = decorator.handler("erroneous",
+				Handler.terminal(c -> System.out.println("Command rejected, " + c.error())));
 
-		final EnumMap<CommandType, Consumer<TypedCommand>> typedHandlers = new EnumMap<>(CommandType.class);
-		typedHandlers.put(CommandType.A,
-				Handler.<TypedCommand>terminal(c -> System.out.println("Command A " + c.text()))::handle);
-		typedHandlers.put(CommandType.B,
-				Handler.<TypedCommand>terminal(c -> System.out.println("Command B " + c.text()))::handle);
-		typedHandlers.put(CommandType.C,
-				Handler.<TypedCommand>terminal(c -> System.out.println("Command C " + c.text()))::handle);
+		final EnumMap<CommandType, Handler<TypedCommand>> typedHandlers = new EnumMap<>(CommandType.class);
+		typedHandlers.put(CommandType.A, decorator.handler("A",
+				Handler.terminal(c -> System.out.println("Command A " + c.text()))));
+		typedHandlers.put(CommandType.B, decorator.handler("B",
+				Handler.terminal(c -> System.out.println("Command B " + c.text()))));
+		typedHandlers.put(CommandType.C, decorator.handler("C",
+				Handler.terminal(c -> System.out.println("Command C " + c.text()))));
 
-		final Handler<NamedCommand> commandProcessor = Handler.map(CommandHandler::typeCommand,
-				Handler.either(erroneousHandler, Handler.fan(TypedCommand::type, null)));
+		final Handler<NamedCommand> commandProcessor = decorator.handler("dispatch", Handler
+				.split(CommandHandler::typeCommand, erroneousHandler, Handler.fan(TypedCommand::type, typedHandlers)));
 
-		final Handler<Command> unknownSource = Handler
-				.terminal(c -> System.out.println("Command rejected, unknown source " + c.source()));
+		final Handler<Command> unknownSource = decorator.handler("unknown source",
+				Handler.terminal(c -> System.out.println("Command rejected, unknown source " + c.source())));
 
 		final List<String> jsonSources = Stream.of("json1", "json2").collect(toList());
 		final Handler<Command> jsonHandler = Handler.condition(c -> jsonSources.contains(c.source()),
-				Handler.map(JsonParser::parse, Handler.either(erroneousHandler, commandProcessor))::handle,
+				decorator.handler("json", Handler.split(JsonParser::split, erroneousHandler, commandProcessor)),
 				unknownSource);
 
 		final List<String> textSources = Stream.of("text1", "text2").collect(toList());
-		handler = Handler.condition(c -> textSources.contains(c.source()),
-				Handler.map(TextParser::parse, Handler.either(erroneousHandler, commandProcessor))::handle,
-				jsonHandler);
+		handler = decorator.root("handler", Handler.condition(c -> textSources.contains(c.source()),
+				decorator.handler("text", Handler.split(TextParser::split, erroneousHandler, commandProcessor)),
+				jsonHandler));
 	}
 
 	public void handle(final String source, final String command) {
-		handler.handle(new Command(source, command));
+		handler.handle(Command.of(source, command));
 	}
 
-	private static final Either<ErroneousCommand, TypedCommand> typeCommand(final NamedCommand named) {
+	private static final boolean typeCommand(final NamedCommand named,
+			final Predicate<ErroneousCommand> erroneous, final Predicate<TypedCommand> typed) {
+		final CommandType type;
 		try {
-			switch (CommandType.valueOf(named.name())) {
-				case A:
-					return Either.ofRight(new CommandA(named));
-				case B:
-					return Either.ofRight(new CommandB(named));
-				case C:
-					return Either.ofRight(new CommandC(named));
-				default:
-					throw new UnsupportedOperationException(
-							"Unmanaged command type " + CommandType.valueOf(named.name()));
-			}
+			type = CommandType.valueOf(named.name());
 		} catch (final IllegalArgumentException e) {
-			return Either.ofLeft(new ErroneousCommand(named, "Illegal command type " + named.name()));
+			return erroneous.test(new ErroneousCommand(named, "Illegal command type " + named.name()));
+		}
+		switch (type) {
+			case A:
+				return typed.test(new CommandA(named));
+			case B:
+				return typed.test(new CommandB(named));
+			case C:
+				return typed.test(new CommandC(named));
+			default:
+				throw new UnsupportedOperationException("Unmanaged command type " + type);
 		}
 	}
 }
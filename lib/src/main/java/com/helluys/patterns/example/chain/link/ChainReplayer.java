@@ -0,0 +1,299 @@
+package com.helluys.patterns.example.chain.link;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Replays files of {@code source<TAB>payload} UTF-8 lines through a chain,
+ * typically {@link CommandChain#process}. The file is memory-mapped by
+ * segments ending on line ends, and the segments are processed in parallel
+ * by a pool of threads, or in order on the calling thread.
+ * <p>
+ * Empty lines are skipped, and a carriage return before a line feed is
+ * ignored. Lines without a tab, and lines whose processing throws, count as
+ * errors and do not stop the replay.
+ */
+public final class ChainReplayer {
+	private static final int MAX_SAMPLES = 16;
+
+	private final int threads;
+	private final int segmentSize;
+	private final BiConsumer<String, String> processing;
+
+	private ChainReplayer(final int threads, final int segmentSize, final BiConsumer<String, String> processing) {
+		this.threads = threads;
+		this.segmentSize = segmentSize;
+		this.processing = processing;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Replays the file.
+	 *
+	 * @return the replay report
+	 * @throws IOException if the file cannot be read
+	 */
+	public Report replay(final Path file) throws IOException {
+		final long start = System.nanoTime();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final List<long[]> segments = segments(channel);
+			final Counters counters = new Counters();
+			if (threads == 1) {
+				for (final long[] segment : segments) {
+					replay(channel, segment, counters);
+				}
+			} else {
+				replayParallel(channel, segments, counters);
+			}
+			return new Report(counters.records.sum(), counters.errors.sum(), System.nanoTime() - start,
+					counters.samples());
+		}
+	}
+
+	private void replayParallel(final FileChannel channel, final List<long[]> segments, final Counters counters)
+			throws IOException {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<?>> futures = new ArrayList<>(segments.size());
+			for (final long[] segment : segments) {
+				futures.add(executor.submit(() -> {
+					replay(channel, segment, counters);
+					return null;
+				}));
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Replay interrupted", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Splits the file into {@code [start, end)} segments of about the segment
+	 * size, each ending after a line feed or at the end of the file.
+	 */
+	private List<long[]> segments(final FileChannel channel) throws IOException {
+		final long size = channel.size();
+		final List<long[]> segments = new ArrayList<>();
+		final ByteBuffer probe = ByteBuffer.allocate(4096);
+		long start = 0;
+		while (start < size) {
+			long end = Math.min(size, start + segmentSize);
+			while (end < size) {
+				probe.clear();
+				final int read = channel.read(probe, end);
+				int lineFeed = -1;
+				for (int i = 0; i < read && lineFeed < 0; i++) {
+					if (probe.get(i) == '\n') {
+						lineFeed = i;
+					}
+				}
+				if (lineFeed >= 0) {
+					end += lineFeed + 1;
+					break;
+				}
+				end = Math.min(size, end + read);
+			}
+			if (end - start > Integer.MAX_VALUE) {
+				throw new IOException("Line longer than " + Integer.MAX_VALUE + " bytes at " + start);
+			}
+			segments.add(new long[] { start, end });
+			start = end;
+		}
+		return segments;
+	}
+
+	private void replay(final FileChannel channel, final long[] segment, final Counters counters)
+			throws IOException {
+		final MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, segment[0], segment[1] - segment[0]);
+		final int limit = bytes.limit();
+		byte[] line = new byte[256];
+		long records = 0;
+		long errors = 0;
+
+		int start = 0;
+		while (start < limit) {
+			int end = start;
+			while (end < limit && bytes.get(end) != '\n') {
+				end++;
+			}
+			final int next = end + 1;
+			if (end > start && bytes.get(end - 1) == '\r') {
+				end--;
+			}
+
+			final int length = end - start;
+			if (length > 0) {
+				if (length > line.length) {
+					line = new byte[Math.max(length, line.length * 2)];
+				}
+				bytes.get(start, line, 0, length);
+
+				int tab = 0;
+				while (tab < length && line[tab] != '\t') {
+					tab++;
+				}
+				if (tab == length) {
+					errors++;
+					counters.sample(segment[0] + start, "Missing tab");
+				} else {
+					try {
+						processing.accept(new String(line, 0, tab, UTF_8),
+								new String(line, tab + 1, length - tab - 1, UTF_8));
+						records++;
+					} catch (final RuntimeException e) {
+						errors++;
+						counters.sample(segment[0] + start, String.valueOf(e));
+					}
+				}
+			}
+			start = next;
+		}
+		counters.records.add(records);
+		counters.errors.add(errors);
+	}
+
+	public static final class Builder {
+		private int threads = Runtime.getRuntime().availableProcessors();
+		private int segmentSize = 64 << 20;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the number of threads processing the segments, 1 to process the
+		 * lines in order on the calling thread. The processing must be thread-safe
+		 * otherwise. Defaults to the number of available processors.
+		 */
+		public Builder threads(final int threads) {
+			if (threads < 1) {
+				throw new IllegalArgumentException("Thread count must be positive: " + threads);
+			}
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * Sets the approximate size of the segments, in bytes. Segments are
+		 * extended up to the next line end. Defaults to 64 MiB.
+		 */
+		public Builder segmentSize(final int segmentSize) {
+			if (segmentSize < 1) {
+				throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+			}
+			this.segmentSize = segmentSize;
+			return this;
+		}
+
+		/**
+		 * @param processing the processing of a source and payload, such as
+		 *                   {@link CommandChain#process}
+		 */
+		public ChainReplayer build(final BiConsumer<String, String> processing) {
+			return new ChainReplayer(threads, segmentSize, processing);
+		}
+	}
+
+	/**
+	 * The outcome of a replay.
+	 */
+	public static final class Report {
+		private final long records;
+		private final long errors;
+		private final long elapsedNanos;
+		private final List<String> errorSamples;
+
+		private Report(final long records, final long errors, final long elapsedNanos,
+				final List<String> errorSamples) {
+			this.records = records;
+			this.errors = errors;
+			this.elapsedNanos = elapsedNanos;
+			this.errorSamples = errorSamples;
+		}
+
+		/**
+		 * @return the number of processed records
+		 */
+		public long records() {
+			return records;
+		}
+
+		/**
+		 * @return the number of malformed or failed records
+		 */
+		public long errors() {
+			return errors;
+		}
+
+		public long elapsedNanos() {
+			return elapsedNanos;
+		}
+
+		public double recordsPerSecond() {
+			return records * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+		}
+
+		/**
+		 * @return the first errors met, as {@code "at <byte offset>: <message>"}
+		 *         in no particular order
+		 */
+		public List<String> errorSamples() {
+			return errorSamples;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d records in %d ms (%.0f records/s), %d errors", records,
+					TimeUnit.NANOSECONDS.toMillis(elapsedNanos), recordsPerSecond(), errors);
+		}
+	}
+
+	private static final class Counters {
+		private final LongAdder records = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final List<String> samples = new ArrayList<>();
+
+		private void sample(final long offset, final String message) {
+			synchronized (samples) {
+				if (samples.size() < MAX_SAMPLES) {
+					samples.add("at " + offset + ": " + message);
+				}
+			}
+		}
+
+		private List<String> samples() {
+			synchronized (samples) {
+				return Collections.unmodifiableList(new ArrayList<>(samples));
+			}
+		}
+	}
+}
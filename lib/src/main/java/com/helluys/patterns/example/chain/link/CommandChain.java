@@ -1,48 +1,224 @@
 package com.helluys.patterns.example.chain.link;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import com.helluys.patterns.chain.NodeDecorator;
+import com.helluys.patterns.chain.dispatch.BoundedDispatcher;
+import com.helluys.patterns.chain.dispatch.PartitionedDispatcher;
+import com.helluys.patterns.chain.dispatch.Pipeline;
+import com.helluys.patterns.chain.io.AsyncLogSink;
+import com.helluys.patterns.chain.io.FrameReader;
+import com.helluys.patterns.chain.link.ChainBuilder;
 import com.helluys.patterns.chain.link.EndLink;
 import com.helluys.patterns.chain.link.EnumLink;
+import com.helluys.patterns.chain.link.KeyPredicate;
 import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.chain.metrics.Instrumentation;
+import com.helluys.patterns.common.Splitter;
+import com.helluys.patterns.example.chain.command.ByteCommand;
 import com.helluys.patterns.example.chain.command.Command;
-import com.helluys.patterns.example.chain.command.CommandA;
-import com.helluys.patterns.example.chain.command.CommandB;
-import com.helluys.patterns.example.chain.command.CommandC;
+import com.helluys.patterns.example.chain.command.CommandCarrier;
 import com.helluys.patterns.example.chain.command.CommandType;
 import com.helluys.patterns.example.chain.command.ErroneousCommand;
 import com.helluys.patterns.example.chain.command.NamedCommand;
 import com.helluys.patterns.example.chain.processors.JsonParser;
 import com.helluys.patterns.example.chain.processors.TextParser;
 
-public final class CommandChain {
+public final class CommandChain implements AutoCloseable {
 
-	private final Consumer<Command> processor;
+	private static final long REBALANCE_PERIOD = 4096;
+	private static final int MAX_FRAME_LENGTH = 1 << 20;
+
+	private final EndLink<Command> processor;
+	private final EndLink<ByteCommand> frameProcessor;
+	private final EndLink<ErroneousCommand> erroneousLogger;
+	private final Pipeline<Command> pipeline;
+	private final CommandCarrier carrier;
+	private final AsyncLogSink sink;
 
 	private final TextParser textParser;
 	private final JsonParser jsonParser;
 
 	public CommandChain(final Set<String> textSources, final Set<String> jsonSources) {
+		this(textSources, jsonSources, null, null, Instrumentation.disabled(), null);
+	}
+
+	/**
+	 * Builds the chain with parsing, dispatching of the parsed commands and
+	 * logging of the erroneous ones on separate pipeline stages. Commands must
+	 * then be processed by one thread at a time.
+	 */
+	public CommandChain(final Set<String> textSources, final Set<String> jsonSources, final Pipeline.Builder stages) {
+		this(textSources, jsonSources, stages, null, Instrumentation.disabled(), null);
+	}
+
+	/**
+	 * Builds the chain with each of its nodes decorated by the given decorator,
+	 * such as an {@link Instrumentation}.
+	 */
+	public CommandChain(final Set<String> textSources, final Set<String> jsonSources,
+			final NodeDecorator decorator) {
+		this(textSources, jsonSources, null, null, decorator, null);
+	}
+
+	/**
+	 * Builds the chain with its output written by the given sink rather than
+	 * printed to the standard output. The sink is not closed with the chain.
+	 */
+	public CommandChain(final Set<String> textSources, final Set<String> jsonSources, final AsyncLogSink sink) {
+		this(textSources, jsonSources, null, null, Instrumentation.disabled(), sink);
+	}
+
+	private CommandChain(final Set<String> textSources, final Set<String> jsonSources, final Pipeline.Builder stages,
+			final CommandCarrier carrier, final NodeDecorator decorator, final AsyncLogSink sink) {
 		this.textParser = new TextParser(textSources);
 		this.jsonParser = new JsonParser(jsonSources);
+		this.carrier = carrier;
+		this.sink = sink;
+
+		erroneousLogger = decorator.endLink("erroneous",
+				Link.of(ErroneousCommand::error, logger("erroneous command : ")));
+
+		// The typed stages only read the text: they see the named command as is
+		// rather than a CommandA/B/C copy of it
+		final EndLink<NamedCommand> commandDispatcher = decorator.endLink("dispatch",
+				new EnumLink<>(CommandType::from)
+						.with(CommandType.A,
+								decorator.endLink("A", Link.of(NamedCommand::text, logger("A : "))))
+						.with(CommandType.B,
+								decorator.endLink("B", Link.of(NamedCommand::text, logger("B : "))))
+						.with(CommandType.C,
+								decorator.endLink("C", Link.of(NamedCommand::text, logger("C : "))))
+						.otherwise(decorator.endLink("unknown name",
+								Link.of(NamedCommand::name, logger("unknown command name : ")))));
+
+		final EndLink<ErroneousCommand> erroneousProcessor = stages == null ? erroneousLogger
+				: stages.stage(erroneousLogger);
+		final EndLink<NamedCommand> commandProcessor = stages == null ? commandDispatcher
+				: stages.stage(commandDispatcher);
 
-		final EndLink<ErroneousCommand> erroneousProcessor = Link.of(ErroneousCommand::error,
-				new LoggerLink("erroneous command : "));
+		final Splitter<Command, ErroneousCommand, NamedCommand> textSplitter = carrier == null ? TextParser::split
+				: TextParser.splitter(carrier);
+		final Splitter<Command, ErroneousCommand, NamedCommand> jsonSplitter = carrier == null ? JsonParser::split
+				: JsonParser.splitter(carrier);
 
-		final EndLink<NamedCommand> commandProcessor = new EnumLink<>(CommandType::from)
-				.with(CommandType.A, Link.of(CommandA::new, Link.of(NamedCommand::text, new LoggerLink("A : "))))
-				.with(CommandType.B, Link.of(CommandB::new, Link.of(NamedCommand::text, new LoggerLink("B : "))))
-				.with(CommandType.C, Link.of(CommandC::new, Link.of(NamedCommand::text, new LoggerLink("C : "))))
-				.otherwise(Link.of(NamedCommand::name, new LoggerLink("unknown command name : ")));
+		final Function<Command, String> source = Command::source;
+		final EndLink<Command> parser = decorator.root("chain", new ChainBuilder<Command>()
+				.add(Link.of(KeyPredicate.in(source, textParser.sources()),
+						decorator.endLink("text", Link.split(textSplitter, erroneousProcessor, commandProcessor))))
+				.add(Link.of(KeyPredicate.in(source, jsonParser.sources()),
+						decorator.endLink("json", Link.split(jsonSplitter, erroneousProcessor, commandProcessor))))
+				.mergeKeyed()
+				.end(decorator.endLink("unknown source",
+						Link.of(Command::source, logger("unknown command source : ")))));
 
-		processor = Link
-				.<Command> of(textParser::isText, Link.of(TextParser::parse, erroneousProcessor, commandProcessor))
-				.chain(Link.of(jsonParser::isJson, Link.of(JsonParser::parse, erroneousProcessor, commandProcessor)))
-				.chain(Link.of(Command::source, new LoggerLink("unknown command source : ")));
+		pipeline = stages == null ? null : stages.build(parser);
+		processor = stages == null ? parser : pipeline;
+
+		// Frames are views of the read buffer: they are processed on the reading
+		// thread, which must not feed the single producer pipeline stages
+		final Function<ByteCommand, ByteBuffer> sourceBytes = ByteCommand::sourceBytes;
+		frameProcessor = decorator.root("frames", new ChainBuilder<ByteCommand>()
+				.add(Link.of(KeyPredicate.in(sourceBytes, encoded(textParser.sources())), decorator
+						.endLink("text", Link.split(textSplitter::split, erroneousLogger, commandDispatcher))))
+				.add(Link.of(KeyPredicate.in(sourceBytes, encoded(jsonParser.sources())), decorator
+						.endLink("json", Link.split(jsonSplitter::split, erroneousLogger, commandDispatcher))))
+				.mergeKeyed()
+				.end(decorator.endLink("unknown source",
+						Link.of(ByteCommand::source, logger("unknown command source : ")))));
+	}
+
+	private EndLink<String> logger(final String prefix) {
+		return sink == null ? new LoggerLink(prefix) : sink.logger(prefix);
+	}
+
+	private static Set<ByteBuffer> encoded(final Set<String> sources) {
+		return sources.stream().map(ByteCommand::encode).collect(Collectors.toUnmodifiableSet());
+	}
+
+	/**
+	 * Builds the chain reusing the same command carriers for every command
+	 * instead of allocating new ones. Commands must then be processed by one
+	 * thread at a time.
+	 *
+	 * @see CommandCarrier
+	 */
+	public static CommandChain pooled(final Set<String> textSources, final Set<String> jsonSources) {
+		return new CommandChain(textSources, jsonSources, null, new CommandCarrier(), Instrumentation.disabled(), null);
 	}
 
 	public final void process(final String source, final String payload) {
-		processor.accept(new Command(source, payload));
+		processor.accept(carrier == null ? Command.of(source, payload) : carrier.command(source, payload));
+	}
+
+	/**
+	 * Processes a command frame, routing it on the source bytes without decoding
+	 * them. The frame is only read during the call.
+	 *
+	 * @see ByteCommand
+	 */
+	public final void processFrame(final ByteBuffer frame) {
+		frameProcessor.accept(carrier == null ? new ByteCommand(frame) : carrier.frame(frame));
+	}
+
+	/**
+	 * Processes the length-prefixed command frames read from the channel until
+	 * the end of the stream, on the calling thread.
+	 *
+	 * @return the number of processed frames
+	 * @see FrameReader
+	 */
+	public final long ingest(final ReadableByteChannel channel) throws IOException {
+		return new FrameReader(channel, MAX_FRAME_LENGTH).readAll(this::processFrame);
+	}
+
+	public final void processBatch(final List<Command> commands) {
+		if (carrier == null) {
+			processor.processBatch(commands);
+		} else {
+			// Carriers are reused from one command to the next, not within a batch
+			for (final Command command : commands) {
+				processor.accept(command);
+			}
+		}
+	}
+
+	/**
+	 * Returns a dispatcher processing the commands of different sources in
+	 * parallel with this chain, while keeping the order of the commands of each
+	 * source.
+	 */
+	public final PartitionedDispatcher<Command> partitioned(final int lanes) {
+		if (pipeline != null || carrier != null) {
+			throw new IllegalStateException("This chain must be processed by one thread at a time");
+		}
+		return PartitionedDispatcher.<Command> builder(Command::source).lanes(lanes).rebalanceEvery(REBALANCE_PERIOD)
+				.build(processor);
+	}
+
+	/**
+	 * Returns a dispatcher processing the commands in parallel with this chain
+	 * through a bounded queue. Commands dispatched while the queue is full are
+	 * logged as erroneous commands on the calling thread.
+	 */
+	public final BoundedDispatcher<Command> bounded(final int threads, final int queueCapacity) {
+		if (pipeline != null || carrier != null) {
+			throw new IllegalStateException("This chain must be processed by one thread at a time");
+		}
+		return BoundedDispatcher.<Command> builder().threads(threads).queueCapacity(queueCapacity)
+				.divert(ErroneousCommand::new, erroneousLogger).build(processor);
+	}
+
+	@Override
+	public final void close() {
+		if (pipeline != null) {
+			pipeline.close();
+		}
 	}
 }
@@ -1,5 +1,7 @@
 package com.helluys.patterns.example.chain.link;
 
+import java.util.List;
+
 import com.helluys.patterns.chain.link.EndLink;
 
 final class LoggerLink implements EndLink<String> {
@@ -14,4 +16,13 @@ final class LoggerLink implements EndLink<String> {
 	public final void accept(final String t) {
 		System.out.println(prefix + "'" + t + "'");
 	}
+
+	@Override
+	public final void processBatch(final List<String> commands) {
+		final StringBuilder lines = new StringBuilder();
+		for (final String t : commands) {
+			lines.append(prefix).append('\'').append(t).append('\'').append(System.lineSeparator());
+		}
+		System.out.print(lines);
+	}
 }
@@ -0,0 +1,485 @@
+package com.helluys.patterns.example.chain.processors;
+
+import java.util.Arrays;
+
+/**
+ * Extracts top-level string fields from a JSON object text in a single pass,
+ * without building the object. Other values are validated while skipped, and
+ * the scan stops as soon as all the requested fields are read.
+ * <p>
+ * The accepted syntax and the error messages follow org.json
+ * {@code new JSONObject(text).getString(field)}, lenient quoting included,
+ * except that nothing after the last requested field is checked: syntax errors
+ * and duplicate keys there go unreported. Duplicated requested fields are
+ * reported.
+ */
+public final class JsonFieldExtractor {
+	private static final boolean[] DELIMITERS = new boolean[128];
+
+	static {
+		for (final char c : ",:]}/\\\"[{;=#".toCharArray()) {
+			DELIMITERS[c] = true;
+		}
+	}
+
+	private final String[] fields;
+	private final long all;
+
+	public JsonFieldExtractor(final String... fields) {
+		if (fields.length == 0 || fields.length > Long.SIZE) {
+			throw new IllegalArgumentException("Between 1 and 64 fields can be extracted: " + fields.length);
+		}
+		this.fields = fields.clone();
+		this.all = -1L >>> (Long.SIZE - fields.length);
+	}
+
+	/**
+	 * Extracts the fields.
+	 *
+	 * @param json   the JSON object text
+	 * @param values the extracted values, in the order of the fields
+	 * @return {@code null} if all the fields were extracted, or the error message
+	 */
+	public String extract(final CharSequence json, final String[] values) {
+		Arrays.fill(values, 0, fields.length, null);
+		final Scanner scanner = new Scanner(json);
+		if (scanner.nextClean() != '{') {
+			return scanner.syntaxError("A JSONObject text must begin with '{'");
+		}
+
+		long seen = 0L;
+		long notString = 0L;
+		while (seen != all) {
+			final char c = scanner.nextClean();
+			if (c == 0) {
+				return scanner.syntaxError("A JSONObject text must end with '}'");
+			} else if (c == '}') {
+				break;
+			}
+			scanner.back();
+
+			final int field = scanner.key(fields);
+			if (field == Scanner.FAILED) {
+				return scanner.error;
+			} else if (scanner.nextClean() != ':') {
+				return scanner.syntaxError("Expected a ':' after a key");
+			}
+
+			if (field >= 0) {
+				final long bit = 1L << field;
+				if ((seen & bit) != 0) {
+					return scanner.syntaxError("Duplicate key \"" + fields[field] + "\"");
+				}
+				seen |= bit;
+				values[field] = scanner.stringValue();
+				if (scanner.error != null) {
+					return scanner.error;
+				} else if (values[field] == null) {
+					notString |= bit;
+				}
+				if (seen == all) {
+					break;
+				}
+			} else if (!scanner.skipValue()) {
+				return scanner.error;
+			}
+
+			if (!scanner.memberEnd('}')) {
+				if (scanner.error != null) {
+					return scanner.error;
+				}
+				break;
+			}
+		}
+
+		for (int i = 0; i < fields.length; i++) {
+			final long bit = 1L << i;
+			if ((seen & bit) == 0) {
+				return "JSONObject[\"" + fields[i] + "\"] not found.";
+			} else if ((notString & bit) != 0) {
+				return "JSONObject[\"" + fields[i] + "\"] not a string.";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A cursor over the JSON text, counting positions as org.json does.
+	 */
+	private static final class Scanner {
+		private static final int FAILED = -2;
+		private static final int OTHER = -1;
+		private static final String[] NO_FIELDS = {};
+
+		private final CharSequence text;
+		private int position;
+		private boolean consumed;
+		private String error;
+
+		private Scanner(final CharSequence text) {
+			this.text = text;
+		}
+
+		private char next() {
+			if (position >= text.length() || text.charAt(position) == 0) {
+				consumed = false;
+				return 0;
+			}
+			consumed = true;
+			return text.charAt(position++);
+		}
+
+		private void back() {
+			if (consumed) {
+				position--;
+				consumed = false;
+			}
+		}
+
+		private char nextClean() {
+			while (true) {
+				final char c = next();
+				if (c == 0 || c > ' ') {
+					return c;
+				}
+			}
+		}
+
+		/**
+		 * Reads a key.
+		 *
+		 * @return the index of the matching field, {@link #OTHER} or
+		 *         {@link #FAILED}
+		 */
+		private int key(final String[] fields) {
+			final char c = nextClean();
+			if (c == '"' || c == '\'') {
+				final int start = position;
+				final boolean escaped = skipString(c);
+				if (error != null) {
+					return FAILED;
+				}
+				return escaped ? indexOf(fields, unescape(start, position - 1))
+						: indexOf(fields, start, position - 1);
+			} else if (c == '{' || c == '[') {
+				back();
+				return skipValue() ? OTHER : FAILED;
+			}
+			back();
+			final int start = position;
+			if (!skipToken()) {
+				return FAILED;
+			}
+			return indexOf(fields, trimStart(start, position), trimEnd(start, position));
+		}
+
+		/**
+		 * Reads a value.
+		 *
+		 * @return the string value, or {@code null} if the value is not a string
+		 *         or on error
+		 */
+		private String stringValue() {
+			final char c = nextClean();
+			if (c == '"' || c == '\'') {
+				final int start = position;
+				final boolean escaped = skipString(c);
+				if (error != null) {
+					return null;
+				}
+				return escaped ? unescape(start, position - 1) : text.subSequence(start, position - 1).toString();
+			} else if (c == '{' || c == '[') {
+				back();
+				skipValue();
+				return null;
+			}
+			back();
+			final int start = position;
+			if (!skipToken()) {
+				return null;
+			}
+			final String token = text.subSequence(trimStart(start, position), trimEnd(start, position)).toString();
+			return isLiteral(token) ? null : token;
+		}
+
+		private boolean skipValue() {
+			final char c = nextClean();
+			if (c == '"' || c == '\'') {
+				skipString(c);
+				return error == null;
+			} else if (c == '{') {
+				return skipObject();
+			} else if (c == '[') {
+				return skipArray();
+			}
+			back();
+			return skipToken();
+		}
+
+		private boolean skipObject() {
+			while (true) {
+				final char c = nextClean();
+				if (c == 0) {
+					return fail("A JSONObject text must end with '}'");
+				} else if (c == '}') {
+					return true;
+				}
+				back();
+				if (key(NO_FIELDS) == FAILED) {
+					return false;
+				} else if (nextClean() != ':') {
+					return fail("Expected a ':' after a key");
+				} else if (!skipValue()) {
+					return false;
+				} else if (!memberEnd('}')) {
+					return error == null;
+				}
+			}
+		}
+
+		private boolean skipArray() {
+			char c = nextClean();
+			if (c == 0) {
+				return fail("Expected a ',' or ']'");
+			} else if (c == ']') {
+				return true;
+			}
+			back();
+			while (true) {
+				if (nextClean() != ',') {
+					back();
+					if (!skipValue()) {
+						return false;
+					}
+				} else {
+					back();
+				}
+
+				c = nextClean();
+				if (c == ']') {
+					return true;
+				} else if (c != ',') {
+					return fail("Expected a ',' or ']'");
+				}
+				c = nextClean();
+				if (c == 0) {
+					return fail("Expected a ',' or ']'");
+				} else if (c == ']') {
+					return true;
+				}
+				back();
+			}
+		}
+
+		/**
+		 * Reads the separator after an object member.
+		 *
+		 * @return {@code true} if another member follows, {@code false} at the
+		 *         end of the object or on error
+		 */
+		private boolean memberEnd(final char end) {
+			final char c = nextClean();
+			if (c == ',' || c == ';') {
+				if (nextClean() == end) {
+					return false;
+				}
+				back();
+				return true;
+			} else if (c == end) {
+				return false;
+			}
+			return fail("Expected a ',' or '}'");
+		}
+
+		/**
+		 * Skips a string after its opening quote.
+		 *
+		 * @return {@code true} if the string holds escape sequences
+		 */
+		private boolean skipString(final char quote) {
+			boolean escaped = false;
+			while (true) {
+				final char c = next();
+				if (c == 0 || c == '\n' || c == '\r') {
+					fail("Unterminated string");
+					return escaped;
+				} else if (c == quote) {
+					return escaped;
+				} else if (c == '\\') {
+					escaped = true;
+					final char e = next();
+					if (e == 'u') {
+						for (int i = 0; i < 4; i++) {
+							if (next() == 0) {
+								fail("Substring bounds error");
+								return escaped;
+							}
+						}
+						if (!isHex(position - 4)) {
+							fail("Illegal escape.");
+							return escaped;
+						}
+					} else if ("btnfr\"'\\/".indexOf(e) < 0 || e == 0) {
+						fail("Illegal escape.");
+						return escaped;
+					}
+				}
+			}
+		}
+
+		private boolean skipToken() {
+			final int start = position;
+			char c = next();
+			while (c >= ' ' && (c >= DELIMITERS.length || !DELIMITERS[c])) {
+				c = next();
+			}
+			back();
+			if (trimStart(start, position) == trimEnd(start, position)) {
+				return fail("Missing value");
+			}
+			return true;
+		}
+
+		private String unescape(final int start, final int end) {
+			final StringBuilder builder = new StringBuilder(end - start);
+			for (int i = start; i < end; i++) {
+				final char c = text.charAt(i);
+				if (c != '\\') {
+					builder.append(c);
+					continue;
+				}
+				final char e = text.charAt(++i);
+				switch (e) {
+					case 'b':
+						builder.append('\b');
+						break;
+					case 't':
+						builder.append('\t');
+						break;
+					case 'n':
+						builder.append('\n');
+						break;
+					case 'f':
+						builder.append('\f');
+						break;
+					case 'r':
+						builder.append('\r');
+						break;
+					case 'u':
+						builder.append((char) Integer.parseInt(text.subSequence(i + 1, i + 5).toString(), 16));
+						i += 4;
+						break;
+					default:
+						builder.append(e);
+				}
+			}
+			return builder.toString();
+		}
+
+		private int indexOf(final String[] fields, final int start, final int end) {
+			for (int i = 0; i < fields.length; i++) {
+				final String field = fields[i];
+				if (field.length() == end - start && regionMatches(field, start)) {
+					return i;
+				}
+			}
+			return OTHER;
+		}
+
+		private boolean regionMatches(final String field, final int start) {
+			for (int i = 0; i < field.length(); i++) {
+				if (field.charAt(i) != text.charAt(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int indexOf(final String[] fields, final String key) {
+			for (int i = 0; i < fields.length; i++) {
+				if (fields[i].equals(key)) {
+					return i;
+				}
+			}
+			return OTHER;
+		}
+
+		private int trimStart(final int start, final int end) {
+			int i = start;
+			while (i < end && text.charAt(i) <= ' ') {
+				i++;
+			}
+			return i;
+		}
+
+		private int trimEnd(final int start, final int end) {
+			int i = end;
+			while (i > start && text.charAt(i - 1) <= ' ') {
+				i--;
+			}
+			return i;
+		}
+
+		private boolean isHex(final int start) {
+			for (int i = start; i < start + 4; i++) {
+				if (Character.digit(text.charAt(i), 16) < 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @return whether org.json reads the unquoted token as a boolean, null or
+		 *         number rather than a string
+		 */
+		private static boolean isLiteral(final String token) {
+			if (token.equalsIgnoreCase("true") || token.equalsIgnoreCase("false")
+					|| token.equalsIgnoreCase("null")) {
+				return true;
+			}
+			final char initial = token.charAt(0);
+			if ((initial < '0' || initial > '9') && initial != '-') {
+				return false;
+			}
+			try {
+				if (token.indexOf('.') > -1 || token.indexOf('e') > -1 || token.indexOf('E') > -1
+						|| "-0".equals(token)) {
+					final double value = Double.parseDouble(token);
+					return !Double.isInfinite(value) && !Double.isNaN(value);
+				}
+				Long.parseLong(token);
+				return true;
+			} catch (final NumberFormatException e) {
+				return false;
+			}
+		}
+
+		private boolean fail(final String message) {
+			error = syntaxError(message);
+			return false;
+		}
+
+		private String syntaxError(final String message) {
+			int character = 1;
+			int line = 1;
+			char previous = 0;
+			for (int i = 0; i < position; i++) {
+				final char c = text.charAt(i);
+				if (c == '\r') {
+					line++;
+					character = 0;
+				} else if (c == '\n') {
+					if (previous != '\r') {
+						line++;
+					}
+					character = 0;
+				} else {
+					character++;
+				}
+				previous = c;
+			}
+			return message + " at " + position + " [character " + character + " line " + line + "]";
+		}
+	}
+}
@@ -1,16 +1,17 @@
 package com.helluys.patterns.example.chain.processors;
 
 import java.util.Set;
-
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.util.function.Predicate;
 
 import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
 import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.command.CommandCarrier;
 import com.helluys.patterns.example.chain.command.ErroneousCommand;
 import com.helluys.patterns.example.chain.command.NamedCommand;
 
 public final class JsonParser {
+	private static final JsonFieldExtractor FIELDS = new JsonFieldExtractor("name", "text");
 
 	private final Set<String> sources;
 
@@ -18,19 +19,47 @@ public final class JsonParser {
 		this.sources = sources;
 	}
 
+	public final Set<String> sources() {
+		return sources;
+	}
+
 	public final boolean isJson(final Command c) {
 		return sources.contains(c.source());
 	}
 
+	public static final boolean split(final Command command, final Predicate<ErroneousCommand> erroneous,
+			final Predicate<NamedCommand> named) {
+		final String[] values = new String[2];
+		final String error = FIELDS.extract(command.payload(), values);
+		if (error != null) {
+			return erroneous.test(new ErroneousCommand(command, "Invalid JSON " + error));
+		}
+		return named.test(new NamedCommand(command, values[0], values[1]));
+	}
+
+	/**
+	 * Returns a splitter like {@link #split}, producing its commands with the
+	 * given carrier instead of allocating them. Like the carrier, the splitter
+	 * reuses its field values array across calls: it must only be used by a
+	 * single thread, one command at a time.
+	 */
+	public static final Splitter<Command, ErroneousCommand, NamedCommand> splitter(final CommandCarrier carrier) {
+		final String[] values = new String[2];
+		return (command, erroneous, named) -> {
+			final String error = FIELDS.extract(command.payload(), values);
+			if (error != null) {
+				return erroneous.test(carrier.erroneous(command, "Invalid JSON " + error));
+			}
+			return named.test(carrier.named(command, values[0], values[1]));
+		};
+	}
+
 	public static final Either<ErroneousCommand, NamedCommand> parse(final Command command) {
-		try {
-			final JSONObject jsonObject = new JSONObject(command.payload());
-			final String name = jsonObject.getString("name");
-			final String text = jsonObject.getString("text");
-
-			return Either.ofRight(new NamedCommand(command, name, text));
-		} catch (final JSONException e) {
-			return Either.ofLeft(new ErroneousCommand(command, "Invalid JSON " + e.getMessage()));
+		final String[] values = new String[2];
+		final String error = FIELDS.extract(command.payload(), values);
+		if (error != null) {
+			return Either.ofLeft(new ErroneousCommand(command, "Invalid JSON " + error));
 		}
+		return Either.ofRight(new NamedCommand(command, values[0], values[1]));
 	}
 }
@@ -1,32 +1,112 @@
 package com.helluys.patterns.example.chain.processors;
 
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Predicate;
 
 import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
 import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.command.CommandCarrier;
 import com.helluys.patterns.example.chain.command.ErroneousCommand;
 import com.helluys.patterns.example.chain.command.NamedCommand;
 
 public final class TextParser {
-	private static final Pattern TEXT_PATTERN = Pattern.compile("\\[([A-Z]*)](.*)");
-
 	private final Set<String> sources;
 
 	public TextParser(final Set<String> sources) {
 		this.sources = sources;
 	}
 
+	public final Set<String> sources() {
+		return sources;
+	}
+
 	public final boolean isText(final Command c) {
 		return sources.contains(c.source());
 	}
 
+	/**
+	 * Scans a {@code [NAME]text} payload, accepting exactly what the regular
+	 * expression {@code \[([A-Z]*)](.*)} matches: a name of upper case ASCII
+	 * letters, and a text without line terminators.
+	 *
+	 * @param payload the payload
+	 * @return the index of the closing bracket, or -1 if the payload is invalid
+	 */
+	public static final int scan(final CharSequence payload) {
+		final int length = payload.length();
+		if (length < 2 || payload.charAt(0) != '[') {
+			return -1;
+		}
+
+		int end = 1;
+		while (end < length && payload.charAt(end) >= 'A' && payload.charAt(end) <= 'Z') {
+			end++;
+		}
+		if (end == length || payload.charAt(end) != ']') {
+			return -1;
+		}
+
+		for (int i = end + 1; i < length; i++) {
+			final char c = payload.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return -1;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * @param payload a valid payload
+	 * @param end     the index of the closing bracket, as returned by
+	 *                {@link #scan}
+	 * @return the name, as a sub-sequence of the payload
+	 */
+	public static final CharSequence name(final CharSequence payload, final int end) {
+		return payload.subSequence(1, end);
+	}
+
+	/**
+	 * @param payload a valid payload
+	 * @param end     the index of the closing bracket, as returned by
+	 *                {@link #scan}
+	 * @return the text, as a sub-sequence of the payload
+	 */
+	public static final CharSequence text(final CharSequence payload, final int end) {
+		return payload.subSequence(end + 1, payload.length());
+	}
+
+	public static final boolean split(final Command command, final Predicate<ErroneousCommand> erroneous,
+			final Predicate<NamedCommand> named) {
+		final String payload = command.payload();
+		final int end = scan(payload);
+		if (end >= 0) {
+			return named.test(new NamedCommand(command, payload.substring(1, end), payload.substring(end + 1)));
+		}
+		return erroneous.test(new ErroneousCommand(command, "Invalid text " + command.source()));
+	}
+
+	/**
+	 * Returns a splitter like {@link #split}, producing its commands with the
+	 * given carrier instead of allocating them.
+	 */
+	public static final Splitter<Command, ErroneousCommand, NamedCommand> splitter(final CommandCarrier carrier) {
+		return (command, erroneous, named) -> {
+			final String payload = command.payload();
+			final int end = scan(payload);
+			if (end >= 0) {
+				return named.test(carrier.named(command, payload.substring(1, end), payload.substring(end + 1)));
+			}
+			return erroneous.test(carrier.erroneous(command, "Invalid text " + command.source()));
+		};
+	}
+
 	public static final Either<ErroneousCommand, NamedCommand> parse(final Command command) {
-		final Matcher matcher = TextParser.TEXT_PATTERN.matcher(command.payload());
-		if (matcher.matches() && matcher.groupCount() == 2) {
-			final String name = matcher.group(1);
-			final String text = matcher.group(2);
+		final String payload = command.payload();
+		final int end = scan(payload);
+		if (end >= 0) {
+			final String name = payload.substring(1, end);
+			final String text = payload.substring(end + 1);
 
 			return Either.ofRight(new NamedCommand(command, name, text));
 		}
@@ -0,0 +1,45 @@
+package lib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.link.AdaptiveChain;
+import com.helluys.patterns.chain.link.Link;
+
+public class AdaptiveChainTest {
+
+	@Test
+	public void reorder() {
+		final AdaptiveChain<Integer> chain = new AdaptiveChain<>(List.of(link(0), link(1), link(2)), Integer.MAX_VALUE);
+
+		for (int i = 0; i < 10; i++) {
+			assertTrue(chain.process(2));
+		}
+		assertTrue(chain.process(0));
+		assertFalse(chain.process(3));
+		assertArrayEquals(new int[] { 0, 1, 2 }, chain.order());
+
+		chain.reorder();
+		assertArrayEquals(new int[] { 2, 0, 1 }, chain.order());
+		assertArrayEquals(new long[] { 1, 0, 10 }, chain.hits());
+
+		for (int i = 0; i < 30; i++) {
+			assertTrue(chain.process(1));
+		}
+		chain.reorder();
+		assertArrayEquals(new int[] { 1, 2, 0 }, chain.order());
+		assertArrayEquals(new long[] { 1, 30, 10 }, chain.hits());
+	}
+
+	private static Link<Integer> link(final int key) {
+		final Predicate<Integer> predicate = v -> v == key;
+		return Link.of(predicate, v -> {
+		});
+	}
+}
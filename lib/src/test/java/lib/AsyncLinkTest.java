@@ -0,0 +1,81 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.helluys.patterns.chain.handler.AsyncHandler;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.AsyncLink;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+
+public class AsyncLinkTest {
+	private enum Parity {
+		EVEN, ODD
+	}
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final List<String> processed = new CopyOnWriteArrayList<>();
+
+	@Test
+	public void asyncLink() throws Exception {
+		final Predicate<Integer> negative = v -> v < 0;
+		final EnumMap<Parity, AsyncLink<Integer>> parities = new EnumMap<>(Parity.class);
+		parities.put(Parity.EVEN, AsyncLink.terminal(EndLink.of(v -> processed.add("even " + v)), executor));
+
+		final AsyncLink<Integer> link = AsyncLink.of(Link.of(negative, v -> processed.add("negative")))
+				.chain(AsyncLink.of(v -> v > 100 ? Either.<Integer, Integer> ofLeft(v) : Either.ofRight(v),
+						AsyncLink.terminal(EndLink.of(v -> processed.add("big " + v))),
+						AsyncLink.fan(v -> v % 2 == 0 ? Parity.EVEN : Parity.ODD, parities)));
+
+		assertTrue(link.process(-1).toCompletableFuture().get());
+		assertTrue(link.process(101).toCompletableFuture().get());
+		assertTrue(link.process(4).toCompletableFuture().get());
+		assertFalse(link.process(3).toCompletableFuture().get());
+		assertEquals(List.of("negative", "big 101", "even 4"), processed);
+	}
+
+	@Test
+	public void syncLinkInline() {
+		final Predicate<Integer> even = v -> v % 2 == 0;
+		final AsyncLink<Integer> link = AsyncLink.of(Link.of(even, v -> processed.add("even")))
+				.chain(AsyncLink.terminal(EndLink.of(v -> processed.add("odd"))));
+
+		assertSame(link.process(2), link.process(3));
+		assertEquals(List.of("even", "odd"), processed);
+	}
+
+	@Test
+	public void asyncHandler() throws Exception {
+		final EnumMap<Parity, AsyncHandler<Integer>> parities = new EnumMap<>(Parity.class);
+		parities.put(Parity.EVEN, AsyncHandler.terminal(v -> processed.add("even " + v), executor));
+		parities.put(Parity.ODD, AsyncHandler.of(Handler.terminal(v -> processed.add("odd " + v))));
+
+		final AsyncHandler<Integer> handler = AsyncHandler.condition(v -> v < 0,
+				AsyncHandler.terminal(v -> processed.add("negative")),
+				AsyncHandler.map(v -> v + 1, AsyncHandler.fan(v -> v % 2 == 0 ? Parity.EVEN : Parity.ODD, parities)));
+
+		handler.handle(-1).toCompletableFuture().get();
+		handler.handle(1).toCompletableFuture().get();
+		handler.handle(2).toCompletableFuture().get();
+		assertEquals(List.of("negative", "even 2", "odd 3"), processed);
+	}
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,119 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.io.AsyncLogSink;
+
+public class AsyncLogSinkTest {
+
+	@Test
+	public void concurrentLogging() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// A small ring and batch, so that threads wait for the writer
+		final AsyncLogSink sink = AsyncLogSink.builder().capacity(8).batchSize(64).build(out);
+		final List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			final String prefix = t + " : ";
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					sink.log(prefix, "payload " + i);
+				}
+			}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		sink.close();
+
+		final String[] lines = out.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+		assertEquals(4000, lines.length);
+		final Set<String> distinct = new HashSet<>(List.of(lines));
+		assertEquals(4000, distinct.size());
+		int previous = -1;
+		for (final String line : lines) {
+			if (line.startsWith("2 : ")) {
+				final int index = Integer.parseInt(line.substring("2 : 'payload ".length(), line.length() - 1));
+				assertEquals(previous + 1, index);
+				previous = index;
+			}
+		}
+	}
+
+	@Test
+	public void encoding() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final AsyncLogSink sink = AsyncLogSink.builder().build(out);
+		final String text = "caf\u00e9 \u20ac \ud83d\ude00 \ud83d";
+		sink.accept(text);
+		sink.logger("long : ").accept("x".repeat(1000));
+		sink.close();
+		assertEquals("caf\u00e9 \u20ac \ud83d\ude00 ?" + System.lineSeparator() + "long : '" + "x".repeat(1000)
+				+ "'" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void nullValue() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final AsyncLogSink sink = AsyncLogSink.builder().build(out);
+		sink.logger("value : ").accept(null);
+		sink.log("other : ", null);
+		sink.close();
+		assertEquals("value : 'null'" + System.lineSeparator() + "other : 'null'" + System.lineSeparator(),
+				out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void fileChannel() throws IOException {
+		final Path file = Files.createTempFile("sink", ".log");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			final AsyncLogSink sink = AsyncLogSink.builder().flushInterval(Duration.ofSeconds(1)).build(channel);
+			for (int i = 0; i < 100; i++) {
+				sink.log("line : ", Integer.toString(i));
+			}
+			sink.close();
+			assertEquals(100, Files.readAllLines(file).size());
+			assertEquals("line : '99'", Files.readAllLines(file).get(99));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void closed() throws IOException {
+		final AsyncLogSink sink = AsyncLogSink.builder().build(OutputStream.nullOutputStream());
+		sink.close();
+		assertThrows(IllegalStateException.class, () -> sink.accept("line"));
+	}
+
+	@Test
+	public void failure() {
+		final AsyncLogSink sink = AsyncLogSink.builder().build(new OutputStream() {
+			@Override
+			public void write(final int b) throws IOException {
+				throw new IOException("Disk full");
+			}
+		});
+		sink.accept("line");
+		assertEquals("Disk full", assertThrows(IOException.class, sink::close).getMessage());
+	}
+}
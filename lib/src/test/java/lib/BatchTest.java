@@ -0,0 +1,76 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.EnumLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+
+public class BatchTest {
+	private enum Parity {
+		EVEN, ODD
+	}
+
+	private final List<String> processed = new ArrayList<>();
+
+	@Test
+	public void linkBatch() {
+		final Predicate<Integer> negative = v -> v < 0;
+		final Predicate<Integer> huge = v -> v > 1000;
+		final Link<Integer> link = Link.of(negative, EndLink.of(v -> processed.add("negative " + v), this::bulk))
+				.chain(Link.of(v -> v > 100 ? Either.<Integer, Integer> ofLeft(v) : Either.ofRight(v),
+						Link.of(huge, v -> processed.add("huge " + v)),
+						new EnumLink<Integer, Parity>(v -> v % 2 == 0 ? Parity.EVEN : null)
+								.with(Parity.EVEN, EndLink.of(v -> processed.add("single " + v), this::bulk))
+								.build()));
+
+		final BitSet consumed = link.processBatch(List.of(-1, 2, 3, -4, 101, 2000, 6));
+
+		final BitSet expected = new BitSet();
+		expected.set(0, 7);
+		expected.clear(2);
+		expected.clear(4);
+		assertEquals(expected, consumed);
+		assertEquals(List.of("bulk [-1, -4]", "huge 2000", "bulk [2, 6]"), processed);
+	}
+
+	@Test
+	public void handlerBatch() {
+		final EnumMap<Parity, Handler<Integer>> parities = new EnumMap<>(Parity.class);
+		parities.put(Parity.EVEN, Handler.terminal(EndLink.of(v -> processed.add("single " + v), this::bulk)));
+		parities.put(Parity.ODD, Handler.terminal(v -> processed.add("odd " + v)));
+
+		Handler.<Integer> condition(v -> v < 0, Handler.terminal(v -> processed.add("negative " + v)),
+				Handler.map((Integer v) -> v + 1, Handler.fan(v -> v % 2 == 0 ? Parity.EVEN : Parity.ODD, parities)))
+				.handleBatch(List.of(1, -1, 2, 3, 4));
+
+		assertEquals(List.of("negative -1", "bulk [2, 4]", "odd 3", "odd 5"), processed);
+	}
+
+	@Test
+	public void noEmptyBatch() {
+		final EndLink<Integer> bulk = EndLink.of(v -> processed.add("single " + v), commands -> {
+			assertFalse(commands.isEmpty());
+			bulk(commands);
+		});
+		final Link<Integer> link = Link.of((Integer v) -> v < 0, bulk);
+
+		assertEquals(new BitSet(), link.processBatch(List.of(1, 2)));
+		assertEquals(List.of(), processed);
+	}
+
+	private void bulk(final List<Integer> commands) {
+		processed.add("bulk " + commands);
+	}
+}
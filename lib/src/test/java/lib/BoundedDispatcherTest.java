@@ -0,0 +1,161 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.dispatch.BoundedDispatcher;
+import com.helluys.patterns.chain.dispatch.OverloadPolicy;
+import com.helluys.patterns.chain.link.EndLink;
+
+public class BoundedDispatcherTest {
+	private final List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> callers = Collections.synchronizedList(new ArrayList<>());
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@Test
+	public void dropNewest() {
+		final BoundedDispatcher<Integer> dispatcher = overload(
+				BoundedDispatcher.<Integer> builder().overload(OverloadPolicy.DROP_NEWEST));
+		assertEquals(List.of(0, 1, 2), processed);
+		assertEquals(2, dispatcher.shed());
+		assertEquals(5, dispatcher.dispatched());
+	}
+
+	@Test
+	public void dropOldest() {
+		final BoundedDispatcher<Integer> dispatcher = overload(
+				BoundedDispatcher.<Integer> builder().overload(OverloadPolicy.DROP_OLDEST));
+		assertEquals(List.of(0, 3, 4), processed);
+		assertEquals(2, dispatcher.shed());
+	}
+
+	@Test
+	public void nullPolicy() {
+		assertThrows(NullPointerException.class, () -> BoundedDispatcher.<Integer> builder().overload(null));
+	}
+
+	@Test
+	public void callerRuns() {
+		final BoundedDispatcher<Integer> dispatcher = overload(
+				BoundedDispatcher.<Integer> builder().overload(OverloadPolicy.CALLER_RUNS));
+		assertEquals(List.of(3, 4), processed.subList(0, 2));
+		assertEquals(List.of(0, 1, 2), processed.subList(2, 5));
+		assertEquals(Thread.currentThread().getName(), callers.get(0));
+		assertEquals(2, dispatcher.callerRuns());
+	}
+
+	@Test
+	public void divert() {
+		final List<String> rejections = new ArrayList<>();
+		final BoundedDispatcher<Integer> dispatcher = overload(BoundedDispatcher.<Integer> builder()
+				.divert((command, error) -> command + " " + error, (EndLink<String>) rejections::add));
+		assertEquals(List.of(0, 1, 2), processed);
+		assertEquals(List.of("3 " + BoundedDispatcher.OVERLOADED, "4 " + BoundedDispatcher.OVERLOADED),
+				rejections);
+		assertEquals(2, dispatcher.diverted());
+		assertEquals(OverloadPolicy.DIVERT, dispatcher.policy());
+	}
+
+	@Test
+	public void block() throws InterruptedException {
+		final BoundedDispatcher<Integer> dispatcher = BoundedDispatcher.<Integer> builder().threads(1)
+				.queueCapacity(2).build(EndLink.of(this::process));
+		fill(dispatcher);
+		final Thread producer = new Thread(() -> dispatcher.accept(3));
+		producer.start();
+		while (producer.getState() != Thread.State.WAITING) {
+			Thread.onSpinWait();
+		}
+		assertEquals(2, dispatcher.depth());
+
+		release.countDown();
+		producer.join();
+		dispatcher.close();
+		assertEquals(List.of(0, 1, 2, 3), processed);
+		assertThrows(RejectedExecutionException.class, () -> dispatcher.accept(4));
+	}
+
+	@Test
+	public void closeProcessesAcceptedCommands() throws InterruptedException {
+		release.countDown();
+		for (int run = 0; run < 20; run++) {
+			processed.clear();
+			final BoundedDispatcher<Integer> dispatcher = BoundedDispatcher.<Integer> builder().threads(2)
+					.queueCapacity(4).overload(OverloadPolicy.DROP_OLDEST).build(EndLink.of(this::process));
+
+			final AtomicInteger accepted = new AtomicInteger();
+			final List<Thread> producers = new ArrayList<>();
+			for (int p = 0; p < 4; p++) {
+				producers.add(new Thread(() -> {
+					try {
+						for (int i = 1;; i++) {
+							dispatcher.accept(i);
+							accepted.incrementAndGet();
+						}
+					} catch (final RejectedExecutionException e) {
+						// Closed
+					}
+				}));
+			}
+			for (final Thread producer : producers) {
+				producer.start();
+			}
+			while (accepted.get() < 100) {
+				Thread.onSpinWait();
+			}
+			dispatcher.close();
+			for (final Thread producer : producers) {
+				producer.join();
+			}
+
+			assertTrue(accepted.get() >= 100);
+			assertEquals(accepted.get(), processed.size() + dispatcher.shed());
+		}
+	}
+
+	private BoundedDispatcher<Integer> overload(final BoundedDispatcher.Builder<Integer> builder) {
+		final BoundedDispatcher<Integer> dispatcher = builder.threads(1).queueCapacity(2)
+				.build(EndLink.of(this::process));
+		fill(dispatcher);
+		dispatcher.accept(3);
+		dispatcher.accept(4);
+		assertEquals(2, dispatcher.depth());
+		release.countDown();
+		dispatcher.close();
+		return dispatcher;
+	}
+
+	/**
+	 * Blocks the worker on a first command, and fills the queue.
+	 */
+	private void fill(final BoundedDispatcher<Integer> dispatcher) {
+		dispatcher.accept(0);
+		while (dispatcher.depth() > 0) {
+			Thread.onSpinWait();
+		}
+		dispatcher.accept(1);
+		dispatcher.accept(2);
+	}
+
+	private void process(final Integer command) {
+		if (command == 0) {
+			try {
+				release.await();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		callers.add(Thread.currentThread().getName());
+		processed.add(command);
+	}
+}
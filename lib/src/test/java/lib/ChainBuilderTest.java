@@ -0,0 +1,60 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.link.ChainBuilder;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+public class ChainBuilderTest {
+	private final List<String> processed = new ArrayList<>();
+
+	@Test
+	public void firstMatchOrder() {
+		final Link<Integer> chain = link("even", v -> v % 2 == 0).chain(link("three", v -> v % 3 == 0))
+				.chain(link("any", v -> true).chain(link("never", v -> true))).compile();
+
+		assertTrue(chain.process(6));
+		assertTrue(chain.process(3));
+		assertTrue(chain.process(1));
+		assertEquals(List.of("even", "three", "any"), processed);
+	}
+
+	@Test
+	public void endedChain() {
+		final EndLink<Integer> chain = link("even", v -> v % 2 == 0)
+				.chain(link("three", v -> v % 3 == 0).chain(EndLink.of(v -> processed.add("end")))).compile();
+
+		chain.process(4);
+		chain.process(9);
+		chain.process(5);
+		assertEquals(List.of("even", "three", "end"), processed);
+	}
+
+	@Test
+	public void deepChain() {
+		Link<Integer> chain = link("first", v -> v == 0);
+		for (int i = 1; i < 100_000; i++) {
+			final int key = i;
+			chain = chain.chain(link(Integer.toString(i), v -> v == key));
+		}
+
+		final Link<Integer> compiled = new ChainBuilder<Integer>().add(chain).add(link("last", v -> v < 0)).build();
+		assertTrue(compiled.process(99_999));
+		assertTrue(compiled.process(-1));
+		assertFalse(compiled.process(100_000));
+		assertEquals(List.of("99999", "last"), processed);
+	}
+
+	private Link<Integer> link(final String name, final Predicate<Integer> predicate) {
+		return Link.of(predicate, v -> processed.add(name));
+	}
+}
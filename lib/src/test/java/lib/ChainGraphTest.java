@@ -0,0 +1,237 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.graph.GraphNode;
+import com.helluys.patterns.chain.graph.NodeKind;
+import com.helluys.patterns.chain.graph.Optimization;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.EnumLink;
+import com.helluys.patterns.chain.link.KeyPredicate;
+import com.helluys.patterns.chain.link.Link;
+
+public class ChainGraphTest {
+
+	private enum Color {
+		RED, GREEN, BLUE
+	}
+
+	private final List<String> processed = new ArrayList<>();
+
+	private GraphNode<String> sink(final String name) {
+		return GraphNode.<String>terminal(command -> processed.add(name + ":" + command)).named(name);
+	}
+
+	@Test
+	public void fusesAdjacentMappers() {
+		final GraphNode<String> bang = GraphNode.map((String s) -> s + "!", sink("out")).named("bang");
+		final GraphNode<String> upper = GraphNode.<String, String>map(String::toUpperCase, bang).named("upper");
+		final GraphNode<String> graph = GraphNode.map(String::trim, upper).named("trim");
+
+		final Optimization<String> optimization = graph.optimize();
+		final GraphNode<String> optimized = optimization.after();
+
+		assertEquals(NodeKind.MAP, optimized.kind());
+		assertEquals(NodeKind.TERMINAL, optimized.children().get(0).kind());
+		assertEquals("trim | upper | bang", optimized.name());
+		assertEquals(2, optimization.rewrites().size());
+
+		optimized.toHandler().handle(" a ");
+		optimized.toEndLink().accept(" b ");
+		assertEquals(List.of("out:A!", "out:B!"), processed);
+	}
+
+	@Test
+	public void collapsesEqualBranches() {
+		final GraphNode<String> out = sink("out");
+		final GraphNode<String> graph = GraphNode.condition(String::isEmpty, out, GraphNode.map(Function.identity(), out))
+				.named("empty");
+
+		// The map branches differ from the terminal: only equal subgraphs collapse
+		assertEquals(NodeKind.CONDITION, graph.optimize().after().kind());
+
+		final GraphNode<String> same = GraphNode.condition(String::isEmpty, out, sink("out").named("other"));
+		assertEquals(NodeKind.CONDITION, same.optimize().after().kind());
+
+		final GraphNode<String> collapsed = GraphNode.condition(String::isEmpty, out, out);
+		assertSame(out, collapsed.optimize().after());
+
+		final EnumMap<Color, GraphNode<String>> branches = new EnumMap<>(Color.class);
+		branches.put(Color.RED, out);
+		branches.put(Color.GREEN, out);
+		final Function<String, Color> color = s -> Color.values()[s.length() % 3];
+		assertEquals(NodeKind.FAN, GraphNode.fan(color, branches).optimize().after().kind());
+		assertSame(out, GraphNode.fan(color, branches, out).optimize().after());
+	}
+
+	@Test
+	public void hoistsKeyConditionsIntoKeyedNode() {
+		final Function<String, Character> first = s -> s.charAt(0);
+		final GraphNode<String> graph = GraphNode.condition(KeyPredicate.in(first, Set.of('a')), sink("a"),
+				GraphNode.condition(KeyPredicate.in(first, Set.of('b', 'c')), sink("bc"),
+						GraphNode.condition(KeyPredicate.in(first, Set.of('d')), sink("d"), sink("other"))))
+				.named("first");
+
+		final Optimization<String> optimization = graph.optimize();
+		final GraphNode<String> optimized = optimization.after();
+
+		assertEquals(NodeKind.KEYED, optimized.kind());
+		assertEquals(4, optimized.children().size());
+		assertEquals(2, optimization.rewrites().size());
+
+		for (final GraphNode<String> node : List.of(graph, optimized)) {
+			node.toHandler().handle("apple");
+			node.toEndLink().accept("cherry");
+			node.toHandler().handle("date");
+			node.toEndLink().accept("fig");
+		}
+		assertEquals(List.of("a:apple", "bc:cherry", "d:date", "other:fig", "a:apple", "bc:cherry", "d:date",
+				"other:fig"), processed);
+	}
+
+	@Test
+	public void dropsUnreachableBranches() {
+		final Function<String, Character> first = s -> s.charAt(0);
+		final GraphNode<String> a = sink("a");
+		final GraphNode<String> graph = GraphNode.keyed(first, Map.of('a', GraphNode
+				.condition(KeyPredicate.in(first, Set.of('a', 'b')), a, sink("never")).named("a or b")), sink("other"));
+
+		final GraphNode<String> optimized = graph.optimize().after();
+		assertEquals(NodeKind.KEYED, optimized.kind());
+		assertSame(a, optimized.children().get(0));
+
+		final GraphNode<String> keys = GraphNode.condition(KeyPredicate.in(first, Set.of('a')), a,
+				GraphNode.keyed(first, Map.of('a', sink("never"), 'b', sink("b")), sink("other")));
+		final GraphNode<String> merged = keys.optimize().after();
+		assertEquals(NodeKind.KEYED, merged.kind());
+		assertEquals(3, merged.children().size());
+
+		merged.toHandler().handle("ant");
+		merged.toHandler().handle("bee");
+		merged.toHandler().handle("cat");
+		assertEquals(List.of("a:ant", "b:bee", "other:cat"), processed);
+	}
+
+	@Test
+	public void keepsSharedNodesShared() {
+		final GraphNode<String> shared = GraphNode.map(String::trim, GraphNode.<String, String>map(String::toUpperCase, sink("out")));
+		final GraphNode<String> graph = GraphNode.condition(String::isEmpty, shared,
+				GraphNode.condition(String::isBlank, shared, sink("blank")));
+
+		final GraphNode<String> optimized = graph.optimize().after();
+		final GraphNode<?> fused = optimized.children().get(0);
+		assertEquals(NodeKind.MAP, fused.kind());
+		assertSame(fused, optimized.children().get(1).children().get(0));
+		assertTrue(optimized.dump().contains("-> #2"));
+	}
+
+	@Test
+	public void dumpsGraph() {
+		final GraphNode<String> out = sink("out");
+		final GraphNode<String> graph = GraphNode.condition(String::isEmpty, out, GraphNode.map(String::trim, out))
+				.named("empty");
+
+		final String nl = System.lineSeparator();
+		assertEquals("#1 condition empty" + nl
+				+ "  true: #2 terminal out" + nl
+				+ "  false: #3 map" + nl
+				+ "    next: -> #2" + nl, graph.dump());
+	}
+
+	@Test
+	public void fanWithoutDefaultRejectsUnmappedValues() {
+		final EnumMap<Color, GraphNode<String>> branches = new EnumMap<>(Color.class);
+		branches.put(Color.RED, sink("red"));
+		final GraphNode<String> graph = GraphNode.fan(s -> Color.values()[s.length() % 3], branches);
+
+		graph.toHandler().handle("abc");
+		assertEquals(List.of("red:abc"), processed);
+		assertThrows(RuntimeException.class, () -> graph.toHandler().handle("a"));
+		assertThrows(RuntimeException.class, () -> graph.toEndLink().accept("a"));
+	}
+
+	@Test
+	public void liftsAndFusesHandlerMappers() {
+		final Handler<String> out = Handler.terminal(command -> processed.add("out:" + command));
+		final Handler<String> handler = Handler.map(String::trim, Handler.map(String::toUpperCase, out));
+
+		final Optimization<String> optimization = GraphNode.of(handler).optimize();
+		assertEquals(NodeKind.MAP, optimization.before().children().get(0).kind());
+		assertEquals(NodeKind.MAP, optimization.after().kind());
+		assertEquals(NodeKind.TERMINAL, optimization.after().children().get(0).kind());
+		assertEquals(1, optimization.rewrites().size());
+
+		optimization.after().toHandler().handle(" a ");
+		assertEquals(List.of("out:A"), processed);
+	}
+
+	@Test
+	public void liftsAndCollapsesIdenticalHandlerBranches() {
+		final Handler<String> out = Handler.terminal(command -> processed.add("out:" + command));
+		assertEquals(GraphNode.of(out),
+				GraphNode.of(Handler.condition(String::isEmpty, out, out)).optimize().after());
+
+		final Consumer<String> log = processed::add;
+		final GraphNode<String> equalBranches = GraphNode
+				.of(Handler.condition(String::isEmpty, Handler.terminal(log), Handler.terminal(log)));
+		assertEquals(NodeKind.TERMINAL, equalBranches.optimize().after().kind());
+	}
+
+	@Test
+	public void liftsEndedChains() {
+		final Function<String, Character> first = s -> s.charAt(0);
+		final EndLink<String> out = command -> processed.add("out:" + command);
+		final Function<String, String> trim = String::trim;
+		final Function<String, String> upper = String::toUpperCase;
+		final EndLink<String> upperOut = Link.of(upper, out);
+		final EndLink<String> mapped = Link.of(trim, upperOut);
+		final Link<String> opaque = command -> command.startsWith("x") && processed.add("opaque:" + command);
+		final EndLink<String> chain = Link.of(KeyPredicate.in(first, Set.of('a')), command -> processed.add("a"))
+				.chain(opaque).chain(Link.of(KeyPredicate.in(first, Set.of('b')), command -> processed.add("b")))
+				.chain(mapped);
+
+		final Optimization<String> optimization = GraphNode.of(chain).optimize();
+		assertTrue(optimization.toString(), optimization.before().dump().contains("condition link"));
+		// The opaque link splits the key conditions, which cannot be merged over it
+		assertEquals(NodeKind.CONDITION, optimization.after().kind());
+		assertTrue(optimization.rewrites().stream().anyMatch(rewrite -> rewrite.contains("fuse")));
+
+		final EndLink<String> optimized = optimization.after().toEndLink();
+		for (final String command : new String[] { "a1", "x1", "b1", " c1 " }) {
+			optimized.accept(command);
+		}
+		assertEquals(List.of("a", "opaque:x1", "b", "out:C1"), processed);
+	}
+
+	@Test
+	public void liftsEnumLinks() {
+		final EndLink<String> red = command -> processed.add("red:" + command);
+		final EndLink<String> other = command -> processed.add("other:" + command);
+		final EndLink<String> chain = new EnumLink<String, Color>(
+				s -> s.isEmpty() ? null : Color.values()[s.length() % 3]).with(Color.RED, red).otherwise(other);
+
+		final GraphNode<String> graph = GraphNode.of(chain);
+		assertEquals(NodeKind.FAN, graph.kind());
+		assertNotEquals(graph, GraphNode.of(other));
+
+		graph.toHandler().handle("abc");
+		graph.toHandler().handle("");
+		graph.toEndLink().accept("a");
+		assertEquals(List.of("red:abc", "other:", "other:a"), processed);
+	}
+}
@@ -0,0 +1,82 @@
+package lib;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.helluys.patterns.example.chain.link.ChainReplayer;
+
+public class ChainReplayerTest {
+	private Path file;
+
+	@Before
+	public void createFile() throws IOException {
+		file = Files.createTempFile("replay", ".tsv");
+	}
+
+	@Test
+	public void serialKeepsOrder() throws IOException {
+		final StringBuilder content = new StringBuilder();
+		final List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			final String payload = "[A]payload " + i + " \u00e9".repeat(i % 50);
+			content.append("text").append('\t').append(payload).append(i % 3 == 0 ? "\r\n" : "\n");
+			expected.add("text|" + payload);
+		}
+		content.append("\nmalformed line\njson\tlast");
+		expected.add("json|last");
+		Files.write(file, content.toString().getBytes(UTF_8));
+
+		final List<String> processed = new ArrayList<>();
+		final ChainReplayer.Report report = ChainReplayer.builder().threads(1).segmentSize(100)
+				.build((source, payload) -> processed.add(source + "|" + payload)).replay(file);
+
+		assertEquals(expected, processed);
+		assertEquals(1001, report.records());
+		assertEquals(1, report.errors());
+		final int offset = content.substring(0, content.indexOf("malformed")).getBytes(UTF_8).length;
+		assertEquals(List.of("at " + offset + ": Missing tab"), report.errorSamples());
+	}
+
+	@Test
+	public void parallel() throws IOException {
+		final StringBuilder content = new StringBuilder();
+		final List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			content.append("source").append(i % 7).append('\t').append(i).append('\n');
+			expected.add("source" + (i % 7) + "|" + i);
+		}
+		Files.write(file, content.toString().getBytes(UTF_8));
+
+		final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+		final ChainReplayer.Report report = ChainReplayer.builder().threads(4).segmentSize(1000)
+				.build((source, payload) -> {
+					if ("13".equals(payload)) {
+						throw new IllegalStateException("failed");
+					}
+					processed.add(source + "|" + payload);
+				}).replay(file);
+
+		expected.remove("source6|13");
+		Collections.sort(expected);
+		Collections.sort(processed);
+		assertEquals(expected, processed);
+		assertEquals(9999, report.records());
+		assertEquals(1, report.errors());
+	}
+
+	@After
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+}
@@ -0,0 +1,138 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.ChainSpecializer;
+import com.helluys.patterns.chain.Specializable;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.EnumLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
+
+public class ChainSpecializerTest {
+	private enum Parity {
+		EVEN, ODD
+	}
+
+	private final List<String> processed = new ArrayList<>();
+
+	@Test
+	public void endLink() {
+		final Predicate<Integer> negative = v -> v < 0;
+		final EndLink<Integer> chain = Link.of(negative, v -> processed.add("negative " + v))
+				.chain(Link.of(v -> v > 100 ? Either.<String, Integer> ofLeft("big") : Either.ofRight(v),
+						Link.<String> of(s -> true, s -> processed.add(s)),
+						new EnumLink<Integer, Parity>(v -> v % 3 == 0 ? null : v % 2 == 0 ? Parity.EVEN : Parity.ODD)
+								.with(Parity.EVEN, EndLink.of(v -> processed.add("even " + v)))))
+				.chain(EndLink.of(v -> processed.add("other " + v)));
+
+		final EndLink<Integer> specialized = ChainSpecializer.specialize(chain);
+		for (final int command : new int[] { -1, 101, 2, 3, 5 }) {
+			chain.process(command);
+			specialized.process(command);
+		}
+
+		assertEquals(List.of("negative -1", "negative -1", "big", "big", "even 2", "even 2", "other 3", "other 3",
+				"other 5", "other 5"), processed);
+	}
+
+	@Test
+	public void longChain() {
+		Link<Integer> chain = Link.of((Predicate<Integer>) v -> v == 0, v -> processed.add("0"));
+		for (int i = 1; i < 1000; i++) {
+			final int key = i;
+			chain = chain.chain(Link.of((Predicate<Integer>) v -> v == key, v -> processed.add(Integer.toString(key))));
+		}
+
+		final EndLink<Integer> specialized = ChainSpecializer
+				.specialize(chain.chain(EndLink.of(v -> processed.add("end"))));
+		specialized.process(3);
+		specialized.process(999);
+		specialized.process(1000);
+
+		assertEquals(List.of("3", "999", "end"), processed);
+	}
+
+	@Test
+	public void handler() {
+		final EnumMap<Parity, Handler<Integer>> parities = new EnumMap<>(Parity.class);
+		parities.put(Parity.EVEN, Handler.terminal(v -> processed.add("even " + v)));
+		parities.put(Parity.ODD, Handler.terminal(v -> processed.add("odd " + v)));
+
+		final Handler<Integer> handler = Handler.condition(v -> v < 0, Handler.terminal(v -> processed.add("negative")),
+				Handler.map(v -> v > 100 ? Either.<Integer, Integer> ofLeft(v) : Either.ofRight(v + 1),
+						Handler.either(Handler.terminal(v -> processed.add("big " + v)),
+								Handler.fan(v -> v % 2 == 0 ? Parity.EVEN : Parity.ODD, parities))));
+
+		final Handler<Integer> specialized = ChainSpecializer.specialize(handler);
+		for (final int command : new int[] { -1, 101, 2, 3 }) {
+			handler.handle(command);
+			specialized.handle(command);
+		}
+
+		assertEquals(List.of("negative", "negative", "big 101", "big 101", "odd 3", "odd 3", "even 4", "even 4"),
+				processed);
+	}
+
+	@Test
+	public void split() {
+		final Splitter<Integer, String, Integer> splitter = (v, left, right) -> v < 0 ? left.test("negative " + v)
+				: right.test(v);
+		final Probe probe = new Probe();
+		final Link<Integer> link = Link.split(splitter, probe, Link.of((Predicate<Integer>) v -> v > 10,
+				v -> processed.add("big " + v)));
+		final EndLink<Integer> endLink = Link.split(splitter, EndLink.of(processed::add),
+				EndLink.of(v -> processed.add("positive " + v)));
+		final Handler<Integer> handler = Handler.split(splitter, Handler.terminal(processed::add),
+				Handler.terminal(v -> processed.add("handled " + v)));
+
+		final EndLink<Integer> specializedLink = ChainSpecializer.specialize(link.chain(EndLink.of(v -> {
+		})));
+		final EndLink<Integer> specializedEndLink = ChainSpecializer.specialize(endLink);
+		final Handler<Integer> specializedHandler = ChainSpecializer.specialize(handler);
+		assertEquals(1, probe.described);
+
+		specializedLink.process(-1);
+		specializedLink.process(5);
+		specializedLink.process(11);
+		specializedEndLink.process(-2);
+		specializedEndLink.process(2);
+		specializedHandler.handle(-3);
+		specializedHandler.handle(3);
+		assertTrue(link.process(-4));
+		assertFalse(link.process(4));
+
+		assertEquals(List.of("probed negative -1", "big 11", "negative -2", "positive 2", "negative -3", "handled 3",
+				"probed negative -4"), processed);
+	}
+
+	/**
+	 * A link recording the commands it consumes, and whether it was described.
+	 */
+	private final class Probe implements Link<String>, Specializable {
+		private int described;
+
+		@Override
+		public boolean process(final String command) {
+			return processed.add("probed " + command);
+		}
+
+		@Override
+		public MethodHandle specialize(final ChainSpecializer specializer) {
+			described++;
+			return ChainSpecializer.test((Predicate<String>) this::process);
+		}
+	}
+}
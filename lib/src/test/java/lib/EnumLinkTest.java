@@ -0,0 +1,71 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.EnumLink;
+import com.helluys.patterns.chain.link.Link;
+
+public class EnumLinkTest {
+	private enum Digit {
+		ZERO, ONE, TWO, THREE
+	}
+
+	private final List<String> processed = new ArrayList<>();
+
+	@Test
+	public void build() {
+		final EnumLink<Integer, Digit> enumLink = new EnumLink<Integer, Digit>(i -> i < 0 ? null : Digit.values()[i])
+				.with(Digit.ONE, EndLink.of(i -> processed.add("one")))
+				.with(Digit.TWO, EndLink.of(i -> processed.add("two")));
+		final Link<Integer> link = enumLink.build();
+		enumLink.with(Digit.THREE, EndLink.of(i -> processed.add("three")));
+
+		assertTrue(link.process(1));
+		assertTrue(link.process(2));
+		assertFalse(link.process(0));
+		assertFalse(link.process(3));
+		assertFalse(link.process(-1));
+		assertTrue(enumLink.process(3));
+		assertEquals(List.of("one", "two", "three"), processed);
+	}
+
+	@Test
+	public void otherwise() {
+		final EndLink<Integer> link = new EnumLink<Integer, Digit>(i -> Digit.values()[i])
+				.with(Digit.ZERO, EndLink.of(i -> processed.add("zero")))
+				.otherwise(EndLink.of(i -> processed.add("other")));
+
+		link.process(0);
+		link.process(3);
+		assertEquals(List.of("zero", "other"), processed);
+	}
+
+	@Test
+	public void batchFrozenOnceUntilNextWith() {
+		final EnumLink<Integer, Digit> enumLink = new EnumLink<Integer, Digit>(i -> Digit.values()[i])
+				.with(Digit.ONE, EndLink.of(i -> processed.add("one")));
+		assertSame(enumLink.build(), enumLink.build());
+		assertEquals(1, enumLink.processBatch(List.of(0, 1)).cardinality());
+
+		final Link<Integer> before = enumLink.build();
+		enumLink.with(Digit.TWO, EndLink.of(i -> processed.add("two")));
+		assertNotSame(before, enumLink.build());
+		assertEquals(2, enumLink.processBatch(List.of(1, 2)).cardinality());
+		assertEquals(List.of("one", "one", "two"), processed);
+	}
+
+	@Test
+	public void empty() {
+		assertFalse(new EnumLink<Integer, Digit>(i -> Digit.ZERO).build().process(0));
+	}
+}
@@ -0,0 +1,229 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.helluys.patterns.chain.flow.EitherProcessor;
+import com.helluys.patterns.chain.flow.LinkSubscriber;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.common.Either;
+
+public class FlowTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static <T> EndLink<T> into(final List<T> list) {
+		return list::add;
+	}
+
+	/**
+	 * A subscription recording the requested and cancelled counts.
+	 */
+	private static final class RecordingSubscription implements Flow.Subscription {
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicBoolean cancelled = new AtomicBoolean();
+
+		@Override
+		public void request(final long n) {
+			requested.addAndGet(n);
+		}
+
+		@Override
+		public void cancel() {
+			cancelled.set(true);
+		}
+	}
+
+	@Test
+	public void subscriberProcessesInOrder() {
+		final LinkSubscriber<Integer> subscriber = LinkSubscriber.<Integer>builder().batchSize(4).executor(executor)
+				.build(into(processed));
+		try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(executor, 8)) {
+			publisher.subscribe(subscriber);
+			IntStream.range(0, 100).forEach(publisher::submit);
+		}
+
+		subscriber.completion().toCompletableFuture().join();
+		assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), processed);
+	}
+
+	@Test
+	public void slowTerminalThrottlesPublisher() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final Handler<Integer> slow = command -> {
+			try {
+				release.await();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			processed.add(command);
+		};
+		final LinkSubscriber<Integer> subscriber = LinkSubscriber.<Integer>builder().batchSize(8).executor(executor)
+				.build(slow);
+		final RecordingSubscription subscription = new RecordingSubscription();
+
+		subscriber.onSubscribe(subscription);
+		assertEquals(8, subscription.requested.get());
+		for (int i = 0; i < 8; i++) {
+			subscriber.onNext(i);
+		}
+		Thread.sleep(50);
+		assertEquals(8, subscription.requested.get());
+
+		release.countDown();
+		subscriber.onComplete();
+		subscriber.completion().toCompletableFuture().join();
+		assertEquals(16, subscription.requested.get());
+		assertEquals(8, processed.size());
+	}
+
+	@Test
+	public void processingFailureCancelsSubscription() {
+		final IllegalStateException failure = new IllegalStateException("failure");
+		final EndLink<Integer> failing = command -> {
+			if (command == 2) {
+				throw failure;
+			}
+			processed.add(command);
+		};
+		final LinkSubscriber<Integer> subscriber = LinkSubscriber.<Integer>builder().executor(Runnable::run)
+				.build(failing);
+		final RecordingSubscription subscription = new RecordingSubscription();
+
+		subscriber.onSubscribe(subscription);
+		for (int i = 0; i < 4; i++) {
+			subscriber.onNext(i);
+		}
+
+		assertTrue(subscription.cancelled.get());
+		assertEquals(List.of(0, 1), processed);
+		final CompletionException thrown = assertThrows(CompletionException.class,
+				() -> subscriber.completion().toCompletableFuture().join());
+		assertSame(failure, thrown.getCause());
+	}
+
+	@Test
+	public void processorPublishesBothSides() {
+		final EitherProcessor<Integer, String, Integer> processor = EitherProcessor
+				.of(i -> i % 3 == 0 ? Either.ofLeft("multiple of 3: " + i) : Either.ofRight(i), 4);
+		final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+		final LinkSubscriber<String> left = LinkSubscriber.<String>builder().executor(executor).build(into(errors));
+		final LinkSubscriber<Integer> right = LinkSubscriber.<Integer>builder().batchSize(2).executor(executor)
+				.build(into(processed));
+		processor.left().subscribe(left);
+		processor.subscribe(right);
+
+		try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(executor, 4)) {
+			publisher.subscribe(processor);
+			IntStream.range(0, 30).forEach(publisher::submit);
+		}
+
+		left.completion().toCompletableFuture().join();
+		right.completion().toCompletableFuture().join();
+		assertEquals(10, errors.size());
+		assertEquals("multiple of 3: 0", errors.get(0));
+		assertEquals(IntStream.range(0, 30).filter(i -> i % 3 != 0).boxed().collect(Collectors.toList()), processed);
+	}
+
+	@Test
+	public void unsubscribedSideThrottlesProcessor() {
+		final EitherProcessor<Integer, Integer, Integer> processor = EitherProcessor
+				.of(i -> i < 0 ? Either.ofLeft(i) : Either.ofRight(i), 4);
+		final RecordingSubscription subscription = new RecordingSubscription();
+		processor.subscribe(LinkSubscriber.<Integer>builder().executor(Runnable::run).build(into(processed)));
+
+		processor.onSubscribe(subscription);
+		assertEquals(4, subscription.requested.get());
+		for (int i = 1; i <= 4; i++) {
+			processor.onNext(-i);
+		}
+		assertEquals(4, subscription.requested.get());
+
+		final List<Integer> errors = new ArrayList<>();
+		processor.left().subscribe(LinkSubscriber.<Integer>builder().executor(Runnable::run).build(into(errors)));
+		assertEquals(List.of(-1, -2, -3, -4), errors);
+		assertEquals(8, subscription.requested.get());
+	}
+
+	@Test
+	public void processorSideAcceptsOneSubscriber() {
+		final EitherProcessor<Integer, Integer, Integer> processor = EitherProcessor.of(Either::ofRight);
+		processor.subscribe(LinkSubscriber.<Integer>builder().build(into(processed)));
+
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		processor.subscribe(new Flow.Subscriber<Integer>() {
+			@Override
+			public void onSubscribe(final Flow.Subscription subscription) {
+			}
+
+			@Override
+			public void onNext(final Integer item) {
+			}
+
+			@Override
+			public void onError(final Throwable throwable) {
+				error.set(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		assertTrue(error.get() instanceof IllegalStateException);
+	}
+
+	@Test
+	public void mapperFailureFailsBothSides() {
+		final IllegalArgumentException failure = new IllegalArgumentException("failure");
+		final EitherProcessor<Integer, Integer, Integer> processor = EitherProcessor.of(i -> {
+			if (i == 3) {
+				throw failure;
+			}
+			return Either.ofRight(i);
+		});
+		final LinkSubscriber<Integer> left = LinkSubscriber.<Integer>builder().executor(Runnable::run)
+				.build(into(processed));
+		final LinkSubscriber<Integer> right = LinkSubscriber.<Integer>builder().executor(Runnable::run)
+				.build(into(processed));
+		processor.left().subscribe(left);
+		processor.subscribe(right);
+		final RecordingSubscription subscription = new RecordingSubscription();
+
+		processor.onSubscribe(subscription);
+		for (int i = 0; i < 5; i++) {
+			processor.onNext(i);
+		}
+
+		assertTrue(subscription.cancelled.get());
+		assertEquals(List.of(0, 1, 2), processed);
+		assertTrue(left.completion().toCompletableFuture().isCompletedExceptionally());
+		assertTrue(right.completion().toCompletableFuture().isCompletedExceptionally());
+	}
+}
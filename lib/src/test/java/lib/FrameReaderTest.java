@@ -0,0 +1,92 @@
+package lib;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.io.FrameReader;
+
+public class FrameReaderTest {
+
+	@Test
+	public void partialReads() throws IOException {
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		final List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			final String frame = "frame " + i + " " + "x".repeat(i * 1000);
+			expected.add(frame);
+			stream.writeBytes(FrameReader.prefixed(ByteBuffer.wrap(frame.getBytes(UTF_8))).array());
+		}
+
+		final List<String> frames = new ArrayList<>();
+		final long count = new FrameReader(new TrickleChannel(stream.toByteArray(), 7), 1 << 20).readAll(frame -> {
+			final byte[] bytes = new byte[frame.remaining()];
+			frame.get(bytes);
+			frames.add(new String(bytes, UTF_8));
+		});
+
+		assertEquals(100, count);
+		assertEquals(expected, frames);
+	}
+
+	@Test
+	public void frameTooLong() {
+		final byte[] frame = FrameReader.prefixed(ByteBuffer.allocate(11)).array();
+		assertThrows(IOException.class,
+				() -> new FrameReader(new TrickleChannel(frame, frame.length), 10).readAll(f -> {
+				}));
+	}
+
+	@Test
+	public void truncatedFrame() {
+		final byte[] frame = FrameReader.prefixed(ByteBuffer.allocate(10)).array();
+		final byte[] truncated = new byte[frame.length - 1];
+		System.arraycopy(frame, 0, truncated, 0, truncated.length);
+		assertThrows(EOFException.class,
+				() -> new FrameReader(new TrickleChannel(truncated, 3), 10).readAll(f -> {
+				}));
+	}
+
+	/**
+	 * A channel reading at most a given number of bytes at a time.
+	 */
+	private static final class TrickleChannel implements ReadableByteChannel {
+		private final ByteBuffer bytes;
+		private final int chunk;
+
+		private TrickleChannel(final byte[] bytes, final int chunk) {
+			this.bytes = ByteBuffer.wrap(bytes);
+			this.chunk = chunk;
+		}
+
+		@Override
+		public int read(final ByteBuffer destination) {
+			if (!bytes.hasRemaining()) {
+				return -1;
+			}
+			final int length = Math.min(chunk, Math.min(bytes.remaining(), destination.remaining()));
+			destination.put(bytes.slice(bytes.position(), length));
+			bytes.position(bytes.position() + length);
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
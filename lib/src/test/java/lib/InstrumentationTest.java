@@ -0,0 +1,122 @@
+package lib;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import javax.management.MBeanServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.chain.metrics.Instrumentation;
+import com.helluys.patterns.chain.metrics.LatencyHistogram;
+import com.helluys.patterns.chain.metrics.LinkMetrics;
+import com.helluys.patterns.example.chain.handlers.CommandHandler;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+public class InstrumentationTest {
+	private final PrintStream originalOut = System.out;
+	private Instrumentation instrumentation;
+
+	@Before
+	public void setUp() {
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		instrumentation = Instrumentation.enabled(getClass().getSimpleName());
+	}
+
+	@Test
+	public void disabledReturnsNodes() {
+		final Link<String> link = Link.of((Predicate<String>) String::isEmpty, s -> {
+		});
+		assertSame(link, Instrumentation.disabled().link("link", link));
+	}
+
+	@Test
+	public void counts() throws Exception {
+		final Link<String> link = instrumentation.link("link", Link.of((Predicate<String>) String::isEmpty, s -> {
+		}));
+		final EndLink<String> failing = instrumentation.endLink("failing", s -> {
+			throw new IllegalArgumentException(s);
+		});
+
+		link.process("");
+		link.process("a");
+		link.process("b");
+		assertThrows(IllegalArgumentException.class, () -> failing.accept("c"));
+
+		final LinkMetrics metrics = instrumentation.metrics().get("link");
+		assertEquals(1, metrics.getHits());
+		assertEquals(2, metrics.getMisses());
+		assertEquals(3, metrics.latency().count());
+		assertEquals(1, instrumentation.metrics().get("failing").getExceptions());
+
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertEquals(2L, server.getAttribute(instrumentation.objectName("link"), "Misses"));
+		assertTrue((Long) server.getAttribute(instrumentation.objectName("link"), "P999Nanos") > 0);
+	}
+
+	@Test
+	public void quantiles() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 10000; i++) {
+			histogram.record(i);
+		}
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(10001, histogram.count());
+		assertWithin(5000, histogram.quantile(0.5));
+		assertWithin(9900, histogram.quantile(0.99));
+		assertWithin(9990, histogram.quantile(0.999));
+		assertEquals(Long.MAX_VALUE, histogram.quantile(1));
+		assertEquals(0, new LatencyHistogram().quantile(0.5));
+	}
+
+	@Test
+	public void wholeGraphs() {
+		final CommandChain chain = new CommandChain(Stream.of("text").collect(toSet()),
+				Stream.of("json").collect(toSet()), instrumentation);
+		chain.process("text", "[A]payload");
+		chain.process("text", "(A)payload");
+		chain.process("json", "{\"name\":\"D\",\"text\":\"payload\"}");
+		chain.process("other", "[A]payload");
+
+		assertEquals(4, instrumentation.metrics().get("chain").getHits());
+		assertEquals(2, instrumentation.metrics().get("text").getHits());
+		assertEquals(1, instrumentation.metrics().get("erroneous").getHits());
+		assertEquals(1, instrumentation.metrics().get("A").getHits());
+		assertEquals(1, instrumentation.metrics().get("unknown name").getHits());
+		assertEquals(1, instrumentation.metrics().get("unknown source").getHits());
+
+		try (Instrumentation handlerInstrumentation = Instrumentation.enabled("handler")) {
+			final CommandHandler handler = new CommandHandler(handlerInstrumentation);
+			handler.handle("text1", "[A]payload");
+			handler.handle("json1", "{\"name\":\"B\",\"text\":\"payload\"}");
+			assertEquals(2, handlerInstrumentation.metrics().get("handler").getHits());
+			assertEquals(2, handlerInstrumentation.metrics().get("dispatch").getHits());
+			assertEquals(1, handlerInstrumentation.metrics().get("B").getHits());
+		}
+	}
+
+	private static void assertWithin(final long expected, final long actual) {
+		assertTrue(actual + " within 12.5% of " + expected,
+				actual >= expected && actual <= expected + expected / LatencyHistogram.SUB_BUCKETS);
+	}
+
+	@After
+	public void tearDown() {
+		instrumentation.close();
+		System.setOut(originalOut);
+	}
+}
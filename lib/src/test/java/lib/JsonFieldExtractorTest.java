@@ -0,0 +1,50 @@
+package lib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import com.helluys.patterns.example.chain.processors.JsonFieldExtractor;
+
+public class JsonFieldExtractorTest {
+	private final JsonFieldExtractor extractor = new JsonFieldExtractor("name", "text");
+
+	@Test
+	public void sameAsOrgJson() {
+		final List<String> payloads = List.of("{\"name\":\"A\",\"text\":\"payload\"}",
+				" { \"text\" : \"payload\" ; \"name\" : \"A\" } ",
+				"{\"other\":{\"a\":[1,2,{\"b\":null}],\"c\":\"}\"},\"name\":\"A\",\"text\":\"p\"}",
+				"{'name':'A','text':'it\\'s \\u0041 \\\"quote\\\"\\n'}", "{name:A,text:some text}",
+				"{\"list\":[1,,2,],\"name\":\"B\",\"text\":\"x\"}", "{\"name\":\"A\"}", "{\"text\":\"x\"}",
+				"{\"name\":1,\"text\":\"x\"}", "{\"name\":\"A\",\"text\":null}", "{\"name\":true,\"text\":[\"x\"]}",
+				"{\"name\":-0.5e3,\"text\":\"x\"}", "{\"name\":-12ab,\"text\":\"x\"}", "(\"name\":\"A\")", "",
+				"{\"name\":\"A", "{\"name\"\"A\"}", "{\"other\":1 \"name\":\"A\"}", "{\"name\":\"A\",\"name\":\"B\"}",
+				"{\r\n\"other\":\n[1 2]}", "{\"other\":\"\\x\"}", "{\"other\":\"\\u12\"}", "{\"other\":\"\\u12zz\"}",
+				"{\"other\":}", "{\"other\":1", "{\"a\":{\"b\":1 \"c\":2}}", "{}");
+		for (final String payload : payloads) {
+			final String[] values = new String[2];
+			final String error = extractor.extract(payload, values);
+			try {
+				final JSONObject json = new JSONObject(payload);
+				final String[] expected = { json.getString("name"), json.getString("text") };
+				assertNull(payload, error);
+				assertArrayEquals(payload, expected, values);
+			} catch (final JSONException e) {
+				assertEquals(payload, e.getMessage(), error);
+			}
+		}
+	}
+
+	@Test
+	public void earlyStop() {
+		final String[] values = new String[2];
+		assertNull(extractor.extract("{\"name\":\"A\",\"text\":\"payload\" this is not JSON", values));
+		assertArrayEquals(new String[] { "A", "payload" }, values);
+	}
+}
@@ -0,0 +1,76 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.link.ChainBuilder;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.KeyPredicate;
+import com.helluys.patterns.chain.link.KeyedLink;
+import com.helluys.patterns.chain.link.Link;
+
+public class KeyedLinkTest {
+	private final List<String> processed = new ArrayList<>();
+
+	@Test
+	public void keyedLink() {
+		final KeyedLink<String, Character> link = new KeyedLink<String, Character>(s -> s.isEmpty() ? null : s.charAt(0))
+				.with('a', EndLink.of(s -> processed.add("a " + s)))
+				.withAll(Set.of('b', 'c'), EndLink.of(s -> processed.add("bc " + s)))
+				.build();
+
+		assertTrue(link.process("abc"));
+		assertTrue(link.process("cab"));
+		assertFalse(link.process("dab"));
+		assertFalse(link.process(""));
+		assertEquals(List.of("a abc", "bc cab"), processed);
+	}
+
+	@Test
+	public void mergeKeyed() {
+		final Function<String, Character> first = s -> s.charAt(0);
+		final Predicate<String> bang = s -> s.endsWith("!");
+		final EndLink<String> chain = new ChainBuilder<String>()
+				.add(link(first, Set.of('a', 'b'), "ab"))
+				.add(link(first, Set.of('b', 'c'), "bc"))
+				.add(Link.of(bang, s -> processed.add("bang")))
+				.add(link(first, Set.of('d'), "d"))
+				.add(link(first, Set.of('e'), "e"))
+				.mergeKeyed()
+				.end(EndLink.of(s -> processed.add("other")));
+
+		for (final String command : new String[] { "a", "b", "c", "d!", "e", "f" }) {
+			chain.process(command);
+		}
+		assertEquals(List.of("ab", "ab", "bc", "bang", "e", "other"), processed);
+	}
+
+	@Test
+	public void keyPredicate() {
+		final Set<Character> keys = new HashSet<>(Set.of('a'));
+		final KeyPredicate<String, Character> predicate = KeyPredicate.in(s -> s.isEmpty() ? null : s.charAt(0),
+				keys);
+		keys.add('b');
+
+		assertTrue(predicate.test("abc"));
+		assertFalse(predicate.test("bca"));
+		assertFalse(predicate.test(""));
+		assertFalse(KeyPredicate.in((String s) -> s, Set.of("a")).test(null));
+		assertEquals(Set.of('a'), predicate.keys());
+	}
+
+	private Link<String> link(final Function<String, Character> extractor, final Set<Character> keys,
+			final String name) {
+		return Link.of(KeyPredicate.in(extractor, keys), s -> processed.add(name));
+	}
+}
@@ -1,16 +1,26 @@
 package lib;
 
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.helluys.patterns.chain.io.AsyncLogSink;
+import com.helluys.patterns.chain.io.FrameReader;
+import com.helluys.patterns.example.chain.command.ByteCommand;
+import com.helluys.patterns.example.chain.command.Command;
 import com.helluys.patterns.example.chain.link.CommandChain;
 
 public class LinkProcessorTest {
@@ -105,6 +115,70 @@ public class LinkProcessorTest {
 		assertEquals("C : 'payload'" + System.lineSeparator(), outContent.toString());
 	}
 
+	@Test
+	public void batch() {
+		new CommandChain(Stream.of("text").collect(toSet()), Stream.of("json").collect(toSet())).processBatch(List.of(
+				Command.of("text", "[A]payload"), Command.of("json", "{\"name\":\"B\",\"text\":\"payload\"}"),
+				Command.of("source", "[A]payload"), Command.of("text", "(A)payload"),
+				Command.of("text", "[D]payload"), Command.of("json", "{\"name\":\"A\",\"text\":\"other\"}")));
+		assertEquals(
+				Stream.of("A : 'payload'", "B : 'payload'", "unknown command source : 'source'",
+						"erroneous command : 'Invalid text text'", "unknown command name : 'D'", "A : 'other'")
+						.sorted().collect(toList()),
+				Stream.of(outContent.toString().split(System.lineSeparator())).sorted().collect(toList()));
+	}
+
+	@Test
+	public void pooled() {
+		final CommandChain chain = CommandChain.pooled(Stream.of("text").collect(toSet()),
+				Stream.of("json").collect(toSet()));
+		chain.process("text", "[A]payload");
+		chain.process("json", "{\"name\":\"B\",\"text\":\"other\"}");
+		chain.process("text", "(A)payload");
+		chain.processBatch(List.of(Command.of("text", "[C]first"), Command.of("text", "[D]second")));
+		assertEquals(
+				Stream.of("A : 'payload'", "B : 'other'", "erroneous command : 'Invalid text text'", "C : 'first'",
+						"unknown command name : 'D'", "").collect(joining(System.lineSeparator())),
+				outContent.toString());
+	}
+
+	@Test
+	public void asyncLogSink() throws IOException {
+		final ByteArrayOutputStream logs = new ByteArrayOutputStream();
+		final AsyncLogSink sink = AsyncLogSink.builder().build(logs);
+		final CommandChain chain = new CommandChain(Stream.of("text").collect(toSet()),
+				Stream.of("json").collect(toSet()), sink);
+		chain.process("text", "[A]payload");
+		chain.process("json", "{\"name\":\"B\",\"text\":\"other\"}");
+		chain.process("source", "[A]payload");
+		chain.process("text", "(A)payload");
+		chain.process("text", "[D]payload");
+		sink.close();
+		assertEquals(Stream.of("A : 'payload'", "B : 'other'", "unknown command source : 'source'",
+				"erroneous command : 'Invalid text text'", "unknown command name : 'D'", "")
+				.collect(joining(System.lineSeparator())), logs.toString());
+		assertEquals("", outContent.toString());
+	}
+
+	@Test
+	public void ingest() throws IOException {
+		final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+		Stream.of(Command.of("text", "[A]payload"), Command.of("json", "{\"name\":\"B\",\"text\":\"other\"}"),
+				Command.of("source", "[A]payload"), Command.of("text", "(A)payload"))
+				.map(command -> FrameReader.prefixed(ByteCommand.frame(command.source(), command.payload())))
+				.forEach(frame -> frames.writeBytes(frame.array()));
+
+		for (final CommandChain chain : List.of(
+				new CommandChain(Stream.of("text").collect(toSet()), Stream.of("json").collect(toSet())),
+				CommandChain.pooled(Stream.of("text").collect(toSet()), Stream.of("json").collect(toSet())))) {
+			outContent.reset();
+			assertEquals(4, chain.ingest(Channels.newChannel(new ByteArrayInputStream(frames.toByteArray()))));
+			assertEquals(Stream.of("A : 'payload'", "B : 'other'", "unknown command source : 'source'",
+					"erroneous command : 'Invalid text text'", "").collect(joining(System.lineSeparator())),
+					outContent.toString());
+		}
+	}
+
 	@After
 	public void restoreStreams() {
 		System.setOut(originalOut);
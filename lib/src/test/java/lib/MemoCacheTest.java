@@ -0,0 +1,176 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.cache.CacheSpec;
+import com.helluys.patterns.chain.cache.Eviction;
+import com.helluys.patterns.chain.cache.MemoCache;
+import com.helluys.patterns.chain.cache.Weigher;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+import com.helluys.patterns.example.chain.command.Command;
+import com.helluys.patterns.example.chain.command.CommandKey;
+import com.helluys.patterns.example.chain.command.ErroneousCommand;
+import com.helluys.patterns.example.chain.command.NamedCommand;
+import com.helluys.patterns.example.chain.processors.TextParser;
+
+public class MemoCacheTest {
+
+	@Test
+	public void lruEvictsLeastRecentlyUsed() {
+		final MemoCache<Integer, String> cache = new MemoCache<>(CacheSpec.lru(3));
+		for (int i = 0; i < 3; i++) {
+			cache.get(i, String::valueOf);
+		}
+		// Reads are recorded in batches: apply them before the next insertion
+		cache.getIfPresent(0);
+		cache.cleanUp();
+		cache.get(3, String::valueOf);
+		cache.cleanUp();
+
+		assertNotNull(cache.getIfPresent(0));
+		assertNull(cache.getIfPresent(1));
+		assertEquals(3, cache.size());
+		assertEquals(1, cache.stats().evictions());
+	}
+
+	@Test
+	public void frequencyRejectsOneOffKeys() {
+		final MemoCache<Integer, String> cache = new MemoCache<>(
+				CacheSpec.builder().eviction(Eviction.FREQUENCY).maximumSize(100).build());
+		for (int round = 0; round < 20; round++) {
+			for (int hot = 0; hot < 100; hot++) {
+				cache.get(hot, String::valueOf);
+			}
+			cache.cleanUp();
+		}
+		for (int scan = 1000; scan < 2000; scan++) {
+			cache.get(scan, String::valueOf);
+		}
+		cache.cleanUp();
+
+		int hotCached = 0;
+		for (int hot = 0; hot < 100; hot++) {
+			if (cache.getIfPresent(hot) != null) {
+				hotCached++;
+			}
+		}
+		assertTrue(hotCached + " hot keys cached", hotCached >= 90);
+		assertTrue(cache.size() <= 100);
+	}
+
+	@Test
+	public void expiry() {
+		final AtomicLong time = new AtomicLong();
+		final MemoCache<String, String> cache = new MemoCache<>(
+				CacheSpec.builder().expireAfterWrite(Duration.ofNanos(10)).ticker(time::get).build());
+		final AtomicInteger loads = new AtomicInteger();
+		final Function<String, String> loader = key -> key + loads.incrementAndGet();
+
+		assertEquals("a1", cache.get("a", loader));
+		time.set(9);
+		assertEquals("a1", cache.get("a", loader));
+		time.set(10);
+		assertEquals("a2", cache.get("a", loader));
+		assertEquals(1, cache.stats().expirations());
+		assertEquals(1, cache.stats().hits());
+		assertEquals(2, cache.stats().misses());
+	}
+
+	@Test
+	public void weightBound() {
+		final MemoCache<String, String> cache = new MemoCache<>(
+				CacheSpec.builder().maximumWeight(1000, Weigher.ESTIMATED_BYTES).build());
+		for (int i = 0; i < 100; i++) {
+			cache.get("key" + i, key -> key.repeat(10));
+		}
+		assertTrue(cache.weight() <= 1000);
+		assertTrue(cache.size() > 0);
+	}
+
+	@Test
+	public void concurrentLoad() throws InterruptedException {
+		final MemoCache<Integer, Integer> cache = new MemoCache<>(CacheSpec.lru(64));
+		final List<Thread> threads = new ArrayList<>();
+		final AtomicInteger wrong = new AtomicInteger();
+		for (int t = 0; t < 4; t++) {
+			final Thread thread = new Thread(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					final int key = ThreadLocalRandom.current().nextInt(128);
+					if (cache.get(key, k -> k * 2) != key * 2) {
+						wrong.incrementAndGet();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		cache.cleanUp();
+
+		assertEquals(0, wrong.get());
+		assertTrue(cache.size() <= 64);
+		assertEquals(cache.size(), cache.weight());
+		assertEquals(400_000, cache.stats().hits() + cache.stats().misses());
+	}
+
+	@Test
+	public void memoizedLink() {
+		final AtomicInteger parses = new AtomicInteger();
+		final List<Integer> lengths = new ArrayList<>();
+		final EndLink<String> link = Link.memoized((final String payload) -> {
+			parses.incrementAndGet();
+			return payload.length();
+		}, CacheSpec.lru(10), (EndLink<Integer>) lengths::add);
+
+		link.accept("heartbeat");
+		link.accept("heartbeat");
+		link.accept("retry");
+		link.accept("heartbeat");
+
+		assertEquals(List.of(9, 9, 5, 9), lengths);
+		assertEquals(2, parses.get());
+	}
+
+	@Test
+	public void memoizedByKey() {
+		final AtomicInteger parses = new AtomicInteger();
+		final Function<Command, Either<ErroneousCommand, NamedCommand>> parse = command -> {
+			parses.incrementAndGet();
+			return TextParser.parse(command);
+		};
+		final List<String> names = new ArrayList<>();
+		final EndLink<Command> link = Link.memoized(CommandKey::of, parse, CacheSpec.lru(10),
+				(EndLink<Either<ErroneousCommand, NamedCommand>>) parsed -> names.add(parsed.right().name()));
+		final List<String> texts = new ArrayList<>();
+		final Handler<Command> handler = Handler.memoizedMap(CommandKey::of, parse, CacheSpec.lru(10),
+				Handler.terminal(parsed -> texts.add(parsed.right().text())));
+
+		// Distinct commands, with equal content for the same source and payload
+		for (final String source : new String[] { "A", "A", "B", "A" }) {
+			link.accept(Command.of(source, "[HELLO]world"));
+			handler.handle(Command.of(source, "[HELLO]world"));
+		}
+
+		assertEquals(List.of("HELLO", "HELLO", "HELLO", "HELLO"), names);
+		assertEquals(List.of("world", "world", "world", "world"), texts);
+		assertEquals(4, parses.get());
+	}
+}
@@ -0,0 +1,180 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.dispatch.PartitionedDispatcher;
+import com.helluys.patterns.chain.link.EndLink;
+
+public class PartitionedDispatcherTest {
+	private final Map<Integer, List<Integer>> processed = new ConcurrentHashMap<>();
+	private final AtomicInteger count = new AtomicInteger();
+
+	@Test
+	public void keyOrder() throws Exception {
+		final PartitionedDispatcher<int[]> dispatcher = PartitionedDispatcher.<int[]> builder(c -> c[0]).lanes(4)
+				.queueCapacity(16).rebalanceEvery(64).build(EndLink.of(this::record));
+
+		final List<Thread> producers = new ArrayList<>();
+		for (int p = 0; p < 4; p++) {
+			final int producer = p;
+			producers.add(new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					dispatcher.process(new int[] { producer * 2 + i % 2, i });
+				}
+			}));
+		}
+		for (final Thread producer : producers) {
+			producer.start();
+		}
+		for (final Thread producer : producers) {
+			producer.join();
+		}
+		dispatcher.close();
+
+		assertEquals(4000, count.get());
+		for (int key = 0; key < 8; key++) {
+			final List<Integer> sequence = processed.get(key);
+			assertEquals(500, sequence.size());
+			for (int i = 0; i < sequence.size(); i++) {
+				assertEquals(2 * i + key % 2, sequence.get(i).intValue());
+			}
+		}
+		assertEquals(4, dispatcher.depths().length);
+	}
+
+	@Test
+	public void rebalance() {
+		final PartitionedDispatcher<int[]> dispatcher = PartitionedDispatcher.<int[]> builder(c -> c[0]).lanes(2)
+				.rebalanceEvery(10).build(EndLink.of(this::record));
+		assertEquals(dispatcher.laneOf(0), dispatcher.laneOf(2));
+
+		for (int i = 0; i < 200; i++) {
+			dispatcher.process(new int[] { i % 2 * 2, i });
+			while (count.get() <= i) {
+				Thread.onSpinWait();
+			}
+		}
+		dispatcher.close();
+
+		assertNotEquals(dispatcher.laneOf(0), dispatcher.laneOf(2));
+		assertEquals(100, processed.get(0).size());
+		assertEquals(100, processed.get(2).size());
+	}
+
+	@Test
+	public void evictsIdleRoutes() {
+		final PartitionedDispatcher<int[]> dispatcher = PartitionedDispatcher.<int[]> builder(c -> c[0]).lanes(2)
+				.rebalanceEvery(10).build(EndLink.of(this::record));
+		final int hashLane = dispatcher.laneOf(2);
+
+		int sent = 0;
+		for (int i = 0; i < 200; i++) {
+			dispatcher.process(new int[] { i % 2 * 2, sent++ });
+			while (count.get() < sent) {
+				Thread.onSpinWait();
+			}
+		}
+		assertNotEquals(dispatcher.laneOf(0), dispatcher.laneOf(2));
+
+		// Key 2 idles for two rebalancings: its route is dropped
+		for (int i = 0; i < 20; i++) {
+			dispatcher.process(new int[] { 0, sent++ });
+			while (count.get() < sent) {
+				Thread.onSpinWait();
+			}
+		}
+		dispatcher.close();
+
+		assertEquals(hashLane, dispatcher.laneOf(2));
+		assertEquals(100, processed.get(2).size());
+	}
+
+	@Test(timeout = 10_000)
+	public void keyChangedByProcessing() {
+		final EndLink<int[]> mutating = command -> {
+			record(command);
+			command[0] += 100;
+		};
+		final PartitionedDispatcher<int[]> dispatcher = PartitionedDispatcher.<int[]> builder(c -> c[0]).lanes(2)
+				.rebalanceEvery(10).build(mutating);
+
+		for (int i = 0; i < 200; i++) {
+			dispatcher.process(new int[] { i % 2 * 2, i });
+		}
+		dispatcher.close();
+
+		assertEquals(200, count.get());
+		assertEquals(100, processed.get(0).size());
+		assertEquals(100, processed.get(2).size());
+	}
+
+	@Test
+	public void nullKeys() {
+		final PartitionedDispatcher<int[]> dispatcher = PartitionedDispatcher
+				.<int[]> builder(c -> c[0] < 0 ? null : c[0]).lanes(4).rebalanceEvery(8).build(EndLink.of(this::record));
+
+		for (int i = 0; i < 100; i++) {
+			dispatcher.process(new int[] { i % 2 == 0 ? -1 : 1, i });
+		}
+		dispatcher.close();
+
+		assertEquals(0, dispatcher.laneOf(null));
+		assertEquals(50, processed.get(-1).size());
+		assertEquals(50, processed.get(1).size());
+	}
+
+	@Test
+	public void closeProcessesAcceptedCommands() throws Exception {
+		for (int run = 0; run < 20; run++) {
+			count.set(0);
+			final PartitionedDispatcher<int[]> dispatcher = PartitionedDispatcher.<int[]> builder(c -> c[0])
+					.lanes(2).queueCapacity(4).rebalanceEvery(16).build(EndLink.of(this::record));
+
+			final AtomicInteger accepted = new AtomicInteger();
+			final List<Thread> producers = new ArrayList<>();
+			for (int p = 0; p < 4; p++) {
+				final int producer = p;
+				producers.add(new Thread(() -> {
+					try {
+						for (int i = 0;; i++) {
+							dispatcher.accept(new int[] { producer, i });
+							accepted.incrementAndGet();
+						}
+					} catch (final RejectedExecutionException e) {
+						// Closed
+					}
+				}));
+			}
+			for (final Thread producer : producers) {
+				producer.start();
+			}
+			while (accepted.get() < 100) {
+				Thread.onSpinWait();
+			}
+			dispatcher.close();
+			for (final Thread producer : producers) {
+				producer.join();
+			}
+
+			assertTrue(accepted.get() >= 100);
+			assertEquals(accepted.get(), count.get());
+		}
+	}
+
+	private void record(final int[] command) {
+		processed.computeIfAbsent(command[0], k -> Collections.synchronizedList(new ArrayList<>())).add(command[1]);
+		count.incrementAndGet();
+	}
+}
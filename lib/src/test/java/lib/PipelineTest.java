@@ -0,0 +1,57 @@
+package lib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.dispatch.Pipeline;
+import com.helluys.patterns.chain.dispatch.WaitStrategy;
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+
+public class PipelineTest {
+
+	@Test
+	public void order() {
+		for (final WaitStrategy waitStrategy : WaitStrategy.values()) {
+			final List<Integer> evens = new ArrayList<>();
+			final List<Integer> odds = new ArrayList<>();
+			final Pipeline.Builder builder = Pipeline.builder().ringSize(4).waitStrategy(waitStrategy);
+			final EndLink<Integer> evenStage = builder.stage(EndLink.of(evens::add));
+			final EndLink<Integer> oddStage = builder.stage(EndLink.of(odds::add));
+			final Predicate<Integer> even = i -> i % 2 == 0;
+			final Function<Integer, Integer> times10 = i -> i * 10;
+			final Pipeline<Integer> pipeline = builder.build(Link.of(even, evenStage).chain(Link.of(times10, oddStage)));
+
+			for (int i = 0; i < 1000; i++) {
+				pipeline.process(i);
+			}
+			pipeline.close();
+
+			assertEquals(IntStream.range(0, 500).map(i -> 2 * i).boxed().collect(Collectors.toList()), evens);
+			assertEquals(IntStream.range(0, 500).map(i -> 20 * i + 10).boxed().collect(Collectors.toList()), odds);
+			assertArrayEquals(new int[3], pipeline.depths());
+		}
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void close() {
+		final List<Integer> handled = new ArrayList<>();
+		final Pipeline.Builder builder = Pipeline.builder();
+		final Pipeline<Integer> pipeline = builder.build(Handler.map(i -> i + 1, builder.stage(Handler.terminal(handled::add))));
+		pipeline.handle(0);
+		pipeline.close();
+		assertEquals(List.of(1), handled);
+		pipeline.handle(1);
+	}
+}
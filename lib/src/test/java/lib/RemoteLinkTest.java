@@ -0,0 +1,207 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.chain.remote.ChainServer;
+import com.helluys.patterns.chain.remote.RemoteEndLink;
+import com.helluys.patterns.chain.remote.RemoteLink;
+import com.helluys.patterns.chain.remote.RemoteProcessingException;
+import com.helluys.patterns.example.chain.command.ByteCommand;
+import com.helluys.patterns.example.chain.command.Command;
+
+public class RemoteLinkTest {
+
+	private static final InetSocketAddress LOOPBACK = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+	private static final Function<Command, ByteBuffer> ENCODER = command -> ByteCommand.frame(command.source(),
+			command.payload());
+
+	private final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+	private final List<AutoCloseable> resources = new ArrayList<>();
+
+	@After
+	public void close() throws Exception {
+		Collections.reverse(resources);
+		for (final AutoCloseable resource : resources) {
+			resource.close();
+		}
+	}
+
+	private <T extends AutoCloseable> T open(final T resource) {
+		resources.add(resource);
+		return resource;
+	}
+
+	/**
+	 * @return a server consuming the commands of source "a", and failing the
+	 *         commands of source "fail"
+	 */
+	private ChainServer<Command> server() throws IOException {
+		final Link<Command> link = command -> {
+			if (command.source().equals("fail")) {
+				throw new IllegalStateException("failed " + command.payload());
+			} else if (!command.source().equals("a")) {
+				return false;
+			}
+			processed.add(command.payload());
+			return true;
+		};
+		return open(ChainServer.<Command>builder().bind(LOOPBACK, ByteCommand::new, link));
+	}
+
+	@Test
+	public void returnsRemoteResult() throws IOException {
+		final ChainServer<Command> server = server();
+		final RemoteLink<Command> link = open(RemoteLink.<Command>builder().build(server.address(), ENCODER));
+
+		assertTrue(link.process(Command.of("a", "first")));
+		assertFalse(link.process(Command.of("b", "second")));
+		assertTrue(link.process(Command.of("a", "\u00e9t\u00e9")));
+
+		assertEquals(List.of("first", "\u00e9t\u00e9"), processed);
+		assertEquals(3, server.processed());
+	}
+
+	@Test
+	public void pipelinesBatchesInOrder() throws IOException {
+		final ChainServer<Command> server = server();
+		final RemoteLink<Command> link = open(RemoteLink.<Command>builder().linger(Duration.ofMillis(1))
+				.pipelineDepth(16).build(server.address(), ENCODER));
+
+		final List<Command> commands = new ArrayList<>();
+		final List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			commands.add(Command.of(i % 3 == 0 ? "b" : "a", "payload " + i));
+			if (i % 3 != 0) {
+				expected.add("payload " + i);
+			}
+		}
+		final BitSet consumed = link.processBatch(commands);
+
+		assertEquals(expected.size(), consumed.cardinality());
+		assertFalse(consumed.get(0));
+		assertTrue(consumed.get(1));
+		assertEquals(expected, processed);
+	}
+
+	@Test
+	public void poolsConnectionsAcrossThreads() throws Exception {
+		final ChainServer<Command> server = server();
+		final RemoteLink<Command> link = open(
+				RemoteLink.<Command>builder().connections(3).build(server.address(), ENCODER));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(6);
+		try {
+			final List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < 6; t++) {
+				final int thread = t;
+				results.add(executor.submit(() -> {
+					int consumed = 0;
+					for (int i = 0; i < 500; i++) {
+						if (link.process(Command.of(i % 2 == 0 ? "a" : "b", thread + ":" + i))) {
+							consumed++;
+						}
+					}
+					return consumed;
+				}));
+			}
+			for (final Future<Integer> result : results) {
+				assertEquals(250, result.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1500, processed.size());
+		assertTrue(server.connections() <= 3);
+	}
+
+	@Test
+	public void asynchronousResults() throws IOException {
+		final ChainServer<Command> server = server();
+		final RemoteLink<Command> link = open(RemoteLink.<Command>builder().build(server.address(), ENCODER));
+
+		final CompletableFuture<Boolean> first = link.processAsync(Command.of("a", "1"));
+		final CompletableFuture<Boolean> second = link.processAsync(Command.of("b", "2"));
+		assertTrue(first.join());
+		assertFalse(second.join());
+	}
+
+	@Test
+	public void reportsRemoteFailures() throws IOException {
+		final ChainServer<Command> server = server();
+		final RemoteLink<Command> link = open(RemoteLink.<Command>builder().build(server.address(), ENCODER));
+
+		final RemoteProcessingException failure = assertThrows(RemoteProcessingException.class,
+				() -> link.process(Command.of("fail", "command")));
+		assertEquals("java.lang.IllegalStateException: failed command", failure.getMessage());
+		assertTrue(link.process(Command.of("a", "after failure")));
+	}
+
+	@Test
+	public void endLinkPipelinesWithoutWaiting() throws IOException {
+		final List<String> received = Collections.synchronizedList(new ArrayList<>());
+		final EndLink<Command> endLink = command -> received.add(command.payload());
+		final ChainServer<Command> server = open(
+				ChainServer.<Command>builder().bind(LOOPBACK, ByteCommand::new, endLink));
+
+		final List<String> expected = new ArrayList<>();
+		try (RemoteEndLink<Command> remote = RemoteLink.<Command>builder().connections(1)
+				.buildEndLink(server.address(), ENCODER)) {
+			for (int i = 0; i < 5000; i++) {
+				remote.accept(Command.of("any", Integer.toString(i)));
+				expected.add(Integer.toString(i));
+			}
+			remote.flush();
+			assertEquals(0, remote.failures());
+		}
+		assertEquals(expected, received);
+	}
+
+	@Test
+	public void endLinkThrowsFirstFailureOnClose() throws IOException {
+		final ChainServer<Command> server = server();
+		final RemoteEndLink<Command> remote = RemoteLink.<Command>builder().buildEndLink(server.address(), ENCODER);
+
+		remote.accept(Command.of("a", "ok"));
+		remote.accept(Command.of("fail", "first"));
+		remote.accept(Command.of("fail", "second"));
+
+		assertThrows(RemoteProcessingException.class, remote::close);
+		assertEquals(2, remote.failures());
+	}
+
+	@Test
+	public void failsWhenServerIsDown() throws IOException {
+		final ChainServer<Command> server = server();
+		final RemoteLink<Command> link = open(RemoteLink.<Command>builder().timeout(Duration.ofSeconds(5))
+				.build(server.address(), ENCODER));
+		assertTrue(link.process(Command.of("a", "before")));
+
+		server.close();
+		assertThrows(UncheckedIOException.class, () -> link.process(Command.of("a", "after")));
+		assertThrows(UncheckedIOException.class, () -> link.process(Command.of("a", "reconnecting")));
+	}
+}
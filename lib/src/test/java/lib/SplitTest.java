@@ -0,0 +1,72 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.handler.Handler;
+import com.helluys.patterns.chain.link.EndLink;
+import com.helluys.patterns.chain.link.Link;
+import com.helluys.patterns.common.Either;
+import com.helluys.patterns.common.Splitter;
+
+public class SplitTest {
+	private final List<String> lefts = new ArrayList<>();
+	private final List<Integer> rights = new ArrayList<>();
+
+	private final Splitter<Integer, String, Integer> sign = (v, left, right) -> v < 0 ? left.test("negative " + v)
+			: right.test(v * 2);
+
+	@Test
+	public void link() {
+		final Predicate<String> any = v -> true;
+		final Predicate<Integer> small = v -> v < 10;
+		final Link<Integer> link = Link.split(sign, Link.of(any, lefts::add), Link.of(small, rights::add));
+
+		assertTrue(link.process(-1));
+		assertTrue(link.process(3));
+		assertFalse(link.process(7));
+		assertEquals(List.of("negative -1"), lefts);
+		assertEquals(List.of(6), rights);
+
+		final BitSet consumed = link.processBatch(List.of(1, -2, 8, 4));
+		assertEquals(BitSet.valueOf(new long[] { 0b1011 }), consumed);
+		assertEquals(List.of("negative -1", "negative -2"), lefts);
+		assertEquals(List.of(6, 2, 8), rights);
+	}
+
+	@Test
+	public void endLinkAndHandler() {
+		final EndLink<Integer> endLink = Link.split(sign, EndLink.of(lefts::add), EndLink.of(rights::add));
+		endLink.process(-1);
+		endLink.processBatch(List.of(1, -2));
+		final Handler<Integer> handler = Handler.split(sign, Handler.terminal(lefts::add),
+				Handler.terminal(rights::add));
+		handler.handle(2);
+		handler.handleBatch(List.of(-3, 3));
+
+		assertEquals(List.of("negative -1", "negative -2", "negative -3"), lefts);
+		assertEquals(List.of(2, 4, 6), rights);
+	}
+
+	@Test
+	public void either() {
+		final Either<String, Integer> left = Either.ofLeft("a");
+		final Either<String, Integer> right = Either.ofRight(1);
+
+		assertEquals(Either.ofLeft("a"), left);
+		assertEquals(Either.ofRight(1), right);
+		assertFalse(left.equals(Either.ofRight("a")));
+		assertEquals(Either.ofLeft("aa"), left.map(v -> v + v, v -> v + 1));
+		assertEquals(Either.ofRight(2), right.map(v -> v + v, v -> v + 1));
+		assertEquals("a", left.reduce(v -> v, String::valueOf));
+		assertTrue(right instanceof Either.Right);
+	}
+}
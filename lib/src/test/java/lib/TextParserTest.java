@@ -0,0 +1,71 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.helluys.patterns.example.chain.processors.TextParser;
+
+public class TextParserTest {
+	private static final Pattern TEXT_PATTERN = Pattern.compile("\\[([A-Z]*)](.*)");
+	private static final char[] ALPHABET = { '[', ']', 'A', 'M', 'Z', '@', '\\', 'a', 'z', '0', ' ', '.', '\t', '\n',
+			'\r', '\u0085', '\u2028', '\u2029', '\u00e9', '\ud83d' };
+
+	@Test
+	public void sameAsRegex() {
+		final Random random = new Random(42L);
+		for (int i = 0; i < 200_000; i++) {
+			final StringBuilder payload = new StringBuilder();
+			// Most valid payloads start like one
+			if (random.nextInt(4) != 0) {
+				payload.append('[');
+			}
+			final int length = random.nextInt(12);
+			for (int j = 0; j < length; j++) {
+				payload.append(random.nextInt(3) == 0 ? ALPHABET[random.nextInt(ALPHABET.length)]
+						: (char) ('A' + random.nextInt(26)));
+			}
+			if (random.nextBoolean()) {
+				payload.insert(Math.min(payload.length(), random.nextInt(6)), ']');
+			}
+			assertSameAsRegex(payload.toString());
+		}
+	}
+
+	@Test
+	public void edgeCases() {
+		for (final String payload : new String[] { "", "[", "]", "[]", "[]text", "[A]", "[A]]", "[a]text", "[A]\n",
+				"[A]text\r\n", "[A\n]text", "[A]x\u2028", " [A]text", "[AB]C]text", "[[A]]text" }) {
+			assertSameAsRegex(payload);
+		}
+	}
+
+	@Test
+	public void charBufferSlice() {
+		final CharBuffer buffer = CharBuffer.wrap("xx[NAME]some text yy");
+		buffer.position(2).limit(buffer.limit() - 3);
+		final CharBuffer slice = buffer.slice();
+
+		final int end = TextParser.scan(slice);
+		assertEquals(5, end);
+		assertEquals("NAME", TextParser.name(slice, end).toString());
+		assertEquals("some text", TextParser.text(slice, end).toString());
+	}
+
+	private static void assertSameAsRegex(final String payload) {
+		final Matcher matcher = TEXT_PATTERN.matcher(payload);
+		final int end = TextParser.scan(payload);
+		if (matcher.matches()) {
+			assertEquals(payload, matcher.end(1), end);
+			assertEquals(payload, matcher.group(1), TextParser.name(payload, end).toString());
+			assertEquals(payload, matcher.group(2), TextParser.text(payload, end).toString());
+		} else {
+			assertEquals(payload, -1, end);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package lib;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.helluys.patterns.chain.trace.LinkVisitEvent;
+import com.helluys.patterns.chain.trace.Tracer;
+import com.helluys.patterns.example.chain.link.CommandChain;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class TracerTest {
+	private final PrintStream originalOut = System.out;
+
+	@Before
+	public void setUp() {
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@Test
+	public void paths() throws IOException {
+		final List<RecordedEvent> events = record(new Tracer(1), chain -> {
+			chain.process("text", "[A]payload");
+			chain.process("json", "(A)payload");
+		});
+
+		final Map<Long, List<String>> paths = events.stream()
+				.sorted(Comparator.comparing(RecordedEvent::getStartTime)
+						.thenComparing(event -> event.getInt("depth")))
+				.collect(groupingBy(event -> event.getLong("traceId"),
+						mapping(event -> event.getInt("depth") + " " + event.getString("node") + " "
+								+ event.getString("outcome"), toList())));
+
+		assertEquals(2, paths.size());
+		assertEquals(Stream.of(List.of("0 chain visit", "1 text visit", "2 dispatch visit", "3 A visit"),
+				List.of("0 chain visit", "1 json visit", "2 erroneous visit")).collect(toSet()),
+				paths.values().stream().collect(toSet()));
+	}
+
+	@Test
+	public void notSampled() throws IOException {
+		assertEquals(List.of(), record(new Tracer(0), chain -> chain.process("text", "[A]payload")));
+	}
+
+	private static List<RecordedEvent> record(final Tracer tracer, final ChainRun run) throws IOException {
+		final CommandChain chain = new CommandChain(Stream.of("text").collect(toSet()),
+				Stream.of("json").collect(toSet()), tracer);
+		// Commands are not sampled while no recording is enabled
+		chain.process("text", "[B]payload");
+
+		final Path file = Files.createTempFile("trace", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(LinkVisitEvent.NAME).withThreshold(Duration.ZERO);
+			recording.start();
+			run.run(chain);
+			recording.stop();
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().equals(LinkVisitEvent.NAME)).collect(toList());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private interface ChainRun {
+		void run(CommandChain chain);
+	}
+
+	@After
+	public void tearDown() {
+		System.setOut(originalOut);
+	}
+}
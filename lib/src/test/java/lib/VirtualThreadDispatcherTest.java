@@ -0,0 +1,90 @@
+package lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helluys.patterns.chain.dispatch.VirtualThreadDispatcher;
+import com.helluys.patterns.chain.link.EndLink;
+
+public class VirtualThreadDispatcherTest {
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger maxRunning = new AtomicInteger();
+	private final AtomicInteger processed = new AtomicInteger();
+
+	@Test
+	public void concurrencyLimit() throws Exception {
+		final VirtualThreadDispatcher<Integer> dispatcher = VirtualThreadDispatcher.of(EndLink.of(this::block), 4);
+		for (int i = 0; i < 50; i++) {
+			dispatcher.process(i);
+		}
+
+		assertTrue(dispatcher.awaitDrain(10, TimeUnit.SECONDS));
+		assertEquals(0, dispatcher.inFlight());
+		assertEquals(50, processed.get());
+		assertTrue(maxRunning.get() <= 4);
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void close() {
+		final VirtualThreadDispatcher<Integer> dispatcher = VirtualThreadDispatcher.of(EndLink.of(this::block), 4);
+		dispatcher.process(0);
+		dispatcher.close();
+		assertEquals(1, processed.get());
+		dispatcher.process(1);
+	}
+
+	@Test
+	public void closeRacingAccept() throws Exception {
+		for (int run = 0; run < 10; run++) {
+			processed.set(0);
+			final VirtualThreadDispatcher<Integer> dispatcher = VirtualThreadDispatcher.of(EndLink.of(this::block),
+					2);
+
+			final AtomicInteger accepted = new AtomicInteger();
+			final List<Thread> producers = new ArrayList<>();
+			for (int p = 0; p < 4; p++) {
+				producers.add(new Thread(() -> {
+					try {
+						for (int i = 0;; i++) {
+							dispatcher.accept(i);
+							accepted.incrementAndGet();
+						}
+					} catch (final RejectedExecutionException e) {
+						// Closed
+					}
+				}));
+			}
+			for (final Thread producer : producers) {
+				producer.start();
+			}
+			Thread.sleep(20);
+			dispatcher.close();
+			final int processedOnClose = processed.get();
+			for (final Thread producer : producers) {
+				producer.join();
+			}
+
+			assertEquals(0, dispatcher.inFlight());
+			assertEquals(accepted.get(), processedOnClose);
+		}
+	}
+
+	private void block(final Integer command) {
+		maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+		try {
+			Thread.sleep(5);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		running.decrementAndGet();
+		processed.incrementAndGet();
+	}
+}